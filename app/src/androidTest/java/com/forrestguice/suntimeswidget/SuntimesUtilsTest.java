@@ -33,6 +33,7 @@ import com.forrestguice.suntimeswidget.calculator.SuntimesMoonData;
 import com.forrestguice.suntimeswidget.calculator.SuntimesRiseSetData;
 import com.forrestguice.suntimeswidget.calculator.SuntimesRiseSetDataset;
 import com.forrestguice.suntimeswidget.settings.AppSettings;
+import com.forrestguice.suntimeswidget.settings.SolarEvents;
 import com.forrestguice.suntimeswidget.settings.WidgetSettings;
 
 import org.junit.Before;
@@ -424,6 +425,30 @@ public class SuntimesUtilsTest
         }
     }
 
+    @Test
+    public void test_titlePattern_compile()
+    {
+        TitlePattern pattern0 = TitlePattern.compile("%m @ %loc%dY%d (%et@sr, %eA@b4s) %%d %x");
+        String[] expected = new String[] { "%m", " @ ", "%loc", "%dY", "%d", " (", "%et@sr", ", ", "%eA@b4s", ") ", "%%", "d %x" };
+        assertTrue("token count should be " + expected.length, pattern0.getTokenCount() == expected.length);
+        for (int i=0; i<expected.length; i++) {
+            assertTrue("token " + i + " should be " + expected[i], pattern0.getToken(i).getText().equals(expected[i]));
+        }
+        assertTrue(pattern0.getToken(6).getType() == TitlePattern.Token.TYPE_EVENT);
+        assertTrue(pattern0.getToken(6).getEvent() == SolarEvents.SUNRISE);
+        assertTrue(pattern0.getToken(8).getEvent() == SolarEvents.EVENING_BLUE4);
+        assertTrue(pattern0.getToken(11).getType() == TitlePattern.Token.TYPE_TEXT);
+        assertTrue("compile should return the cached pattern", TitlePattern.compile("%m @ %loc%dY%d (%et@sr, %eA@b4s) %%d %x") == pattern0);
+
+        String result0 = pattern0.render(new TitlePattern.TokenResolver() {
+            @Override
+            public String resolve(TitlePattern.Token token) {
+                return (token.getType() == TitlePattern.Token.TYPE_PATTERN ? "[" + token.getText() + "]" : null);
+            }
+        });
+        assertTrue("unresolved tokens should be output as-is", result0.equals("[%m] @ [%loc][%dY][%d] (%et@sr, %eA@b4s) [%%]d %x"));
+    }
+
     @Test
     public void test_initDisplayStrings_executionTime()
     {
@@ -523,4 +548,76 @@ public class SuntimesUtilsTest
         assertTrue("calendarDateTimeDisplay takes less than " + threshold_millis + " ms .. took " + bench_millis, bench_millis < threshold_millis);
     }
 
+    @Test
+    public void test_timeFormatCache_executionTime()
+    {
+        SuntimesUtils.initDisplayStrings(mockContext);
+        String pattern = "MMMM d, HH:mm:ss";
+        Locale locale = Locale.getDefault();
+        TimeZone[] zones = new TimeZone[] { TimeZone.getTimeZone("US/Arizona"), TimeZone.getTimeZone("Europe/Berlin") };
+        long utcMillis = 1493315892762L;                          // april 27
+
+        int n = 1000;
+        long bench_start = System.nanoTime();
+        for (int i = 0; i < n; i++)
+        {
+            SimpleDateFormat format = new SimpleDateFormat(pattern, locale);    // today's path; new formatter and Date for each call
+            format.setTimeZone(zones[i % 2]);
+            String text = format.format(new Date(utcMillis + i));
+        }
+        double bench_uncached = ((System.nanoTime() - bench_start) / 1000000.0) / n;
+
+        bench_start = System.nanoTime();
+        for (int i = 0; i < n; i++) {
+            String text = TimeFormatCache.format(pattern, locale, zones[i % 2], utcMillis + i);
+        }
+        double bench_cached = ((System.nanoTime() - bench_start) / 1000000.0) / n;
+
+        Log.d("SuntimesUtilsTest", "avg format (new SimpleDateFormat) in " + bench_uncached + " ms, avg format (TimeFormatCache) in " + bench_cached + " ms");
+        assertTrue("TimeFormatCache should be faster than creating a new SimpleDateFormat .. " + bench_cached + " vs " + bench_uncached, bench_cached < bench_uncached);
+
+        for (TimeZone zone : zones)
+        {
+            SimpleDateFormat format = new SimpleDateFormat(pattern, locale);
+            format.setTimeZone(zone);
+            assertTrue("TimeFormatCache should apply the timezone", TimeFormatCache.format(pattern, locale, zone, utcMillis).equals(format.format(new Date(utcMillis))));
+        }
+    }
+
+    @Test
+    public void test_timeFormatCache_threads() throws InterruptedException
+    {
+        final String pattern = "yyyy-MM-dd HH:mm:ss";
+        final TimeZone timezone = TimeZone.getTimeZone("UTC");
+        final long utcMillis = 1493315892000L;
+        final boolean[] failed = new boolean[] { false };
+
+        Thread[] threads = new Thread[4];
+        for (int j = 0; j < threads.length; j++)
+        {
+            final int offset = j;
+            threads[j] = new Thread(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    SimpleDateFormat expected = new SimpleDateFormat(pattern, Locale.US);
+                    expected.setTimeZone(timezone);
+                    for (int i = 0; i < 1000; i++)
+                    {
+                        long millis = utcMillis + ((offset * 1000L + i) * 60 * 1000);
+                        if (!TimeFormatCache.format(pattern, Locale.US, timezone, millis).equals(expected.format(new Date(millis)))) {
+                            failed[0] = true;
+                        }
+                    }
+                }
+            });
+            threads[j].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue("TimeFormatCache should produce the same result from concurrent threads", !failed[0]);
+    }
+
 }
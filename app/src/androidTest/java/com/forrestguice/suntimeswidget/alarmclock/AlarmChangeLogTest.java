@@ -0,0 +1,61 @@
+/**
+    Copyright (C) 2022 Forrest Guice
+    This file is part of SuntimesWidget.
+
+    SuntimesWidget is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SuntimesWidget is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SuntimesWidget.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.forrestguice.suntimeswidget.alarmclock;
+
+import android.support.test.runner.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.List;
+
+import static org.junit.Assert.assertTrue;
+
+@RunWith(AndroidJUnit4.class)
+public class AlarmChangeLogTest
+{
+    @Test
+    public void test_changesSince()
+    {
+        AlarmChangeLog changeLog = new AlarmChangeLog();
+        long token0 = changeLog.currentToken();
+        assertTrue("no changes", changeLog.changesSince(token0).isEmpty());
+        assertTrue("unknown token", changeLog.changesSince(token0 + 1) == null);
+        assertTrue("expired token", changeLog.changesSince(token0 - 1) == null);
+
+        long token1 = changeLog.record(1, SuntimesAlarmsContract.CHANGE_INSERT);
+        changeLog.record(1, SuntimesAlarmsContract.CHANGE_UPDATE);
+        changeLog.record(2, SuntimesAlarmsContract.CHANGE_DELETE);
+
+        List<AlarmChangeLog.Change> changes = changeLog.changesSince(token0);
+        assertTrue("3 changes", changes != null && changes.size() == 3);
+        assertTrue("ordered", changes.get(0).token == token1 && changes.get(2).alarmID == 2);
+        assertTrue("since token1", changeLog.changesSince(token1).size() == 2);
+        assertTrue("current", changeLog.changesSince(changeLog.currentToken()).isEmpty());
+
+        for (int i=0; i<AlarmChangeLog.MAX_CHANGES; i++) {
+            changeLog.record(3, SuntimesAlarmsContract.CHANGE_STATE);
+        }
+        assertTrue("discarded changes; token expired", changeLog.changesSince(token0) == null);
+
+        long token2 = changeLog.currentToken();
+        changeLog.record(-1, SuntimesAlarmsContract.CHANGE_RESET);
+        assertTrue("reset", changeLog.changesSince(token2) == null);
+    }
+}
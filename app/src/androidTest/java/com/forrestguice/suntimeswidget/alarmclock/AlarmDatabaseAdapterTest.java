@@ -326,6 +326,25 @@ public class AlarmDatabaseAdapterTest
         db.close();
     }
 
+    @Test
+    public void test_findUpcomingAlarmIds()
+    {
+        db.open();
+        long[] rowID = populateDatabase();    // enabled alarms: [0] (alarmtime 0), [4] (alarmtime 4)
+
+        Long[] upcoming = db.findUpcomingAlarmIds(-1, 0);
+        assertTrue("should find 2 upcoming alarms (found " + upcoming.length + ")", upcoming.length == 2);
+        assertTrue("ordered by alarm time", upcoming[0] == rowID[0] && upcoming[1] == rowID[4]);
+
+        upcoming = db.findUpcomingAlarmIds(-1, 1);
+        assertTrue("should be limited to 1", upcoming.length == 1 && upcoming[0] == rowID[0]);
+
+        Long upcomingId = db.findUpcomingAlarmId(0);
+        assertTrue("next alarm should be " + rowID[4] + " (was " + upcomingId + ")", upcomingId != null && upcomingId == rowID[4]);
+        assertTrue("no alarms after the last", db.findUpcomingAlarmId(4) == null);
+        db.close();
+    }
+
     protected long[] populateDatabase()
     {
         int c = 0;
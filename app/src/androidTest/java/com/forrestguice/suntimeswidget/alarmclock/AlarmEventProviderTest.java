@@ -0,0 +1,196 @@
+/**
+    Copyright (C) 2022 Forrest Guice
+    This file is part of SuntimesWidget.
+
+    SuntimesWidget is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SuntimesWidget is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SuntimesWidget.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.forrestguice.suntimeswidget.alarmclock;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.database.Cursor;
+import android.net.Uri;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.test.RenamingDelegatingContext;
+
+import com.forrestguice.suntimeswidget.calculator.core.CalculatorProviderContract;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.TimeZone;
+
+import static com.forrestguice.suntimeswidget.alarmclock.AlarmEventContract.AUTHORITY;
+import static com.forrestguice.suntimeswidget.alarmclock.AlarmEventContract.COLUMN_EVENT_NAME;
+import static com.forrestguice.suntimeswidget.alarmclock.AlarmEventContract.COLUMN_EVENT_TIMEMILLIS;
+import static com.forrestguice.suntimeswidget.alarmclock.AlarmEventContract.EXTRA_ALARM_EVENTS;
+import static com.forrestguice.suntimeswidget.alarmclock.AlarmEventContract.EXTRA_ALARM_NOW;
+import static com.forrestguice.suntimeswidget.alarmclock.AlarmEventContract.EXTRA_ALARM_OFFSET;
+import static com.forrestguice.suntimeswidget.alarmclock.AlarmEventContract.EXTRA_ALARM_OFFSETS;
+import static com.forrestguice.suntimeswidget.alarmclock.AlarmEventContract.QUERY_EVENT_CALC;
+import static com.forrestguice.suntimeswidget.alarmclock.AlarmEventContract.QUERY_EVENT_CALC_BULK;
+import static com.forrestguice.suntimeswidget.alarmclock.AlarmEventContract.QUERY_EVENT_CALC_PROJECTION;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(AndroidJUnit4.class)
+public class AlarmEventProviderTest
+{
+    public static final String TEST_LATITUDE = "33.45";      // Phoenix
+    public static final String TEST_LONGITUDE = "-112.07";
+
+    private Context mockContext;
+    private long TEST_NOW;
+
+    @Before
+    public void setup()
+    {
+        mockContext = new RenamingDelegatingContext(InstrumentationRegistry.getTargetContext(), "test_");
+        Calendar now = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        now.set(2022, 5, 1, 0, 0, 0);
+        TEST_NOW = now.getTimeInMillis();
+    }
+
+    @Test
+    public void test_getListValues()
+    {
+        assertEquals(0, AlarmEventProvider.getListValues(null).size());
+        assertEquals(0, AlarmEventProvider.getListValues("[]").size());
+        assertEquals(0, AlarmEventProvider.getListValues("[]", true).size());
+
+        ArrayList<String> values0 = AlarmEventProvider.getListValues("[SUNRISE, SUNSET]");
+        assertEquals(2, values0.size());
+        assertEquals("SUNRISE", values0.get(0));
+        assertEquals("SUNSET", values0.get(1));
+
+        ArrayList<String> values1 = AlarmEventProvider.getListValues("[0,,-60000]");
+        assertEquals(2, values1.size());
+        assertEquals("-60000", values1.get(1));
+
+        ArrayList<String> values2 = AlarmEventProvider.getListValues("[0,,-60000]", true);    // empty elements keep their position
+        assertEquals(3, values2.size());
+        assertEquals("0", values2.get(0));
+        assertEquals("", values2.get(1));
+        assertEquals("-60000", values2.get(2));
+
+        ArrayList<String> values3 = AlarmEventProvider.getListValues("[,-600000,]", true);
+        assertEquals(3, values3.size());
+        assertEquals("", values3.get(0));
+        assertEquals("-600000", values3.get(1));
+        assertEquals("", values3.get(2));
+    }
+
+    @Test
+    public void test_query_eventCalcBulk()
+    {
+        ContentResolver resolver = mockContext.getContentResolver();
+        assertNotNull("Unable to getContentResolver!", resolver);
+
+        String[] eventIDs = new String[] { "SUNSET", "SUNRISE", "INVALID_EVENT", "NOON", "MOONRISE" };
+        String[] offsets = new String[] { "-600000", "", "0", "", "60000" };    // "" uses EXTRA_ALARM_OFFSET
+        String defaultOffset = "-300000";
+
+        Uri uri = Uri.parse("content://" + AUTHORITY + "/" + QUERY_EVENT_CALC_BULK);
+        String selection = selection(defaultOffset) + " AND " + EXTRA_ALARM_EVENTS + "=?" + " AND " + EXTRA_ALARM_OFFSETS + "=?";
+        String[] selectionArgs = new String[] { "[" + join(eventIDs) + "]", "[" + join(offsets) + "]" };
+        Cursor cursor = resolver.query(uri, QUERY_EVENT_CALC_PROJECTION, selection, selectionArgs, null);
+        assertNotNull(cursor);
+        assertEquals("one row per requested event", eventIDs.length, cursor.getCount());
+
+        cursor.moveToFirst();
+        for (int i=0; i<eventIDs.length; i++)
+        {
+            String eventID = cursor.getString(cursor.getColumnIndex(COLUMN_EVENT_NAME));
+            assertEquals("rows should be in the requested order", eventIDs[i], eventID);
+
+            int timeIndex = cursor.getColumnIndex(COLUMN_EVENT_TIMEMILLIS);
+            if (eventIDs[i].equals("INVALID_EVENT")) {
+                assertTrue("unrecognized events should have a null time", cursor.isNull(timeIndex));
+
+            } else {
+                String offset = (offsets[i].isEmpty() ? defaultOffset : offsets[i]);
+                Long expected = queryEventCalc(resolver, eventID, offset);
+                assertNotNull(expected);
+                assertEquals(eventID + " (offset " + offset + ") should match eventCalc", (long) expected, cursor.getLong(timeIndex));
+            }
+            cursor.moveToNext();
+        }
+        cursor.close();
+    }
+
+    @Test
+    public void test_query_eventCalcBulk_missingOffsets()
+    {
+        ContentResolver resolver = mockContext.getContentResolver();
+        String[] eventIDs = new String[] { "SUNRISE", "SUNSET", "NOON" };
+        String defaultOffset = "-120000";
+
+        Uri uri = Uri.parse("content://" + AUTHORITY + "/" + QUERY_EVENT_CALC_BULK);
+        String selection = selection(defaultOffset) + " AND " + EXTRA_ALARM_EVENTS + "=?" + " AND " + EXTRA_ALARM_OFFSETS + "=?";
+        String[] selectionArgs = new String[] { "[" + join(eventIDs) + "]", "[60000]" };    // fewer offsets than events
+        Cursor cursor = resolver.query(uri, QUERY_EVENT_CALC_PROJECTION, selection, selectionArgs, null);
+        assertNotNull(cursor);
+        assertEquals(eventIDs.length, cursor.getCount());
+
+        cursor.moveToFirst();
+        for (int i=0; i<eventIDs.length; i++)
+        {
+            String offset = (i == 0 ? "60000" : defaultOffset);
+            Long expected = queryEventCalc(resolver, eventIDs[i], offset);
+            assertNotNull(expected);
+            assertEquals(eventIDs[i], cursor.getString(cursor.getColumnIndex(COLUMN_EVENT_NAME)));
+            assertEquals((long) expected, cursor.getLong(cursor.getColumnIndex(COLUMN_EVENT_TIMEMILLIS)));
+            cursor.moveToNext();
+        }
+        cursor.close();
+    }
+
+    private Long queryEventCalc(ContentResolver resolver, String eventID, String offset)
+    {
+        Uri uri = Uri.parse("content://" + AUTHORITY + "/" + QUERY_EVENT_CALC + "/" + eventID);
+        Cursor cursor = resolver.query(uri, QUERY_EVENT_CALC_PROJECTION, selection(offset), null, null);
+        Long retValue = null;
+        if (cursor != null)
+        {
+            if (cursor.moveToFirst()) {
+                retValue = cursor.getLong(cursor.getColumnIndex(COLUMN_EVENT_TIMEMILLIS));
+            }
+            cursor.close();
+        }
+        return retValue;
+    }
+
+    private String selection(String offset)
+    {
+        return CalculatorProviderContract.COLUMN_CONFIG_LATITUDE + "=" + TEST_LATITUDE
+                + " AND " + CalculatorProviderContract.COLUMN_CONFIG_LONGITUDE + "=" + TEST_LONGITUDE
+                + " AND " + EXTRA_ALARM_NOW + "=" + TEST_NOW
+                + " AND " + EXTRA_ALARM_OFFSET + "=" + offset;
+    }
+
+    private static String join(String[] values)
+    {
+        StringBuilder s = new StringBuilder();
+        for (int i=0; i<values.length; i++) {
+            s.append(i > 0 ? "," : "").append(values[i]);
+        }
+        return s.toString();
+    }
+}
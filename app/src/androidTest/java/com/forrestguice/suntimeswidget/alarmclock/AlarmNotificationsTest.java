@@ -337,6 +337,25 @@ public class AlarmNotificationsTest
     ////////////////////////////////////////////////////////////////////////////////////////////////
     ////////////////////////////////////////////////////////////////////////////////////////////////
 
+    @Test
+    public void test_calculateAlarmTime_calculatorCache()
+    {
+        AlarmClockItem[] items = AlarmDatabaseAdapterTest.createTestItems();    // [0] SUNRISE, [1] SUNSET, [4] MOONRISE (same location)
+        AlarmNotifications.CalculatorCache calculators = new AlarmNotifications.CalculatorCache();
+        Calendar now = Calendar.getInstance();
+
+        for (int i : new int[] {0, 1, 4})
+        {
+            Calendar expected = AlarmNotifications.calculateAlarmTime(mockContext, items[i], now);
+            Calendar result = AlarmNotifications.calculateAlarmTime(mockContext, items[i], now, calculators);
+            assertNotNull(result);
+            assertEquals("shared calculator should give the same result (" + items[i].getEvent() + ")", expected.getTimeInMillis(), result.getTimeInMillis());
+            if (i == 1) {
+                assertEquals("sun events should share a calculator", 1, calculators.size());
+            }
+        }
+    }
+
     @Test
     public void test_getServiceIntent()
     {
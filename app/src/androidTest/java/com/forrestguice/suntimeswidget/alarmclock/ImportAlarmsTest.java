@@ -28,6 +28,7 @@ import android.support.test.InstrumentationRegistry;
 import android.support.test.filters.LargeTest;
 import android.support.test.runner.AndroidJUnit4;
 import android.test.RenamingDelegatingContext;
+import android.util.JsonWriter;
 
 import com.forrestguice.suntimeswidget.ExportTask;
 import com.forrestguice.suntimeswidget.SuntimesActivityTestBase;
@@ -38,8 +39,10 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStreamWriter;
 import java.util.ArrayList;
 import java.util.HashMap;
 
@@ -148,6 +151,45 @@ public class ImportAlarmsTest extends SuntimesActivityTestBase
         }
     }
 
+    @Test
+    public void test_writeAlarmClockItems()
+    {
+        AlarmClockItem[] items0 = AlarmDatabaseAdapterTest.createTestItems();
+        for (AlarmClockItem item : items0) {
+            AlarmNotifications.updateAlarmTime(mockContext, item);
+        }
+
+        try {
+            // streamed to json array
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            JsonWriter writer = new JsonWriter(new OutputStreamWriter(out, "UTF-8"));
+            writer.beginArray();
+            for (AlarmClockItem item : items0) {
+                AlarmClockItemImportTask.AlarmClockItemJson.writeAlarmClockItem(writer, item);
+            }
+            writer.endArray();
+            writer.close();
+
+            // and streamed back again
+            final ArrayList<AlarmClockItem> items = new ArrayList<>();
+            InputStream in = new ByteArrayInputStream(out.toByteArray());
+            AlarmClockItemImportTask.AlarmClockItemJson.readAlarmClockItems(mockContext, in, new AlarmClockItemImportTask.AlarmClockItemJson.ItemListener()
+            {
+                @Override
+                public void onItemRead(AlarmClockItem item) {
+                    items.add(item);
+                }
+            });
+            assertEquals(items0.length, items.size());
+            for (int i=0; i <items0.length; i++) {
+                test_equals(items0[i], items.get(i));
+            }
+
+        } catch (IOException e) {
+            fail("IOException! " + e);
+        }
+    }
+
     @Test
     public void test_readAlarmClockItems1()
     {
@@ -0,0 +1,109 @@
+/**
+    Copyright (C) 2022 Forrest Guice
+    This file is part of SuntimesWidget.
+
+    SuntimesWidget is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SuntimesWidget is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SuntimesWidget.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.forrestguice.suntimeswidget.calculator;
+
+import android.content.Context;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.test.RenamingDelegatingContext;
+
+import com.forrestguice.suntimeswidget.calculator.core.SuntimesCalculator;
+import com.forrestguice.suntimeswidget.calculator.time4a.Time4A4JSuntimesCalculator;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Calendar;
+import java.util.Random;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertTrue;
+
+@RunWith(AndroidJUnit4.class)
+public class MoonPhaseTimelineTest
+{
+    public static final TimeZone TEST_TIMEZONE = TimeZone.getTimeZone("US/Arizona");
+    public static final long TOLERANCE_MILLIS = 60 * 1000;
+
+    private Context mockContext;
+
+    @Before
+    public void setup() {
+        mockContext = new RenamingDelegatingContext(InstrumentationRegistry.getTargetContext(), "test_");
+    }
+
+    @Test
+    public void test_generate()
+    {
+        SuntimesCalculatorFactory factory = new SuntimesCalculatorFactory(mockContext, Time4A4JSuntimesCalculator.getDescriptor());
+        SuntimesCalculator calculator = factory.createCalculator(SunPathSamplerTest.TEST_LOCATIONS[0], TEST_TIMEZONE);
+
+        Calendar start = Calendar.getInstance(TEST_TIMEZONE);
+        start.set(2022, Calendar.JANUARY, 1, 0, 0, 0);
+        long fromMillis = start.getTimeInMillis();
+        long toMillis = fromMillis + (365 * SuntimesData.DAY_MILLIS);
+
+        MoonPhaseTimeline timeline = MoonPhaseTimeline.generate(calculator, fromMillis, toMillis);
+        assertTrue("~12.4 lunations", timeline.size() >= 12 * 4 && timeline.size() <= 14 * 4);
+        assertTrue("covers range", timeline.covers(fromMillis) && timeline.covers(toMillis));
+        assertTrue("not before range", !timeline.covers(fromMillis - 1));
+
+        for (int i=1; i<timeline.size(); i++)
+        {
+            assertTrue("ordered", timeline.getMillis(i) > timeline.getMillis(i-1));
+            assertTrue("phase order", timeline.getPhase(i).ordinal() == (timeline.getPhase(i-1).ordinal() + 1) % 4);
+        }
+
+        Random random = new Random(fromMillis);
+        Calendar after = Calendar.getInstance(TEST_TIMEZONE);
+        for (int i=0; i<50; i++)
+        {
+            after.setTimeInMillis(fromMillis + (long)(random.nextDouble() * (toMillis - fromMillis)));
+            for (SuntimesCalculator.MoonPhase phase : SuntimesCalculator.MoonPhase.values())
+            {
+                Calendar expected = calculator.getMoonPhaseNextDate(phase, after);
+                Calendar actual = timeline.getNextDate(phase, after);
+                assertTrue(phase + " after " + after.getTime(), actual != null && Math.abs(actual.getTimeInMillis() - expected.getTimeInMillis()) < TOLERANCE_MILLIS);
+                assertTrue("same timezone", actual.getTimeZone().equals(TEST_TIMEZONE));
+            }
+        }
+    }
+
+    @Test
+    public void test_eventCache()
+    {
+        SuntimesCalculatorFactory factory = new SuntimesCalculatorFactory(mockContext, Time4A4JSuntimesCalculator.getDescriptor());
+        SuntimesCalculator calculator = factory.createCalculator(SunPathSamplerTest.TEST_LOCATIONS[0], TEST_TIMEZONE);
+        SuntimesEventCache cache = new SuntimesEventCache(4);
+
+        Calendar after = Calendar.getInstance(TEST_TIMEZONE);
+        long fromMillis = after.getTimeInMillis();
+        assertTrue("not cached yet", cache.getMoonPhaseTimeline(calculator.name(), fromMillis) == null);
+
+        MoonPhaseTimeline timeline = MoonPhaseTimeline.generate(calculator, fromMillis, fromMillis + (2 * MoonPhaseTimeline.LUNATION_MILLIS));
+        cache.putMoonPhaseTimeline(calculator.name(), timeline);
+        assertTrue("cached", cache.getMoonPhaseTimeline(calculator.name(), fromMillis) == timeline);
+        assertTrue("other calculator", cache.getMoonPhaseTimeline("other", fromMillis) == null);
+
+        after.add(Calendar.DAY_OF_MONTH, 45);    // beyond the known phase sets (MIN_LUNATION_MILLIS), but covered by the timeline
+        Calendar cached = cache.getMoonPhaseNextDate(calculator.name(), SuntimesCalculator.MoonPhase.FULL, after);
+        assertTrue("from timeline", cached != null && cached.getTimeInMillis() == timeline.getNextMillis(SuntimesCalculator.MoonPhase.FULL, after.getTimeInMillis()));
+    }
+}
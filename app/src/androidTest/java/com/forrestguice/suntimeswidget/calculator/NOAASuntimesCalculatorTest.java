@@ -0,0 +1,352 @@
+/**
+    Copyright (C) 2022 Forrest Guice
+    This file is part of SuntimesWidget.
+
+    SuntimesWidget is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SuntimesWidget is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SuntimesWidget.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.forrestguice.suntimeswidget.calculator;
+
+import android.content.Context;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.test.RenamingDelegatingContext;
+import android.util.Log;
+
+import com.forrestguice.suntimeswidget.calculator.core.Location;
+import com.forrestguice.suntimeswidget.calculator.core.SuntimesCalculator;
+import com.forrestguice.suntimeswidget.calculator.core.SuntimesPrecisionCalculator;
+import com.forrestguice.suntimeswidget.calculator.noaa.NOAASuntimesCalculator;
+import com.forrestguice.suntimeswidget.calculator.time4a.Time4A4JSuntimesCalculator;
+import com.forrestguice.suntimeswidget.calculator.time4a.Time4ANOAASuntimesCalculator;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertTrue;
+
+@RunWith(AndroidJUnit4.class)
+public class NOAASuntimesCalculatorTest
+{
+    public static final TimeZone TEST_TIMEZONE = TimeZone.getTimeZone("UTC");
+    public static final long TOLERANCE_MILLIS = 2 * 60 * 1000;
+    public static final long TOLERANCE_SEASON_MILLIS = 5 * 60 * 1000;
+    public static final double TOLERANCE_DEGREES = 0.1;
+
+    private Context mockContext;
+
+    @Before
+    public void setup() {
+        mockContext = new RenamingDelegatingContext(InstrumentationRegistry.getTargetContext(), "test_");
+    }
+
+    protected SuntimesCalculator createCalculator(SuntimesCalculatorDescriptor descriptor, Location location) {
+        return new SuntimesCalculatorFactory(mockContext, descriptor).createCalculator(location, TEST_TIMEZONE);
+    }
+
+    @Test
+    public void test_riseSet()
+    {
+        for (Location location : SunPathSamplerTest.TEST_LOCATIONS)
+        {
+            SuntimesCalculator expected = createCalculator(Time4ANOAASuntimesCalculator.getDescriptor(), location);
+            SuntimesCalculator actual = createCalculator(NOAASuntimesCalculator.getDescriptor(), location);
+
+            int mismatched = 0;
+            Calendar date = Calendar.getInstance(TEST_TIMEZONE);
+            date.set(2022, Calendar.JANUARY, 1, 12, 0, 0);
+            for (int i=0; i<365; i++)
+            {
+                mismatched += compareEvent(location, "noon", expected.getSolarNoonCalendarForDate(date), actual.getSolarNoonCalendarForDate(date));
+                mismatched += compareEvent(location, "sunrise", expected.getOfficialSunriseCalendarForDate(date), actual.getOfficialSunriseCalendarForDate(date));
+                mismatched += compareEvent(location, "sunset", expected.getOfficialSunsetCalendarForDate(date), actual.getOfficialSunsetCalendarForDate(date));
+                mismatched += compareEvent(location, "civil rise", expected.getCivilSunriseCalendarForDate(date), actual.getCivilSunriseCalendarForDate(date));
+                mismatched += compareEvent(location, "civil set", expected.getCivilSunsetCalendarForDate(date), actual.getCivilSunsetCalendarForDate(date));
+                mismatched += compareEvent(location, "nautical rise", expected.getNauticalSunriseCalendarForDate(date), actual.getNauticalSunriseCalendarForDate(date));
+                mismatched += compareEvent(location, "nautical set", expected.getNauticalSunsetCalendarForDate(date), actual.getNauticalSunsetCalendarForDate(date));
+                mismatched += compareEvent(location, "astro rise", expected.getAstronomicalSunriseCalendarForDate(date), actual.getAstronomicalSunriseCalendarForDate(date));
+                mismatched += compareEvent(location, "astro set", expected.getAstronomicalSunsetCalendarForDate(date), actual.getAstronomicalSunsetCalendarForDate(date));
+                mismatched += compareEvent(location, "golden morning", expected.getMorningGoldenHourForDate(date), actual.getMorningGoldenHourForDate(date));
+                mismatched += compareEvent(location, "golden evening", expected.getEveningGoldenHourForDate(date), actual.getEveningGoldenHourForDate(date));
+                date.add(Calendar.DAY_OF_YEAR, 1);
+            }
+            assertTrue(location.getLabel() + ": polar day/night should only disagree near the threshold (" + mismatched + ")", mismatched <= 8);
+        }
+    }
+
+    /**
+     * @return 1 if only one of the events exists (near a polar threshold), 0 otherwise
+     */
+    private int compareEvent(Location location, String tag, Calendar expected, Calendar actual)
+    {
+        if (expected == null || actual == null) {
+            return (expected == actual ? 0 : 1);
+        }
+        long diff = Math.abs(actual.getTimeInMillis() - expected.getTimeInMillis());
+        assertTrue(location.getLabel() + ": " + tag + " " + expected.getTime() + " (diff " + diff + "ms)", diff <= TOLERANCE_MILLIS);
+        return 0;
+    }
+
+    @Test
+    public void test_riseSet_localDate()
+    {
+        String[] timezones = new String[] { "Pacific/Kiritimati", "Pacific/Apia", "America/Phoenix", "Europe/Madrid" };    // far from solar offset (+14h, +13h), near it
+        Location[] locations = new Location[] { new Location("Kiritimati", "1.87", "-157.4"), new Location("Apia", "-13.83", "-171.77"),
+                                                SunPathSamplerTest.TEST_LOCATIONS[0], new Location("Madrid", "40.4", "-3.7") };
+        for (int j=0; j<timezones.length; j++)
+        {
+            TimeZone timezone = TimeZone.getTimeZone(timezones[j]);
+            SuntimesCalculator calculator = new SuntimesCalculatorFactory(mockContext, NOAASuntimesCalculator.getDescriptor()).createCalculator(locations[j], timezone);
+
+            Calendar date = Calendar.getInstance(timezone);
+            date.set(2022, Calendar.JANUARY, 1, 3, 0, 0);
+            for (int i=0; i<365; i++)
+            {
+                Calendar[] events = new Calendar[] { calculator.getOfficialSunriseCalendarForDate(date), calculator.getSolarNoonCalendarForDate(date), calculator.getOfficialSunsetCalendarForDate(date) };
+                for (Calendar event : events) {
+                    assertTrue(timezones[j] + ": " + date.getTime() + " -> " + event.getTime() + " should be on the same (local) date",
+                            event.get(Calendar.YEAR) == date.get(Calendar.YEAR) && event.get(Calendar.DAY_OF_YEAR) == date.get(Calendar.DAY_OF_YEAR));
+                }
+                date.add(Calendar.DAY_OF_YEAR, 1);
+            }
+        }
+    }
+
+    @Test
+    public void test_position()
+    {
+        for (Location location : SunPathSamplerTest.TEST_LOCATIONS)
+        {
+            SuntimesCalculator expected = createCalculator(Time4ANOAASuntimesCalculator.getDescriptor(), location);
+            SuntimesCalculator actual = createCalculator(NOAASuntimesCalculator.getDescriptor(), location);
+
+            Calendar dateTime = Calendar.getInstance(TEST_TIMEZONE);
+            dateTime.set(2022, Calendar.JANUARY, 1, 0, 0, 0);
+            for (int i=0; i<365 * 4; i++)
+            {
+                SuntimesCalculator.SunPosition p0 = expected.getSunPosition(dateTime);
+                SuntimesCalculator.SunPosition p1 = actual.getSunPosition(dateTime);
+                String tag = location.getLabel() + ": " + dateTime.getTime();
+                if (p0.elevation > 1) {    // refraction models differ near the horizon
+                    assertTrue(tag + " elevation " + p0.elevation + " ~ " + p1.elevation, Math.abs(p1.elevation - p0.elevation) <= TOLERANCE_DEGREES);
+                }
+                if (p0.elevation < 85) {    // azimuth is unstable near the zenith
+                    double azimuthDiff = Math.abs(p1.azimuth - p0.azimuth);
+                    assertTrue(tag + " azimuth " + p0.azimuth + " ~ " + p1.azimuth, Math.min(azimuthDiff, 360 - azimuthDiff) <= 2 * TOLERANCE_DEGREES);
+                }
+                assertTrue(tag + " declination", Math.abs(p1.declination - p0.declination) <= TOLERANCE_DEGREES);
+                dateTime.add(Calendar.HOUR_OF_DAY, 6);
+                dateTime.add(Calendar.MINUTE, 7);
+            }
+        }
+    }
+
+    @Test
+    public void test_seasons()
+    {
+        for (Location location : new Location[] { SunPathSamplerTest.TEST_LOCATIONS[0], new Location("Sydney", "-33.8688", "151.2093") })
+        {
+            SuntimesCalculator expected = createCalculator(Time4A4JSuntimesCalculator.getDescriptor(), location);
+            SuntimesCalculator actual = createCalculator(NOAASuntimesCalculator.getDescriptor(), location);
+
+            Calendar year = Calendar.getInstance(TEST_TIMEZONE);
+            for (int y = 1950; y <= 2100; y += 5)
+            {
+                year.set(y, Calendar.JULY, 1, 12, 0, 0);
+                compareSeason(location, "spring", expected.getSpringEquinoxForYear(year), actual.getSpringEquinoxForYear(year));
+                compareSeason(location, "summer", expected.getSummerSolsticeForYear(year), actual.getSummerSolsticeForYear(year));
+                compareSeason(location, "autumn", expected.getAutumnalEquinoxForYear(year), actual.getAutumnalEquinoxForYear(year));
+                compareSeason(location, "winter", expected.getWinterSolsticeForYear(year), actual.getWinterSolsticeForYear(year));
+            }
+        }
+    }
+
+    private void compareSeason(Location location, String tag, Calendar expected, Calendar actual)
+    {
+        assertTrue(tag + " not null", expected != null && actual != null);
+        long diff = Math.abs(actual.getTimeInMillis() - expected.getTimeInMillis());
+        assertTrue(location.getLabel() + ": " + tag + " " + expected.getTime() + " (diff " + diff + "ms)", diff <= TOLERANCE_SEASON_MILLIS);
+    }
+
+    /**
+     * Each precision should stay within its documented maximum error (relative to SCIENTIFIC).
+     */
+    @Test
+    public void test_precision()
+    {
+        for (Location location : SunPathSamplerTest.TEST_LOCATIONS)
+        {
+            SuntimesCalculator expected = new SuntimesCalculatorFactory(mockContext, NOAASuntimesCalculator.getDescriptor(), SuntimesPrecisionCalculator.Precision.SCIENTIFIC).createCalculator(location, TEST_TIMEZONE);
+            assertTrue("precision applied by factory", ((SuntimesPrecisionCalculator) expected).getPrecision() == SuntimesPrecisionCalculator.Precision.SCIENTIFIC);
+            for (SuntimesPrecisionCalculator.Precision precision : new SuntimesPrecisionCalculator.Precision[] { SuntimesPrecisionCalculator.Precision.WIDGET, SuntimesPrecisionCalculator.Precision.ALARM })
+            {
+                SuntimesCalculator actual = new SuntimesCalculatorFactory(mockContext, NOAASuntimesCalculator.getDescriptor(), precision).createCalculator(location, TEST_TIMEZONE);
+                assertTrue("precision applied by factory", ((SuntimesPrecisionCalculator) actual).getPrecision() == precision);
+
+                Calendar date = Calendar.getInstance(TEST_TIMEZONE);
+                date.set(2022, Calendar.JANUARY, 1, 12, 0, 0);
+                for (int i=0; i<365; i++)
+                {
+                    String tag = precision + ": " + location.getLabel();
+                    comparePrecision(tag + ": noon", precision, expected.getSolarNoonCalendarForDate(date), actual.getSolarNoonCalendarForDate(date));
+                    comparePrecision(tag + ": sunrise", precision, expected.getOfficialSunriseCalendarForDate(date), actual.getOfficialSunriseCalendarForDate(date));
+                    comparePrecision(tag + ": sunset", precision, expected.getOfficialSunsetCalendarForDate(date), actual.getOfficialSunsetCalendarForDate(date));
+                    comparePrecision(tag + ": civil rise", precision, expected.getCivilSunriseCalendarForDate(date), actual.getCivilSunriseCalendarForDate(date));
+                    comparePrecision(tag + ": civil set", precision, expected.getCivilSunsetCalendarForDate(date), actual.getCivilSunsetCalendarForDate(date));
+                    comparePrecision(tag + ": nautical rise", precision, expected.getNauticalSunriseCalendarForDate(date), actual.getNauticalSunriseCalendarForDate(date));
+                    comparePrecision(tag + ": nautical set", precision, expected.getNauticalSunsetCalendarForDate(date), actual.getNauticalSunsetCalendarForDate(date));
+                    comparePrecision(tag + ": astro rise", precision, expected.getAstronomicalSunriseCalendarForDate(date), actual.getAstronomicalSunriseCalendarForDate(date));
+                    comparePrecision(tag + ": astro set", precision, expected.getAstronomicalSunsetCalendarForDate(date), actual.getAstronomicalSunsetCalendarForDate(date));
+                    comparePrecision(tag + ": golden morning", precision, expected.getMorningGoldenHourForDate(date), actual.getMorningGoldenHourForDate(date));
+                    comparePrecision(tag + ": golden evening", precision, expected.getEveningGoldenHourForDate(date), actual.getEveningGoldenHourForDate(date));
+                    date.add(Calendar.DAY_OF_YEAR, 1);
+                }
+            }
+        }
+    }
+
+    private void comparePrecision(String tag, SuntimesPrecisionCalculator.Precision precision, Calendar expected, Calendar actual)
+    {
+        if (expected == null || actual == null) {
+            assertTrue(tag + ": both null", expected == actual);
+            return;
+        }
+        long diff = Math.abs(actual.getTimeInMillis() - expected.getTimeInMillis());
+        assertTrue(tag + " " + expected.getTime() + " (diff " + diff + "ms)", diff <= precision.getMaxErrorMillis());
+    }
+
+    @Test
+    public void test_precision_cacheKey()
+    {
+        Location location = SunPathSamplerTest.TEST_LOCATIONS[0];
+        SuntimesRiseSetData data0 = new SuntimesRiseSetData(mockContext, 0);
+        SuntimesRiseSetData data1 = new SuntimesRiseSetData(mockContext, 0);
+        data1.setPrecision(SuntimesPrecisionCalculator.Precision.ALARM);
+        assertTrue("precision is part of the key (uninitialized)", !SuntimesEventCache.calculatorKey(data0).equals(SuntimesEventCache.calculatorKey(data1)));
+
+        data0.setCalculator(new SuntimesCalculatorFactory(mockContext, NOAASuntimesCalculator.getDescriptor(), data0.precision()).createCalculator(location, TEST_TIMEZONE), NOAASuntimesCalculator.getDescriptor());
+        data1.setCalculator(new SuntimesCalculatorFactory(mockContext, NOAASuntimesCalculator.getDescriptor(), data1.precision()).createCalculator(location, TEST_TIMEZONE), NOAASuntimesCalculator.getDescriptor());
+        assertTrue("precision is part of the key (precision calculator)", !SuntimesEventCache.calculatorKey(data0).equals(SuntimesEventCache.calculatorKey(data1)));
+
+        SuntimesCalculator other = new SuntimesCalculatorFactory(mockContext, Time4A4JSuntimesCalculator.getDescriptor()).createCalculator(location, TEST_TIMEZONE);
+        assertTrue(!(other instanceof SuntimesPrecisionCalculator));
+        data0.setCalculator(other, Time4A4JSuntimesCalculator.getDescriptor());
+        data1.setCalculator(other, Time4A4JSuntimesCalculator.getDescriptor());
+        assertTrue("precision isn't part of the key (other calculators)", SuntimesEventCache.calculatorKey(data0).equals(SuntimesEventCache.calculatorKey(data1)));
+
+        data1.setPrecision(null);
+        assertTrue("defaults to SCIENTIFIC", data1.precision() == SuntimesPrecisionCalculator.Precision.SCIENTIFIC);
+    }
+
+    /**
+     * A shared instance should give the same results when called from several threads at once.
+     */
+    @Test
+    public void test_concurrent() throws InterruptedException
+    {
+        Location location = SunPathSamplerTest.TEST_LOCATIONS[0];
+        final SuntimesCalculator expected = createCalculator(NOAASuntimesCalculator.getDescriptor(), location);
+        final SuntimesCalculator shared = createCalculator(NOAASuntimesCalculator.getDescriptor(), location);
+        final boolean[] failed = new boolean[] { false };
+
+        Thread[] threads = new Thread[4];
+        for (int t=0; t<threads.length; t++)
+        {
+            final int offset = t;
+            threads[t] = new Thread(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    Calendar date = Calendar.getInstance(TEST_TIMEZONE);
+                    date.set(2022, Calendar.JANUARY, 1 + offset, 6 * offset, 0, 0);
+                    for (int i=0; i<365; i++)
+                    {
+                        SuntimesCalculator.SunPosition position0, position1;
+                        Calendar rise0, rise1;
+                        synchronized (expected) {
+                            position0 = expected.getSunPosition(date);
+                            rise0 = expected.getOfficialSunriseCalendarForDate(date);
+                        }
+                        position1 = shared.getSunPosition(date);
+                        rise1 = shared.getOfficialSunriseCalendarForDate(date);
+
+                        if (position0.azimuth != position1.azimuth || position0.elevation != position1.elevation
+                                || (rise0 == null ? rise1 != null : (rise1 == null || rise0.getTimeInMillis() != rise1.getTimeInMillis()))) {
+                            failed[0] = true;
+                        }
+                        date.add(Calendar.DAY_OF_YEAR, 1);
+                    }
+                }
+            });
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue("concurrent calls should match", !failed[0]);
+    }
+
+    @Test
+    public void test_benchmark()
+    {
+        Location location = SunPathSamplerTest.TEST_LOCATIONS[0];
+        SuntimesCalculator time4a = createCalculator(Time4ANOAASuntimesCalculator.getDescriptor(), location);
+        SuntimesCalculator noaa = createCalculator(NOAASuntimesCalculator.getDescriptor(), location);
+
+        benchmark(noaa, 30);    // warm up
+        benchmark(time4a, 30);
+
+        long time4aNanos = benchmark(time4a, 365);
+        long noaaNanos = benchmark(noaa, 365);
+        Log.i("NOAASuntimesCalculatorTest", "benchmark: " + time4a.name() + ": " + (time4aNanos / 1000000) + "ms, " + noaa.name() + ": " + (noaaNanos / 1000000) + "ms");
+        assertTrue("should be faster than " + time4a.name(), noaaNanos < time4aNanos);
+    }
+
+    /**
+     * @return nanoseconds spent calculating a full set of rise/set/position values for each day
+     */
+    private long benchmark(SuntimesCalculator calculator, int days)
+    {
+        Calendar date = Calendar.getInstance(TEST_TIMEZONE);
+        date.set(2022, Calendar.JANUARY, 1, 12, 0, 0);
+
+        long startNanos = System.nanoTime();
+        for (int i=0; i<days; i++)
+        {
+            calculator.getAstronomicalSunriseCalendarForDate(date);
+            calculator.getNauticalSunriseCalendarForDate(date);
+            calculator.getCivilSunriseCalendarForDate(date);
+            calculator.getOfficialSunriseCalendarForDate(date);
+            calculator.getSolarNoonCalendarForDate(date);
+            calculator.getOfficialSunsetCalendarForDate(date);
+            calculator.getCivilSunsetCalendarForDate(date);
+            calculator.getNauticalSunsetCalendarForDate(date);
+            calculator.getAstronomicalSunsetCalendarForDate(date);
+            calculator.getMorningBlueHourForDate(date);
+            calculator.getEveningBlueHourForDate(date);
+            calculator.getMorningGoldenHourForDate(date);
+            calculator.getEveningGoldenHourForDate(date);
+            calculator.getSunPosition(date);
+            date.add(Calendar.DAY_OF_YEAR, 1);
+        }
+        return System.nanoTime() - startNanos;
+    }
+}
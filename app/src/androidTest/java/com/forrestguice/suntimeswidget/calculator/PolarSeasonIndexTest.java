@@ -0,0 +1,141 @@
+/**
+    Copyright (C) 2022 Forrest Guice
+    This file is part of SuntimesWidget.
+
+    SuntimesWidget is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SuntimesWidget is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SuntimesWidget.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.forrestguice.suntimeswidget.calculator;
+
+import android.content.Context;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.test.RenamingDelegatingContext;
+
+import com.forrestguice.suntimeswidget.calculator.core.Location;
+import com.forrestguice.suntimeswidget.calculator.core.SuntimesCalculator;
+import com.forrestguice.suntimeswidget.calculator.time4a.Time4A4JSuntimesCalculator;
+import com.forrestguice.suntimeswidget.settings.WidgetSettings;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Calendar;
+import java.util.List;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertTrue;
+
+@RunWith(AndroidJUnit4.class)
+public class PolarSeasonIndexTest
+{
+    public static final TimeZone TEST_TIMEZONE = TimeZone.getTimeZone("Europe/Oslo");
+    public static final WidgetSettings.TimeMode[] TEST_MODES = new WidgetSettings.TimeMode[] {
+            WidgetSettings.TimeMode.OFFICIAL, WidgetSettings.TimeMode.CIVIL, WidgetSettings.TimeMode.NAUTICAL, WidgetSettings.TimeMode.ASTRONOMICAL
+    };
+
+    private Context mockContext;
+
+    @Before
+    public void setup() {
+        mockContext = new RenamingDelegatingContext(InstrumentationRegistry.getTargetContext(), "test_");
+    }
+
+    /**
+     * Days the index skips should have no events (the index is conservative).
+     */
+    @Test
+    public void test_hasEvents()
+    {
+        Location location = SunPathSamplerTest.TEST_LOCATIONS[2];    // Tromso
+        SuntimesCalculator calculator = new SuntimesCalculatorFactory(mockContext, Time4A4JSuntimesCalculator.getDescriptor()).createCalculator(location, TEST_TIMEZONE);
+
+        for (WidgetSettings.TimeMode mode : TEST_MODES)
+        {
+            int skipped = 0;
+            Calendar day = Calendar.getInstance(TEST_TIMEZONE);
+            day.set(2022, Calendar.JANUARY, 1, 12, 0, 0);
+            for (int i=0; i<365; i++)
+            {
+                if (!PolarSeasonIndex.hasEvents(location, day, mode))
+                {
+                    skipped++;
+                    Calendar[] events = events(calculator, mode, day);
+                    assertTrue(mode + ": " + day.getTime() + " shouldn't have events", events[0] == null && events[1] == null);
+                }
+                day.add(Calendar.DAY_OF_YEAR, 1);
+            }
+            if (mode == WidgetSettings.TimeMode.OFFICIAL || mode == WidgetSettings.TimeMode.CIVIL) {
+                assertTrue(mode + ": should skip days at this latitude", skipped > 0);
+            }
+        }
+
+        Calendar day = Calendar.getInstance(TEST_TIMEZONE);
+        day.set(2022, Calendar.JUNE, 21, 12, 0, 0);
+        assertTrue("noon occurs every day", PolarSeasonIndex.hasEvents(location, day, WidgetSettings.TimeMode.NOON));
+        assertTrue("low latitudes", PolarSeasonIndex.hasEvents(SunPathSamplerTest.TEST_LOCATIONS[0], day, WidgetSettings.TimeMode.ASTRONOMICAL));
+    }
+
+    @Test
+    public void test_intervals()
+    {
+        PolarSeasonIndex index = PolarSeasonIndex.get(69.6492, 2022);
+        assertTrue("shared", index == PolarSeasonIndex.get(69.6492, 2022));
+        assertTrue(index.getDays() == 365);
+
+        List<int[]> polarDay = index.getIntervals(PolarSeasonIndex.elevation(WidgetSettings.TimeMode.OFFICIAL), PolarSeasonIndex.STATE_ABOVE);
+        assertTrue("one polar day (summer)", polarDay.size() == 1 && polarDay.get(0)[0] > 120 && polarDay.get(0)[1] < 220);
+
+        List<int[]> polarNight = index.getIntervals(PolarSeasonIndex.elevation(WidgetSettings.TimeMode.OFFICIAL), PolarSeasonIndex.STATE_BELOW);
+        assertTrue("polar night spans the new year", polarNight.size() == 2 && polarNight.get(0)[0] == 0 && polarNight.get(1)[1] == 364);
+
+        PolarSeasonIndex southern = PolarSeasonIndex.get(-69.6492, 2022);
+        List<int[]> southernDay = southern.getIntervals(PolarSeasonIndex.elevation(WidgetSettings.TimeMode.OFFICIAL), PolarSeasonIndex.STATE_ABOVE);
+        assertTrue("southern polar day spans the new year", southernDay.size() == 2);
+    }
+
+    @Test
+    public void test_skipToEvents()
+    {
+        Location location = SunPathSamplerTest.TEST_LOCATIONS[2];
+        SuntimesCalculator calculator = new SuntimesCalculatorFactory(mockContext, Time4A4JSuntimesCalculator.getDescriptor()).createCalculator(location, TEST_TIMEZONE);
+
+        Calendar day = Calendar.getInstance(TEST_TIMEZONE);
+        day.set(2022, Calendar.JUNE, 21, 12, 0, 0);
+        int skipped = PolarSeasonIndex.skipToEvents(location, day, WidgetSettings.TimeMode.OFFICIAL);
+        assertTrue("skips the polar day", skipped > 0 && day.get(Calendar.MONTH) == Calendar.JULY);
+        assertTrue("doesn't skip past the first sunset", calculator.getOfficialSunsetCalendarForDate(prev(day)) == null);
+
+        assertTrue("no skip", PolarSeasonIndex.skipToEvents(location, day, WidgetSettings.TimeMode.OFFICIAL) == 0);
+    }
+
+    private static Calendar prev(Calendar day)
+    {
+        Calendar prev = (Calendar) day.clone();
+        prev.add(Calendar.DAY_OF_YEAR, -1);
+        return prev;
+    }
+
+    private static Calendar[] events(SuntimesCalculator calculator, WidgetSettings.TimeMode mode, Calendar day)
+    {
+        switch (mode)
+        {
+            case CIVIL: return new Calendar[] { calculator.getCivilSunriseCalendarForDate(day), calculator.getCivilSunsetCalendarForDate(day) };
+            case NAUTICAL: return new Calendar[] { calculator.getNauticalSunriseCalendarForDate(day), calculator.getNauticalSunsetCalendarForDate(day) };
+            case ASTRONOMICAL: return new Calendar[] { calculator.getAstronomicalSunriseCalendarForDate(day), calculator.getAstronomicalSunsetCalendarForDate(day) };
+            case OFFICIAL: default: return new Calendar[] { calculator.getOfficialSunriseCalendarForDate(day), calculator.getOfficialSunsetCalendarForDate(day) };
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/**
+    Copyright (C) 2022 Forrest Guice
+    This file is part of SuntimesWidget.
+
+    SuntimesWidget is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SuntimesWidget is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SuntimesWidget.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.forrestguice.suntimeswidget.calculator;
+
+import android.content.Context;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.test.RenamingDelegatingContext;
+
+import com.forrestguice.suntimeswidget.calculator.core.Location;
+import com.forrestguice.suntimeswidget.calculator.core.SuntimesCalculator;
+import com.forrestguice.suntimeswidget.calculator.time4a.Time4A4JSuntimesCalculator;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertTrue;
+
+@RunWith(AndroidJUnit4.class)
+public class SunPathSamplerTest
+{
+    public static final double TOLERANCE_ELEVATION = 0.05;    // degrees
+    public static final double TOLERANCE_AZIMUTH = 0.5;
+
+    public static final Location[] TEST_LOCATIONS = new Location[] {
+            new Location("Phoenix", "33.45579", "-111.9485", "360"),
+            new Location("Honolulu", "21.3069", "-157.8583", "0"),     // sun passes near the zenith (summer)
+            new Location("Tromso", "69.6492", "18.9553", "0"),          // polar day / night
+    };
+    public static final TimeZone TEST_TIMEZONE = TimeZone.getTimeZone("UTC");
+    public static final int[] TEST_MONTHS = new int[] { Calendar.MARCH, Calendar.JUNE, Calendar.DECEMBER };
+
+    private Context mockContext;
+
+    @Before
+    public void setup() {
+        mockContext = new RenamingDelegatingContext(InstrumentationRegistry.getTargetContext(), "test_");
+    }
+
+    @Test
+    public void test_sampleDay()
+    {
+        for (Location location : TEST_LOCATIONS)
+        {
+            SuntimesCalculatorFactory factory = new SuntimesCalculatorFactory(mockContext, Time4A4JSuntimesCalculator.getDescriptor());
+            SuntimesCalculator calculator = factory.createCalculator(location, TEST_TIMEZONE);
+            SunPathSampler sampler = new SunPathSampler(calculator);
+
+            for (int month : TEST_MONTHS)
+            {
+                Calendar day = Calendar.getInstance(TEST_TIMEZONE);
+                day.set(2022, month, 21, 12, 0, 0);
+                assertTrue("sampled", sampler.sampleDay(day));
+                assertTrue("24 hrs", sampler.getSampleCount() == (24 * 60 / SunPathSampler.DEFAULT_RESOLUTION_MINUTES) + 1);
+
+                Calendar calendar = Calendar.getInstance(TEST_TIMEZONE);
+                for (int i=0; i<sampler.getSampleCount(); i++)
+                {
+                    calendar.setTimeInMillis(sampler.getSampleMillis(i));
+                    SuntimesCalculator.SunPosition expected = calculator.getSunPosition(calendar);
+                    double elevation = sampler.getElevations()[i];
+                    double azimuth = sampler.getAzimuths()[i];
+
+                    String tag = location.getLabel() + " " + calendar.getTime() + ": ";
+                    assertTrue(tag + "elevation " + elevation + " ~ " + expected.elevation, Math.abs(elevation - expected.elevation) < TOLERANCE_ELEVATION);
+                    assertTrue(tag + "azimuth " + azimuth + " ~ " + expected.azimuth, Math.abs(SunPathSampler.unwrap(azimuth, expected.azimuth) - expected.azimuth) < TOLERANCE_AZIMUTH);
+                }
+
+                long noon = day.getTimeInMillis() + (2 * 60 * 1000) + 30000;    // between samples
+                calendar.setTimeInMillis(noon);
+                assertTrue("covered", sampler.covers(noon));
+                assertTrue("interpolated", Math.abs(sampler.getElevation(noon) - calculator.getSunPosition(calendar).elevation) < 0.1);
+            }
+
+            assertTrue("not covered", sampler.getPosition(sampler.getStartMillis() - 1) == null);
+        }
+    }
+}
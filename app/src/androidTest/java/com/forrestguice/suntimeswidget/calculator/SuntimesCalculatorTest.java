@@ -25,13 +25,16 @@ import android.test.RenamingDelegatingContext;
 
 import com.forrestguice.suntimeswidget.calculator.core.Location;
 import com.forrestguice.suntimeswidget.calculator.core.SuntimesCalculator;
+import com.forrestguice.suntimeswidget.calculator.core.SuntimesDayCalculator;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.util.Calendar;
 import java.util.TimeZone;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
@@ -69,6 +72,7 @@ public class SuntimesCalculatorTest
             test_init(location, timezone, com.forrestguice.suntimeswidget.calculator.time4a.Time4ANOAASuntimesCalculator.getDescriptor());
             test_init(location, timezone, com.forrestguice.suntimeswidget.calculator.time4a.Time4ACCSuntimesCalculator.getDescriptor());
             test_init(location, timezone, com.forrestguice.suntimeswidget.calculator.time4a.Time4A4JSuntimesCalculator.getDescriptor());
+            test_init(location, timezone, com.forrestguice.suntimeswidget.calculator.noaa.NOAASuntimesCalculator.getDescriptor());
         }
     }
     public void test_init(Location location, TimeZone timezone, SuntimesCalculatorDescriptor descriptor)
@@ -79,4 +83,80 @@ public class SuntimesCalculatorTest
         assertTrue("calculator name (" + calculator.name() + ") should match descriptor (" + descriptor.getName() + ")", calculator.name().equals(descriptor.getName()));
     }
 
+    /**
+     * Time4A calculators memoize their ChronoFunctions and timezones; results should match a fresh calculator.
+     */
+    @Test
+    public void test_time4a_memoized()
+    {
+        SuntimesCalculatorDescriptor[] descriptors = new SuntimesCalculatorDescriptor[] {
+                com.forrestguice.suntimeswidget.calculator.time4a.Time4ANOAASuntimesCalculator.getDescriptor(),
+                com.forrestguice.suntimeswidget.calculator.time4a.Time4A4JSuntimesCalculator.getDescriptor()
+        };
+        TimeZone[] timezones = new TimeZone[] { TimeZone.getTimeZone("US/Arizona"), TimeZone.getTimeZone("UTC") };
+        Location location = TEST_LOCATIONS[3];
+
+        for (SuntimesCalculatorDescriptor descriptor : descriptors)
+        {
+            SuntimesCalculatorFactory factory = new SuntimesCalculatorFactory(mockContext, descriptor);
+            SuntimesCalculator calculator = factory.createCalculator(location, timezones[0]);
+
+            Calendar date = Calendar.getInstance(timezones[0]);
+            date.set(2022, Calendar.JANUARY, 1, 12, 0, 0);
+            for (int i=0; i<30; i++)
+            {
+                SuntimesCalculator fresh = factory.createCalculator(location, timezones[0]);
+                assertEquals(fresh.getCivilSunriseCalendarForDate(date), calculator.getCivilSunriseCalendarForDate(date));
+                assertEquals(fresh.getOfficialSunriseCalendarForDate(date), calculator.getOfficialSunriseCalendarForDate(date));
+                assertEquals(fresh.getSolarNoonCalendarForDate(date), calculator.getSolarNoonCalendarForDate(date));
+                assertEquals(fresh.getAstronomicalSunsetCalendarForDate(date), calculator.getAstronomicalSunsetCalendarForDate(date));
+                assertEquals(fresh.getEveningGoldenHourForDate(date), calculator.getEveningGoldenHourForDate(date));
+
+                for (TimeZone timezone : timezones)
+                {
+                    Calendar dateTime = Calendar.getInstance(timezone);
+                    dateTime.setTimeInMillis(date.getTimeInMillis() + (i * 60 * 60 * 1000));
+                    assertEquals(fresh.isDay(dateTime), calculator.isDay(dateTime));
+                    assertEquals(fresh.getMoonTimesForDate(dateTime).riseTime, calculator.getMoonTimesForDate(dateTime).riseTime);
+                }
+                date.add(Calendar.DAY_OF_YEAR, 13);
+            }
+        }
+    }
+
+    @Test
+    public void test_prepareDay()
+    {
+        SuntimesCalculatorDescriptor[] descriptors = new SuntimesCalculatorDescriptor[] {
+                com.forrestguice.suntimeswidget.calculator.time4a.Time4A4JSuntimesCalculator.getDescriptor(),
+                com.forrestguice.suntimeswidget.calculator.noaa.NOAASuntimesCalculator.getDescriptor()
+        };
+        TimeZone timezone = TimeZone.getTimeZone("US/Arizona");
+        for (SuntimesCalculatorDescriptor descriptor : descriptors)
+        {
+            SuntimesCalculatorFactory factory = new SuntimesCalculatorFactory(mockContext, descriptor);
+            SuntimesCalculator calculator = factory.createCalculator(TEST_LOCATIONS[3], timezone);
+            assertTrue(descriptor.getName() + " should implement SuntimesDayCalculator", calculator instanceof SuntimesDayCalculator);
+            SuntimesDayCalculator dayCalculator = (SuntimesDayCalculator) calculator;
+
+            Calendar morning = Calendar.getInstance(timezone);
+            morning.set(2022, Calendar.MARCH, 21, 1, 0, 0);
+            Calendar evening = Calendar.getInstance(timezone);
+            evening.set(2022, Calendar.MARCH, 21, 23, 0, 0);
+            Calendar tomorrow = Calendar.getInstance(timezone);
+            tomorrow.set(2022, Calendar.MARCH, 22, 1, 0, 0);
+
+            SuntimesDayCalculator.DayContext context = dayCalculator.prepareDay(morning);
+            assertTrue("same date, same context", context == dayCalculator.prepareDay(evening));
+            assertTrue("other date", context != dayCalculator.prepareDay(tomorrow));
+            assertTrue("retains today and the other day", context == dayCalculator.prepareDay(morning));
+            assertTrue("declination", Math.abs(context.declination()) < 1);    // (near the equinox)
+            assertTrue("equation of time", Math.abs(context.equationOfTime()) < 17 * 60);
+
+            SuntimesCalculator fresh = factory.createCalculator(TEST_LOCATIONS[3], timezone);
+            assertEquals(fresh.getOfficialSunriseCalendarForDate(morning), calculator.getOfficialSunriseCalendarForDate(evening));
+            assertEquals(fresh.getCivilSunsetCalendarForDate(tomorrow), calculator.getCivilSunsetCalendarForDate(tomorrow));
+        }
+    }
+
 }
@@ -0,0 +1,91 @@
+/**
+    Copyright (C) 2022 Forrest Guice
+    This file is part of SuntimesWidget.
+
+    SuntimesWidget is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SuntimesWidget is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SuntimesWidget.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.forrestguice.suntimeswidget.calculator;
+
+import android.support.test.runner.AndroidJUnit4;
+
+import com.forrestguice.suntimeswidget.calculator.core.SuntimesCalculator;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertTrue;
+
+@RunWith(AndroidJUnit4.class)
+public class SuntimesEventCacheTest
+{
+    public static final String TEST_KEY = "test";
+    public static final TimeZone TEST_TIMEZONE = TimeZone.getTimeZone("US/Arizona");
+
+    @Test
+    public void test_dayEvents()
+    {
+        SuntimesEventCache cache = new SuntimesEventCache(4);
+        Calendar day = Calendar.getInstance(TEST_TIMEZONE);
+        Calendar rise = (Calendar) day.clone();
+        rise.add(Calendar.HOUR, 1);
+
+        assertTrue("not cached yet", cache.getDayEvents(TEST_KEY, "OFFICIAL", day) == null);
+        cache.putDayEvents(TEST_KEY, "OFFICIAL", day, rise, null);
+
+        Calendar[] cached = cache.getDayEvents(TEST_KEY, "OFFICIAL", day);
+        assertTrue("cached", cached != null && cached.length == 2);
+        assertTrue("same time", cached[0].getTimeInMillis() == rise.getTimeInMillis());
+        assertTrue("same timezone", cached[0].getTimeZone().equals(TEST_TIMEZONE));
+        assertTrue("null event", cached[1] == null);
+        assertTrue("copies", cached[0] != rise && cache.getDayEvents(TEST_KEY, "OFFICIAL", day)[0] != cached[0]);
+        assertTrue("other mode", cache.getDayEvents(TEST_KEY, "CIVIL", day) == null);
+
+        Calendar other = (Calendar) day.clone();
+        other.add(Calendar.DAY_OF_MONTH, 1);
+        assertTrue("other day", cache.getDayEvents(TEST_KEY, "OFFICIAL", other) == null);
+
+        for (int i=0; i<4; i++)    // least recently used entries are discarded
+        {
+            cache.putDayEvents(TEST_KEY, "OFFICIAL", other, rise, rise);
+            other.add(Calendar.DAY_OF_MONTH, 1);
+        }
+        assertTrue("bounded", cache.size() == 4);
+        assertTrue("discarded", cache.getDayEvents(TEST_KEY, "OFFICIAL", day) == null);
+    }
+
+    @Test
+    public void test_moonPhases()
+    {
+        SuntimesEventCache cache = new SuntimesEventCache(4);
+        SuntimesCalculator.MoonPhase phase = SuntimesCalculator.MoonPhase.FULL;
+        Calendar fullMoon = Calendar.getInstance(TEST_TIMEZONE);
+        cache.putMoonPhase(TEST_KEY, phase, fullMoon);
+
+        Calendar after = (Calendar) fullMoon.clone();
+        after.add(Calendar.DAY_OF_MONTH, -10);
+        Calendar cached = cache.getMoonPhaseNextDate(TEST_KEY, phase, after);
+        assertTrue("cached", cached != null && cached.getTimeInMillis() == fullMoon.getTimeInMillis());
+        assertTrue("other phase", cache.getMoonPhaseNextDate(TEST_KEY, SuntimesCalculator.MoonPhase.NEW, after) == null);
+
+        after.add(Calendar.DAY_OF_MONTH, -20);    // a full moon could occur in between
+        assertTrue("too far", cache.getMoonPhaseNextDate(TEST_KEY, phase, after) == null);
+
+        after.setTimeInMillis(fullMoon.getTimeInMillis());
+        assertTrue("not after", cache.getMoonPhaseNextDate(TEST_KEY, phase, after) == null);
+    }
+}
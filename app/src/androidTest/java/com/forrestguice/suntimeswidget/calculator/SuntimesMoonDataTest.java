@@ -0,0 +1,104 @@
+/**
+    Copyright (C) 2022 Forrest Guice
+    This file is part of SuntimesWidget.
+
+    SuntimesWidget is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SuntimesWidget is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SuntimesWidget.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+
+package com.forrestguice.suntimeswidget.calculator;
+
+import android.content.Context;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.test.RenamingDelegatingContext;
+
+import com.forrestguice.suntimeswidget.calculator.core.SuntimesCalculator;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Calendar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(AndroidJUnit4.class)
+public class SuntimesMoonDataTest
+{
+    private Context mockContext;
+
+    @Before
+    public void setup() {
+        mockContext = new RenamingDelegatingContext(InstrumentationRegistry.getTargetContext(), "test_");
+    }
+
+    /**
+     * Reading moonrise shouldn't calculate the phases (the phase search populates the cache).
+     */
+    @Test
+    public void test_lazy()
+    {
+        SuntimesEventCache cache = new SuntimesEventCache(SuntimesEventCache.DEFAULT_MAX_ENTRIES);
+        SuntimesMoonData data = new SuntimesMoonData(mockContext, 0, "moon");
+        data.setEventCache(cache);
+        data.calculate();
+        assertTrue(data.isCalculated());
+
+        String dataKey = SuntimesEventCache.dataKey(data);
+        String calculatorKey = SuntimesEventCache.calculatorKey(data);
+        Calendar midnight = data.midnight();
+        assertTrue("nothing calculated yet", cache.getMoonTimes(dataKey, data.calendar()) == null);
+
+        data.moonriseCalendarToday();
+        assertTrue("today calculated", cache.getMoonTimes(dataKey, data.calendar()) != null);
+        assertTrue("tomorrow not calculated", cache.getMoonTimes(dataKey, data.getOtherCalendar()) == null);
+        assertTrue("phases not calculated", cache.getMoonPhaseTimeline(calculatorKey, midnight.getTimeInMillis()) == null);
+
+        assertTrue(data.getMoonPhaseToday() != null);
+        assertTrue("phases calculated", cache.getMoonPhaseTimeline(calculatorKey, midnight.getTimeInMillis()) != null);
+    }
+
+    /**
+     * Results should be the same no matter the order they are read in.
+     */
+    @Test
+    public void test_calculatePending()
+    {
+        SuntimesMoonData data0 = new SuntimesMoonData(mockContext, 0, "moon");
+        data0.calculate();
+        data0.calculatePending();
+
+        SuntimesMoonData data1 = new SuntimesMoonData(mockContext, 0, "moon");
+        data1.calculate();
+        assertEquals(data0.getMoonPhaseNext(), data1.getMoonPhaseNext());
+        assertEquals(data0.getMoonIlluminationTomorrow(), data1.getMoonIlluminationTomorrow(), 0);
+        assertEquals(data0.getLunarNoonToday(), data1.getLunarNoonToday());
+        assertEquals(data0.moonsetCalendarYesterday(), data1.moonsetCalendarYesterday());
+        assertEquals(data0.moonriseCalendarToday(), data1.moonriseCalendarToday());
+        assertEquals(data0.moonsetCalendarTomorrow(), data1.moonsetCalendarTomorrow());
+        assertEquals(data0.getLunarMidnightTomorrow(), data1.getLunarMidnightTomorrow());
+        assertEquals(data0.getMoonIlluminationToday(), data1.getMoonIlluminationToday(), 0);
+        assertEquals(data0.getMoonPhaseToday(), data1.getMoonPhaseToday());
+        assertEquals(data0.getMoonPhaseTomorrow(), data1.getMoonPhaseTomorrow());
+        for (SuntimesCalculator.MoonPhase phase : SuntimesCalculator.MoonPhase.values()) {
+            assertEquals(data0.moonPhaseCalendar(phase), data1.moonPhaseCalendar(phase));
+        }
+
+        SuntimesMoonData copy = new SuntimesMoonData(data1);
+        assertEquals(data1.moonriseCalendarTomorrow(), copy.moonriseCalendarTomorrow());
+        assertEquals(data1.getMoonPhaseToday(), copy.getMoonPhaseToday());
+    }
+}
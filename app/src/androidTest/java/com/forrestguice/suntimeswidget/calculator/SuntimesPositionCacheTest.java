@@ -0,0 +1,131 @@
+/**
+    Copyright (C) 2022 Forrest Guice
+    This file is part of SuntimesWidget.
+
+    SuntimesWidget is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SuntimesWidget is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SuntimesWidget.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.forrestguice.suntimeswidget.calculator;
+
+import android.content.Context;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.test.RenamingDelegatingContext;
+
+import com.forrestguice.suntimeswidget.calculator.core.Location;
+import com.forrestguice.suntimeswidget.calculator.core.SuntimesCalculator;
+import com.forrestguice.suntimeswidget.calculator.time4a.Time4A4JSuntimesCalculator;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Calendar;
+import java.util.Random;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertTrue;
+
+@RunWith(AndroidJUnit4.class)
+public class SuntimesPositionCacheTest
+{
+    public static final double TOLERANCE_DEGREES = 0.01;
+    public static final double TOLERANCE_DISTANCE = 1;    // km
+    public static final int NUM_SAMPLES = 500;
+
+    public static final TimeZone TEST_TIMEZONE = TimeZone.getTimeZone("UTC");
+
+    private Context mockContext;
+
+    @Before
+    public void setup() {
+        mockContext = new RenamingDelegatingContext(InstrumentationRegistry.getTargetContext(), "test_");
+    }
+
+    @Test
+    public void test_positions()
+    {
+        for (Location location : SunPathSamplerTest.TEST_LOCATIONS)
+        {
+            SuntimesCalculatorFactory factory = new SuntimesCalculatorFactory(mockContext, Time4A4JSuntimesCalculator.getDescriptor());
+            SuntimesCalculator calculator = factory.createCalculator(location, TEST_TIMEZONE);
+            SuntimesPositionCache cache = new SuntimesPositionCache(SuntimesPositionCache.DEFAULT_MAX_NODES);
+
+            Random random = new Random(location.getLabel().hashCode());
+            Calendar start = Calendar.getInstance(TEST_TIMEZONE);
+            start.set(2022, Calendar.JUNE, 21, 0, 0, 0);
+            Calendar calendar = Calendar.getInstance(TEST_TIMEZONE);
+
+            for (int i=0; i<NUM_SAMPLES; i++)
+            {
+                calendar.setTimeInMillis(start.getTimeInMillis() + (long)(random.nextDouble() * 2 * SuntimesData.DAY_MILLIS));
+                String tag = location.getLabel() + " " + calendar.getTime() + ": ";
+
+                SuntimesCalculator.SunPosition sun0 = calculator.getSunPosition(calendar);
+                SuntimesCalculator.SunPosition sun1 = cache.getSunPosition(calculator, calendar);
+                assertTrue(tag + "sun position", sun1 != null);
+                test_position(tag + "sun ", sun0, sun1);
+
+                SuntimesCalculator.MoonPosition moon0 = calculator.getMoonPosition(calendar);
+                SuntimesCalculator.MoonPosition moon1 = cache.getMoonPosition(calculator, calendar);
+                assertTrue(tag + "moon position", moon1 != null);
+                test_position(tag + "moon ", moon0, moon1);
+                assertTrue(tag + "moon distance", Math.abs(moon1.distance - moon0.distance) < TOLERANCE_DISTANCE);
+            }
+            assertTrue("bounded", cache.size() <= SuntimesPositionCache.DEFAULT_MAX_NODES);
+        }
+    }
+
+    @Test
+    public void test_fill()
+    {
+        Location location = SunPathSamplerTest.TEST_LOCATIONS[0];
+        SuntimesCalculatorFactory factory = new SuntimesCalculatorFactory(mockContext, Time4A4JSuntimesCalculator.getDescriptor());
+        SuntimesCalculator calculator = factory.createCalculator(location, TEST_TIMEZONE);
+        SuntimesPositionCache cache = new SuntimesPositionCache(SuntimesPositionCache.DEFAULT_MAX_NODES);
+
+        Calendar calendar = Calendar.getInstance(TEST_TIMEZONE);
+        calendar.set(2022, Calendar.JUNE, 21, 16, 0, 0);    // ~9am (local)
+        for (int i=0; i<4; i++)    // lookups a day apart (e.g. animating) don't fill the grid
+        {
+            calendar.add(Calendar.DAY_OF_YEAR, 1);
+            assertTrue(cache.getSunPosition(calculator, calendar) != null);
+        }
+        assertTrue("not filled (sparse)", cache.size() == 0);
+
+        Calendar sunrise = calculator.getOfficialSunriseCalendarForDate(calendar);
+        assertTrue(cache.getSunPosition(calculator, sunrise) != null);
+        sunrise.add(Calendar.MINUTE, 1);
+        assertTrue(cache.getSunPosition(calculator, sunrise) != null);
+        assertTrue("not filled (horizon)", cache.size() == 0);
+
+        for (int i=0; i<60; i++)    // lookups a minute apart do
+        {
+            calendar.add(Calendar.MINUTE, 1);
+            SuntimesCalculator.SunPosition sun0 = calculator.getSunPosition(calendar);
+            SuntimesCalculator.SunPosition sun1 = cache.getSunPosition(calculator, calendar);
+            assertTrue(sun1 != null);
+            test_position(calendar.getTime() + ": sun ", sun0, sun1);
+        }
+        assertTrue("filled", cache.size() > 0 && cache.size() <= 12);
+    }
+
+    protected void test_position(String tag, SuntimesCalculator.Position expected, SuntimesCalculator.Position actual)
+    {
+        assertTrue(tag + "elevation " + actual.elevation + " ~ " + expected.elevation, Math.abs(actual.elevation - expected.elevation) < TOLERANCE_DEGREES);
+        assertTrue(tag + "declination " + actual.declination + " ~ " + expected.declination, Math.abs(actual.declination - expected.declination) < TOLERANCE_DEGREES);
+        assertTrue(tag + "azimuth " + actual.azimuth + " ~ " + expected.azimuth, Math.abs(SunPathSampler.unwrap(actual.azimuth, expected.azimuth) - expected.azimuth) < TOLERANCE_DEGREES);
+        assertTrue(tag + "right ascension " + actual.rightAscension + " ~ " + expected.rightAscension, Math.abs(SunPathSampler.unwrap(actual.rightAscension, expected.rightAscension) - expected.rightAscension) < TOLERANCE_DEGREES);
+    }
+}
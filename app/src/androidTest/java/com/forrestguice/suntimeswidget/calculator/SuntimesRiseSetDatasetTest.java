@@ -0,0 +1,155 @@
+/**
+    Copyright (C) 2022 Forrest Guice
+    This file is part of SuntimesWidget.
+
+    SuntimesWidget is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SuntimesWidget is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SuntimesWidget.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.forrestguice.suntimeswidget.calculator;
+
+import android.content.Context;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.test.RenamingDelegatingContext;
+import android.util.Log;
+
+import com.forrestguice.suntimeswidget.calculator.core.SuntimesCalculator;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(AndroidJUnit4.class)
+public class SuntimesRiseSetDatasetTest
+{
+    public static final int BENCHMARK_ITERATIONS = 50;
+
+    private Context mockContext;
+
+    @Before
+    public void setup() {
+        mockContext = new RenamingDelegatingContext(InstrumentationRegistry.getTargetContext(), "test_");
+    }
+
+    @Test
+    public void test_calculateData()
+    {
+        SuntimesRiseSetDataset dataset0 = new SuntimesRiseSetDataset(mockContext, 0);
+        calculateEach(dataset0);
+
+        SuntimesRiseSetDataset dataset1 = new SuntimesRiseSetDataset(mockContext, 0);
+        dataset1.calculateData();
+        assertTrue(dataset1.isCalculated());
+
+        SuntimesRiseSetData[] expected = entries(dataset0);
+        SuntimesRiseSetData[] actual = entries(dataset1);
+        for (int i=0; i<expected.length; i++)
+        {
+            assertTrue("calculated", actual[i].isCalculated());
+            assertTrue("shared calculator", actual[i].calculator() == dataset1.calculator());
+            assertEquals(expected[i].timeMode(), actual[i].timeMode());
+            assertEquals(expected[i].sunriseCalendarToday(), actual[i].sunriseCalendarToday());
+            assertEquals(expected[i].sunsetCalendarToday(), actual[i].sunsetCalendarToday());
+            assertEquals(expected[i].sunriseCalendarOther(), actual[i].sunriseCalendarOther());
+            assertEquals(expected[i].sunsetCalendarOther(), actual[i].sunsetCalendarOther());
+            assertEquals(expected[i].dayLengthToday(), actual[i].dayLengthToday());
+            assertEquals(expected[i].dayLengthOther(), actual[i].dayLengthOther());
+        }
+    }
+
+    /**
+     * Each day is calculated when its results are first read.
+     */
+    @Test
+    public void test_calculateDay()
+    {
+        SuntimesEventCache cache = new SuntimesEventCache(SuntimesEventCache.DEFAULT_MAX_ENTRIES);
+        SuntimesRiseSetData data = new SuntimesRiseSetData(mockContext, 0);
+        data.setEventCache(cache);
+        data.calculate();
+        assertTrue(data.isCalculated());
+
+        String dataKey = SuntimesEventCache.dataKey(data);
+        String eventKey = data.timeMode().name();
+        assertTrue("nothing calculated yet", cache.getDayEvents(dataKey, eventKey, data.calendar()) == null);
+
+        data.sunriseCalendarToday();
+        assertTrue("today calculated", cache.getDayEvents(dataKey, eventKey, data.calendar()) != null);
+        assertTrue("other not calculated", cache.getDayEvents(dataKey, eventKey, data.getOtherCalendar()) == null);
+
+        data.dayLengthOther();
+        assertTrue("other calculated", cache.getDayEvents(dataKey, eventKey, data.getOtherCalendar()) != null);
+
+        SuntimesRiseSetData data1 = new SuntimesRiseSetData(mockContext, 0);
+        data1.calculate();
+        data1.calculatePending();
+        assertEquals(data1.sunsetCalendarToday(), data.sunsetCalendarToday());
+        assertEquals(data1.sunriseCalendarOther(), data.sunriseCalendarOther());
+        assertEquals(data1.dayLengthToday(), data.dayLengthToday());
+    }
+
+    @Test
+    public void test_calculateData_benchmark()
+    {
+        for (int i=0; i<5; i++) {    // warm up
+            calculateEach(new SuntimesRiseSetDataset(mockContext, 0));
+            new SuntimesRiseSetDataset(mockContext, 0).calculateData();
+        }
+
+        long eachNanos = 0, singlePassNanos = 0;
+        for (int i=0; i<BENCHMARK_ITERATIONS; i++)
+        {
+            SuntimesRiseSetDataset dataset0 = new SuntimesRiseSetDataset(mockContext, 0);
+            long start = System.nanoTime();
+            calculateEach(dataset0);
+            eachNanos += System.nanoTime() - start;
+
+            SuntimesRiseSetDataset dataset1 = new SuntimesRiseSetDataset(mockContext, 0);
+            start = System.nanoTime();
+            dataset1.calculateData();
+            singlePassNanos += System.nanoTime() - start;
+        }
+
+        double eachMillis = (eachNanos / 1000000d) / BENCHMARK_ITERATIONS;
+        double singlePassMillis = (singlePassNanos / 1000000d) / BENCHMARK_ITERATIONS;
+        Log.i("SuntimesRiseSetDataset", "benchmark: per entry " + eachMillis + "ms, single pass " + singlePassMillis + "ms, saved " + (eachMillis - singlePassMillis) + "ms per dataset");
+    }
+
+    protected static SuntimesRiseSetData[] entries(SuntimesRiseSetDataset dataset)
+    {
+        return new SuntimesRiseSetData[] { dataset.dataActual, dataset.dataCivil, dataset.dataNautical, dataset.dataAstro,
+                dataset.dataNoon, dataset.dataGold, dataset.dataBlue8, dataset.dataBlue4 };
+    }
+
+    /**
+     * Calculates each entry on its own (the way calculateData did before it was a single pass).
+     */
+    protected static void calculateEach(SuntimesRiseSetDataset dataset)
+    {
+        SuntimesRiseSetData[] entries = entries(dataset);
+        entries[0].calculate();
+        SuntimesCalculator calculator = entries[0].calculator();
+        SuntimesCalculatorDescriptor descriptor = entries[0].calculatorMode();
+        for (int i=1; i<entries.length; i++)
+        {
+            entries[i].setCalculator(calculator, descriptor);
+            entries[i].calculate();
+        }
+        calculator.getSunPosition(dataset.nowThen(dataset.calendar()));
+        calculator.getSunPosition(dataset.nowThen(dataset.otherCalendar()));
+    }
+}
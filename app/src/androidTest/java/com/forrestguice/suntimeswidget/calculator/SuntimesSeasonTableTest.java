@@ -0,0 +1,112 @@
+/**
+    Copyright (C) 2022 Forrest Guice
+    This file is part of SuntimesWidget.
+
+    SuntimesWidget is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SuntimesWidget is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SuntimesWidget.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.forrestguice.suntimeswidget.calculator;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.test.RenamingDelegatingContext;
+
+import com.forrestguice.suntimeswidget.calculator.core.Location;
+import com.forrestguice.suntimeswidget.calculator.core.SuntimesCalculator;
+import com.forrestguice.suntimeswidget.calculator.time4a.Time4A4JSuntimesCalculator;
+import com.forrestguice.suntimeswidget.settings.WidgetSettings;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertTrue;
+
+@RunWith(AndroidJUnit4.class)
+public class SuntimesSeasonTableTest
+{
+    public static final TimeZone TEST_TIMEZONE = TimeZone.getTimeZone("UTC");
+    public static final Location TEST_LOCATION_SOUTH = new Location("Wellington", "-41.2866", "174.7756", "0");
+
+    private Context mockContext;
+    private SharedPreferences prefs;
+
+    @Before
+    public void setup()
+    {
+        mockContext = new RenamingDelegatingContext(InstrumentationRegistry.getTargetContext(), "test_");
+        prefs = mockContext.getSharedPreferences(SuntimesSeasonTable.PREFS_SEASONS, Context.MODE_PRIVATE);
+        prefs.edit().clear().commit();
+    }
+
+    @Test
+    public void test_seasonTable()
+    {
+        SuntimesCalculatorFactory factory = new SuntimesCalculatorFactory(mockContext, Time4A4JSuntimesCalculator.getDescriptor());
+        SuntimesCalculator[] calculators = new SuntimesCalculator[] {
+                factory.createCalculator(SunPathSamplerTest.TEST_LOCATIONS[0], TEST_TIMEZONE),
+                factory.createCalculator(TEST_LOCATION_SOUTH, TEST_TIMEZONE)
+        };
+
+        SuntimesSeasonTable table = new SuntimesSeasonTable(prefs);
+        for (SuntimesCalculator calculator : calculators)
+        {
+            long[][] rows = table.getRange(calculator, 2020, 2030);
+            assertTrue("11 years", rows.length == 11);
+
+            Calendar year = Calendar.getInstance(TEST_TIMEZONE);
+            for (int i=0; i<rows.length; i++)
+            {
+                year.set(2020 + i, Calendar.JANUARY, 15);
+                for (WidgetSettings.SolsticeEquinoxMode mode : SuntimesSeasonTable.SEASONS)
+                {
+                    Calendar expected = SuntimesSeasonTable.calculateEvent(calculator, mode, year);
+                    assertTrue(mode + " " + year.get(Calendar.YEAR), rows[i] != null && rows[i][mode.ordinal()] == expected.getTimeInMillis());
+
+                    Calendar event = table.getEvent(calculator, mode, year);
+                    assertTrue("getEvent", event != null && event.getTimeInMillis() == expected.getTimeInMillis());
+                }
+            }
+        }
+
+        SuntimesSeasonTable table1 = new SuntimesSeasonTable(prefs);    // persisted
+        long[] north = table1.getYear(calculators[0], 2025);
+        long[] south = table1.getYear(calculators[1], 2025);
+        assertTrue("persisted", prefs.contains(SuntimesSeasonTable.yearKey(calculators[0], 2025)));
+        assertTrue("hemispheres differ", north != null && south != null
+                && north[WidgetSettings.SolsticeEquinoxMode.EQUINOX_SPRING.ordinal()] == south[WidgetSettings.SolsticeEquinoxMode.EQUINOX_AUTUMNAL.ordinal()]);
+    }
+
+    @Test
+    public void test_seasonTable_bounded()
+    {
+        SuntimesCalculatorFactory factory = new SuntimesCalculatorFactory(mockContext, Time4A4JSuntimesCalculator.getDescriptor());
+        SuntimesCalculator calculator = factory.createCalculator(SunPathSamplerTest.TEST_LOCATIONS[0], TEST_TIMEZONE);
+        int thisYear = Calendar.getInstance().get(Calendar.YEAR);
+
+        SuntimesSeasonTable table = new SuntimesSeasonTable(prefs);
+        table.getRange(calculator, thisYear - 10, thisYear + 10);                               // 21 rows
+        table.getRange(calculator, thisYear + 1000, thisYear + 1000 + SuntimesSeasonTable.MAX_YEARS - 2);    // MAX_YEARS - 1 rows
+
+        assertTrue("bounded", prefs.getAll().size() <= SuntimesSeasonTable.MAX_YEARS + 1);    // (+ version)
+        assertTrue("requested rows kept", prefs.contains(SuntimesSeasonTable.yearKey(calculator, thisYear + 1000)));
+        assertTrue("nearest row kept", prefs.contains(SuntimesSeasonTable.yearKey(calculator, thisYear)));
+        assertTrue("furthest rows evicted", !prefs.contains(SuntimesSeasonTable.yearKey(calculator, thisYear + 10)));
+    }
+}
@@ -0,0 +1,78 @@
+/**
+    Copyright (C) 2022 Forrest Guice
+    This file is part of SuntimesWidget.
+
+    SuntimesWidget is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SuntimesWidget is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SuntimesWidget.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.forrestguice.suntimeswidget.settings;
+
+import android.content.Context;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.test.RenamingDelegatingContext;
+
+import com.forrestguice.suntimeswidget.calculator.core.Location;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertTrue;
+
+@RunWith(AndroidJUnit4.class)
+public class WidgetConfigTest
+{
+    private Context mockContext;
+
+    @Before
+    public void setup() {
+        mockContext = new RenamingDelegatingContext(InstrumentationRegistry.getTargetContext(), "test_");
+    }
+
+    @Test
+    public void test_snapshot()
+    {
+        int appWidgetId = Integer.MAX_VALUE - 2;
+        WidgetSettings.saveShowSecondsPref(mockContext, appWidgetId, true);
+        WidgetSettings.saveTimeMode2Pref(mockContext, appWidgetId, WidgetSettings.SolsticeEquinoxMode.SOLSTICE_WINTER);
+        WidgetSettings.saveLocationPref(mockContext, appWidgetId, new Location("test", "33.45", "-111.94", "385"));
+        InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+
+        WidgetConfig config = WidgetConfig.get(mockContext, appWidgetId);
+        assertTrue("cached", WidgetConfig.get(mockContext, appWidgetId) == config);
+        assertTrue("showSeconds", config.showSeconds() == WidgetSettings.loadShowSecondsPref(mockContext, appWidgetId));
+        assertTrue("timeMode2", config.timeMode2() == WidgetSettings.SolsticeEquinoxMode.SOLSTICE_WINTER);
+        assertTrue("location", config.location().equals(WidgetSettings.loadLocationPref(mockContext, appWidgetId)));
+        assertTrue("calculator", config.calculatorMode(mockContext, "").getName().equals(WidgetSettings.loadCalculatorModePref(mockContext, appWidgetId).getName()));
+
+        config.location().setUseAltitude(false);    // snapshot is immutable
+        assertTrue("location copy", config.location().equals(WidgetSettings.loadLocationPref(mockContext, appWidgetId)));
+
+        WidgetSettings.saveShowSecondsPref(mockContext, appWidgetId, false);
+        InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+        WidgetConfig config1 = WidgetConfig.get(mockContext, appWidgetId);
+        assertTrue("invalidated", config1 != config);
+        assertTrue("reloaded", !config1.showSeconds());
+
+        WidgetConfig other = WidgetConfig.get(mockContext, appWidgetId - 1);
+        WidgetSettings.saveShowTitlePref(mockContext, appWidgetId, true);
+        InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+        assertTrue("other widgets unaffected", WidgetConfig.get(mockContext, appWidgetId - 1) == other);
+
+        WidgetSettings.saveShowTitlePref(mockContext, 0, true);
+        InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+        assertTrue("app config invalidates all", WidgetConfig.get(mockContext, appWidgetId - 1) != other);
+    }
+}
@@ -22,6 +22,8 @@ import android.content.Context;
 import android.content.Intent;
 import android.content.SharedPreferences;
 import android.graphics.Color;
+import android.test.RenamingDelegatingContext;
+import android.support.test.InstrumentationRegistry;
 import android.support.test.rule.ActivityTestRule;
 import android.support.test.runner.AndroidJUnit4;
 import android.util.Log;
@@ -986,4 +988,34 @@ public class WidgetSettingsTest extends SuntimesActivityTestBase
         assertTrue("riseSetOrder should be default (TODAY) but was " + mode, mode == WidgetSettings.RiseSetOrder.TODAY && mode == WidgetSettings.PREF_DEF_GENERAL_RISESETORDER);
     }
 
+    @Test
+    public void test_initShards()
+    {
+        Context context = new RenamingDelegatingContext(InstrumentationRegistry.getTargetContext(), "test_shards_");
+        SharedPreferences legacy = context.getSharedPreferences(WidgetSettings.PREFS_WIDGET, 0);
+        legacy.edit().clear()
+                .putString(WidgetSettings.PREF_PREFIX_KEY + 0 + WidgetSettings.PREF_PREFIX_KEY_LOCATION + WidgetSettings.PREF_KEY_LOCATION_LABEL, "app")
+                .putString(WidgetSettings.PREF_PREFIX_KEY + 12 + WidgetSettings.PREF_PREFIX_KEY_LOCATION + WidgetSettings.PREF_KEY_LOCATION_LABEL, "widget12")
+                .putBoolean(WidgetSettings.PREF_PREFIX_KEY + 12 + WidgetSettings.PREF_PREFIX_KEY_GENERAL + WidgetSettings.PREF_KEY_GENERAL_SHOWSECONDS, true)
+                .putLong(WidgetSettings.PREF_PREFIX_KEY + 34 + "_nextUpdate", 10L)
+                .putString("other", "value").commit();
+        context.getSharedPreferences(WidgetSettings.PREFS_WIDGET_SHARD + 12, 0).edit().clear().commit();
+
+        WidgetSettings.initShards(context);
+        assertTrue(legacy.getInt(WidgetSettings.PREF_KEY_SHARDED, 0) == WidgetSettings.PREF_DEF_SHARDED);
+        assertTrue("app settings remain", legacy.contains(WidgetSettings.PREF_PREFIX_KEY + 0 + WidgetSettings.PREF_PREFIX_KEY_LOCATION + WidgetSettings.PREF_KEY_LOCATION_LABEL));
+        assertTrue("other keys remain", legacy.contains("other"));
+        assertFalse("widget settings moved", legacy.contains(WidgetSettings.PREF_PREFIX_KEY + 12 + WidgetSettings.PREF_PREFIX_KEY_LOCATION + WidgetSettings.PREF_KEY_LOCATION_LABEL));
+
+        assertEquals("widget12", WidgetSettings.loadLocationPref(context, 12).getLabel());
+        assertTrue(WidgetSettings.loadShowSecondsPref(context, 12));
+        assertEquals(10L, context.getSharedPreferences(WidgetSettings.PREFS_WIDGET_SHARD + 34, 0).getLong(WidgetSettings.PREF_PREFIX_KEY + 34 + "_nextUpdate", -1));
+        assertEquals("app", WidgetSettings.loadLocationPref(context, 56).getLabel());    // falls back to app location
+
+        WidgetSettings.deletePrefs(context, 12);
+        assertTrue(WidgetSettings.getPrefs(context, 12).getAll().isEmpty());
+
+        assertTrue(WidgetSettings.parseAppWidgetId(WidgetSettings.PREF_PREFIX_KEY + "-1_general_") == -1);
+        assertTrue(WidgetSettings.parseAppWidgetId("other") == null);
+    }
 }
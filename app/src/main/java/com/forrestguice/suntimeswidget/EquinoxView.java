@@ -44,6 +44,7 @@ import android.widget.LinearLayout;
 import android.widget.TextView;
 
 import com.forrestguice.suntimeswidget.calculator.SuntimesEquinoxSolsticeDataset;
+import com.forrestguice.suntimeswidget.calculator.SuntimesEventCache;
 import com.forrestguice.suntimeswidget.cards.CardAdapter;
 import com.forrestguice.suntimeswidget.cards.CardLayoutManager;
 import com.forrestguice.suntimeswidget.settings.AppSettings;
@@ -828,6 +829,7 @@ public class EquinoxView extends LinearLayout
 
             SuntimesEquinoxSolsticeDataset retValue = new SuntimesEquinoxSolsticeDataset(context, 0);
             retValue.setTodayIs(date);
+            retValue.setEventCache(SuntimesEventCache.getSharedCache());
             retValue.calculateData();
             return retValue;
         }
@@ -58,6 +58,9 @@ import android.widget.PopupWindow;
 import android.widget.SeekBar;
 import android.widget.TextView;
 
+import com.forrestguice.suntimeswidget.calculator.SuntimesPositionCache;
+import com.forrestguice.suntimeswidget.calculator.SunPathSampler;
+import com.forrestguice.suntimeswidget.calculator.SuntimesEventCache;
 import com.forrestguice.suntimeswidget.calculator.core.SuntimesCalculator;
 import com.forrestguice.suntimeswidget.calculator.SuntimesRiseSetData;
 import com.forrestguice.suntimeswidget.calculator.SuntimesRiseSetDataset;
@@ -1052,10 +1055,14 @@ public class LightMapDialog extends BottomSheetDialogFragment
                 now.setTimeInMillis(getMapTime(now.getTimeInMillis()));
             }
 
+            int dayKey = SuntimesEventCache.dayKey(now);
+            sunPathStable = (!lightmap.isAnimated() && dayKey == sunPathLastDay);
+            sunPathLastDay = dayKey;
+
             SuntimesRiseSetData noonData = data.dataNoon;
             Calendar noonTime = (noonData != null ? noonData.sunriseCalendarToday() : null);
-            SuntimesCalculator.SunPosition noonPosition = (noonTime != null && calculator != null ? calculator.getSunPosition(noonTime) : null);
-            SuntimesCalculator.SunPosition currentPosition = (calculator != null ? calculator.getSunPosition(now) : null);
+            SuntimesCalculator.SunPosition noonPosition = getSunPosition(data, noonTime);
+            SuntimesCalculator.SunPosition currentPosition = getSunPosition(data, now);
 
             if (currentPosition != null)
             {
@@ -1071,7 +1078,7 @@ public class LightMapDialog extends BottomSheetDialogFragment
 
             SuntimesRiseSetData riseSetData = data.dataActual;
             Calendar riseTime = (riseSetData != null ? riseSetData.sunriseCalendarToday() : null);
-            SuntimesCalculator.SunPosition positionRising = (riseTime != null && calculator != null ? calculator.getSunPosition(riseTime) : null);
+            SuntimesCalculator.SunPosition positionRising = getSunPosition(data, riseTime);
             if (positionRising != null) {
                 styleAzimuthText(sunAzimuthRising, positionRising.azimuth, colorRising, decimalPlaces);
 
@@ -1081,7 +1088,7 @@ public class LightMapDialog extends BottomSheetDialogFragment
             }
 
             Calendar setTime = (riseSetData != null ? riseSetData.sunsetCalendarToday() : null);
-            SuntimesCalculator.SunPosition positionSetting = (setTime != null && calculator != null ? calculator.getSunPosition(setTime) : null);
+            SuntimesCalculator.SunPosition positionSetting = getSunPosition(data, setTime);
             if (positionSetting != null) {
                 styleAzimuthText(sunAzimuthSetting, positionSetting.azimuth, colorSetting, decimalPlaces);
 
@@ -1127,6 +1134,52 @@ public class LightMapDialog extends BottomSheetDialogFragment
         }
     }
 
+    /**
+     * Positions are looked up from a sampled sun path (@see SunPathSampler) that is calculated once per day
+     * (rather than calculating each position every UPDATE_RATE). The two most recently used days are kept
+     * (the displayed time and today's rise/set may fall on different days). A day is only sampled once it is
+     * stable (not animating, and unchanged since the previous update); otherwise positions come from the
+     * shared position cache so that animating (or seeking) doesn't sample a new day on every frame.
+     * @return the sun's position at the given time, or null if unavailable
+     */
+    @Nullable
+    protected SuntimesCalculator.SunPosition getSunPosition(@NonNull SuntimesRiseSetDataset data, @Nullable Calendar time)
+    {
+        SuntimesCalculator calculator = data.calculator();
+        if (calculator == null || time == null || data.dataActual == null) {
+            return (calculator != null && time != null ? SuntimesPositionCache.getSharedCache().getSunPosition(calculator, time) : null);
+        }
+
+        String key = SuntimesEventCache.dataKey(data.dataActual) + "|" + SuntimesEventCache.dayKey(time);
+        int i = (key.equals(sunPathKeys[0]) ? 0 : key.equals(sunPathKeys[1]) ? 1 : -1);
+        if (i < 0 || sunPaths[i].getCalculator() != calculator)
+        {
+            if (!sunPathStable) {
+                return SuntimesPositionCache.getSharedCache().getSunPosition(calculator, time);
+            }
+            i = 1;
+            sunPaths[i] = new SunPathSampler(calculator, SUNPATH_RESOLUTION_MINUTES, SunPathSampler.DEFAULT_EXACT_INTERVAL_MINUTES);
+            sunPaths[i].sampleDay(time);
+            sunPathKeys[i] = key;
+        }
+        if (i != 0)
+        {
+            SunPathSampler sampler = sunPaths[i];
+            sunPaths[i] = sunPaths[0];
+            sunPaths[0] = sampler;
+            sunPathKeys[i] = sunPathKeys[0];
+            sunPathKeys[0] = key;
+        }
+
+        SuntimesCalculator.SunPosition position = sunPaths[0].getPosition(time.getTimeInMillis());
+        return (position != null ? position : SuntimesPositionCache.getSharedCache().getSunPosition(calculator, time));
+    }
+    private final SunPathSampler[] sunPaths = new SunPathSampler[2];    // most recently used first
+    private final String[] sunPathKeys = new String[2];
+    private int sunPathLastDay = -1;
+    private boolean sunPathStable = false;
+    public static final int SUNPATH_RESOLUTION_MINUTES = 1;
+
     private void showSunPosition(boolean show)
     {
         if (sunLayout != null)
@@ -178,6 +178,9 @@ public class LightMapView extends android.support.v7.widget.AppCompatImageView
             return;
         }
 
+        if (data != null) {
+            data.calculatePending();    // results are otherwise calculated on first read (from the task's thread)
+        }
         drawTask = new LightMapTask();
         drawTask.setListener(drawTaskListener);
         drawTask.execute(data, getWidth(), getHeight(), colors, (animated ? 0 : 1), colors.offsetMinutes);
@@ -43,6 +43,7 @@ import android.widget.LinearLayout;
 import android.widget.TextView;
 
 import com.forrestguice.suntimeswidget.calculator.MoonPhaseDisplay;
+import com.forrestguice.suntimeswidget.calculator.SuntimesEventCache;
 import com.forrestguice.suntimeswidget.calculator.SuntimesMoonData1;
 import com.forrestguice.suntimeswidget.calculator.core.SuntimesCalculator;
 import com.forrestguice.suntimeswidget.settings.AppSettings;
@@ -391,6 +392,7 @@ public class MoonPhasesView1 extends LinearLayout
                 moon.setTodayIs(date);
             }
 
+            moon.setEventCache(SuntimesEventCache.getSharedCache());
             moon.calculate();
             return moon;
         }
@@ -78,6 +78,7 @@ import com.forrestguice.suntimeswidget.alarmclock.AlarmClockItem;
 import com.forrestguice.suntimeswidget.alarmclock.AlarmEvent;
 import com.forrestguice.suntimeswidget.alarmclock.ui.AlarmClockActivity;
 import com.forrestguice.suntimeswidget.alarmclock.ui.AlarmCreateDialog;
+import com.forrestguice.suntimeswidget.alarmclock.AlarmEventProvider;
 import com.forrestguice.suntimeswidget.calculator.CalculatorProvider;
 import com.forrestguice.suntimeswidget.calculator.core.SuntimesCalculator;
 import com.forrestguice.suntimeswidget.calculator.SuntimesEquinoxSolsticeDataset;
@@ -955,6 +956,7 @@ public class SuntimesActivity extends AppCompatActivity
                     boolean useAltitude = WidgetSettings.loadLocationAltitudeEnabledPref(SuntimesActivity.this, 0);
                     WidgetSettings.saveLocationAltitudeEnabledPref(SuntimesActivity.this, 0, !useAltitude);
                     CalculatorProvider.clearCachedConfig(0);
+                    AlarmEventProvider.notifyEventsChanged(SuntimesActivity.this);
                     calculateData(SuntimesActivity.this);
                     setUpdateAlarms(SuntimesActivity.this);
                     updateViews(SuntimesActivity.this);
@@ -1024,6 +1026,7 @@ public class SuntimesActivity extends AppCompatActivity
                     {
                         com.forrestguice.suntimeswidget.calculator.core.Location location = new com.forrestguice.suntimeswidget.calculator.core.Location(getString(R.string.gps_lastfix_title_found), result);
                         WidgetSettings.saveLocationPref(SuntimesActivity.this, 0, location);
+                        AlarmEventProvider.notifyEventsChanged(SuntimesActivity.this);
 
                     } else {
                         String msg = (wasCancelled ? getString(R.string.gps_lastfix_toast_cancelled) : getString(R.string.gps_lastfix_toast_notfound));
@@ -1411,6 +1414,7 @@ public class SuntimesActivity extends AppCompatActivity
             public void onClick(DialogInterface dialogInterface, int i)
             {
                 CalculatorProvider.clearCachedConfig(0);
+                AlarmEventProvider.notifyEventsChanged(SuntimesActivity.this);
                 calculateData(SuntimesActivity.this);
                 setUpdateAlarms(SuntimesActivity.this);
                 updateActionBar(SuntimesActivity.this);
@@ -1452,6 +1456,7 @@ public class SuntimesActivity extends AppCompatActivity
         {
             timezoneWarning.reset();
             CalculatorProvider.clearCachedConfig(0);
+            AlarmEventProvider.notifyEventsChanged(SuntimesActivity.this);
             calculateData(SuntimesActivity.this);
             setUpdateAlarms(SuntimesActivity.this);
             updateViews(SuntimesActivity.this);
@@ -61,6 +61,7 @@ import com.forrestguice.suntimeswidget.actions.ActionListActivity;
 import com.forrestguice.suntimeswidget.actions.LoadActionDialog;
 import com.forrestguice.suntimeswidget.alarmclock.AlarmNotifications;
 import com.forrestguice.suntimeswidget.alarmclock.AlarmSettings;
+import com.forrestguice.suntimeswidget.alarmclock.AlarmEventProvider;
 import com.forrestguice.suntimeswidget.calculator.CalculatorProvider;
 import com.forrestguice.suntimeswidget.calculator.core.SuntimesCalculator;
 
@@ -466,6 +467,7 @@ public class SuntimesSettingsActivity extends PreferenceActivity implements Shar
                 SuntimesCalculatorDescriptor descriptor = SuntimesCalculatorDescriptor.valueOf(this, calcName);
                 WidgetSettings.saveCalculatorModePref(this, 0, descriptor);
                 CalculatorProvider.clearCachedConfig(0);
+                AlarmEventProvider.notifyEventsChanged(this);
                 Log.i(LOG_TAG, "onSharedPreferenceChanged: value: " + calcName + " :: " + descriptor);
 
             } catch (InvalidParameterException e) {
@@ -483,6 +485,7 @@ public class SuntimesSettingsActivity extends PreferenceActivity implements Shar
                 SuntimesCalculatorDescriptor descriptor = SuntimesCalculatorDescriptor.valueOf(this, calcName);
                 WidgetSettings.saveCalculatorModePref(this, 0, "moon", descriptor);
                 CalculatorProvider.clearCachedConfig(0);
+                AlarmEventProvider.notifyEventsChanged(this);
                 Log.i(LOG_TAG, "onSharedPreferenceChanged: value: " + calcName + " :: " + descriptor);
 
             } catch (InvalidParameterException e) {
@@ -497,6 +500,7 @@ public class SuntimesSettingsActivity extends PreferenceActivity implements Shar
             // ...but this is a widget setting (belongs in com.forrestguice.suntimeswidget.xml)
             WidgetSettings.saveLocationAltitudeEnabledPref(this, 0, sharedPreferences.getBoolean(key, WidgetSettings.PREF_DEF_LOCATION_ALTITUDE_ENABLED));
             CalculatorProvider.clearCachedConfig(0);
+            AlarmEventProvider.notifyEventsChanged(this);
             return;
         }
 
@@ -67,7 +67,6 @@ import android.widget.ImageView;
 import android.widget.TextView;
 
 import java.lang.reflect.Method;
-import java.text.DateFormat;
 
 import com.forrestguice.suntimeswidget.calculator.SuntimesData;
 import com.forrestguice.suntimeswidget.calculator.SuntimesEquinoxSolsticeData;
@@ -84,15 +83,11 @@ import com.forrestguice.suntimeswidget.settings.WidgetTimezones;
 
 import java.text.DateFormatSymbols;
 import java.text.NumberFormat;
-import java.text.SimpleDateFormat;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Calendar;
-import java.util.Collection;
 import java.util.Date;
 import java.util.GregorianCalendar;
-import java.util.HashMap;
 import java.util.IllegalFormatConversionException;
 import java.util.List;
 import java.util.Locale;
@@ -568,11 +563,8 @@ public class SuntimesUtils
      */
     public TimeDisplayText calendarTimeSysDisplayString(Context context, @NonNull Calendar cal)
     {
-        DateFormat timeFormat = android.text.format.DateFormat.getTimeFormat(context);
-        Date time = cal.getTime();
-        applyTimeZone(time, cal.getTimeZone());
-        timeFormat.setTimeZone(cal.getTimeZone());
-        TimeDisplayText retValue = new TimeDisplayText(timeFormat.format(time), "", "");
+        TimeZone timezone = cal.getTimeZone();
+        TimeDisplayText retValue = new TimeDisplayText(TimeFormatCache.formatSystemTime(context, timezone, applyTimeZone(cal.getTimeInMillis(), timezone)), "", "");
         retValue.setRawValue(cal.getTimeInMillis());
         return retValue;
     }
@@ -593,27 +585,21 @@ public class SuntimesUtils
 
     public String calendarTime24HrString(Context context, @NonNull Calendar cal, boolean showSeconds)
     {
-        Date time = cal.getTime();
-        applyTimeZone(time, cal.getTimeZone());
-        SimpleDateFormat timeFormat = initTimeFormat_24(showSeconds);
-        timeFormat.setTimeZone(cal.getTimeZone());
-        return timeFormat.format(time);
+        return formatCalendar(cal, (showSeconds ? strTimeVeryShortFormat24s : strTimeVeryShortFormat24));
     }
-    private SimpleDateFormat initTimeFormat_24(boolean showSeconds)
-    {
-        if (showSeconds)
-        {
-            if (timeFormat_24s == null)
-                return (timeFormat_24s = new SimpleDateFormat(strTimeVeryShortFormat24s, getLocale()));
-            else return timeFormat_24s;
 
-        } else {
-            if (timeFormat_24 == null) {
-                return (timeFormat_24 = new SimpleDateFormat(strTimeVeryShortFormat24, getLocale()));
-            } else return timeFormat_24;
-        }
+    /**
+     * Formats the calendar using a cached formatter (@see TimeFormatCache); applies the calendar's
+     * timezone (and any special timezone rules, @see applyTimeZone).
+     * @param cal a Calendar representing some point in time
+     * @param pattern a SimpleDateFormat pattern
+     * @return the formatted string
+     */
+    protected String formatCalendar(@NonNull Calendar cal, @NonNull String pattern)
+    {
+        TimeZone timezone = cal.getTimeZone();
+        return TimeFormatCache.format(pattern, getLocale(), timezone, applyTimeZone(cal.getTimeInMillis(), timezone));
     }
-    private SimpleDateFormat timeFormat_24, timeFormat_24s;
 
     /**
      * applyTimeZone
@@ -621,11 +607,16 @@ public class SuntimesUtils
      * timezone rules here.
      */
     protected void applyTimeZone(@NonNull Date time, @NonNull TimeZone timezone)
+    {
+        time.setTime(applyTimeZone(time.getTime(), timezone));
+    }
+    protected long applyTimeZone(long time, @NonNull TimeZone timezone)
     {
         String tzID = timezone.getID();
         if (tzID.equals(WidgetTimezones.SiderealTime.TZID_GMST) || tzID.equals(WidgetTimezones.SiderealTime.TZID_LMST)) {
-            time.setTime(WidgetTimezones.SiderealTime.gmstOffset(time.getTime()) + time.getTime());   // these already extend LocalMeanTime (so apply gmst offset only)
+            return WidgetTimezones.SiderealTime.gmstOffset(time) + time;   // these already extend LocalMeanTime (so apply gmst offset only)
         }
+        return time;
     }
 
     /**
@@ -668,45 +659,16 @@ public class SuntimesUtils
         //   dansk               6.47 AM        11.46 PM           (da)
         //   norsk bokmal        6.47 a.m.      11.46 p.m.         (nb)
 
-        SimpleDateFormat timeFormat = initTimeFormat_12(showSeconds);
-        timeFormat.setTimeZone(cal.getTimeZone());
-        timeFormat_12_suffix.setTimeZone(cal.getTimeZone());
-
-        Date time = cal.getTime();
-        applyTimeZone(time, cal.getTimeZone());
-        TimeDisplayText retValue = new TimeDisplayText(timeFormat.format(time), "", timeFormat_12_suffix.format(time));
+        String timeString = formatCalendar(cal, (showSeconds ? strTimeVeryShortFormat12s : strTimeVeryShortFormat12));
+        String suffixString = formatCalendar(cal, strTimeSuffixFormat);  // a
+        TimeDisplayText retValue = new TimeDisplayText(timeString, "", suffixString);
         retValue.setRawValue(cal.getTimeInMillis());
         return retValue;
     }
 
-    private SimpleDateFormat initTimeFormat_12(boolean showSeconds)
-    {
-        if (timeFormat_12_suffix == null) {
-            timeFormat_12_suffix = new SimpleDateFormat(strTimeSuffixFormat, getLocale());  // a
-        }
-        if (showSeconds)
-        {
-            if (timeFormat_12s == null)
-                return (timeFormat_12s = new SimpleDateFormat(strTimeVeryShortFormat12s, getLocale()));
-            else return timeFormat_12s;
-
-        } else {
-            if (timeFormat_12 == null) {
-                return (timeFormat_12 = new SimpleDateFormat(strTimeVeryShortFormat12, getLocale()));
-            } else return timeFormat_12;
-        }
-    }
-    private SimpleDateFormat timeFormat_12, timeFormat_12s, timeFormat_12_suffix;
-
     public String calendarTime12HrString(Context context, @NonNull Calendar cal)
     {
-        Locale locale = getLocale();
-        SimpleDateFormat timeFormat = new SimpleDateFormat(strTimeShortFormat12, locale); // h:mm a
-
-        Date time = cal.getTime();
-        applyTimeZone(time, cal.getTimeZone());
-        timeFormat.setTimeZone(cal.getTimeZone());
-        return timeFormat.format(time);
+        return formatCalendar(cal, strTimeShortFormat12);   // h:mm a
     }
 
     /**
@@ -722,13 +684,7 @@ public class SuntimesUtils
             return new TimeDisplayText(strTimeNone);
         }
 
-        Locale locale = getLocale();
-        SimpleDateFormat dayFormat = new SimpleDateFormat((abbreviate ? "E" : "EEEE"), locale);
-
-        Date time = calendar.getTime();
-        applyTimeZone(time, calendar.getTimeZone());
-        dayFormat.setTimeZone(calendar.getTimeZone());
-        TimeDisplayText displayText = new TimeDisplayText(dayFormat.format(time), "", "");
+        TimeDisplayText displayText = new TimeDisplayText(formatCalendar(calendar, (abbreviate ? "E" : "EEEE")), "", "");
         displayText.setRawValue(calendar.getTimeInMillis());
         return displayText;
     }
@@ -749,17 +705,7 @@ public class SuntimesUtils
             return new TimeDisplayText(strTimeNone);
         }
 
-        Locale locale = getLocale();
-        SimpleDateFormat dateFormat;
-
-        if (showYear)
-            dateFormat = new SimpleDateFormat(strDateLongFormat, locale);
-        else dateFormat = new SimpleDateFormat(strDateShortFormat, locale);
-
-        Date time = calendar.getTime();
-        applyTimeZone(time, calendar.getTimeZone());
-        dateFormat.setTimeZone(calendar.getTimeZone());
-        TimeDisplayText displayText = new TimeDisplayText(dateFormat.format(time), "", "");
+        TimeDisplayText displayText = new TimeDisplayText(formatCalendar(calendar, (showYear ? strDateLongFormat : strDateShortFormat)), "", "");
         displayText.setRawValue(calendar.getTimeInMillis());
         return displayText;
     }
@@ -792,19 +738,14 @@ public class SuntimesUtils
             return new TimeDisplayText(strTimeNone);
         }
 
-        Locale locale = getLocale();
-        SimpleDateFormat dateTimeFormat;
+        String pattern;
         if (showTime) {
             if (showSeconds)
-                dateTimeFormat = new SimpleDateFormat((showYear ? strDateTimeLongFormatSec : strDateTimeShortFormatSec), locale);
-            else dateTimeFormat = new SimpleDateFormat((showYear ? strDateTimeLongFormat : strDateTimeShortFormat), locale);
-        } else dateTimeFormat = new SimpleDateFormat((showYear ? strDateLongFormat : strDateShortFormat), locale);
-        //Log.d("DEBUG","DateTimeFormat: " + dateTimeFormat.toPattern() + " (" + locale.toString() + ")");
-
-        Date time = cal.getTime();
-        applyTimeZone(time, cal.getTimeZone());
-        dateTimeFormat.setTimeZone(cal.getTimeZone());
-        TimeDisplayText displayText = new TimeDisplayText(dateTimeFormat.format(time), "", "");
+                pattern = (showYear ? strDateTimeLongFormatSec : strDateTimeShortFormatSec);
+            else pattern = (showYear ? strDateTimeLongFormat : strDateTimeShortFormat);
+        } else pattern = (showYear ? strDateLongFormat : strDateShortFormat);
+
+        TimeDisplayText displayText = new TimeDisplayText(formatCalendar(cal, pattern), "", "");
         displayText.setRawValue(cal.getTimeInMillis());
         return displayText;
 
@@ -842,17 +783,12 @@ public class SuntimesUtils
             case MODE_24HR: default: formatIs24 = true; break;
         }
 
-        Locale locale = getLocale();
-        SimpleDateFormat dateTimeFormat;
+        String pattern;
         if (showTime) {
-            dateTimeFormat = new SimpleDateFormat((showYear ? dateTimeFormatLong(context.getResources(), formatIs24, showSeconds) : dateTimeFormatShort(context.getResources(), formatIs24, showSeconds)), locale);
-        } else dateTimeFormat = new SimpleDateFormat((showYear ? strDateLongFormat : strDateShortFormat), locale);
-        //Log.d("DEBUG","DateTimeFormat: " + dateTimeFormat.toPattern() + " (" + locale.toString() + ")");
-
-        Date time = cal.getTime();
-        applyTimeZone(time, cal.getTimeZone());
-        dateTimeFormat.setTimeZone(cal.getTimeZone());
-        TimeDisplayText displayText = new TimeDisplayText(dateTimeFormat.format(time), "", "");
+            pattern = (showYear ? dateTimeFormatLong(context.getResources(), formatIs24, showSeconds) : dateTimeFormatShort(context.getResources(), formatIs24, showSeconds));
+        } else pattern = (showYear ? strDateLongFormat : strDateShortFormat);
+
+        TimeDisplayText displayText = new TimeDisplayText(formatCalendar(cal, pattern), "", "");
         displayText.setRawValue(cal.getTimeInMillis());
         return displayText;
     }
@@ -868,10 +804,7 @@ public class SuntimesUtils
         {
             return new TimeDisplayText(strTimeNone);
         }
-        Locale locale = getLocale();
-        SimpleDateFormat dateFormat = new SimpleDateFormat(strDateYearFormat, locale);
-        //Log.d("DEBUG", "Year Format: " + dateFormat.toPattern() + " (" + locale.toString() + ")");
-        return new TimeDisplayText(dateFormat.format(cal.getTime()), "", "");
+        return new TimeDisplayText(TimeFormatCache.format(strDateYearFormat, getLocale(), TimeZone.getDefault(), cal.getTimeInMillis()), "", "");
     }
 
     /**
@@ -1208,118 +1141,133 @@ public class SuntimesUtils
      */
     public String displayStringForTitlePattern(Context context, String titlePattern, @Nullable SuntimesRiseSetData data)
     {
-        String displayString = displayStringForTitlePattern(context, titlePattern, (SuntimesData)data);
-        String modePattern = "%M";
-        String modePatternShort = "%m";
-        String orderPattern = "%o";
-        String[] patterns = new String[] { modePattern, modePatternShort, orderPattern };
-
-        SolarEvents[] events = { SolarEvents.SUNRISE, SolarEvents.NOON, SolarEvents.SUNSET };
-        HashMap<SolarEvents, String> patterns_em = getPatternsForEvent_em(events);
-        HashMap<SolarEvents, String> patterns_et = getPatternsForEvent_et(events);
-        HashMap<SolarEvents, String> patterns_eT = getPatternsForEvent_eT(events);
-        HashMap<SolarEvents, String> patterns_eA = getPatternsForEvent_eA(events);
-
-        if (data == null) {
-            displayString = removePatterns(displayString, Arrays.asList(patterns));
-            displayString = removePatterns(displayString, patterns_em.values());
-            displayString = removePatterns(displayString, patterns_et.values());
-            displayString = removePatterns(displayString, patterns_eT.values());
-            displayString = removePatterns(displayString, patterns_eA.values());
-            return displayString;
-        }
-
-        WidgetSettings.TimeMode timeMode = data.timeMode();
-        WidgetSettings.RiseSetOrder order = WidgetSettings.loadRiseSetOrderPref(context, data.appWidgetID());
-
-        displayString = displayString.replaceAll(modePatternShort, timeMode.getShortDisplayString());
-        displayString = displayString.replaceAll(modePattern, timeMode.getLongDisplayString());
-        displayString = displayString.replaceAll(orderPattern, order.toString());
-
-        for (SolarEvents event : events)
-        {
-            String pattern_em = patterns_em.get(event);
-            String pattern_et = patterns_et.get(event);
-            String pattern_eT = patterns_eT.get(event);
-            String pattern_eA = patterns_eA.get(event);
-            if (!displayString.contains(pattern_em) && !displayString.contains(pattern_et) && !displayString.contains(pattern_eT) && !displayString.contains(pattern_eA)) {
-                continue;
-            }
+        return TitlePattern.compile(titlePattern).render(titlePatternResolver(context, data), titlePatternResolver(context, (SuntimesData) data));
+    }
 
-            SuntimesRiseSetData d = (event == SolarEvents.NOON && data.getLinked() != null ? data.getLinked() : data);
-            Calendar eventTime = d.getEvents(event)[0];
-            if (eventTime != null)
+    protected TitlePattern.TokenResolver titlePatternResolver(final Context context, @Nullable final SuntimesRiseSetData data)
+    {
+        return new TitlePattern.TokenResolver()
+        {
+            @Nullable
+            @Override
+            public String resolve(@NonNull TitlePattern.Token token)
             {
-                if (displayString.contains(pattern_em)) {
-                    displayString = displayString.replaceAll(pattern_em, eventTime.getTimeInMillis() + "");
-                }
-                if (displayString.contains(pattern_et)) {
-                    displayString = displayString.replaceAll(pattern_et, calendarTimeShortDisplayString(context, eventTime, false).toString());
-                }
-                if (displayString.contains(pattern_eT)) {
-                    displayString = displayString.replaceAll(pattern_eT, calendarTimeShortDisplayString(context, eventTime, true).toString());
-                }
-                if (displayString.contains(pattern_eA)) {
-                    Double angle = getDegreesForEvent(event, d);
-                    displayString = displayString.replaceAll(pattern_eA, (angle != null ? formatAsDegrees(angle, 1) : ""));
+                if (token.getType() == TitlePattern.Token.TYPE_EVENT)
+                {
+                    SolarEvents event = token.getEvent();
+                    if (event != SolarEvents.SUNRISE && event != SolarEvents.NOON && event != SolarEvents.SUNSET) {
+                        return null;
+                    }
+                    if (data == null) {
+                        return "";
+                    }
+                    SuntimesRiseSetData d = (event == SolarEvents.NOON && data.getLinked() != null ? data.getLinked() : data);
+                    return displayStringForEventPattern(context, token, d.getEvents(event)[0], d);
                 }
 
-            } else {
-                displayString = displayString.replaceAll(pattern_em, "");
-                displayString = displayString.replaceAll(pattern_et, "");
-                displayString = displayString.replaceAll(pattern_eT, "");
-                displayString = displayString.replaceAll(pattern_eA, "");
+                if (token.isPattern(TitlePattern.PATTERN_MODE_SHORT)) {
+                    return (data != null ? data.timeMode().getShortDisplayString() : "");
+
+                } else if (token.isPattern(TitlePattern.PATTERN_MODE)) {
+                    return (data != null ? data.timeMode().getLongDisplayString() : "");
+
+                } else if (token.isPattern(TitlePattern.PATTERN_ORDER)) {
+                    return (data != null ? WidgetSettings.loadRiseSetOrderPref(context, data.appWidgetID()).toString() : "");
+                }
+                return null;
             }
+        };
+    }
 
+    /**
+     * @param token an event token (%em, %et, %eT, %eA)
+     * @param eventTime the event time (may be null)
+     * @param data data used to find the event angle
+     * @return the display string for the event
+     */
+    protected String displayStringForEventPattern(Context context, TitlePattern.Token token, @Nullable Calendar eventTime, @Nullable SuntimesRiseSetData data)
+    {
+        if (eventTime == null) {
+            return "";
         }
 
-        return displayString;
+        String prefix = token.getPrefix();
+        if (TitlePattern.PREFIX_EVENT_MILLIS.equals(prefix)) {
+            return Long.toString(eventTime.getTimeInMillis());
+
+        } else if (TitlePattern.PREFIX_EVENT_TIME.equals(prefix)) {
+            return calendarTimeShortDisplayString(context, eventTime, false).toString();
+
+        } else if (TitlePattern.PREFIX_EVENT_TIME_SECONDS.equals(prefix)) {
+            return calendarTimeShortDisplayString(context, eventTime, true).toString();
+
+        } else if (TitlePattern.PREFIX_EVENT_ANGLE.equals(prefix)) {
+            Double angle = getDegreesForEvent(token.getEvent(), data);
+            return (angle != null ? formatAsDegrees(angle, 1) : "");
+        }
+        return "";
     }
-    
+
     public String displayStringForTitlePattern(Context context, String titlePattern, @Nullable SuntimesMoonData data)
     {
-        String displayString = displayStringForTitlePattern(context, titlePattern, (SuntimesData)data);
-        String modePattern = "%M";
-        String modePatternShort = "%m";
-        String illumPattern = "%i";
-        String orderPattern = "%o";
+        return TitlePattern.compile(titlePattern).render(titlePatternResolver(context, data), titlePatternResolver(context, (SuntimesData) data));
+    }
 
-        if (data != null && data.isCalculated())
+    protected TitlePattern.TokenResolver titlePatternResolver(final Context context, @Nullable final SuntimesMoonData data)
+    {
+        return new TitlePattern.TokenResolver()
         {
-            WidgetSettings.RiseSetOrder order = WidgetSettings.loadRiseSetOrderPref(context, data.appWidgetID());
+            @Nullable
+            @Override
+            public String resolve(@NonNull TitlePattern.Token token)
+            {
+                if (token.getType() != TitlePattern.Token.TYPE_PATTERN) {
+                    return null;
+                }
+                boolean hasData = (data != null && data.isCalculated());
+
+                if (token.isPattern(TitlePattern.PATTERN_MODE_SHORT)) {
+                    return (hasData ? data.getMoonPhaseToday().getShortDisplayString() : "");
 
-            displayString = displayString.replaceAll(modePatternShort, data.getMoonPhaseToday().getShortDisplayString());
-            displayString = displayString.replaceAll(modePattern, data.getMoonPhaseToday().getLongDisplayString());
-            displayString = displayString.replaceAll(orderPattern, order.toString());
+                } else if (token.isPattern(TitlePattern.PATTERN_MODE)) {
+                    return (hasData ? data.getMoonPhaseToday().getLongDisplayString() : "");
 
-            if (displayString.contains(illumPattern)) {
-                NumberFormat percentage = NumberFormat.getPercentInstance();
-                displayString = displayString.replaceAll(illumPattern, percentage.format(data.getMoonIlluminationToday()));
+                } else if (token.isPattern(TitlePattern.PATTERN_ORDER)) {
+                    return (hasData ? WidgetSettings.loadRiseSetOrderPref(context, data.appWidgetID()).toString() : "");
+
+                } else if (token.isPattern(TitlePattern.PATTERN_ILLUM)) {
+                    return (hasData ? NumberFormat.getPercentInstance().format(data.getMoonIlluminationToday()) : "");
+                }
+                return null;
             }
-        } else {
-            displayString = displayString.replaceAll(modePatternShort, "").replaceAll(modePattern, "").replaceAll(orderPattern, "").replaceAll(illumPattern, "");
-        }
-        return displayString;
+        };
     }
 
     public String displayStringForTitlePattern(Context context, String titlePattern, @Nullable SuntimesEquinoxSolsticeData data)
     {
-        String displayString = displayStringForTitlePattern(context, titlePattern, (SuntimesData)data);
-        String modePattern = "%M";
-        String modePatternShort = "%m";
-        String orderPattern = "%o";
+        return TitlePattern.compile(titlePattern).render(titlePatternResolver(context, data), titlePatternResolver(context, (SuntimesData) data));
+    }
 
-        if (data == null) {
-            return displayString.replaceAll(modePatternShort, "").replaceAll(modePattern, "").replaceAll(orderPattern, "");
-        }
+    protected TitlePattern.TokenResolver titlePatternResolver(final Context context, @Nullable final SuntimesEquinoxSolsticeData data)
+    {
+        return new TitlePattern.TokenResolver()
+        {
+            @Nullable
+            @Override
+            public String resolve(@NonNull TitlePattern.Token token)
+            {
+                if (token.isPattern(TitlePattern.PATTERN_MODE_SHORT)) {
+                    return (data != null ? data.timeMode().getShortDisplayString() : "");
 
-        WidgetSettings.TrackingMode trackingMode = WidgetSettings.loadTrackingModePref(context, data.appWidgetID());
-        WidgetSettings.SolsticeEquinoxMode timeMode = data.timeMode();
+                } else if (token.isPattern(TitlePattern.PATTERN_MODE)) {
+                    return (data != null ? data.timeMode().getLongDisplayString() : "");
 
-        displayString = displayString.replaceAll(modePatternShort, timeMode.getShortDisplayString());
-        displayString = displayString.replaceAll(modePattern, timeMode.getLongDisplayString());
-        displayString = displayString.replaceAll(orderPattern, trackingMode.toString());
-        return displayString;
+                } else if (token.isPattern(TitlePattern.PATTERN_ORDER)) {
+                    return (data != null ? WidgetSettings.loadTrackingModePref(context, data.appWidgetID()).toString() : "");
+                }
+                return null;
+            }
+        };
     }
 
     @Nullable
@@ -1370,57 +1318,21 @@ public class SuntimesUtils
     public static String getPatternForEvent_em(SolarEvents event) {
         return getPatternForEvent("%em@", event);    // miliseconds
     }
-    public static HashMap<SolarEvents, String> getPatternsForEvent_em(SolarEvents[] events) {
-        HashMap<SolarEvents,String> patterns = new HashMap<>();
-        for (SolarEvents event : events) {
-            patterns.put(event, getPatternForEvent_em(event));
-        }
-        return patterns;
-    }
 
     @Nullable
     public static String getPatternForEvent_et(SolarEvents event) {
         return getPatternForEvent("%et@", event);    // formatted time
     }
-    public static HashMap<SolarEvents, String> getPatternsForEvent_et(SolarEvents[] events) {
-        HashMap<SolarEvents,String> patterns = new HashMap<>();
-        for (SolarEvents event : events) {
-            patterns.put(event, getPatternForEvent_et(event));
-        }
-        return patterns;
-    }
 
     @Nullable
     public static String getPatternForEvent_eT(SolarEvents event) {
         return getPatternForEvent("%eT@", event);    // formatted time (wth seconds)
     }
-    public static HashMap<SolarEvents, String> getPatternsForEvent_eT(SolarEvents[] events) {
-        HashMap<SolarEvents,String> patterns = new HashMap<>();
-        for (SolarEvents event : events) {
-            patterns.put(event, getPatternForEvent_eT(event));
-        }
-        return patterns;
-    }
 
     @Nullable
     public static String getPatternForEvent_eA(SolarEvents event) {
         return getPatternForEvent("%eA@", event);    // formatted angle (deg)
     }
-    public static HashMap<SolarEvents, String> getPatternsForEvent_eA(SolarEvents[] events) {
-        HashMap<SolarEvents,String> patterns = new HashMap<>();
-        for (SolarEvents event : events) {
-            patterns.put(event, getPatternForEvent_eA(event));
-        }
-        return patterns;
-    }
-
-    public static String removePatterns(String displayString, Collection<String> patterns) {
-        String value = displayString;
-        for (String pattern : patterns) {
-            value = value.replaceAll(pattern, "");
-        }
-        return value;
-    }
 
     @Nullable
     public static SolarEvents[] getRiseSetDatasetEvents()
@@ -1437,125 +1349,81 @@ public class SuntimesUtils
 
     public String displayStringForTitlePattern(Context context, String titlePattern, @Nullable SuntimesRiseSetDataset dataset)
     {
-        String displayString = titlePattern;
-
-        SolarEvents[] events = getRiseSetDatasetEvents();
-        HashMap<SolarEvents, String> patterns0 = getPatternsForEvent_em(events);
-        HashMap<SolarEvents, String> patterns1 = getPatternsForEvent_et(events);
-        HashMap<SolarEvents, String> patterns2 = getPatternsForEvent_eT(events);
-        HashMap<SolarEvents, String> patterns3 = getPatternsForEvent_eA(events);
+        SuntimesRiseSetData data = (dataset != null ? dataset.dataActual : null);
+        return TitlePattern.compile(titlePattern).render(titlePatternResolver(context, dataset), titlePatternResolver(context, data), titlePatternResolver(context, (SuntimesData) data));
+    }
 
-        if (dataset != null && dataset.isCalculated())
+    protected TitlePattern.TokenResolver titlePatternResolver(final Context context, @Nullable final SuntimesRiseSetDataset dataset)
+    {
+        return new TitlePattern.TokenResolver()
         {
-            for (SolarEvents event : patterns0.keySet())
+            @Nullable
+            @Override
+            public String resolve(@NonNull TitlePattern.Token token)
             {
-                String pattern_em = patterns0.get(event);   // %em .. eventMillis
-                String pattern_et = patterns1.get(event);   // %et .. eventTime (formatted)
-                String pattern_eT = patterns2.get(event);   // %eT .. eventTime (formatted)
-                String pattern_eA = patterns3.get(event);   // %eA .. eventAngle (formatted)
-                if (!displayString.contains(pattern_em) && !displayString.contains(pattern_et) && !displayString.contains(pattern_eT) && !displayString.contains(pattern_eA)) {
-                    continue;
+                if (token.getType() != TitlePattern.Token.TYPE_EVENT) {
+                    return null;
                 }
-
-                Calendar[] eventTimes = (pattern_em != null ? dataset.getRiseSetEvents(event) : null);
-                Calendar eventTime = (eventTimes != null && eventTimes[0] != null ? eventTimes[0] : null);
-
-                if (eventTime != null)
-                {
-                    if (displayString.contains(pattern_em)) {
-                        displayString = displayString.replaceAll(pattern_em, eventTime.getTimeInMillis() + "");
-                    }
-                    if (displayString.contains(pattern_et)) {
-                        displayString = displayString.replaceAll(pattern_et, calendarTimeShortDisplayString(context, eventTime, false).toString());
-                    }
-                    if (displayString.contains(pattern_eT)) {
-                        displayString = displayString.replaceAll(pattern_eT, calendarTimeShortDisplayString(context, eventTime, true).toString());
-                    }
-                    if (displayString.contains(pattern_eA)) {
-                        Double angle = getDegreesForEvent(event, dataset.dataNoon);
-                        displayString = displayString.replaceAll(pattern_eA, angle != null ? formatAsDegrees(angle, 1) : "");
-                    }
-                } else {
-                    displayString = displayString.replaceAll(pattern_em, "");
-                    displayString = displayString.replaceAll(pattern_et, "");
-                    displayString = displayString.replaceAll(pattern_eT, "");
-                    displayString = displayString.replaceAll(pattern_eA, "");
+                if (dataset == null || !dataset.isCalculated()) {
+                    return "";
                 }
+                Calendar[] eventTimes = dataset.getRiseSetEvents(token.getEvent());
+                Calendar eventTime = (eventTimes != null ? eventTimes[0] : null);
+                return displayStringForEventPattern(context, token, eventTime, dataset.dataNoon);
             }
-        } else {
-            displayString = removePatterns(displayString, patterns0.values());
-            displayString = removePatterns(displayString, patterns1.values());
-            displayString = removePatterns(displayString, patterns2.values());
-        }
-        return displayStringForTitlePattern(context, displayString, (dataset != null ? dataset.dataActual : null));
+        };
     }
 
     public String displayStringForTitlePattern(Context context, String titlePattern, @Nullable SuntimesData data)
     {
-        String displayString = titlePattern;
-        String locPattern = "%loc";
-        String latPattern = "%lat";
-        String lonPattern = "%lon";
-        String altPattern = "%lel";
-        String timezoneIDPattern = "%t";
-        String datasourcePattern = "%s";
-        String widgetIDPattern = "%id";
-        String datePattern = "%d";
-        String dateYearPattern = "%dY";
-        String dateDayPattern = "%dD";
-        String dateDayPatternShort = "%dd";
-        String dateTimePattern = "%dT";
-        String dateTimePatternShort = "%dt";
-        String dateMillisPattern = "%dm";
-        String percentPattern = "%%";
-
-        if (data == null)
-        {
-            String[] patterns = new String[] { locPattern, latPattern, lonPattern, altPattern,          // in order of operation
-                    timezoneIDPattern, datasourcePattern, widgetIDPattern,
-                    dateTimePatternShort, dateTimePattern, dateDayPatternShort, dateDayPattern, dateYearPattern, dateMillisPattern, datePattern,
-                    percentPattern };
-
-            for (int i=0; i<patterns.length; i++) {
-                displayString = displayString.replaceAll(patterns[i], "");
-            }
-            return displayString;
-        }
-
-        Location location = data.location();
-        String timezoneID = data.timezone().getID();
-        String datasource = (data.calculatorMode() == null) ? "" : data.calculatorMode().getName();
-        String appWidgetID = (data.appWidgetID() != null ? String.format("%s", data.appWidgetID()) : "");
-
-        displayString = displayString.replaceAll(locPattern, location.getLabel());
-        displayString = displayString.replaceAll(latPattern, location.getLatitude());
-        displayString = displayString.replaceAll(lonPattern, location.getLongitude());
+        return TitlePattern.compile(titlePattern).render(titlePatternResolver(context, data));
+    }
 
-        if (displayString.contains(altPattern))
+    protected TitlePattern.TokenResolver titlePatternResolver(final Context context, @Nullable final SuntimesData data)
+    {
+        return new TitlePattern.TokenResolver()
         {
-            String altitudeDisplay = (WidgetSettings.loadLengthUnitsPref(context, 0) == WidgetSettings.LengthUnit.IMPERIAL)
-                                   ? (int)WidgetSettings.LengthUnit.metersToFeet(location.getAltitudeAsDouble()) + ""
-                                   : location.getAltitudeAsInteger() + "";
-            displayString = displayString.replaceAll(altPattern, altitudeDisplay);
-        }
-
-        displayString = displayString.replaceAll(timezoneIDPattern, timezoneID);
-        displayString = displayString.replaceAll(datasourcePattern, datasource);
-        displayString = displayString.replaceAll(widgetIDPattern, appWidgetID);
+            @Nullable
+            @Override
+            public String resolve(@NonNull TitlePattern.Token token)
+            {
+                if (token.getType() != TitlePattern.Token.TYPE_PATTERN) {
+                    return null;
+                }
 
-        if (displayString.contains(datePattern))
-        {
-            displayString = displayString.replaceAll(dateTimePatternShort, calendarTimeShortDisplayString(context, data.now(), false).toString());
-            displayString = displayString.replaceAll(dateTimePattern, calendarTimeShortDisplayString(context, data.now(), true).toString());
-            displayString = displayString.replaceAll(dateDayPatternShort, calendarDayDisplayString(context, data.calendar(), true).toString());
-            displayString = displayString.replaceAll(dateDayPattern, calendarDayDisplayString(context, data.calendar(), false).toString());
-            displayString = displayString.replaceAll(dateYearPattern, calendarDateYearDisplayString(context, data.calendar()).toString());
-            displayString = displayString.replaceAll(dateMillisPattern, Long.toString(data.calendar().getTimeInMillis()));
-            displayString = displayString.replaceAll(datePattern, calendarDateDisplayString(context, data.calendar(), false).toString());
-        }
+                String pattern = token.getText();
+                if (pattern.equals(TitlePattern.PATTERN_PERCENT)) {
+                    return (data != null ? "%" : "");
+                }
 
-        displayString = displayString.replaceAll(percentPattern, "%");
-        return displayString;
+                switch (pattern)
+                {
+                    case TitlePattern.PATTERN_LOCATION: return (data != null ? data.location().getLabel() : "");
+                    case TitlePattern.PATTERN_LATITUDE: return (data != null ? data.location().getLatitude() : "");
+                    case TitlePattern.PATTERN_LONGITUDE: return (data != null ? data.location().getLongitude() : "");
+                    case TitlePattern.PATTERN_ALTITUDE:
+                        if (data == null) {
+                            return "";
+                        }
+                        Location location = data.location();
+                        return (WidgetSettings.loadLengthUnitsPref(context, 0) == WidgetSettings.LengthUnit.IMPERIAL)
+                                ? (int)WidgetSettings.LengthUnit.metersToFeet(location.getAltitudeAsDouble()) + ""
+                                : location.getAltitudeAsInteger() + "";
+
+                    case TitlePattern.PATTERN_TIMEZONE: return (data != null ? data.timezone().getID() : "");
+                    case TitlePattern.PATTERN_DATASOURCE: return (data != null && data.calculatorMode() != null ? data.calculatorMode().getName() : "");
+                    case TitlePattern.PATTERN_WIDGETID: return (data != null && data.appWidgetID() != null ? String.format("%s", data.appWidgetID()) : "");
+                    case TitlePattern.PATTERN_DATE_TIME_SHORT: return (data != null ? calendarTimeShortDisplayString(context, data.now(), false).toString() : "");
+                    case TitlePattern.PATTERN_DATE_TIME: return (data != null ? calendarTimeShortDisplayString(context, data.now(), true).toString() : "");
+                    case TitlePattern.PATTERN_DATE_DAY_SHORT: return (data != null ? calendarDayDisplayString(context, data.calendar(), true).toString() : "");
+                    case TitlePattern.PATTERN_DATE_DAY: return (data != null ? calendarDayDisplayString(context, data.calendar(), false).toString() : "");
+                    case TitlePattern.PATTERN_DATE_YEAR: return (data != null ? calendarDateYearDisplayString(context, data.calendar()).toString() : "");
+                    case TitlePattern.PATTERN_DATE_MILLIS: return (data != null ? Long.toString(data.calendar().getTimeInMillis()) : "");
+                    case TitlePattern.PATTERN_DATE: return (data != null ? calendarDateDisplayString(context, data.calendar(), false).toString() : "");
+                    default: return null;
+                }
+            }
+        };
     }
 
     public static SpannableStringBuilder createSpan(Context context, String text, String spanTag, ImageSpan imageSpan)
@@ -509,18 +509,7 @@ public class SuntimesWidget0 extends AppWidgetProvider
      */
     protected static void updateAppWidget(Context context, AppWidgetManager appWidgetManager, int appWidgetId, SunLayout layout, Class widgetClass)
     {
-        SuntimesRiseSetData data = getRiseSetData(context, appWidgetId);
-        data.calculate();
-
-        boolean showSolarNoon = WidgetSettings.loadShowNoonPref(context, appWidgetId);
-        if (showSolarNoon)
-        {
-            SuntimesRiseSetData noonData = new SuntimesRiseSetData(data);
-            noonData.setTimeMode(WidgetSettings.TimeMode.NOON);
-            noonData.calculate();
-            data.linkData(noonData);
-        }
-
+        SuntimesRiseSetData data = calculateRiseSetData(context, appWidgetId, getRiseSetData(context, appWidgetId));
         layout.prepareForUpdate(context, appWidgetId, data);
 
         RemoteViews views = layout.getViews(context);
@@ -561,6 +550,30 @@ public class SuntimesWidget0 extends AppWidgetProvider
                 ? new SuntimesRiseSetData(context, appWidgetId) : new SuntimesRiseSetData2(context, appWidgetId);
     }
 
+    /**
+     * Calculates the supplied data, and (if the widget shows solar noon) links a calculated NOON
+     * data obj to it; the result is shared by widget updates and flipper items and should be treated
+     * as read-only after this method returns.
+     * @param context the context
+     * @param appWidgetId the widget id (used to load the showNoon pref)
+     * @param data an uncalculated data obj (@see getRiseSetData)
+     * @return the calculated data (same obj as supplied)
+     */
+    protected static SuntimesRiseSetData calculateRiseSetData(Context context, int appWidgetId, SuntimesRiseSetData data)
+    {
+        data.calculate();
+
+        boolean showSolarNoon = WidgetSettings.loadShowNoonPref(context, appWidgetId);
+        if (showSolarNoon)
+        {
+            SuntimesRiseSetData noonData = new SuntimesRiseSetData(data);
+            noonData.setTimeMode(WidgetSettings.TimeMode.NOON);
+            noonData.calculate();
+            data.linkData(noonData);
+        }
+        return data;
+    }
+
     /**
      * getData
      */
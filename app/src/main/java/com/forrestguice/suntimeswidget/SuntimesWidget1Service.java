@@ -34,6 +34,7 @@ import com.forrestguice.suntimeswidget.layouts.SunLayout_1x1_2;
 import com.forrestguice.suntimeswidget.layouts.SunLayout_1x1_4;
 import com.forrestguice.suntimeswidget.settings.AppSettings;
 import com.forrestguice.suntimeswidget.settings.WidgetSettings;
+import com.forrestguice.suntimeswidget.themes.SuntimesTheme;
 
 import java.util.ArrayList;
 
@@ -62,7 +63,10 @@ class SuntimesWidget1RemoteViewsFactory implements RemoteViewsService.RemoteView
     private int appWidgetId;
     private int viewCount = 0;
 
-    private ArrayList<SuntimesRiseSetData> dataset = new ArrayList<SuntimesRiseSetData>();
+    private ArrayList<SuntimesRiseSetData> dataset = new ArrayList<SuntimesRiseSetData>();    // items share one calculated data obj (and its linked noon data)
+    private ArrayList<SunLayout> layouts = new ArrayList<SunLayout>();                     // layout obj for each item (parallel to dataset)
+    private SuntimesTheme theme = null;
+    private boolean showTitle = true;
 
     public SuntimesWidget1RemoteViewsFactory(Context context, Intent intent)
     {
@@ -79,31 +83,34 @@ class SuntimesWidget1RemoteViewsFactory implements RemoteViewsService.RemoteView
     @Override
     public void onDataSetChanged()
     {
+        initLocale(context);
+
         ArrayList<SuntimesRiseSetData> dataset0 = new ArrayList<SuntimesRiseSetData>();
+        ArrayList<SunLayout> layouts0 = new ArrayList<SunLayout>();
         int viewCount0 = 1;
 
-        SuntimesRiseSetData data0 = new SuntimesRiseSetData(context, appWidgetId);
-        data0.calculate();
-        dataset0.add(new SuntimesRiseSetData(data0, R.layout.layout_widget_1x1_1i));
+        SuntimesRiseSetData data0 = SuntimesWidget0.calculateRiseSetData(context, appWidgetId, new SuntimesRiseSetData(context, appWidgetId));
+        dataset0.add(data0);
+        layouts0.add(new SunLayout_1x1_1(R.layout.layout_widget_1x1_1i));
         viewCount0++;
 
-        boolean showNoon = WidgetSettings.loadShowNoonPref(context, appWidgetId);
-        if (showNoon)
+        SuntimesRiseSetData noonData = data0.getLinked();
+        if (noonData != null)
         {
-            SuntimesRiseSetData data1 = new SuntimesRiseSetData(data0);
-            data1.setTimeMode(WidgetSettings.TimeMode.NOON);
-            data1.calculate();
-            dataset0.add(new SuntimesRiseSetData(data1, R.layout.layout_widget_1x1_4i));
+            dataset0.add(noonData);
+            layouts0.add(new SunLayout_1x1_4(R.layout.layout_widget_1x1_4i));
             viewCount0++;
         }
 
-        dataset0.add(new SuntimesRiseSetData(data0, R.layout.layout_widget_1x1_2i));
+        dataset0.add(data0);
+        layouts0.add(new SunLayout_1x1_2(R.layout.layout_widget_1x1_2i));
         viewCount0++;
 
+        theme = WidgetSettings.loadThemePref(context, appWidgetId);
+        showTitle = WidgetSettings.loadShowTitlePref(context, appWidgetId);
         dataset = dataset0;
+        layouts = layouts0;
         viewCount = viewCount0;
-
-        initLocale(context);
         Log.d("DEBUG", "onDataSetChanged");
     }
 
@@ -128,39 +135,27 @@ class SuntimesWidget1RemoteViewsFactory implements RemoteViewsService.RemoteView
     @Override
     public RemoteViews getViewAt(int position)
     {
-        SuntimesRiseSetData data = null;
-        int layoutID = R.layout.layout_widget_1x1_2;
-        if (position >= 0 && position < dataset.size())
-        {
-            data = dataset.get(position);
-            layoutID = data.layoutID();
-        }
+        ArrayList<SuntimesRiseSetData> dataset0 = dataset;
+        ArrayList<SunLayout> layouts0 = layouts;
 
+        SuntimesRiseSetData data = null;
         SunLayout layout;
-        switch(layoutID)
+        if (position >= 0 && position < dataset0.size())
         {
-            case R.layout.layout_widget_1x1_1:
-            case R.layout.layout_widget_1x1_1i:
-                layout = new SunLayout_1x1_1(R.layout.layout_widget_1x1_1i);
-                break;
-
-            case R.layout.layout_widget_1x1_4:
-            case R.layout.layout_widget_1x1_4i:
-                layout = new SunLayout_1x1_4(R.layout.layout_widget_1x1_4i);
-                break;
-
-            case R.layout.layout_widget_1x1_2:
-            case R.layout.layout_widget_1x1_2i:
-            default:
-                layout = new SunLayout_1x1_2(R.layout.layout_widget_1x1_2i);
-                break;
+            data = dataset0.get(position);
+            layout = layouts0.get(position);
+        } else {
+            layout = new SunLayout_1x1_2(R.layout.layout_widget_1x1_2i);
         }
         RemoteViews views = layout.getViews(context);
-
-        boolean showTitle = WidgetSettings.loadShowTitlePref(context, appWidgetId);
         views.setViewVisibility(R.id.text_title, showTitle ? View.VISIBLE : View.GONE);
 
-        layout.themeViews(context, views, appWidgetId);
+        if (theme != null) {
+            layout.themeViews(context, views, theme);
+        } else {
+            layout.themeViews(context, views, appWidgetId);
+        }
+
         if (data != null)
         {
             layout.updateViews(context, appWidgetId, views, data);
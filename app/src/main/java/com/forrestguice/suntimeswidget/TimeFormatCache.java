@@ -0,0 +1,162 @@
+/**
+    Copyright (C) 2022 Forrest Guice
+    This file is part of SuntimesWidget.
+
+    SuntimesWidget is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SuntimesWidget is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SuntimesWidget.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.forrestguice.suntimeswidget;
+
+import android.content.Context;
+import android.support.annotation.NonNull;
+
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * A cache of date formatters that is safe to use from any thread.
+ *
+ * DateFormat isn't thread-safe, so each thread gets its own set of formatters (keyed by pattern
+ * and locale). A formatter remembers the TimeZone it was last used with, and is only re-zoned when
+ * called with a different TimeZone obj. Each thread also reuses a single Date obj for formatting.
+ */
+public final class TimeFormatCache
+{
+    private static final String KEY_SYSTEM_12 = "@sys:12";
+    private static final String KEY_SYSTEM_24 = "@sys:24";
+
+    private static final ThreadLocal<FormatCache> cache = new ThreadLocal<FormatCache>()
+    {
+        @Override
+        protected FormatCache initialValue() {
+            return new FormatCache();
+        }
+    };
+
+    private TimeFormatCache() {}
+
+    /**
+     * @param pattern a SimpleDateFormat pattern
+     * @param locale the locale
+     * @param timezone the timezone
+     * @param timeMillis time to format
+     * @return the formatted time
+     */
+    @NonNull
+    public static String format(@NonNull String pattern, @NonNull Locale locale, @NonNull TimeZone timezone, long timeMillis)
+    {
+        FormatCache formats = cache.get();
+        return formats.format(formats.get(pattern, locale), timezone, timeMillis);
+    }
+
+    /**
+     * Format using the system's time format (@see android.text.format.DateFormat.getTimeFormat).
+     * @param context a context used to query the system 24 hr setting
+     * @param timezone the timezone
+     * @param timeMillis time to format
+     * @return the formatted time
+     */
+    @NonNull
+    public static String formatSystemTime(Context context, @NonNull TimeZone timezone, long timeMillis)
+    {
+        FormatCache formats = cache.get();
+        return formats.format(formats.getSystemTimeFormat(context), timezone, timeMillis);
+    }
+
+    /**
+     * Discards the formatters cached by the calling thread (other threads discard their formatters
+     * on the next call after the locale changes).
+     */
+    public static void clear() {
+        cache.get().clear();
+    }
+
+    /**
+     * FormatCache (per thread)
+     */
+    private static final class FormatCache
+    {
+        private final HashMap<String, CachedFormat> formats = new HashMap<>();
+        private final Date date = new Date();
+        private Locale locale = null;
+
+        @NonNull
+        public CachedFormat get(@NonNull String pattern, @NonNull Locale locale)
+        {
+            checkLocale(locale);
+            CachedFormat format = formats.get(pattern);
+            if (format == null) {
+                formats.put(pattern, format = new CachedFormat(new SimpleDateFormat(pattern, locale)));
+            }
+            return format;
+        }
+
+        @NonNull
+        public CachedFormat getSystemTimeFormat(Context context)
+        {
+            checkLocale(Locale.getDefault());
+            boolean is24 = android.text.format.DateFormat.is24HourFormat(context);
+            String key = (is24 ? KEY_SYSTEM_24 : KEY_SYSTEM_12);
+            CachedFormat format = formats.get(key);
+            if (format == null) {
+                formats.put(key, format = new CachedFormat(android.text.format.DateFormat.getTimeFormat(context)));
+            }
+            return format;
+        }
+
+        @NonNull
+        public String format(@NonNull CachedFormat format, @NonNull TimeZone timezone, long timeMillis)
+        {
+            if (format.timezone != timezone)
+            {
+                format.formatter.setTimeZone(timezone);
+                format.timezone = timezone;
+            }
+            date.setTime(timeMillis);
+            return format.formatter.format(date);
+        }
+
+        private void checkLocale(@NonNull Locale locale)
+        {
+            if (!locale.equals(this.locale))
+            {
+                formats.clear();
+                this.locale = locale;
+            }
+        }
+
+        public void clear()
+        {
+            formats.clear();
+            locale = null;
+        }
+    }
+
+    /**
+     * CachedFormat
+     */
+    private static final class CachedFormat
+    {
+        public final DateFormat formatter;
+        public TimeZone timezone = null;
+
+        public CachedFormat(DateFormat formatter) {
+            this.formatter = formatter;
+        }
+    }
+}
@@ -0,0 +1,301 @@
+/**
+    Copyright (C) 2022 Forrest Guice
+    This file is part of SuntimesWidget.
+
+    SuntimesWidget is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SuntimesWidget is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SuntimesWidget.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.forrestguice.suntimeswidget;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.forrestguice.suntimeswidget.settings.SolarEvents;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A title pattern (e.g. "%m @ %loc") that has been parsed into a list of tokens; the tokens are
+ * rendered in a single pass by SuntimesUtils.displayStringForTitlePattern.
+ *
+ * Compiled patterns are immutable and cached by pattern string (@see compile).
+ */
+public class TitlePattern
+{
+    public static final String PATTERN_PERCENT = "%%";
+    public static final String PATTERN_MODE = "%M";
+    public static final String PATTERN_MODE_SHORT = "%m";
+    public static final String PATTERN_ORDER = "%o";
+    public static final String PATTERN_ILLUM = "%i";
+    public static final String PATTERN_LOCATION = "%loc";
+    public static final String PATTERN_LATITUDE = "%lat";
+    public static final String PATTERN_LONGITUDE = "%lon";
+    public static final String PATTERN_ALTITUDE = "%lel";
+    public static final String PATTERN_TIMEZONE = "%t";
+    public static final String PATTERN_DATASOURCE = "%s";
+    public static final String PATTERN_WIDGETID = "%id";
+    public static final String PATTERN_DATE = "%d";
+    public static final String PATTERN_DATE_YEAR = "%dY";
+    public static final String PATTERN_DATE_DAY = "%dD";
+    public static final String PATTERN_DATE_DAY_SHORT = "%dd";
+    public static final String PATTERN_DATE_TIME = "%dT";
+    public static final String PATTERN_DATE_TIME_SHORT = "%dt";
+    public static final String PATTERN_DATE_MILLIS = "%dm";
+
+    public static final String PREFIX_EVENT_MILLIS = "%em@";
+    public static final String PREFIX_EVENT_TIME = "%et@";
+    public static final String PREFIX_EVENT_TIME_SECONDS = "%eT@";
+    public static final String PREFIX_EVENT_ANGLE = "%eA@";
+
+    /**
+     * Patterns in matching order (longer patterns must precede any pattern that is their prefix).
+     */
+    protected static final String[] PATTERNS = new String[] {
+            PATTERN_LOCATION, PATTERN_LATITUDE, PATTERN_LONGITUDE, PATTERN_ALTITUDE,
+            PATTERN_WIDGETID, PATTERN_ILLUM,
+            PATTERN_DATE_YEAR, PATTERN_DATE_DAY, PATTERN_DATE_DAY_SHORT, PATTERN_DATE_TIME, PATTERN_DATE_TIME_SHORT, PATTERN_DATE_MILLIS, PATTERN_DATE,
+            PATTERN_MODE, PATTERN_MODE_SHORT, PATTERN_ORDER, PATTERN_TIMEZONE, PATTERN_DATASOURCE, PATTERN_PERCENT };
+
+    protected static final String[] EVENT_PREFIXES = new String[] { PREFIX_EVENT_MILLIS, PREFIX_EVENT_TIME, PREFIX_EVENT_TIME_SECONDS, PREFIX_EVENT_ANGLE };
+
+    /**
+     * Token
+     */
+    public static final class Token
+    {
+        public static final int TYPE_TEXT = 0;
+        public static final int TYPE_PATTERN = 1;
+        public static final int TYPE_EVENT = 2;
+
+        private final int type;
+        private final String text;
+        private final String prefix;
+        private final SolarEvents event;
+
+        protected Token(int type, @NonNull String text, @Nullable String prefix, @Nullable SolarEvents event)
+        {
+            this.type = type;
+            this.text = text;
+            this.prefix = prefix;
+            this.event = event;
+        }
+
+        public int getType() {
+            return type;
+        }
+
+        /**
+         * @return the literal text (TYPE_TEXT), or the pattern as it appears in the source string
+         */
+        @NonNull
+        public String getText() {
+            return text;
+        }
+
+        /**
+         * @return event prefix (e.g. PREFIX_EVENT_TIME) for TYPE_EVENT, otherwise null
+         */
+        @Nullable
+        public String getPrefix() {
+            return prefix;
+        }
+
+        /**
+         * @return the event for TYPE_EVENT, otherwise null
+         */
+        @Nullable
+        public SolarEvents getEvent() {
+            return event;
+        }
+
+        public boolean isPattern(String pattern) {
+            return (type == TYPE_PATTERN && text.equals(pattern));
+        }
+    }
+
+    /**
+     * TokenResolver
+     */
+    public interface TokenResolver
+    {
+        /**
+         * @param token a TYPE_PATTERN or TYPE_EVENT token
+         * @return the replacement value, or null if this resolver doesn't support the token
+         */
+        @Nullable
+        String resolve(@NonNull Token token);
+    }
+
+    private final String pattern;
+    private final Token[] tokens;
+
+    protected TitlePattern(@NonNull String pattern, @NonNull Token[] tokens)
+    {
+        this.pattern = pattern;
+        this.tokens = tokens;
+    }
+
+    @NonNull
+    public String getPattern() {
+        return pattern;
+    }
+
+    public int getTokenCount() {
+        return tokens.length;
+    }
+
+    public Token getToken(int i) {
+        return tokens[i];
+    }
+
+    /**
+     * @return true if the pattern contains at least one token of the given type
+     */
+    public boolean hasTokens(int type)
+    {
+        for (Token token : tokens) {
+            if (token.type == type) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Renders the pattern in a single pass; each pattern token is offered to the resolvers (in order)
+     * until one of them supplies a value. Tokens that no resolver supports are output as-is.
+     * @param resolvers one or more resolvers
+     * @return the display string
+     */
+    @NonNull
+    public String render(TokenResolver... resolvers)
+    {
+        StringBuilder result = new StringBuilder(pattern.length() + 16);
+        for (Token token : tokens)
+        {
+            if (token.type == Token.TYPE_TEXT) {
+                result.append(token.text);
+                continue;
+            }
+
+            String value = null;
+            for (int i=0; i<resolvers.length && value == null; i++) {
+                value = resolvers[i].resolve(token);
+            }
+            result.append(value != null ? value : token.text);
+        }
+        return result.toString();
+    }
+
+    /**
+     * compile
+     * @param pattern a pattern string
+     * @return a (possibly cached) TitlePattern
+     */
+    @NonNull
+    public static TitlePattern compile(@Nullable String pattern)
+    {
+        String key = (pattern != null ? pattern : "");
+        synchronized (cache)
+        {
+            TitlePattern compiled = cache.get(key);
+            if (compiled == null) {
+                compiled = parse(key);
+                cache.put(key, compiled);
+            }
+            return compiled;
+        }
+    }
+
+    public static void clearCache()
+    {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    protected static final int MAX_CACHED = 32;
+    private static final Map<String, TitlePattern> cache = new LinkedHashMap<String, TitlePattern>(MAX_CACHED, 0.75f, true)
+    {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, TitlePattern> eldest) {
+            return size() > MAX_CACHED;
+        }
+    };
+
+    /**
+     * parse
+     * @param pattern a pattern string
+     * @return a new TitlePattern
+     */
+    @NonNull
+    protected static TitlePattern parse(@NonNull String pattern)
+    {
+        ArrayList<Token> tokens = new ArrayList<>();
+        StringBuilder text = new StringBuilder();
+
+        int i = 0;
+        int n = pattern.length();
+        while (i < n)
+        {
+            Token token = (pattern.charAt(i) == '%') ? matchToken(pattern, i) : null;
+            if (token != null)
+            {
+                if (text.length() > 0) {
+                    tokens.add(new Token(Token.TYPE_TEXT, text.toString(), null, null));
+                    text.setLength(0);
+                }
+                tokens.add(token);
+                i += token.text.length();
+
+            } else {
+                text.append(pattern.charAt(i));
+                i++;
+            }
+        }
+        if (text.length() > 0) {
+            tokens.add(new Token(Token.TYPE_TEXT, text.toString(), null, null));
+        }
+        return new TitlePattern(pattern, tokens.toArray(new Token[0]));
+    }
+
+    @Nullable
+    protected static Token matchToken(@NonNull String pattern, int offset)
+    {
+        for (String prefix : EVENT_PREFIXES)
+        {
+            if (pattern.startsWith(prefix, offset))
+            {
+                for (SolarEvents event : EVENTS)
+                {
+                    String eventPattern = SuntimesUtils.getPatternForEvent(prefix, event);
+                    if (eventPattern != null && pattern.startsWith(eventPattern, offset)) {
+                        return new Token(Token.TYPE_EVENT, eventPattern, prefix, event);
+                    }
+                }
+            }
+        }
+        for (String p : PATTERNS)
+        {
+            if (pattern.startsWith(p, offset)) {
+                return new Token(Token.TYPE_PATTERN, p, null, null);
+            }
+        }
+        return null;
+    }
+
+    protected static final SolarEvents[] EVENTS = SuntimesUtils.getRiseSetDatasetEvents();
+}
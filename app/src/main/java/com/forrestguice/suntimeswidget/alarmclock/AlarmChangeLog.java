@@ -0,0 +1,164 @@
+/**
+    Copyright (C) 2022 Forrest Guice
+    This file is part of SuntimesWidget.
+
+    SuntimesWidget is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SuntimesWidget is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SuntimesWidget.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.forrestguice.suntimeswidget.alarmclock;
+
+import android.content.ContentResolver;
+import android.content.ContentUris;
+import android.content.Context;
+import android.net.Uri;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.forrestguice.suntimeswidget.alarmclock.SuntimesAlarmsContract.AUTHORITY;
+import static com.forrestguice.suntimeswidget.alarmclock.SuntimesAlarmsContract.CHANGE_RESET;
+import static com.forrestguice.suntimeswidget.alarmclock.SuntimesAlarmsContract.CHANGE_STATE;
+import static com.forrestguice.suntimeswidget.alarmclock.SuntimesAlarmsContract.QUERY_ALARMS;
+import static com.forrestguice.suntimeswidget.alarmclock.SuntimesAlarmsContract.QUERY_ALARMSTATE;
+import static com.forrestguice.suntimeswidget.alarmclock.SuntimesAlarmsContract.QUERY_CHANGES;
+
+/**
+ * AlarmChangeLog; a record of the most recent changes to the alarms database (@see AlarmDatabaseAdapter),
+ * so observers can ask for "changes since token" instead of reloading every alarm.
+ *
+ * The log is kept in memory (the last MAX_CHANGES changes). Tokens start from the time the log was created,
+ * so tokens from an earlier process (or tokens older than the log) are recognized as expired.
+ * @see SuntimesAlarmsContract
+ */
+public class AlarmChangeLog
+{
+    public static final int MAX_CHANGES = 256;
+
+    public static final Uri URI_ALARMS = Uri.parse(ContentResolver.SCHEME_CONTENT + "://" + AUTHORITY + "/" + QUERY_ALARMS);
+    public static final Uri URI_ALARMSTATE = Uri.parse(ContentResolver.SCHEME_CONTENT + "://" + AUTHORITY + "/" + QUERY_ALARMSTATE);
+    public static final Uri URI_CHANGES = Uri.parse(ContentResolver.SCHEME_CONTENT + "://" + AUTHORITY + "/" + QUERY_CHANGES);
+
+    private static AlarmChangeLog instance = null;
+    public static synchronized AlarmChangeLog getInstance()
+    {
+        if (instance == null) {
+            instance = new AlarmChangeLog();
+        }
+        return instance;
+    }
+
+    private final long baseToken;
+    private long token;
+    private final ArrayDeque<Change> changes = new ArrayDeque<>();
+
+    protected AlarmChangeLog()
+    {
+        baseToken = token = System.currentTimeMillis() * 1000L;
+    }
+
+    /**
+     * @return the token of the most recent change
+     */
+    public synchronized long currentToken() {
+        return token;
+    }
+
+    /**
+     * @param alarmID rowID of the changed alarm (-1 for CHANGE_RESET)
+     * @param changeType CHANGE_*
+     * @return the token of the new change
+     */
+    public synchronized long record(long alarmID, @NonNull String changeType)
+    {
+        changes.addLast(new Change(++token, alarmID, changeType));
+        while (changes.size() > MAX_CHANGES) {
+            changes.removeFirst();
+        }
+        return token;
+    }
+
+    /**
+     * @param sinceToken a token (@see currentToken)
+     * @return changes after the token (oldest first), or null if the token has expired (the caller should reload everything)
+     */
+    @Nullable
+    public synchronized List<Change> changesSince(long sinceToken)
+    {
+        Change oldest = changes.peekFirst();
+        if (sinceToken < baseToken || sinceToken > token
+                || (oldest != null && sinceToken < (oldest.token - 1))) {
+            return null;
+        }
+
+        ArrayList<Change> result = new ArrayList<>();
+        for (Change change : changes)
+        {
+            if (change.token > sinceToken)
+            {
+                if (CHANGE_RESET.equals(change.changeType)) {
+                    return null;
+                }
+                result.add(change);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Records the change and notifies observers.
+     * @param context context
+     * @param alarmID rowID of the changed alarm (-1 for CHANGE_RESET)
+     * @param changeType CHANGE_*
+     */
+    public static void notifyAlarmChanged(Context context, long alarmID, @NonNull String changeType)
+    {
+        getInstance().record(alarmID, changeType);
+
+        ContentResolver resolver = context.getContentResolver();
+        if (resolver != null)
+        {
+            if (CHANGE_RESET.equals(changeType)) {
+                resolver.notifyChange(URI_ALARMS, null);
+                resolver.notifyChange(URI_ALARMSTATE, null);
+
+            } else if (CHANGE_STATE.equals(changeType)) {
+                resolver.notifyChange(ContentUris.withAppendedId(URI_ALARMSTATE, alarmID), null);
+
+            } else {
+                resolver.notifyChange(ContentUris.withAppendedId(URI_ALARMS, alarmID), null);
+            }
+            resolver.notifyChange(URI_CHANGES, null);
+        }
+    }
+
+    /**
+     * Change
+     */
+    public static class Change
+    {
+        public final long token;
+        public final long alarmID;
+        public final String changeType;
+
+        public Change(long token, long alarmID, String changeType)
+        {
+            this.token = token;
+            this.alarmID = alarmID;
+            this.changeType = changeType;
+        }
+    }
+}
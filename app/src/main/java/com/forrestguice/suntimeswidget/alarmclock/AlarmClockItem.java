@@ -100,6 +100,10 @@ public class AlarmClockItem implements Parcelable
 
         modified = other.modified;
         state = (other.state != null) ? new AlarmState(other.state) : null;
+
+        this.schedulable = other.schedulable;
+        this.schedulableExpires = other.schedulableExpires;
+        this.nextTriggerTime = other.nextTriggerTime;
     }
 
     public AlarmClockItem(@Nullable Context context, ContentValues alarm) {
@@ -288,6 +292,52 @@ public class AlarmClockItem implements Parcelable
     public void setEvent(@Nullable String event) {
         this.event = event;
         eventItem = null;
+        invalidateSchedulable();
+    }
+
+    /**
+     * Cached result of the last schedulability check (not persisted), @see AlarmNotifications.updateAlarmTime
+     */
+    private Boolean schedulable = null;
+    private long schedulableExpires = -1L;
+    private long nextTriggerTime = -1L;
+
+    /**
+     * @param value true if the alarm can be scheduled
+     * @param nextTriggerTime the next trigger time (millis), or -1 if not schedulable
+     * @param expires the result is considered stale after this time (millis)
+     */
+    public void setSchedulable(boolean value, long nextTriggerTime, long expires)
+    {
+        this.schedulable = value;
+        this.nextTriggerTime = nextTriggerTime;
+        this.schedulableExpires = expires;
+    }
+
+    /**
+     * @return the last known result (true if never checked)
+     */
+    public boolean isSchedulable() {
+        return (schedulable == null || schedulable);
+    }
+
+    /**
+     * @param now current time (millis)
+     * @return true if the schedulability needs to be checked (again)
+     */
+    public boolean isSchedulableStale(long now) {
+        return (schedulable == null || now >= schedulableExpires);
+    }
+
+    /**
+     * @return the next trigger time (millis) found by the last schedulability check, or -1
+     */
+    public long getNextTriggerTime() {
+        return nextTriggerTime;
+    }
+
+    public void invalidateSchedulable() {
+        schedulableExpires = -1L;
     }
 
     private AlarmEvent.AlarmEventItem eventItem = null;
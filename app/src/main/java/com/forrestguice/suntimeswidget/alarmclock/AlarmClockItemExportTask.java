@@ -18,13 +18,17 @@
 
 package com.forrestguice.suntimeswidget.alarmclock;
 
+import android.annotation.TargetApi;
 import android.content.Context;
 import android.net.Uri;
+import android.os.Build;
+import android.util.JsonWriter;
 
 import com.forrestguice.suntimeswidget.ExportTask;
 
 import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
 
 /**
  * AsyncTask that writes AlarmClockItem objects to text file (json array).
@@ -71,6 +75,11 @@ public class AlarmClockItemExportTask extends ExportTask
         if (items != null)
         {
             numEntries = items.length;
+            if (Build.VERSION.SDK_INT >= 11) {
+                exportItems(out);
+                return true;
+            }
+
             out.write("[".getBytes());
             for (int i=0; i<items.length; i++)
             {
@@ -86,5 +95,22 @@ public class AlarmClockItemExportTask extends ExportTask
         return false;
     }
 
+    /**
+     * Writes each item directly to the stream (publishing progress as it goes).
+     */
+    @TargetApi(11)
+    protected void exportItems(BufferedOutputStream out) throws IOException
+    {
+        //noinspection CharsetObjectCanBeUsed
+        JsonWriter writer = new JsonWriter(new OutputStreamWriter(out, "UTF-8"));
+        writer.beginArray();
+        for (int i=0; i<items.length; i++)
+        {
+            AlarmClockItemImportTask.AlarmClockItemJson.writeAlarmClockItem(writer, items[i]);
+            publishProgress(new ExportProgress(i + 1, numEntries, items[i].getLabel("")));
+        }
+        writer.endArray();
+        writer.flush();    // out is closed by ExportTask
+    }
 
 }
@@ -21,11 +21,13 @@ package com.forrestguice.suntimeswidget.alarmclock;
 import android.annotation.TargetApi;
 import android.content.ContentValues;
 import android.content.Context;
+import android.database.SQLException;
 import android.net.Uri;
 import android.os.AsyncTask;
 import android.os.Build;
 import android.support.annotation.Nullable;
 import android.util.JsonReader;
+import android.util.JsonWriter;
 import android.util.Log;
 
 import org.json.JSONObject;
@@ -36,16 +38,20 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
+import java.util.Calendar;
 import java.util.HashMap;
 import java.util.Map;
 
 /**
  * AsyncTask that reads AlarmClockItem objects from text file (json array).
+ * Items are parsed one at a time as the file is read; with setParam_insert(true) they are also added to the
+ * database as they are read (in batches of INSERT_BATCH_SIZE), so only one batch is held in memory.
  * @see AlarmClockItem
  */
 public class AlarmClockItemImportTask extends AsyncTask<Uri, AlarmClockItem, AlarmClockItemImportTask.TaskResult>
 {
     public static final long MIN_WAIT_TIME = 2000;
+    public static final int INSERT_BATCH_SIZE = 50;
 
     private WeakReference<Context> contextRef;
 
@@ -65,6 +71,17 @@ public class AlarmClockItemImportTask extends AsyncTask<Uri, AlarmClockItem, Ala
         contextRef = new WeakReference<>(context);
     }
 
+    /**
+     * @param value true add items to the database while importing (the result contains rowIDs instead of items),
+     *              false return the items (default)
+     */
+    public void setParam_insert(boolean value) {
+        param_insert = value;
+    }
+    protected boolean param_insert = false;
+
+    private int numImported = 0;
+
     @Override
     protected void onPreExecute()
     {
@@ -85,18 +102,28 @@ public class AlarmClockItemImportTask extends AsyncTask<Uri, AlarmClockItem, Ala
 
         long startTime = System.currentTimeMillis();
         boolean result = false;
-        ArrayList<AlarmClockItem> items = new ArrayList<>();
+        ArrayList<AlarmClockItem> items = new ArrayList<>();    // all items, or the pending batch (param_insert)
+        ArrayList<Long> rowIDs = new ArrayList<>();
+        ArrayList<Long> enabledIDs = new ArrayList<>();
         Exception error = null;
 
         Context context = contextRef.get();
         if (context != null && uri != null)
         {
+            AlarmDatabaseAdapter db = null;
             try {
                 InputStream in = context.getContentResolver().openInputStream(uri);
                 if (in != null)
                 {
                     Log.d(getClass().getSimpleName(), "doInBackground: reading");
-                    AlarmClockItemJson.readAlarmClockItems(context, in, items);
+                    if (param_insert) {
+                        db = new AlarmDatabaseAdapter(context.getApplicationContext());
+                        db.open();
+                    }
+                    AlarmClockItemJson.readAlarmClockItems(context, in, new ImportListener(db, items, rowIDs, enabledIDs));
+                    if (db != null) {
+                        insertItems(db, items, rowIDs, enabledIDs);
+                    }
                     result = true;
                     error = null;
 
@@ -105,15 +132,50 @@ public class AlarmClockItemImportTask extends AsyncTask<Uri, AlarmClockItem, Ala
                     result = false;
                     error = null;
                 }
-            } catch (IOException e) {
+            } catch (IOException | SQLException e) {
                 Log.e(getClass().getSimpleName(), "Failed to import from " + uri + ": " + e);
                 result = false;
                 items = null;
                 error = e;
+
+            } finally {
+                if (db != null) {
+                    db.close();
+                }
             }
         }
 
-        for (AlarmClockItem item : items)
+        Log.d(getClass().getSimpleName(), "doInBackground: waiting");
+        long endTime = System.currentTimeMillis();
+        while ((endTime - startTime) < MIN_WAIT_TIME || isPaused) {
+            endTime = System.currentTimeMillis();
+        }
+
+        Log.d(getClass().getSimpleName(), "doInBackground: finishing");
+        if (param_insert) {
+            return new TaskResult(result, uri, toArray(rowIDs), toArray(enabledIDs), error);
+        } else return new TaskResult(result, uri, (items != null ? items.toArray(new AlarmClockItem[0]) : null), error);
+    }
+
+    /**
+     * Collects items as they are read; items are added to the database once a batch is full (if db is non-null).
+     */
+    private class ImportListener extends AlarmClockItemJson.ItemListener
+    {
+        private final AlarmDatabaseAdapter db;
+        private final ArrayList<AlarmClockItem> items;
+        private final ArrayList<Long> rowIDs, enabledIDs;
+
+        public ImportListener(@Nullable AlarmDatabaseAdapter db, ArrayList<AlarmClockItem> items, ArrayList<Long> rowIDs, ArrayList<Long> enabledIDs)
+        {
+            this.db = db;
+            this.items = items;
+            this.rowIDs = rowIDs;
+            this.enabledIDs = enabledIDs;
+        }
+
+        @Override
+        public void onItemRead(AlarmClockItem item)
         {
             if (item.ringtoneURI != null)    // don't reset null uris (silent alarms)
             {
@@ -121,21 +183,64 @@ public class AlarmClockItemImportTask extends AsyncTask<Uri, AlarmClockItem, Ala
                 item.ringtoneURI = AlarmSettings.VALUE_RINGTONE_DEFAULT;
                 item.ringtoneName = AlarmSettings.VALUE_RINGTONE_DEFAULT;
             }
+
+            items.add(item);
+            if (db != null && items.size() >= INSERT_BATCH_SIZE) {
+                insertItems(db, items, rowIDs, enabledIDs);
+            } else if (db == null && (items.size() % INSERT_BATCH_SIZE) == 0) {
+                publishProgress(item);
+            }
         }
+    }
 
-        Log.d(getClass().getSimpleName(), "doInBackground: waiting");
-        long endTime = System.currentTimeMillis();
-        while ((endTime - startTime) < MIN_WAIT_TIME || isPaused) {
-            endTime = System.currentTimeMillis();
+    /**
+     * Adds the batch to the database (single transaction), then clears it.
+     */
+    protected void insertItems(AlarmDatabaseAdapter db, ArrayList<AlarmClockItem> batch, ArrayList<Long> rowIDs, ArrayList<Long> enabledIDs)
+    {
+        if (batch.isEmpty()) {
+            return;
         }
 
-        Log.d(getClass().getSimpleName(), "doInBackground: finishing");
-        return new TaskResult(result, uri, (items != null ? items.toArray(new AlarmClockItem[0]) : null), error);
+        ContentValues[] values = new ContentValues[batch.size()];
+        for (int i=0; i<values.length; i++) {
+            values[i] = batch.get(i).asContentValues(false);
+        }
+
+        long[] ids = db.addAlarms(values);
+        for (int i=0; i<ids.length; i++)
+        {
+            AlarmClockItem item = batch.get(i);
+            if (ids[i] != -1)
+            {
+                item.rowID = ids[i];
+                rowIDs.add(item.rowID);
+                if (item.enabled) {
+                    enabledIDs.add(item.rowID);
+                }
+            } else Log.w(getClass().getSimpleName(), "insertItems: failed to add item " + i);
+        }
+        publishProgress(batch.toArray(new AlarmClockItem[0]));
+        batch.clear();
+    }
+
+    private static long[] toArray(ArrayList<Long> list)
+    {
+        long[] array = new long[list.size()];
+        for (int i=0; i<array.length; i++) {
+            array[i] = list.get(i);
+        }
+        return array;
     }
 
     @Override
-    protected void onProgressUpdate(AlarmClockItem... progressItems) {
+    protected void onProgressUpdate(AlarmClockItem... progressItems)
+    {
         super.onProgressUpdate(progressItems);
+        numImported += (param_insert ? progressItems.length : INSERT_BATCH_SIZE);
+        if (taskListener != null) {
+            taskListener.onProgress(numImported);
+        }
     }
 
     @Override
@@ -160,6 +265,16 @@ public class AlarmClockItemImportTask extends AsyncTask<Uri, AlarmClockItem, Ala
             this.e = e;
         }
 
+        public TaskResult(boolean result, Uri uri, @Nullable long[] rowIDs, @Nullable long[] enabledIDs, Exception e)
+        {
+            this.result = result;
+            this.items = null;
+            this.rowIDs = rowIDs;
+            this.enabledIDs = enabledIDs;
+            this.uri = uri;
+            this.e = e;
+        }
+
         private boolean result;
         public boolean getResult()
         {
@@ -178,8 +293,26 @@ public class AlarmClockItemImportTask extends AsyncTask<Uri, AlarmClockItem, Ala
             return uri;
         }
 
+        /**
+         * @return rowIDs of items added to the database (@see setParam_insert), or null
+         */
+        private long[] rowIDs = null;
+        @Nullable
+        public long[] getRowIDs() {
+            return rowIDs;
+        }
+
+        /**
+         * @return rowIDs of enabled items added to the database (these still need to be scheduled), or null
+         */
+        private long[] enabledIDs = null;
+        @Nullable
+        public long[] getEnabledRowIDs() {
+            return enabledIDs;
+        }
+
         public int numResults() {
-            return (items != null ? items.length : 0);
+            return (items != null ? items.length : (rowIDs != null ? rowIDs.length : 0));
         }
 
         private Exception e;
@@ -195,6 +328,7 @@ public class AlarmClockItemImportTask extends AsyncTask<Uri, AlarmClockItem, Ala
     public static abstract class TaskListener
     {
         public void onStarted() {}
+        public void onProgress( int numItems ) {}
         public void onFinished( TaskResult result ) {}
     }
     protected TaskListener taskListener = null;
@@ -212,7 +346,26 @@ public class AlarmClockItemImportTask extends AsyncTask<Uri, AlarmClockItem, Ala
     {
         public static final String TAG = "AlarmJsonParser";
 
-        public static void readAlarmClockItems(Context context, InputStream in, ArrayList<AlarmClockItem> items) throws IOException
+        /**
+         * ItemListener; receives each item as soon as it is read.
+         */
+        public static abstract class ItemListener
+        {
+            public abstract void onItemRead(AlarmClockItem item);
+        }
+
+        public static void readAlarmClockItems(Context context, InputStream in, final ArrayList<AlarmClockItem> items) throws IOException
+        {
+            readAlarmClockItems(context, in, new ItemListener()
+            {
+                @Override
+                public void onItemRead(AlarmClockItem item) {
+                    items.add(item);
+                }
+            });
+        }
+
+        public static void readAlarmClockItems(Context context, InputStream in, ItemListener listener) throws IOException
         {
             if (Build.VERSION.SDK_INT >= 11)
             {
@@ -220,7 +373,7 @@ public class AlarmClockItemImportTask extends AsyncTask<Uri, AlarmClockItem, Ala
                 JsonReader reader = new JsonReader(new InputStreamReader(in, "UTF-8"));
                 reader.setLenient(true);
                 try {
-                    readAlarmClockItems(context, reader, items);
+                    readAlarmClockItems(context, reader, listener, new AlarmNotifications.CalculatorCache());    // items usually share a location
                 } finally {
                     reader.close();
                     in.close();
@@ -232,13 +385,13 @@ public class AlarmClockItemImportTask extends AsyncTask<Uri, AlarmClockItem, Ala
         }
 
         @TargetApi(11)
-        protected static void readAlarmClockItems(Context context, JsonReader reader, ArrayList<AlarmClockItem> items) throws IOException
+        protected static void readAlarmClockItems(Context context, JsonReader reader, ItemListener listener, @Nullable AlarmNotifications.CalculatorCache calculators) throws IOException
         {
             switch (reader.peek()) {
-                case BEGIN_ARRAY: readAlarmClockItemArray(context, reader, items); break;
-                case BEGIN_OBJECT: AlarmClockItem item = readAlarmClockItem(context, reader);
+                case BEGIN_ARRAY: readAlarmClockItemArray(context, reader, listener, calculators); break;
+                case BEGIN_OBJECT: AlarmClockItem item = readAlarmClockItem(context, reader, calculators);
                     if (item != null) {
-                        items.add(item);
+                        listener.onItemRead(item);
                     }
                     break;
                 default: reader.skipValue(); break;
@@ -246,12 +399,12 @@ public class AlarmClockItemImportTask extends AsyncTask<Uri, AlarmClockItem, Ala
         }
 
         @TargetApi(11)
-        protected static void readAlarmClockItemArray(Context context, JsonReader reader, ArrayList<AlarmClockItem> items) throws IOException
+        protected static void readAlarmClockItemArray(Context context, JsonReader reader, ItemListener listener, @Nullable AlarmNotifications.CalculatorCache calculators) throws IOException
         {
             try {
                 reader.beginArray();
                 while (reader.hasNext()) {
-                    readAlarmClockItems(context, reader, items);
+                    readAlarmClockItems(context, reader, listener, calculators);
                 }
                 reader.endArray();
             } catch (EOFException e) {
@@ -261,15 +414,21 @@ public class AlarmClockItemImportTask extends AsyncTask<Uri, AlarmClockItem, Ala
 
         @Nullable
         @TargetApi(11)
-        protected static AlarmClockItem readAlarmClockItem(Context context, JsonReader reader)
+        protected static AlarmClockItem readAlarmClockItem(Context context, JsonReader reader) {
+            return readAlarmClockItem(context, reader, null);
+        }
+
+        @Nullable
+        @TargetApi(11)
+        protected static AlarmClockItem readAlarmClockItem(Context context, JsonReader reader, @Nullable AlarmNotifications.CalculatorCache calculators)
         {
-            Map<String, Object> map = readJsonObject(reader);
-            if (map != null)
+            ContentValues values = readJsonValues(reader);
+            if (values != null)
             {
                 try {
                     AlarmClockItem item = new AlarmClockItem();
-                    item.fromContentValues(context, toContentValues(map));
-                    AlarmNotifications.updateAlarmTime(context, item);
+                    item.fromContentValues(context, values);
+                    AlarmNotifications.updateAlarmTime(context, item, Calendar.getInstance(), true, calculators);
                     return item;
 
                 } catch (Exception e) {
@@ -279,73 +438,38 @@ public class AlarmClockItemImportTask extends AsyncTask<Uri, AlarmClockItem, Ala
             } else return null;
         }
 
-        /* https://stackoverflow.com/a/59211956 */
-        public static ContentValues toContentValues(Map<String, Object> map)
-        {
-            ContentValues values = new ContentValues();
-            for (Map.Entry<String, Object> entry : map.entrySet())
-            {
-                String key = entry.getKey();
-                Object obj = entry.getValue();
-
-                if (obj instanceof Integer) {
-                    values.put(key, (Integer) obj);
-
-                } else if (obj instanceof Long) {
-                    values.put(key, (Long) obj);
-
-                } else if (obj instanceof Short) {
-                    values.put(key, (Short) obj);
-
-                } else if (obj instanceof Float) {
-                    values.put(key, (Float) obj);
-
-                } else if (obj instanceof Double) {
-                    values.put(key, (Double) obj);
-
-                } else if (obj instanceof Byte) {
-                    values.put(key, (Byte) obj);
-
-                } else if (obj instanceof Boolean) {
-                    values.put(key, (Boolean) obj);
-
-                } else if (obj instanceof String) {
-                    values.put(key, (String) obj);
-                }
-            }
-            return values;
-        }
-
+        /**
+         * Reads a json object directly into ContentValues (nested objects/arrays and null values are skipped).
+         * @return ContentValues, or null if the object couldn't be read
+         */
         @Nullable
         @TargetApi(11)
-        protected static Map<String, Object> readJsonObject(JsonReader reader)
+        protected static ContentValues readJsonValues(JsonReader reader)
         {
             try {
-                Map<String, Object> map = new HashMap<>();
+                ContentValues values = new ContentValues();
                 reader.beginObject();
                 while (reader.hasNext())
                 {
                     String key = reader.nextName();
                     if (reader.hasNext())
                     {
-                        Object value = null;
                         switch (reader.peek())
                         {
                             case BEGIN_ARRAY: skipJsonArray(reader); break;
                             case BEGIN_OBJECT: skipJsonObject(reader); break;
-                            case BOOLEAN: value = reader.nextBoolean(); break;
-                            case NULL: value = null; reader.nextNull(); break;
+                            case BOOLEAN: values.put(key, reader.nextBoolean()); break;
+                            case NULL: reader.nextNull(); break;
                             case NUMBER: case STRING:
-                            default: value = reader.nextString(); break;
+                            default: values.put(key, reader.nextString()); break;
                         }
-                        map.put(key, value);
                     }
                 }
                 reader.endObject();
-                return map;
+                return values;
 
             } catch (IOException e) {
-                Log.e(TAG, "readJsonObject: skipping item because of " + e);
+                Log.e(TAG, "readJsonValues: skipping item because of " + e);
                 return null;
             }
         }
@@ -392,6 +516,20 @@ public class AlarmClockItemImportTask extends AsyncTask<Uri, AlarmClockItem, Ala
             HashMap<String,String> map = toMap(item.asContentValues(true));
             return new JSONObject(map).toString();
         }
+
+        /**
+         * Writes an item directly to the writer (same content as toJson, without building intermediate strings).
+         */
+        @TargetApi(11)
+        public static void writeAlarmClockItem(JsonWriter writer, AlarmClockItem item) throws IOException
+        {
+            ContentValues values = item.asContentValues(true);
+            writer.beginObject();
+            for (String key : values.keySet()) {
+                writer.name(key).value(values.getAsString(key));
+            }
+            writer.endObject();
+        }
     }
 
 }
\ No newline at end of file
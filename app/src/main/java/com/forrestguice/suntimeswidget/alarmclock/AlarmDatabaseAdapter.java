@@ -45,7 +45,7 @@ import java.util.List;
 public class AlarmDatabaseAdapter
 {
     public static final String DATABASE_NAME = "suntimesAlarms";
-    public static final int DATABASE_VERSION = 3;
+    public static final int DATABASE_VERSION = 4;
 
     //
     // Table: Alarms
@@ -149,10 +149,14 @@ public class AlarmDatabaseAdapter
                                                          + DEF_ALARM_ACTION1;
 
     private static final String TABLE_ALARMS_CREATE = "create table " + TABLE_ALARMS + " (" + TABLE_ALARMS_CREATE_COLS + ");";
+
+    private static final String INDEX_ALARMS_UPCOMING = "alarms_upcoming";                       // index used to find upcoming alarms (@see findUpcomingAlarmIds)
+    private static final String INDEX_ALARMS_UPCOMING_CREATE = "create index if not exists " + INDEX_ALARMS_UPCOMING + " on " + TABLE_ALARMS + " (" + KEY_ALARM_TYPE + ", " + KEY_ALARM_ENABLED + ", " + KEY_ALARM_DATETIME_ADJUSTED + ");";
     private static final String[] TABLE_ALARMS_UPGRADE_1_2 = new String[] { "alter table " + TABLE_ALARMS + " add column " + DEF_ALARM_TIMEZONE };
     private static final String[] TABLE_ALARMS_UPGRADE_2_3 = new String[] { "alter table " + TABLE_ALARMS + " add column " + DEF_ALARM_ACTION0,
                                                                             "alter table " + TABLE_ALARMS + " add column " + DEF_ALARM_ACTION1 };
-    private static final String[] TABLE_ALARMS_DOWNGRADE = new String[] { "DROP TABLE " + TABLE_ALARMS, TABLE_ALARMS_CREATE };
+    private static final String[] TABLE_ALARMS_UPGRADE_3_4 = new String[] { INDEX_ALARMS_UPCOMING_CREATE };
+    private static final String[] TABLE_ALARMS_DOWNGRADE = new String[] { "DROP TABLE " + TABLE_ALARMS, TABLE_ALARMS_CREATE, INDEX_ALARMS_UPCOMING_CREATE };
 
     private static final String[] QUERY_ALARMS_MINENTRY = new String[] { KEY_ROWID, KEY_ALARM_TYPE, KEY_ALARM_ENABLED, KEY_ALARM_DATETIME, KEY_ALARM_LABEL };
     private static final String[] QUERY_ALARMS_FULLENTRY = new String[] { KEY_ROWID, KEY_ALARM_TYPE, KEY_ALARM_ENABLED, KEY_ALARM_LABEL,
@@ -322,33 +326,44 @@ public class AlarmDatabaseAdapter
         return cursor;
     }
 
+    /**
+     * @param nowMillis current time
+     * @return the rowID of the next enabled alarm (after nowMillis), or null if there isn't one
+     * @throws SQLException if query failed
+     */
     public Long findUpcomingAlarmId(long nowMillis) throws SQLException
     {
-        String[] columns = new String[] { KEY_ROWID, KEY_ALARM_TYPE, KEY_ALARM_ENABLED, KEY_ALARM_DATETIME_ADJUSTED };
-        String selection = KEY_ALARM_TYPE + "= ? AND " + KEY_ALARM_ENABLED + " = ?";
-        String[] selectionArgs = new String[] { "ALARM", "1" };
+        Long[] alarmIds = findUpcomingAlarmIds(nowMillis, 1);
+        return (alarmIds.length > 0 ? alarmIds[0] : null);
+    }
+
+    /**
+     * Find the next n enabled alarms (ordered by alarm time); this query is satisfied by INDEX_ALARMS_UPCOMING.
+     * @param nowMillis current time
+     * @param n number of alarms to find (0 finds all)
+     * @return an array of rowIDs (possibly empty)
+     * @throws SQLException if query failed
+     */
+    public Long[] findUpcomingAlarmIds(long nowMillis, int n) throws SQLException
+    {
+        String[] columns = new String[] { KEY_ROWID };
+        String selection = KEY_ALARM_TYPE + " = ? AND " + KEY_ALARM_ENABLED + " = ? AND " + KEY_ALARM_DATETIME_ADJUSTED + " > ?";
+        String[] selectionArgs = new String[] { AlarmClockItem.AlarmType.ALARM.name(), "1", Long.toString(nowMillis) };
+        String orderBy = KEY_ALARM_DATETIME_ADJUSTED + " ASC, " + KEY_ROWID + " ASC";
 
-        Cursor cursor = database.query( true, TABLE_ALARMS, columns, selection, selectionArgs, null, null, null, null );
+        ArrayList<Long> alarmIds = new ArrayList<>();
+        Cursor cursor = database.query( TABLE_ALARMS, columns, selection, selectionArgs, null, null, orderBy, (n > 0 ? Integer.toString(n) : null) );
         if (cursor != null)
         {
-            Long upcomingAlarmId = null;
-            long timeToUpcomingAlarm = Long.MAX_VALUE;
-
             cursor.moveToFirst();
             while (!cursor.isAfterLast())
             {
-                long alarmtime = cursor.getLong(cursor.getColumnIndex(AlarmDatabaseAdapter.KEY_ALARM_DATETIME_ADJUSTED));
-                long timeToAlarm = alarmtime - nowMillis;
-                if (timeToAlarm > 0 && timeToAlarm < timeToUpcomingAlarm) {
-                    timeToUpcomingAlarm = timeToAlarm;
-                    upcomingAlarmId = cursor.getLong(cursor.getColumnIndex(AlarmDatabaseAdapter.KEY_ROWID));
-                }
+                alarmIds.add(cursor.getLong(0));
                 cursor.moveToNext();
             }
             cursor.close();
-            return upcomingAlarmId;
         }
-        return null;
+        return alarmIds.toArray(new Long[0]);
     }
 
     /**
@@ -388,6 +403,42 @@ public class AlarmDatabaseAdapter
      * @return the rowID of the newly added alarm or -1 if an error
      */
     public long addAlarm( ContentValues values )
+    {
+        long rowID = insertAlarm(values);
+        if (rowID != -1) {
+            AlarmChangeLog.notifyAlarmChanged(context, rowID, SuntimesAlarmsContract.CHANGE_INSERT);
+        }
+        return rowID;
+    }
+
+    /**
+     * Adds several alarms using a single transaction (observers are notified after the transaction is committed).
+     * @param values alarm values
+     * @return the rowID of each alarm (or -1 if it failed to insert)
+     */
+    public long[] addAlarms( ContentValues... values )
+    {
+        long[] rowIDs = new long[values.length];
+        database.beginTransaction();
+        try {
+            for (int i=0; i<values.length; i++) {
+                rowIDs[i] = insertAlarm(values[i]);
+            }
+            database.setTransactionSuccessful();
+        } finally {
+            database.endTransaction();
+        }
+
+        for (long rowID : rowIDs)
+        {
+            if (rowID != -1) {
+                AlarmChangeLog.notifyAlarmChanged(context, rowID, SuntimesAlarmsContract.CHANGE_INSERT);
+            }
+        }
+        return rowIDs;
+    }
+
+    private long insertAlarm( ContentValues values )
     {
         long rowID = database.insert(TABLE_ALARMS, null, values);
         if (rowID != -1)
@@ -402,12 +453,20 @@ public class AlarmDatabaseAdapter
 
     public boolean updateAlarm( long row, ContentValues values )
     {
-        return database.update(TABLE_ALARMS, values,KEY_ROWID + "=" + row, null) > 0;
+        boolean updated = database.update(TABLE_ALARMS, values,KEY_ROWID + "=" + row, null) > 0;
+        if (updated) {
+            AlarmChangeLog.notifyAlarmChanged(context, row, SuntimesAlarmsContract.CHANGE_UPDATE);
+        }
+        return updated;
     }
 
     public boolean updateAlarmState( long row, ContentValues values )
     {
-        return database.update(TABLE_ALARMSTATE, values, KEY_STATE_ALARMID + "=" + row, null) > 0;
+        boolean updated = database.update(TABLE_ALARMSTATE, values, KEY_STATE_ALARMID + "=" + row, null) > 0;
+        if (updated) {
+            AlarmChangeLog.notifyAlarmChanged(context, row, SuntimesAlarmsContract.CHANGE_STATE);
+        }
+        return updated;
     }
 
     public String addAlarmCSV_header()
@@ -474,6 +533,9 @@ public class AlarmDatabaseAdapter
     {
         boolean removeAlarm = (database.delete(TABLE_ALARMS, KEY_ROWID + "=" + row, null) > 0);
         boolean removeAlarmState = (database.delete(TABLE_ALARMSTATE, KEY_STATE_ALARMID + "=" + row, null) > 0);
+        if (removeAlarm) {
+            AlarmChangeLog.notifyAlarmChanged(context, row, SuntimesAlarmsContract.CHANGE_DELETE);
+        }
         return removeAlarm && removeAlarmState;
     }
 
@@ -483,8 +545,10 @@ public class AlarmDatabaseAdapter
      */
     public boolean clearAlarms()
     {
-        return (database.delete(TABLE_ALARMS, null, null) > 0) &&
-               (database.delete(TABLE_ALARMSTATE, null, null) > 0);
+        boolean cleared = (database.delete(TABLE_ALARMS, null, null) > 0) &&
+                          (database.delete(TABLE_ALARMSTATE, null, null) > 0);
+        AlarmChangeLog.notifyAlarmChanged(context, -1, SuntimesAlarmsContract.CHANGE_RESET);
+        return cleared;
     }
 
     @TargetApi(19)
@@ -538,6 +602,7 @@ public class AlarmDatabaseAdapter
                 case 1:
                 default:
                     db.execSQL(TABLE_ALARMS_CREATE);
+                    db.execSQL(INDEX_ALARMS_UPCOMING_CREATE);
                     db.execSQL(TABLE_ALARMSTATE_CREATE);
                     break;
             }
@@ -564,6 +629,17 @@ public class AlarmDatabaseAdapter
                             db.execSQL(TABLE_ALARMS_UPGRADE_2_3[i]);
                         }
                         break;
+                    case 4:
+                        for (int i=0; i<TABLE_ALARMS_UPGRADE_1_2.length; i++) {
+                            db.execSQL(TABLE_ALARMS_UPGRADE_1_2[i]);
+                        }
+                        for (int i=0; i<TABLE_ALARMS_UPGRADE_2_3.length; i++) {
+                            db.execSQL(TABLE_ALARMS_UPGRADE_2_3[i]);
+                        }
+                        for (int i=0; i<TABLE_ALARMS_UPGRADE_3_4.length; i++) {
+                            db.execSQL(TABLE_ALARMS_UPGRADE_3_4[i]);
+                        }
+                        break;
                 }
 
             } else if (oldVersion == 2) {
@@ -574,6 +650,24 @@ public class AlarmDatabaseAdapter
                             db.execSQL(TABLE_ALARMS_UPGRADE_2_3[i]);
                         }
                         break;
+                    case 4:
+                        for (int i=0; i<TABLE_ALARMS_UPGRADE_2_3.length; i++) {
+                            db.execSQL(TABLE_ALARMS_UPGRADE_2_3[i]);
+                        }
+                        for (int i=0; i<TABLE_ALARMS_UPGRADE_3_4.length; i++) {
+                            db.execSQL(TABLE_ALARMS_UPGRADE_3_4[i]);
+                        }
+                        break;
+                }
+
+            } else if (oldVersion == 3) {
+                switch (newVersion)
+                {
+                    case 4:
+                        for (int i=0; i<TABLE_ALARMS_UPGRADE_3_4.length; i++) {
+                            db.execSQL(TABLE_ALARMS_UPGRADE_3_4[i]);
+                        }
+                        break;
                 }
             }
         }
@@ -922,6 +1016,11 @@ public class AlarmDatabaseAdapter
             param_nowMillis = value;
         }
 
+        private int param_limit = 1;    // number of upcoming items to find (with param_nowMillis); 0 finds all
+        public void setParam_limit( int value ) {
+            param_limit = value;
+        }
+
         protected boolean passesFilter(Cursor cursor, long rowID) {
             return true;
         }
@@ -932,8 +1031,12 @@ public class AlarmDatabaseAdapter
             ArrayList<Long> alarmIds = new ArrayList<>();
             db.open();
 
-            if (param_nowMillis != null) {
-                alarmIds.add(db.findUpcomingAlarmId(param_nowMillis));
+            if (param_nowMillis != null)
+            {
+                alarmIds.addAll(Arrays.asList(db.findUpcomingAlarmIds(param_nowMillis, param_limit)));
+                if (alarmIds.isEmpty()) {
+                    alarmIds.add(null);    // ids[0] is null when there is no upcoming alarm
+                }
 
             } else {
                 Cursor cursor = (param_withAlarmState != null)
@@ -19,10 +19,14 @@ package com.forrestguice.suntimeswidget.alarmclock;
 
 /**
  * AlarmEventContract
- * @version 1 (0.1.0)
+ * @version 3 (0.3.0)
+ *
+ * Observers of content://AUTHORITY/eventCalc/[eventID] are notified when event times may have changed.
  *
  * CHANGES
  *   1 initial version
+ *   2 adds change notifications; QUERY_EVENT_CALC returns COLUMN_EVENT_TIMEMILLIS as long
+ *   3 adds QUERY_EVENT_CALC_BULK, EXTRA_ALARM_EVENTS, EXTRA_ALARM_OFFSETS
  */
 public interface AlarmEventContract
 {
@@ -61,7 +65,11 @@ public interface AlarmEventContract
             COLUMN_EVENT_NAME, COLUMN_EVENT_TIMEMILLIS
     };
 
+    String QUERY_EVENT_CALC_BULK = "eventCalcBulk";     // content://AUTHORITY/eventCalcBulk .. one row per EXTRA_ALARM_EVENTS (in the same order), for a single location; QUERY_EVENT_CALC_PROJECTION
+
     String EXTRA_ALARM_EVENT = "alarm_event";              // eventID
+    String EXTRA_ALARM_EVENTS = "alarm_events";            // String[] as String; e.g. "[SUNRISE,SUNSET]"
+    String EXTRA_ALARM_OFFSETS = "alarm_offsets";          // long[] as String (millis); e.g. "[0,-600000]" (one per event; missing or empty values use EXTRA_ALARM_OFFSET)
     String EXTRA_ALARM_NOW = "alarm_now";                  // long (millis)
     String EXTRA_ALARM_REPEAT = "alarm_repeat";            // boolean
     String EXTRA_ALARM_REPEAT_DAYS = "alarm_repeat_days";  // Integer[] as String; e.g. "[1,2,3]"
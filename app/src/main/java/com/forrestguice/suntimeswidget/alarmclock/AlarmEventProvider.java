@@ -19,6 +19,7 @@
 package com.forrestguice.suntimeswidget.alarmclock;
 
 import android.content.ContentProvider;
+import android.content.ContentResolver;
 import android.content.ContentValues;
 import android.content.Context;
 import android.content.UriMatcher;
@@ -32,6 +33,7 @@ import android.util.Log;
 import com.forrestguice.suntimeswidget.R;
 import com.forrestguice.suntimeswidget.SuntimesUtils;
 import com.forrestguice.suntimeswidget.calculator.CalculatorProvider;
+import com.forrestguice.suntimeswidget.calculator.core.CalculatorProviderContract;
 import com.forrestguice.suntimeswidget.calculator.core.Location;
 import com.forrestguice.suntimeswidget.settings.SolarEvents;
 import com.forrestguice.suntimeswidget.settings.WidgetSettings;
@@ -39,6 +41,8 @@ import com.forrestguice.suntimeswidget.settings.WidgetSettings;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import static com.forrestguice.suntimeswidget.alarmclock.AlarmEventContract.AUTHORITY;
 import static com.forrestguice.suntimeswidget.alarmclock.AlarmEventContract.COLUMN_EVENT_NAME;
@@ -51,11 +55,14 @@ import static com.forrestguice.suntimeswidget.alarmclock.AlarmEventContract.COLU
 import static com.forrestguice.suntimeswidget.alarmclock.AlarmEventContract.COLUMN_EVENT_SUPPORTS_REPEATING;
 import static com.forrestguice.suntimeswidget.alarmclock.AlarmEventContract.COLUMN_EVENT_TIMEMILLIS;
 import static com.forrestguice.suntimeswidget.alarmclock.AlarmEventContract.COLUMN_EVENT_TITLE;
+import static com.forrestguice.suntimeswidget.alarmclock.AlarmEventContract.EXTRA_ALARM_EVENTS;
 import static com.forrestguice.suntimeswidget.alarmclock.AlarmEventContract.EXTRA_ALARM_NOW;
 import static com.forrestguice.suntimeswidget.alarmclock.AlarmEventContract.EXTRA_ALARM_OFFSET;
+import static com.forrestguice.suntimeswidget.alarmclock.AlarmEventContract.EXTRA_ALARM_OFFSETS;
 import static com.forrestguice.suntimeswidget.alarmclock.AlarmEventContract.EXTRA_ALARM_REPEAT;
 import static com.forrestguice.suntimeswidget.alarmclock.AlarmEventContract.EXTRA_ALARM_REPEAT_DAYS;
 import static com.forrestguice.suntimeswidget.alarmclock.AlarmEventContract.QUERY_EVENT_CALC;
+import static com.forrestguice.suntimeswidget.alarmclock.AlarmEventContract.QUERY_EVENT_CALC_BULK;
 import static com.forrestguice.suntimeswidget.alarmclock.AlarmEventContract.QUERY_EVENT_CALC_PROJECTION;
 import static com.forrestguice.suntimeswidget.alarmclock.AlarmEventContract.QUERY_EVENT_INFO;
 import static com.forrestguice.suntimeswidget.alarmclock.AlarmEventContract.QUERY_EVENT_INFO_PROJECTION;
@@ -70,6 +77,7 @@ public class AlarmEventProvider extends ContentProvider
     private static final int URIMATCH_EVENTS = 0;
     private static final int URIMATCH_EVENT = 10;
     private static final int URIMATCH_EVENT_CALC = 20;
+    private static final int URIMATCH_EVENT_CALC_BULK = 30;
 
     private SuntimesUtils utils = null;
 
@@ -77,7 +85,24 @@ public class AlarmEventProvider extends ContentProvider
     static {
         uriMatcher.addURI(AUTHORITY, QUERY_EVENT_INFO, URIMATCH_EVENTS);                            // content://AUTHORITY/eventInfo
         uriMatcher.addURI(AUTHORITY, QUERY_EVENT_INFO + "/*", URIMATCH_EVENT);                // content://AUTHORITY/eventInfo/[eventID]
-        uriMatcher.addURI(AUTHORITY, QUERY_EVENT_CALC + "/*", URIMATCH_EVENT);                // content://AUTHORITY/eventCalc/[eventID]
+        uriMatcher.addURI(AUTHORITY, QUERY_EVENT_CALC + "/*", URIMATCH_EVENT_CALC);           // content://AUTHORITY/eventCalc/[eventID]
+        uriMatcher.addURI(AUTHORITY, QUERY_EVENT_CALC_BULK, URIMATCH_EVENT_CALC_BULK);        // content://AUTHORITY/eventCalcBulk
+    }
+
+    public static final Uri URI_EVENT_INFO = Uri.parse(ContentResolver.SCHEME_CONTENT + "://" + AUTHORITY + "/" + QUERY_EVENT_INFO);
+    public static final Uri URI_EVENT_CALC = Uri.parse(ContentResolver.SCHEME_CONTENT + "://" + AUTHORITY + "/" + QUERY_EVENT_CALC);
+
+    /**
+     * Notifies observers of content://AUTHORITY/eventCalc/[eventID] (all events) that event times may have changed
+     * (e.g. the location or calculator settings were changed); also discards cached event times.
+     */
+    public static void notifyEventsChanged(Context context)
+    {
+        clearEventTimes();
+        ContentResolver resolver = context.getContentResolver();
+        if (resolver != null) {
+            resolver.notifyChange(URI_EVENT_CALC, null);
+        }
     }
 
     @Override
@@ -139,6 +164,11 @@ public class AlarmEventProvider extends ContentProvider
                 retValue = calculateEvent(uri.getLastPathSegment(), uri, projection, selectionMap);
                 break;
 
+            case URIMATCH_EVENT_CALC_BULK:
+                Log.d(getClass().getSimpleName(), "URIMATCH_EVENT_CALC_BULK");
+                retValue = calculateEvents(uri, projection, selectionMap);
+                break;
+
             default:
                 Log.e(getClass().getSimpleName(), "Unrecognized URI! " + uri);
                 break;
@@ -161,8 +191,9 @@ public class AlarmEventProvider extends ContentProvider
             {
                 // eventID is null (list all SolarEvents), or eventID is a SolarEvents enum (list one)
                 SolarEvents[] events = ((event0 != null) ? new SolarEvents[] { event0 } : SolarEvents.values());
+                AlarmNotifications.CalculatorCache calculators = new AlarmNotifications.CalculatorCache();
                 for (SolarEvents event : events) {
-                    retValue.addRow(createRow(context, event, columns, selectionMap));
+                    retValue.addRow(createRow(context, event, columns, selectionMap, calculators));
                 }
 
             } else {   // eventID is not null, but also not a SolarEvents enum
@@ -173,6 +204,7 @@ public class AlarmEventProvider extends ContentProvider
                     Log.w("AlarmEventsProvider", "queryEvents: unrecognized event: " + eventID + " .. " + e);
                 }
             }
+            retValue.setNotificationUri(context.getContentResolver(), uri);
         }
         return retValue;
     }
@@ -189,7 +221,7 @@ public class AlarmEventProvider extends ContentProvider
         {
             SolarEvents event0 = (eventID != null) ? SolarEvents.valueOf(eventID, null) : null;
             if (event0 != null) {
-                retValue.addRow(createRow(context, event0, columns, selectionMap));
+                retValue.addRow(createRow(context, event0, columns, selectionMap, null));
 
             } else if (eventID != null) {
                 try {
@@ -198,14 +230,76 @@ public class AlarmEventProvider extends ContentProvider
                     Log.w("AlarmEventsProvider", "calculateEvents: unrecognized event: " + eventID);
                 }
             }
+            retValue.setNotificationUri(context.getContentResolver(), uri);    // content://AUTHORITY/eventCalc/[eventID]
+        }
+        return retValue;
+    }
+
+    /**
+     * calculateEvents; calculates a list of events (EXTRA_ALARM_EVENTS) for a single location, sharing the same calculator(s).
+     * Rows are returned in the same order as the requested events.
+     */
+    private Cursor calculateEvents(@NonNull Uri uri, @Nullable String[] projection, @Nullable HashMap<String,String> selectionMap)
+    {
+        String[] columns = (projection != null ? projection : QUERY_EVENT_CALC_PROJECTION);
+        MatrixCursor retValue = new MatrixCursor(columns);
+        Context context = getContext();
+        if (context != null && selectionMap != null)
+        {
+            ArrayList<String> eventIDs = getListValues(selectionMap.get(EXTRA_ALARM_EVENTS));
+            ArrayList<String> offsets = getListValues(selectionMap.get(EXTRA_ALARM_OFFSETS), true);    // keep empty elements (positional)
+            String defaultOffset = (selectionMap.containsKey(EXTRA_ALARM_OFFSET) ? selectionMap.get(EXTRA_ALARM_OFFSET) : "0");
+
+            HashMap<String,String> eventSelection = new HashMap<>(selectionMap);
+            if (CalculatorProvider.processSelection_location(selectionMap) == null)
+            {
+                Location location = WidgetSettings.loadLocationPref(context, 0);    // load once (rather than for each row)
+                eventSelection.put(CalculatorProviderContract.COLUMN_CONFIG_LATITUDE, location.getLatitude());
+                eventSelection.put(CalculatorProviderContract.COLUMN_CONFIG_LONGITUDE, location.getLongitude());
+                eventSelection.put(CalculatorProviderContract.COLUMN_CONFIG_ALTITUDE, location.getAltitude());
+            }
+
+            AlarmNotifications.CalculatorCache calculators = new AlarmNotifications.CalculatorCache();
+            for (int i=0; i<eventIDs.size(); i++)
+            {
+                String eventID = eventIDs.get(i);
+                String offset = (i < offsets.size() ? offsets.get(i) : "");
+                eventSelection.put(EXTRA_ALARM_OFFSET, (offset.isEmpty() ? defaultOffset : offset));
+
+                SolarEvents event = SolarEvents.valueOf(eventID, null);
+                if (event != null) {
+                    retValue.addRow(createRow(context, event, columns, eventSelection, calculators));
+
+                } else {
+                    try {
+                        retValue.addRow(createRow(context, Long.parseLong(eventID), columns, eventSelection));
+                    } catch (NumberFormatException e) {
+                        Log.w("AlarmEventsProvider", "calculateEvents: unrecognized event: " + eventID);
+                        retValue.addRow(createRow(eventID, columns));
+                    }
+                }
+            }
+            retValue.setNotificationUri(context.getContentResolver(), URI_EVENT_CALC);
         }
         return retValue;
     }
 
+    /**
+     * createRow( unrecognized event )
+     */
+    private Object[] createRow(String eventID, String[] columns)
+    {
+        Object[] row = new Object[columns.length];
+        for (int i=0; i<columns.length; i++) {
+            row[i] = (COLUMN_EVENT_NAME.equals(columns[i]) ? eventID : null);
+        }
+        return row;
+    }
+
     /**
      * createRow( SolarEvent )
      */
-    private Object[] createRow(@NonNull Context context, @NonNull SolarEvents event, String[] columns, @Nullable HashMap<String,String> selectionMap)
+    private Object[] createRow(@NonNull Context context, @NonNull SolarEvents event, String[] columns, @Nullable HashMap<String,String> selectionMap, @Nullable AlarmNotifications.CalculatorCache calculators)
     {
         Object[] row = new Object[columns.length];
         for (int i=0; i<columns.length; i++)
@@ -223,7 +317,7 @@ public class AlarmEventProvider extends ContentProvider
                     Calendar now = getNowCalendar(selectionMap != null ? selectionMap.get(EXTRA_ALARM_NOW) : null);
                     ArrayList<Integer> repeatingDays = (selectionMap != null ? getRepeatDays(selectionMap.get(EXTRA_ALARM_REPEAT_DAYS)) : new ArrayList<Integer>());
 
-                    row[i] = AlarmNotifications.updateAlarmTime_solarEvent(context, event, location, offset, repeating, repeatingDays, now);
+                    row[i] = calculateEventTime(context, event, location, offset, repeating, repeatingDays, now, calculators);
                     break;
 
                 case COLUMN_EVENT_NAME:
@@ -318,6 +412,55 @@ public class AlarmEventProvider extends ContentProvider
         return row;
     }
 
+    /**
+     * @return the next event time (millis), or null if the event can't be scheduled; results are reused until the event
+     * time has passed (or up to EVENT_TIME_MAX_AGE)
+     */
+    @Nullable
+    protected static Long calculateEventTime(Context context, @NonNull SolarEvents event, @NonNull Location location, long offset, boolean repeating, ArrayList<Integer> repeatingDays, Calendar now, @Nullable AlarmNotifications.CalculatorCache calculators)
+    {
+        String key = event.name() + "|" + location.getLatitude() + "|" + location.getLongitude() + "|" + location.getAltitude()
+                + "|" + offset + "|" + repeating + "|" + (repeating ? repeatingDays.toString() : "");
+        long nowMillis = now.getTimeInMillis();
+        long wallMillis = System.currentTimeMillis();
+
+        synchronized (eventTimes)
+        {
+            long[] cached = eventTimes.get(key);    // [calculatedAt, calculatedFor (now), eventTime]
+            if (cached != null
+                    && (wallMillis - cached[0]) >= 0 && (wallMillis - cached[0]) < EVENT_TIME_MAX_AGE
+                    && nowMillis >= cached[1] && nowMillis <= (cached[2] + offset)) {
+                return cached[2];
+            }
+        }
+
+        Calendar eventTime = AlarmNotifications.updateAlarmTime_solarEvent(context, event, location, offset, repeating, repeatingDays, now, calculators);
+        if (eventTime != null)
+        {
+            synchronized (eventTimes) {
+                eventTimes.put(key, new long[] { wallMillis, nowMillis, eventTime.getTimeInMillis() });
+            }
+        }
+        return (eventTime != null ? eventTime.getTimeInMillis() : null);
+    }
+
+    protected static void clearEventTimes()
+    {
+        synchronized (eventTimes) {
+            eventTimes.clear();
+        }
+    }
+
+    public static final long EVENT_TIME_MAX_AGE = 60 * 60 * 1000;    // 1hr
+    public static final int EVENT_TIME_MAX_ENTRIES = 128;
+    private static final LinkedHashMap<String, long[]> eventTimes = new LinkedHashMap<String, long[]>(EVENT_TIME_MAX_ENTRIES, 0.75f, true)
+    {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, long[]> eldest) {
+            return size() > EVENT_TIME_MAX_ENTRIES;
+        }
+    };
+
     public static Calendar getNowCalendar(String nowString)
     {
         long nowMillis = (nowString != null ? Long.parseLong(nowString) : System.currentTimeMillis());
@@ -326,6 +469,39 @@ public class AlarmEventProvider extends ContentProvider
         return now;
     }
 
+    /**
+     * @param listString a list as String; e.g. "[SUNRISE, SUNSET]"
+     * @return list values (trimmed), or an empty list
+     */
+    public static ArrayList<String> getListValues(@Nullable String listString) {
+        return getListValues(listString, false);
+    }
+
+    /**
+     * @param listString a list as String; e.g. "[0,,-600000]"
+     * @param keepEmpty true keeps empty elements (as "") so that values retain their position in the list, false skips them
+     * @return list values (trimmed), or an empty list
+     */
+    public static ArrayList<String> getListValues(@Nullable String listString, boolean keepEmpty)
+    {
+        ArrayList<String> result = new ArrayList<>();
+        if (listString != null)
+        {
+            listString = listString.replaceAll("\\[", "");
+            listString = listString.replaceAll("]", "");
+            if (listString.trim().isEmpty()) {
+                return result;
+            }
+            for (String element : listString.split(",", -1)) {
+                element = element.trim();
+                if (keepEmpty || !element.isEmpty()) {
+                    result.add(element);
+                }
+            }
+        }
+        return result;
+    }
+
     public static ArrayList<Integer> getRepeatDays(@Nullable String repeatDaysString)
     {
         ArrayList<Integer> result = new ArrayList<>();
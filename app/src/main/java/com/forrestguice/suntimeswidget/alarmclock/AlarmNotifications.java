@@ -54,6 +54,7 @@ import android.support.v4.content.ContextCompat;
 import android.support.v7.app.NotificationCompat;
 import android.text.SpannableString;
 import android.util.Log;
+import android.util.Pair;
 import android.view.View;
 import android.widget.Toast;
 
@@ -61,14 +62,18 @@ import com.forrestguice.suntimeswidget.R;
 import com.forrestguice.suntimeswidget.SuntimesUtils;
 import com.forrestguice.suntimeswidget.alarmclock.ui.AlarmClockActivity;
 import com.forrestguice.suntimeswidget.alarmclock.ui.AlarmDismissActivity;
+import com.forrestguice.suntimeswidget.calculator.PolarSeasonIndex;
 import com.forrestguice.suntimeswidget.calculator.SuntimesClockData;
+import com.forrestguice.suntimeswidget.calculator.SuntimesCalculatorDescriptor;
 import com.forrestguice.suntimeswidget.calculator.SuntimesData;
 import com.forrestguice.suntimeswidget.calculator.SuntimesEquinoxSolsticeData;
+import com.forrestguice.suntimeswidget.calculator.SuntimesEventCache;
 import com.forrestguice.suntimeswidget.calculator.SuntimesMoonData;
 import com.forrestguice.suntimeswidget.calculator.SuntimesRiseSetData;
 import com.forrestguice.suntimeswidget.calculator.core.CalculatorProviderContract;
 import com.forrestguice.suntimeswidget.calculator.core.Location;
 import com.forrestguice.suntimeswidget.calculator.core.SuntimesCalculator;
+import com.forrestguice.suntimeswidget.calculator.core.SuntimesPrecisionCalculator;
 import com.forrestguice.suntimeswidget.settings.SolarEvents;
 import com.forrestguice.suntimeswidget.settings.WidgetActions;
 import com.forrestguice.suntimeswidget.settings.WidgetSettings;
@@ -78,6 +83,7 @@ import java.lang.ref.WeakReference;
 import java.security.Security;
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.List;
@@ -321,10 +327,7 @@ public class AlarmNotifications extends BroadcastReceiver
      */
     public static void findUpcomingAlarm(final Context context, final boolean saveResult, @Nullable final AlarmDatabaseAdapter.AlarmListTask.AlarmListTaskListener onFinished)
     {
-        AlarmDatabaseAdapter.AlarmListTask findTask = new AlarmDatabaseAdapter.AlarmListTask(context);
-        findTask.setParam_enabledOnly(true);
-        findTask.setParam_nowMillis(System.currentTimeMillis());
-        findTask.setAlarmItemTaskListener(new AlarmDatabaseAdapter.AlarmListTask.AlarmListTaskListener()
+        findUpcomingAlarms(context, 1, new AlarmDatabaseAdapter.AlarmListTask.AlarmListTaskListener()
         {
             @Override
             public void onItemsLoaded(Long[] ids)
@@ -342,12 +345,27 @@ public class AlarmNotifications extends BroadcastReceiver
                 }
             }
         });
-        findTask.execute();
     }
     public static void findUpcomingAlarm(final Context context, @Nullable final AlarmDatabaseAdapter.AlarmListTask.AlarmListTaskListener onFinished) {
         findUpcomingAlarm(context, true, onFinished);
     }
 
+    /**
+     * Find the next n alarms expected to trigger (ordered by alarm time).
+     * @param context context
+     * @param n number of alarms to find (0 finds all)
+     * @param onFinished task AlarmListTaskListener; ids[0] is null if there are no upcoming alarms
+     */
+    public static void findUpcomingAlarms(final Context context, int n, @Nullable final AlarmDatabaseAdapter.AlarmListTask.AlarmListTaskListener onFinished)
+    {
+        AlarmDatabaseAdapter.AlarmListTask findTask = new AlarmDatabaseAdapter.AlarmListTask(context);
+        findTask.setParam_enabledOnly(true);
+        findTask.setParam_nowMillis(System.currentTimeMillis());
+        findTask.setParam_limit(n);
+        findTask.setAlarmItemTaskListener(onFinished);
+        findTask.execute();
+    }
+
     protected static void setPowerOffAlarm(final Context context, long alarmId)
     {
         AlarmDatabaseAdapter.AlarmItemTask itemTask = new AlarmDatabaseAdapter.AlarmItemTask(context);
@@ -1807,21 +1825,13 @@ public class AlarmNotifications extends BroadcastReceiver
     public static boolean updateAlarmTime(Context context, final AlarmClockItem item) {
         return updateAlarmTime(context, item, Calendar.getInstance(), true);
     }
-    public static boolean updateAlarmTime(Context context, final AlarmClockItem item, Calendar now, boolean modifyItem)
+    public static boolean updateAlarmTime(Context context, final AlarmClockItem item, Calendar now, boolean modifyItem) {
+        return updateAlarmTime(context, item, now, modifyItem, null);
+    }
+    public static boolean updateAlarmTime(Context context, final AlarmClockItem item, Calendar now, boolean modifyItem, @Nullable CalculatorCache calculators)
     {
-        Calendar eventTime = null;
-        String eventID = item.getEvent();
-        SolarEvents event = SolarEvents.valueOf(eventID, null);
-        if (item.location != null && event != null)
-        {
-            eventTime = updateAlarmTime_solarEvent(context, event, item.location, item.offset, item.repeating, item.repeatingDays, now);
-
-        } else if (eventID != null) {
-            eventTime = updateAlarmTime_addonEvent(context.getContentResolver(), eventID, item.location, item.offset, item.repeating, item.repeatingDays, now);
-
-        } else {
-            eventTime = updateAlarmTime_clockTime(item.hour, item.minute, item.timezone, item.location, item.offset, item.repeating, item.repeatingDays, now);
-        }
+        Calendar eventTime = calculateAlarmTime(context, item, now, calculators);
+        setSchedulable(item, eventTime, now);
 
         if (eventTime == null) {
             Log.e(TAG, "updateAlarmTime: failed to update " + item + " :: " + item.getEvent() + "@" + item.location);
@@ -1838,35 +1848,78 @@ public class AlarmNotifications extends BroadcastReceiver
         return true;
     }
 
+    /**
+     * Calculates the next trigger time of an item (without modifying it).
+     * @return the next alarm time, or null if the item can't be scheduled
+     */
+    @Nullable
+    public static Calendar calculateAlarmTime(Context context, final AlarmClockItem item, Calendar now) {
+        return calculateAlarmTime(context, item, now, null);
+    }
     @Nullable
-    protected static Calendar updateAlarmTime_solarEvent(Context context, @NonNull SolarEvents event, @NonNull Location location, long offset, boolean repeating, ArrayList<Integer> repeatingDays, Calendar now)
+    public static Calendar calculateAlarmTime(Context context, final AlarmClockItem item, Calendar now, @Nullable CalculatorCache calculators)
+    {
+        String eventID = item.getEvent();
+        SolarEvents event = SolarEvents.valueOf(eventID, null);
+        if (item.location != null && event != null) {
+            return updateAlarmTime_solarEvent(context, event, item.location, item.offset, item.repeating, item.repeatingDays, now, calculators);
+
+        } else if (eventID != null) {
+            return updateAlarmTime_addonEvent(context.getContentResolver(), eventID, item.location, item.offset, item.repeating, item.repeatingDays, now);
+
+        } else {
+            return updateAlarmTime_clockTime(item.hour, item.minute, item.timezone, item.location, item.offset, item.repeating, item.repeatingDays, now);
+        }
+    }
+
+    /**
+     * Caches the result of calculateAlarmTime on the item; the result expires when the alarm triggers, or after
+     * SCHEDULABLE_EXPIRES_MILLIS (whichever comes first).
+     */
+    public static void setSchedulable(AlarmClockItem item, @Nullable Calendar eventTime, Calendar now)
+    {
+        long nowMillis = now.getTimeInMillis();
+        long expires = nowMillis + SCHEDULABLE_EXPIRES_MILLIS;
+        if (eventTime != null) {
+            expires = Math.max(nowMillis, Math.min(expires, eventTime.getTimeInMillis()));
+        }
+        item.setSchedulable(eventTime != null, (eventTime != null ? eventTime.getTimeInMillis() : -1L), expires);
+    }
+    public static final long SCHEDULABLE_EXPIRES_MILLIS = 60 * 60 * 1000;    // 1hr
+
+    @Nullable
+    protected static Calendar updateAlarmTime_solarEvent(Context context, @NonNull SolarEvents event, @NonNull Location location, long offset, boolean repeating, ArrayList<Integer> repeatingDays, Calendar now) {
+        return updateAlarmTime_solarEvent(context, event, location, offset, repeating, repeatingDays, now, null);
+    }
+    @Nullable
+    protected static Calendar updateAlarmTime_solarEvent(Context context, @NonNull SolarEvents event, @NonNull Location location, long offset, boolean repeating, ArrayList<Integer> repeatingDays, Calendar now, @Nullable CalculatorCache calculators)
     {
         Calendar eventTime = null;
         switch (event.getType())
         {
             case SolarEvents.TYPE_MOON:
-                eventTime = updateAlarmTime_moonEvent(context, event, location, offset, repeating, repeatingDays, now);
+                eventTime = updateAlarmTime_moonEvent(context, event, location, offset, repeating, repeatingDays, now, calculators);
                 break;
 
             case SolarEvents.TYPE_MOONPHASE:
-                eventTime = updateAlarmTime_moonPhaseEvent(context, event, location, offset, repeating, repeatingDays, now);
+                eventTime = updateAlarmTime_moonPhaseEvent(context, event, location, offset, repeating, repeatingDays, now, calculators);
                 break;
 
             case SolarEvents.TYPE_SEASON:
-                eventTime = updateAlarmTime_seasonEvent(context, event, location, offset, repeating, repeatingDays, now);
+                eventTime = updateAlarmTime_seasonEvent(context, event, location, offset, repeating, repeatingDays, now, calculators);
                 break;
 
             case SolarEvents.TYPE_SUN:
-                eventTime = updateAlarmTime_sunEvent(context, event, location, offset, repeating, repeatingDays, now);
+                eventTime = updateAlarmTime_sunEvent(context, event, location, offset, repeating, repeatingDays, now, calculators);
                 break;
         }
         return eventTime;
     }
 
     @Nullable
-    private static Calendar updateAlarmTime_sunEvent(Context context, @NonNull SolarEvents event, @NonNull Location location, long offset, boolean repeating, ArrayList<Integer> repeatingDays, Calendar now)
+    private static Calendar updateAlarmTime_sunEvent(Context context, @NonNull SolarEvents event, @NonNull Location location, long offset, boolean repeating, ArrayList<Integer> repeatingDays, Calendar now, @Nullable CalculatorCache calculators)
     {
-        SuntimesRiseSetData sunData = getData_sunEvent(context, event, location);
+        SuntimesRiseSetData sunData = getData_sunEvent(context, event, location, calculators);
 
         Calendar alarmTime = Calendar.getInstance();
         Calendar eventTime;
@@ -1894,6 +1947,13 @@ public class AlarmNotifications extends BroadcastReceiver
 
             Log.w("AlarmReceiverItem", "updateAlarmTime: sunEvent advancing by 1 day..");
             day.add(Calendar.DAY_OF_YEAR, 1);
+            if (eventTime == null)
+            {
+                int skipped = PolarSeasonIndex.skipToEvents(location, day, sunData.timeMode());    // polar day/night; jump to the next day the event can occur
+                if (skipped > 0) {
+                    Log.w("AlarmReceiverItem", "updateAlarmTime: sunEvent skipped " + skipped + " days (polar season)..");
+                }
+            }
             sunData.setTodayIs(day);
             sunData.calculate();
             eventTime = (event.isRising() ? sunData.sunriseCalendarToday() : sunData.sunsetCalendarToday());
@@ -1908,9 +1968,9 @@ public class AlarmNotifications extends BroadcastReceiver
     }
 
     @Nullable
-    private static Calendar updateAlarmTime_moonEvent(Context context, @NonNull SolarEvents event, @NonNull Location location, long offset, boolean repeating, ArrayList<Integer> repeatingDays, Calendar now)
+    private static Calendar updateAlarmTime_moonEvent(Context context, @NonNull SolarEvents event, @NonNull Location location, long offset, boolean repeating, ArrayList<Integer> repeatingDays, Calendar now, @Nullable CalculatorCache calculators)
     {
-        SuntimesMoonData moonData = getData_moonEvent(context, location);
+        SuntimesMoonData moonData = getData_moonEvent(context, location, calculators);
 
         Calendar alarmTime = Calendar.getInstance();
 
@@ -1969,10 +2029,10 @@ public class AlarmNotifications extends BroadcastReceiver
     }
 
     @Nullable
-    private static Calendar updateAlarmTime_moonPhaseEvent(Context context, @NonNull SolarEvents event, @NonNull Location location, long offset, boolean repeating, ArrayList<Integer> repeatingDays, Calendar now)
+    private static Calendar updateAlarmTime_moonPhaseEvent(Context context, @NonNull SolarEvents event, @NonNull Location location, long offset, boolean repeating, ArrayList<Integer> repeatingDays, Calendar now, @Nullable CalculatorCache calculators)
     {
         SuntimesCalculator.MoonPhase phase = event.toMoonPhase();
-        SuntimesMoonData moonData = getData_moonEvent(context, location);
+        SuntimesMoonData moonData = getData_moonEvent(context, location, calculators);
 
         Calendar alarmTime = Calendar.getInstance();
 
@@ -2007,9 +2067,9 @@ public class AlarmNotifications extends BroadcastReceiver
     }
 
     @Nullable
-    private static Calendar updateAlarmTime_seasonEvent(Context context, @NonNull SolarEvents event, @NonNull Location location, long offset, boolean repeating, ArrayList<Integer> repeatingDays, Calendar now)
+    private static Calendar updateAlarmTime_seasonEvent(Context context, @NonNull SolarEvents event, @NonNull Location location, long offset, boolean repeating, ArrayList<Integer> repeatingDays, Calendar now, @Nullable CalculatorCache calculators)
     {
-        SuntimesEquinoxSolsticeData data = getData_seasons(context, event, location);
+        SuntimesEquinoxSolsticeData data = getData_seasons(context, event, location, calculators);
 
         Calendar alarmTime = Calendar.getInstance();
 
@@ -2169,29 +2229,48 @@ public class AlarmNotifications extends BroadcastReceiver
         }
     }
 
-    private static SuntimesRiseSetData getData_sunEvent(Context context, @NonNull SolarEvents event, @NonNull Location location)
+    private static SuntimesRiseSetData getData_sunEvent(Context context, @NonNull SolarEvents event, @NonNull Location location) {
+        return getData_sunEvent(context, event, location, null);
+    }
+    private static SuntimesRiseSetData getData_sunEvent(Context context, @NonNull SolarEvents event, @NonNull Location location, @Nullable CalculatorCache calculators)
     {
         WidgetSettings.TimeMode timeMode = event.toTimeMode();
         SuntimesRiseSetData sunData = new SuntimesRiseSetData(context, 0);
         sunData.setLocation(location);
         sunData.setTimeMode(timeMode != null ? timeMode : WidgetSettings.TimeMode.OFFICIAL);
         sunData.setTodayIs(Calendar.getInstance());
+        sunData.setPrecision(SuntimesPrecisionCalculator.Precision.ALARM);
+        if (calculators != null) {
+            calculators.initCalculator(context, sunData);
+        }
         return sunData;
     }
-    private static SuntimesMoonData getData_moonEvent(Context context, @NonNull Location location)
+    private static SuntimesMoonData getData_moonEvent(Context context, @NonNull Location location) {
+        return getData_moonEvent(context, location, null);
+    }
+    private static SuntimesMoonData getData_moonEvent(Context context, @NonNull Location location, @Nullable CalculatorCache calculators)
     {
         SuntimesMoonData moonData = new SuntimesMoonData(context, 0);
         moonData.setLocation(location);
         moonData.setTodayIs(Calendar.getInstance());
+        if (calculators != null) {
+            calculators.initCalculator(context, moonData);
+        }
         return moonData;
     }
-    private static SuntimesEquinoxSolsticeData getData_seasons(Context context, @NonNull SolarEvents event, @NonNull Location location)
+    private static SuntimesEquinoxSolsticeData getData_seasons(Context context, @NonNull SolarEvents event, @NonNull Location location) {
+        return getData_seasons(context, event, location, null);
+    }
+    private static SuntimesEquinoxSolsticeData getData_seasons(Context context, @NonNull SolarEvents event, @NonNull Location location, @Nullable CalculatorCache calculators)
     {
         WidgetSettings.SolsticeEquinoxMode season = event.toSolsticeEquinoxMode();
         SuntimesEquinoxSolsticeData data = new SuntimesEquinoxSolsticeData(context, 0);
         data.setTimeMode(season);
         data.setLocation(location);
         data.setTodayIs(Calendar.getInstance());
+        if (calculators != null) {
+            calculators.initCalculator(context, data);
+        }
         return data;
     }
     private static SuntimesClockData getData_clockEvent(Context context, @NonNull Location location)
@@ -2202,4 +2281,34 @@ public class AlarmNotifications extends BroadcastReceiver
         return data;
     }
 
+    /**
+     * CalculatorCache; shares calculators between the data objects used to calculate alarm times (one calculator per
+     * calculator, location, and timezone). Calculators aren't thread-safe; a cache should only be used by one thread at a time.
+     */
+    public static class CalculatorCache
+    {
+        private final HashMap<String, Pair<SuntimesCalculator, SuntimesCalculatorDescriptor>> calculators = new HashMap<>();
+
+        public void initCalculator(Context context, @NonNull SuntimesData data)
+        {
+            String key = SuntimesEventCache.dataKey(data);
+            Pair<SuntimesCalculator, SuntimesCalculatorDescriptor> calculator = calculators.get(key);
+            if (calculator != null) {
+                data.setCalculator(calculator.first, calculator.second);
+
+            } else {
+                data.initCalculator(context);
+                calculators.put(key, new Pair<>(data.calculator(), data.calculatorMode()));
+            }
+        }
+
+        public int size() {
+            return calculators.size();
+        }
+
+        public void clear() {
+            calculators.clear();
+        }
+    }
+
 }
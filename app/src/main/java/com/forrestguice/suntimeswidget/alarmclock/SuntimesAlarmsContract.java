@@ -20,12 +20,16 @@ package com.forrestguice.suntimeswidget.alarmclock;
 
 /**
  * SuntimesAlarmsContract
- * @version 1 (0.1.0)
+ * @version 2 (0.2.0)
  *
  * @see AlarmDatabaseAdapter
  *
+ * Observers are notified when an alarm changes; content://AUTHORITY/alarms/[alarmID] (alarm was added, modified,
+ * or removed), content://AUTHORITY/state/[alarmID] (alarm state changed), and content://AUTHORITY/changes (any change).
+ *
  * CHANGES
  *   1 initial version
+ *   2 adds change notifications; adds QUERY_CHANGES (changes since token)
  */
 public interface SuntimesAlarmsContract
 {
@@ -68,4 +72,17 @@ public interface SuntimesAlarmsContract
 
     String QUERY_ALARMSTATE = "state";
     String[] QUERY_ALARMSTATE_PROJECTION = new String[] { KEY_STATE_ALARMID, KEY_STATE };
+
+    String KEY_CHANGE_TOKEN = "changeToken";                                    // long; changes are ordered by token
+    String KEY_CHANGE_ALARMID = "alarmID";                                      // row ID of the changed alarm (-1 for CHANGE_RESET)
+    String KEY_CHANGE_TYPE = "changeType";                                      // CHANGE_*
+
+    String CHANGE_INSERT = "insert";                                            // alarm was added
+    String CHANGE_UPDATE = "update";                                            // alarm was modified
+    String CHANGE_DELETE = "delete";                                            // alarm was removed
+    String CHANGE_STATE = "state";                                              // alarm state was changed
+    String CHANGE_RESET = "reset";                                              // all alarms may have changed (or the token has expired); reload everything
+
+    String QUERY_CHANGES = "changes";                                           // content://AUTHORITY/changes/[token] .. changes after token (or CHANGE_RESET if the token has expired); content://AUTHORITY/changes .. CHANGE_RESET with the current token
+    String[] QUERY_CHANGES_PROJECTION = new String[] { KEY_CHANGE_TOKEN, KEY_CHANGE_ALARMID, KEY_CHANGE_TYPE };
 }
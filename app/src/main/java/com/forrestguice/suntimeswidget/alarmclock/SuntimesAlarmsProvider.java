@@ -30,11 +30,19 @@ import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.util.Log;
 
+import java.util.List;
+
 import static com.forrestguice.suntimeswidget.alarmclock.SuntimesAlarmsContract.AUTHORITY;
 import static com.forrestguice.suntimeswidget.alarmclock.SuntimesAlarmsContract.QUERY_ALARMS;
 import static com.forrestguice.suntimeswidget.alarmclock.SuntimesAlarmsContract.QUERY_ALARMSTATE;
 import static com.forrestguice.suntimeswidget.alarmclock.SuntimesAlarmsContract.QUERY_ALARMSTATE_PROJECTION;
 import static com.forrestguice.suntimeswidget.alarmclock.SuntimesAlarmsContract.QUERY_ALARMS_PROJECTION_MIN;
+import static com.forrestguice.suntimeswidget.alarmclock.SuntimesAlarmsContract.CHANGE_RESET;
+import static com.forrestguice.suntimeswidget.alarmclock.SuntimesAlarmsContract.KEY_CHANGE_ALARMID;
+import static com.forrestguice.suntimeswidget.alarmclock.SuntimesAlarmsContract.KEY_CHANGE_TOKEN;
+import static com.forrestguice.suntimeswidget.alarmclock.SuntimesAlarmsContract.KEY_CHANGE_TYPE;
+import static com.forrestguice.suntimeswidget.alarmclock.SuntimesAlarmsContract.QUERY_CHANGES;
+import static com.forrestguice.suntimeswidget.alarmclock.SuntimesAlarmsContract.QUERY_CHANGES_PROJECTION;
 
 /**
  * SuntimesAlarmsProvider
@@ -45,12 +53,16 @@ public class SuntimesAlarmsProvider extends ContentProvider
     private static final int URIMATCH_ALARMS = 0;
     private static final int URIMATCH_ALARM = 10;
     private static final int URIMATCH_ALARM_STATE = 20;
+    private static final int URIMATCH_CHANGES = 30;
+    private static final int URIMATCH_CHANGES_SINCE = 40;
 
     private static final UriMatcher uriMatcher = new UriMatcher(UriMatcher.NO_MATCH);
     static {
         uriMatcher.addURI(AUTHORITY, QUERY_ALARMS, URIMATCH_ALARMS);                          // content://AUTHORITY/alarms
         uriMatcher.addURI(AUTHORITY, QUERY_ALARMS + "/*", URIMATCH_ALARM);              // content://AUTHORITY/alarms/[alarmID]
         uriMatcher.addURI(AUTHORITY, QUERY_ALARMSTATE + "/*", URIMATCH_ALARM_STATE);    // content://AUTHORITY/state/[alarmID]
+        uriMatcher.addURI(AUTHORITY, QUERY_CHANGES, URIMATCH_CHANGES);                        // content://AUTHORITY/changes
+        uriMatcher.addURI(AUTHORITY, QUERY_CHANGES + "/*", URIMATCH_CHANGES_SINCE);           // content://AUTHORITY/changes/[token]
     }
 
     @Override
@@ -106,6 +118,16 @@ public class SuntimesAlarmsProvider extends ContentProvider
                 retValue = queryAlarmState(uri.getLastPathSegment(), uri, projection, selection, selectionArgs, sortOrder);
                 break;
 
+            case URIMATCH_CHANGES:
+                Log.d(getClass().getSimpleName(), "URIMATCH_CHANGES");
+                retValue = queryChanges(null, uri, projection);
+                break;
+
+            case URIMATCH_CHANGES_SINCE:
+                Log.d(getClass().getSimpleName(), "URIMATCH_CHANGES_SINCE");
+                retValue = queryChanges(uri.getLastPathSegment(), uri, projection);
+                break;
+
             default:
                 Log.e(getClass().getSimpleName(), "Unrecognized URI! " + uri);
                 break;
@@ -132,6 +154,7 @@ public class SuntimesAlarmsProvider extends ContentProvider
             copyCursorToMatrixCursor(columns, cursor, retValue);
             cursor.close();
             db.close();
+            retValue.setNotificationUri(context.getContentResolver(), uri);
         }
         return retValue;
     }
@@ -153,10 +176,63 @@ public class SuntimesAlarmsProvider extends ContentProvider
             copyCursorToMatrixCursor(columns, cursor, retValue);
             cursor.close();
             db.close();
+            retValue.setNotificationUri(context.getContentResolver(), uri);
         }
         return retValue;
     }
 
+    /**
+     * queryChanges
+     * @param token changes after this token, or null (a single CHANGE_RESET row with the current token)
+     */
+    private Cursor queryChanges(@Nullable String token, @NonNull Uri uri, @Nullable String[] projection)
+    {
+        String[] columns = (projection != null ? projection : QUERY_CHANGES_PROJECTION);
+        MatrixCursor retValue = new MatrixCursor(columns);
+
+        AlarmChangeLog changeLog = AlarmChangeLog.getInstance();
+        List<AlarmChangeLog.Change> changes = null;
+        if (token != null)
+        {
+            try {
+                changes = changeLog.changesSince(Long.parseLong(token));
+            } catch (NumberFormatException e) {
+                Log.w(getClass().getSimpleName(), "queryChanges: invalid token: " + token);
+            }
+        }
+
+        if (changes != null)
+        {
+            for (AlarmChangeLog.Change change : changes) {
+                retValue.addRow(createChangeRow(columns, change));
+            }
+        } else {
+            retValue.addRow(createChangeRow(columns, new AlarmChangeLog.Change(changeLog.currentToken(), -1, CHANGE_RESET)));
+        }
+
+        Context context = getContext();
+        if (context != null) {
+            retValue.setNotificationUri(context.getContentResolver(), AlarmChangeLog.URI_CHANGES);
+        }
+        return retValue;
+    }
+
+    private Object[] createChangeRow(String[] columns, @NonNull AlarmChangeLog.Change change)
+    {
+        Object[] row = new Object[columns.length];
+        for (int i=0; i<columns.length; i++)
+        {
+            switch (columns[i])
+            {
+                case KEY_CHANGE_TOKEN: row[i] = change.token; break;
+                case KEY_CHANGE_ALARMID: row[i] = change.alarmID; break;
+                case KEY_CHANGE_TYPE: row[i] = change.changeType; break;
+                default: row[i] = null; break;
+            }
+        }
+        return row;
+    }
+
     private void copyCursorToMatrixCursor(@NonNull String[] columns, @Nullable Cursor cursor0, @NonNull MatrixCursor cursor1)
     {
         if (cursor0 != null) {
@@ -20,6 +20,7 @@ package com.forrestguice.suntimeswidget.alarmclock.ui;
 import android.annotation.SuppressLint;
 import android.app.Activity;
 import android.content.ActivityNotFoundException;
+import android.content.ContentUris;
 import android.content.ContentValues;
 import android.content.Context;
 import android.content.DialogInterface;
@@ -69,12 +70,14 @@ import com.forrestguice.suntimeswidget.ExportTask;
 import com.forrestguice.suntimeswidget.R;
 import com.forrestguice.suntimeswidget.SuntimesUtils;
 import com.forrestguice.suntimeswidget.alarmclock.AlarmAddon;
+import com.forrestguice.suntimeswidget.alarmclock.AlarmChangeLog;
 import com.forrestguice.suntimeswidget.alarmclock.AlarmClockItem;
 import com.forrestguice.suntimeswidget.alarmclock.AlarmDatabaseAdapter;
 import com.forrestguice.suntimeswidget.alarmclock.AlarmEventContract;
 import com.forrestguice.suntimeswidget.alarmclock.AlarmNotifications;
 import com.forrestguice.suntimeswidget.alarmclock.AlarmSettings;
 import com.forrestguice.suntimeswidget.alarmclock.AlarmState;
+import com.forrestguice.suntimeswidget.alarmclock.SuntimesAlarmsContract;
 import com.forrestguice.suntimeswidget.alarmclock.AlarmClockItemExportTask;
 import com.forrestguice.suntimeswidget.alarmclock.AlarmClockItemImportTask;
 import com.forrestguice.suntimeswidget.calculator.core.Location;
@@ -90,7 +93,15 @@ import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 @SuppressWarnings("Convert2Diamond")
 public class AlarmListDialog extends DialogFragment
@@ -173,8 +184,13 @@ public class AlarmListDialog extends DialogFragment
     }
 
     @Override
-    public void onResume() {
+    public void onResume()
+    {
         super.onResume();
+        if (adapter != null) {
+            adapter.invalidateSchedulable(null);    // re-checked as items are bound
+        }
+        syncChanges();
     }
 
     @Override
@@ -314,7 +330,11 @@ public class AlarmListDialog extends DialogFragment
         adapter.clearSelection();
     }
 
-    public void notifyAlarmUpdated(long rowID) {
+    public void notifyAlarmUpdated(long rowID)
+    {
+        if (adapter != null) {
+            adapter.invalidateSchedulable(rowID);
+        }
         reloadAdapter(rowID);
     }
 
@@ -640,6 +660,7 @@ public class AlarmListDialog extends DialogFragment
 
         } else if (context != null) {
             importTask = new AlarmClockItemImportTask(context);
+            importTask.setParam_insert(true);
             importTask.setTaskListener(importListener);
             importTask.execute(uri);
         }
@@ -662,7 +683,26 @@ public class AlarmListDialog extends DialogFragment
             importTask = null;
             showProgress(false);
 
-            if (result.getResult())
+            long[] rowIDs = result.getRowIDs();
+            if (rowIDs != null)    // items were added while importing (possibly before failing)
+            {
+                Context context = getActivity();
+                long[] enabledIDs = result.getEnabledRowIDs();
+                if (context != null && enabledIDs != null)
+                {
+                    for (long rowID : enabledIDs) {
+                        context.sendBroadcast(AlarmNotifications.getAlarmIntent(context, AlarmNotifications.ACTION_SCHEDULE, ContentUris.withAppendedId(AlarmClockItem.CONTENT_URI, rowID)));
+                    }
+                }
+                setSelectedRowID((rowIDs.length == 1) ? rowIDs[0] : -1L);
+                reloadAdapter();
+                if (result.getResult() && isAdded()) {
+                    offerUndoImport(getActivity(), rowIDs);
+                    return;    // finished import
+                }
+            }
+
+            if (result.getResult() && rowIDs == null)
             {
                 AlarmClockItem[] items = result.getItems();
                 addAlarm(getActivity(), new AlarmDatabaseAdapter.AlarmItemTaskListener()
@@ -694,11 +734,20 @@ public class AlarmListDialog extends DialogFragment
     };
 
     public void offerUndoImport(Context context, final List<AlarmClockItem> items)
+    {
+        long[] rowIDs = new long[items.size()];
+        for (int i=0; i<rowIDs.length; i++) {
+            AlarmClockItem item = items.get(i);
+            rowIDs[i] = (item != null ? item.rowID : -1L);
+        }
+        offerUndoImport(context, rowIDs);
+    }
+    public void offerUndoImport(Context context, final long[] rowIDs)
     {
         View view = getView();
         if (context != null && view != null)
         {
-            String plural = context.getResources().getQuantityString(R.plurals.alarmPlural, items.size(), items.size());
+            String plural = context.getResources().getQuantityString(R.plurals.alarmPlural, rowIDs.length, rowIDs.length);
             Snackbar snackbar = Snackbar.make(view, context.getString(R.string.importalarms_toast_success, plural), Snackbar.LENGTH_INDEFINITE);
             snackbar.setAction(context.getString(R.string.configAction_undo), new View.OnClickListener() {
                 @Override
@@ -706,9 +755,9 @@ public class AlarmListDialog extends DialogFragment
                 {
                     Context context = getActivity();
                     if (context != null) {
-                        for (AlarmClockItem item : items) {
-                            if (item != null) {
-                                context.sendBroadcast(AlarmNotifications.getAlarmIntent(getActivity(), AlarmNotifications.ACTION_DELETE, item.getUri()));
+                        for (long rowID : rowIDs) {
+                            if (rowID != -1L) {
+                                context.sendBroadcast(AlarmNotifications.getAlarmIntent(getActivity(), AlarmNotifications.ACTION_DELETE, ContentUris.withAppendedId(AlarmClockItem.CONTENT_URI, rowID)));
                             }
                         }
                     }
@@ -732,13 +781,66 @@ public class AlarmListDialog extends DialogFragment
     }
     public void reloadAdapter(Long rowId, AlarmListTask.AlarmListTaskListener taskListener)
     {
+        if (rowId == null) {
+            changeToken = loadToken = AlarmChangeLog.getInstance().currentToken();
+        }
         AlarmListTask listTask = new AlarmListTask(getActivity());
         listTask.setTaskListener(taskListener);
-        listTask.execute(rowId);
+        listTask.executeTask(rowId);
         Log.d("DEBUG", "reloadAdapter");
     }
 
+    /**
+     * Reloads only the alarms that have changed since the list was loaded (@see AlarmChangeLog); everything is
+     * reloaded if the changes are no longer known.
+     */
+    protected void syncChanges()
+    {
+        if (changeToken < 0 || adapter == null) {
+            return;
+        }
+
+        List<AlarmChangeLog.Change> changes = AlarmChangeLog.getInstance().changesSince(changeToken);
+        if (changes == null) {
+            reloadAdapter();
+            return;
+        }
+
+        LinkedHashMap<Long, String> changed = new LinkedHashMap<>();    // alarmID, last change
+        for (AlarmChangeLog.Change change : changes)
+        {
+            changed.remove(change.alarmID);
+            changed.put(change.alarmID, change.changeType);
+            changeToken = change.token;
+        }
+        for (Long rowID : changed.keySet())
+        {
+            if (SuntimesAlarmsContract.CHANGE_DELETE.equals(changed.get(rowID))) {
+                adapter.removeItem(rowID);
+            } else {
+                reloadAdapter(rowID);
+            }
+        }
+        updateViews();
+    }
+    protected long changeToken = -1;
+    protected long loadToken = -1;    // changeToken when the list was (last) reloaded
+
     protected AlarmListTask.AlarmListTaskListener onListLoaded = new AlarmListTask.AlarmListTaskListener() {
+        @Override
+        public void onItemsRead(Set<Long> rowIDs)
+        {
+            adapter.retainItems(rowIDs);    // remove deleted items
+            updateViews();
+        }
+
+        @Override
+        public void onItemsLoaded(List<AlarmClockItem> items)
+        {
+            adapter.updateItems(items);    // show items as they are loaded (sorted when finished)
+            updateViews();
+        }
+
         @Override
         public void onLoadFinished(List<AlarmClockItem> data)
         {
@@ -746,6 +848,12 @@ public class AlarmListDialog extends DialogFragment
             adapter.setItems(data);
             updateViews();
             scrollToSelectedItem();
+
+            if (changeToken != loadToken)
+            {
+                changeToken = loadToken;    // items changed while loading (and may have been loaded before the change)
+                syncChanges();
+            }
         }
     };
 
@@ -754,6 +862,9 @@ public class AlarmListDialog extends DialogFragment
         public void onLoadFinished(List<AlarmClockItem> data)
         {
             Log.d("DEBUG", "onItemChanged: " + data.size());
+            if (data.isEmpty()) {
+                return;    // removed before it could be loaded
+            }
             adapter.setItem(data.get(0));
             updateViews();
             scrollToSelectedItem();
@@ -769,8 +880,11 @@ public class AlarmListDialog extends DialogFragment
     /**
      * AlarmClockListTask
      */
-    public static class AlarmListTask extends AsyncTask<Long, AlarmClockItem, List<AlarmClockItem>>
+    public static class AlarmListTask extends AsyncTask<Long, Void, List<AlarmClockItem>>
     {
+        public static final int MAX_THREADS = 4;
+        private static final ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(MAX_THREADS, Runtime.getRuntime().availableProcessors())));
+
         private AlarmDatabaseAdapter db;
         private WeakReference<Context> contextRef;
 
@@ -780,37 +894,159 @@ public class AlarmListDialog extends DialogFragment
             db = new AlarmDatabaseAdapter(context.getApplicationContext());
         }
 
+        /**
+         * Executes in parallel to other tasks (doInBackground waits for the updates to finish).
+         */
+        public AsyncTask<Long, Void, List<AlarmClockItem>> executeTask(Long... rowIds)
+        {
+            if (Build.VERSION.SDK_INT >= 11) {
+                return executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR, rowIds);
+            } else {
+                return execute(rowIds);
+            }
+        }
+
         @Override
         protected void onPreExecute() {}
 
         @Override
         protected List<AlarmClockItem> doInBackground(Long... rowIds)
         {
+            Context context = contextRef.get();
+            if (context == null) {
+                return null;
+            }
+
             ArrayList<AlarmClockItem> items = new ArrayList<>();
+            LinkedHashMap<String, List<AlarmClockItem>> groups = new LinkedHashMap<>();    // items grouped by location
+
             db.open();
-            Cursor cursor = (rowIds == null || rowIds.length <= 0 || rowIds[0] == null)
-                          ? db.getAllAlarms(0, true) : db.getAlarm(rowIds[0]);
+            boolean readAll = (rowIds == null || rowIds.length <= 0 || rowIds[0] == null);
+            Cursor cursor = (readAll ? db.getAllAlarms(0, true) : db.getAlarm(rowIds[0]));
             while (!cursor.isAfterLast())
             {
                 ContentValues entryValues = new ContentValues();
                 DatabaseUtils.cursorRowToContentValues(cursor, entryValues);
 
-                AlarmClockItem item = new AlarmClockItem(contextRef.get(), entryValues);
-                if (!item.enabled) {
-                    AlarmNotifications.updateAlarmTime(contextRef.get(), item);
-                }
+                AlarmClockItem item = new AlarmClockItem(context, entryValues);
                 items.add(item);
-                publishProgress(item);
+
+                String key = locationKey(item.location);
+                List<AlarmClockItem> group = groups.get(key);
+                if (group == null) {
+                    groups.put(key, group = new ArrayList<>());
+                }
+                group.add(item);
 
                 cursor.moveToNext();
             }
-            db.releaseUnusedUriPermissions(contextRef.get());
+            cursor.close();
+            db.releaseUnusedUriPermissions(context);
             db.close();
+
+            if (readAll)
+            {
+                HashSet<Long> rowIDs = new HashSet<>();
+                for (AlarmClockItem item : items) {
+                    rowIDs.add(item.rowID);
+                }
+                readRowIDs = rowIDs;    // (published with the first update)
+            }
+
+            if (groups.size() <= 1)
+            {
+                for (List<AlarmClockItem> group : groups.values()) {
+                    updateAlarmTimes(context, group);
+                }
+
+            } else {
+                ArrayList<Future<?>> pending = new ArrayList<>();
+                for (List<AlarmClockItem> group : groups.values()) {
+                    pending.add(executor.submit(updateAlarmTimesTask(context.getApplicationContext(), group)));
+                }
+                for (Future<?> future : pending)
+                {
+                    try {
+                        future.get();
+                    } catch (InterruptedException | ExecutionException e) {
+                        Log.e("AlarmListTask", "failed to update alarm times: " + e);
+                    }
+                }
+            }
             return items;
         }
 
+        private Runnable updateAlarmTimesTask(final Context context, final List<AlarmClockItem> group)
+        {
+            return new Runnable()
+            {
+                @Override
+                public void run() {
+                    android.os.Process.setThreadPriority(android.os.Process.THREAD_PRIORITY_BACKGROUND);
+                    updateAlarmTimes(context, group);
+                }
+            };
+        }
+
+        /**
+         * Updates a group of items (sharing a location); each item is published as soon as it is updated.
+         */
+        private void updateAlarmTimes(Context context, List<AlarmClockItem> group)
+        {
+            AlarmNotifications.CalculatorCache calculators = new AlarmNotifications.CalculatorCache();
+            for (AlarmClockItem item : group)
+            {
+                if (isCancelled()) {
+                    return;
+                }
+                AlarmNotifications.updateAlarmTime(context, item, Calendar.getInstance(), !item.enabled, calculators);    // also caches isSchedulable
+                publishItem(item);
+            }
+        }
+
+        /**
+         * Queues an updated item; items are published in batches (one progress update for however many items
+         * were updated since the last one was handled).
+         */
+        private void publishItem(AlarmClockItem item)
+        {
+            boolean first;
+            synchronized (updatedItems)
+            {
+                first = updatedItems.isEmpty();
+                updatedItems.add(item);
+            }
+            if (first) {
+                publishProgress();
+            }
+        }
+        private final ArrayList<AlarmClockItem> updatedItems = new ArrayList<>();
+        private volatile Set<Long> readRowIDs = null;
+
+        private static String locationKey(@Nullable Location location) {
+            return (location != null ? location.getLatitude() + "|" + location.getLongitude() + "|" + location.getAltitude() : "");
+        }
+
         @Override
-        protected void onProgressUpdate(AlarmClockItem... item) {}
+        protected void onProgressUpdate(Void... progress)
+        {
+            ArrayList<AlarmClockItem> items;
+            synchronized (updatedItems)
+            {
+                items = new ArrayList<>(updatedItems);
+                updatedItems.clear();
+            }
+
+            if (taskListener != null)
+            {
+                if (readRowIDs != null)
+                {
+                    taskListener.onItemsRead(readRowIDs);
+                    readRowIDs = null;
+                }
+                taskListener.onItemsLoaded(items);
+            }
+        }
 
         @Override
         protected void onPostExecute(List<AlarmClockItem> result)
@@ -831,10 +1067,54 @@ public class AlarmListDialog extends DialogFragment
 
         public static abstract class AlarmListTaskListener
         {
+            public void onItemsRead(Set<Long> rowIDs) {}
+            public void onItemsLoaded(List<AlarmClockItem> items) {}
             public void onLoadFinished(List<AlarmClockItem> result) {};
         }
     }
 
+    /**
+     * SchedulableTask; checks if an item can be scheduled (without modifying it), caching the result on the item.
+     */
+    public static class SchedulableTask extends AsyncTask<AlarmClockItem, Void, AlarmClockItem>
+    {
+        private WeakReference<Context> contextRef;
+        private WeakReference<AlarmListDialogAdapter> adapterRef;
+        private Calendar now, eventTime;
+
+        public SchedulableTask(Context context, AlarmListDialogAdapter adapter)
+        {
+            contextRef = new WeakReference<>(context.getApplicationContext());
+            adapterRef = new WeakReference<>(adapter);
+        }
+
+        @Override
+        protected AlarmClockItem doInBackground(AlarmClockItem... items)
+        {
+            Context context = contextRef.get();
+            if (context != null && items.length > 0)
+            {
+                now = Calendar.getInstance();
+                eventTime = AlarmNotifications.calculateAlarmTime(context, items[0], now);
+                return items[0];
+            }
+            return null;
+        }
+
+        @Override
+        protected void onPostExecute(AlarmClockItem item)
+        {
+            if (item != null)
+            {
+                AlarmNotifications.setSchedulable(item, eventTime, now);
+                AlarmListDialogAdapter adapter = adapterRef.get();
+                if (adapter != null) {
+                    adapter.onSchedulableUpdated(item);
+                }
+            }
+        }
+    }
+
 
     ////////////////////////////////////////////////////////////////////////////////////////////////
     ////////////////////////////////////////////////////////////////////////////////////////////////
@@ -898,6 +1178,55 @@ public class AlarmListDialog extends DialogFragment
             notifyDataSetChanged();
         }
 
+        /**
+         * Replaces items in place (by rowID) without sorting them; items that aren't in the list are appended.
+         */
+        public void updateItems(List<AlarmClockItem> values)
+        {
+            HashMap<Long, Integer> positions = new HashMap<>();
+            for (int i=0; i<items.size(); i++)
+            {
+                AlarmClockItem item = items.get(i);
+                if (item != null) {
+                    positions.put(item.rowID, i);
+                }
+            }
+
+            int count = items.size();
+            for (AlarmClockItem item : values)
+            {
+                Integer position = positions.get(item.rowID);
+                if (position != null)
+                {
+                    items.set(position, item);
+                    notifyItemChanged(position);
+
+                } else {
+                    positions.put(item.rowID, items.size());
+                    items.add(item);
+                }
+            }
+            if (items.size() > count) {
+                notifyItemRangeInserted(count, items.size() - count);
+            }
+        }
+
+        /**
+         * Removes items that aren't in the given set of rowIDs.
+         */
+        public void retainItems(Set<Long> rowIDs)
+        {
+            for (int i=items.size()-1; i>=0; i--)
+            {
+                AlarmClockItem item = items.get(i);
+                if (item == null || !rowIDs.contains(item.rowID))
+                {
+                    items.remove(i);
+                    notifyItemRemoved(i);
+                }
+            }
+        }
+
         public void setItem(AlarmClockItem item)
         {
             int position = getIndex(item.rowID);
@@ -1016,6 +1345,45 @@ public class AlarmListDialog extends DialogFragment
             detachClickListeners(holder);
             holder.bindData(contextRef.get(), items.get(position));
             attachClickListeners(holder, position);
+
+            if (item.isSchedulableStale(System.currentTimeMillis())) {
+                updateSchedulable(contextRef.get(), item);
+            }
+        }
+
+        /**
+         * Re-check schedulability in the background; the item is rebound when finished.
+         */
+        protected void updateSchedulable(Context context, @NonNull AlarmClockItem item)
+        {
+            if (context != null && !pendingSchedulable.contains(item.rowID))
+            {
+                pendingSchedulable.add(item.rowID);
+                SchedulableTask task = new SchedulableTask(context, this);
+                task.execute(item);
+            }
+        }
+        private final HashSet<Long> pendingSchedulable = new HashSet<>();
+
+        protected void onSchedulableUpdated(@NonNull AlarmClockItem item)
+        {
+            pendingSchedulable.remove(item.rowID);
+            int position = items.indexOf(item);
+            if (position >= 0) {
+                notifyItemChanged(position);
+            }
+        }
+
+        /**
+         * @param rowID alarm id, or null to invalidate all items
+         */
+        public void invalidateSchedulable(@Nullable Long rowID)
+        {
+            for (AlarmClockItem item : items) {
+                if (rowID == null || item.rowID == rowID) {
+                    item.invalidateSchedulable();
+                }
+            }
         }
 
         @Override
@@ -1453,7 +1821,7 @@ public class AlarmListDialog extends DialogFragment
         {
             SolarEvents event = SolarEvents.valueOf(item.getEvent(), null);
             int eventType = event == null ? -1 : event.getType();
-            boolean isSchedulable = AlarmNotifications.updateAlarmTime(context, item, Calendar.getInstance(), false);
+            boolean isSchedulable = item.isSchedulable();    // cached by AlarmListTask (@see AlarmListDialogAdapter.updateSchedulable)
 
             // spannable icons
             int iconColor = (item.enabled ? color_on : color_off);
@@ -44,6 +44,7 @@ import com.forrestguice.suntimeswidget.calculator.core.CalculatorProviderContrac
 import com.forrestguice.suntimeswidget.calculator.core.Location;
 import com.forrestguice.suntimeswidget.calculator.core.SuntimesCalculator;
 import com.forrestguice.suntimeswidget.settings.AppSettings;
+import com.forrestguice.suntimeswidget.settings.WidgetConfig;
 import com.forrestguice.suntimeswidget.settings.WidgetSettings;
 import com.forrestguice.suntimeswidget.settings.WidgetTimezones;
 
@@ -353,6 +354,7 @@ public class CalculatorProvider extends ContentProvider
             SuntimesCalculator calculator = initSunCalculator(getContext(), selection);
             if (calculator != null)
             {
+                WidgetConfig config = WidgetConfig.get(context, appWidgetID);
                 Location location = null;
                 Object[] row = new Object[columns.length];
                 for (int i=0; i<columns.length; i++)
@@ -392,28 +394,28 @@ public class CalculatorProvider extends ContentProvider
 
                         case COLUMN_CONFIG_LOCATION:
                             if (location == null) {
-                                location = WidgetSettings.loadLocationPref(context, appWidgetID);
+                                location = config.location();
                             }
                             row[i] = location.getLabel();
                             break;
 
                         case COLUMN_CONFIG_LATITUDE:
                             if (location == null) {
-                                location = WidgetSettings.loadLocationPref(context, appWidgetID);
+                                location = config.location();
                             }
                             row[i] = location.getLatitude();
                             break;
 
                         case COLUMN_CONFIG_LONGITUDE:
                             if (location == null) {
-                                location = WidgetSettings.loadLocationPref(context, appWidgetID);
+                                location = config.location();
                             }
                             row[i] = location.getLongitude();
                             break;
 
                         case COLUMN_CONFIG_ALTITUDE:
                             if (location == null) {
-                                location = WidgetSettings.loadLocationPref(context, appWidgetID);
+                                location = config.location();
                             }
                             row[i] = location.getAltitude();
                             break;
@@ -435,26 +437,26 @@ public class CalculatorProvider extends ContentProvider
                             break;
 
                         case COLUMN_CONFIG_OPTION_TIME_IS24:
-                            WidgetSettings.TimeFormatMode mode = WidgetSettings.loadTimeFormatModePref(context, 0);
+                            WidgetSettings.TimeFormatMode mode = WidgetConfig.get(context, 0).timeFormatMode();
                             boolean is24 = (mode == WidgetSettings.TimeFormatMode.MODE_SYSTEM || mode == WidgetSettings.TimeFormatMode.MODE_SUNTIMES) ? android.text.format.DateFormat.is24HourFormat(context)
                                     : (mode == WidgetSettings.TimeFormatMode.MODE_24HR);
                             row[i] = (is24 ? 1 : 0);
                             break;
 
                         case COLUMN_CONFIG_OPTION_TIME_SECONDS:
-                            row[i] = (WidgetSettings.loadShowSecondsPref(context, appWidgetID) ? 1 : 0);
+                            row[i] = (config.showSeconds() ? 1 : 0);
                             break;
 
                         case COLUMN_CONFIG_OPTION_TIME_HOURS:
-                            row[i] = (WidgetSettings.loadShowHoursPref(context, appWidgetID) ? 1 : 0);
+                            row[i] = (config.showHours() ? 1 : 0);
                             break;
 
                         case COLUMN_CONFIG_OPTION_TIME_WEEKS:
-                            row[i] = (WidgetSettings.loadShowWeeksPref(context, appWidgetID) ? 1 : 0);
+                            row[i] = (config.showWeeks() ? 1 : 0);
                             break;
 
                         case COLUMN_CONFIG_OPTION_TIME_DATETIME:
-                            row[i] = (WidgetSettings.loadShowTimeDatePref(context, appWidgetID) ? 1 : 0);
+                            row[i] = (config.showTimeDate() ? 1 : 0);
                             break;
 
                         case COLUMN_CONFIG_OPTION_ALTITUDE:
@@ -470,11 +472,11 @@ public class CalculatorProvider extends ContentProvider
                             break;
 
                         case COLUMN_CONFIG_LENGTH_UNITS:
-                            row[i] = (WidgetSettings.loadLengthUnitsPref(context, appWidgetID).name());
+                            row[i] = config.lengthUnits().name();
                             break;
 
                         case COLUMN_CONFIG_OBJECT_HEIGHT:
-                            row[i] = WidgetSettings.loadObserverHeightPref(context, appWidgetID);
+                            row[i] = config.observerHeight();
                             break;
 
                         case COLUMN_CONFIG_OPTION_FIELDS:
@@ -796,6 +798,7 @@ public class CalculatorProvider extends ContentProvider
             Calendar endDate = Calendar.getInstance(calculator.getTimeZone());
             endDate.setTimeInMillis(range[1] + 1000);   // +1000ms (make range[1] inclusive)
 
+            MoonPhaseTimeline timeline = initMoonPhaseTimeline(calculator, range[0], endDate.getTimeInMillis());
             do {
                 events.clear();
                 events1.clear();
@@ -807,45 +810,45 @@ public class CalculatorProvider extends ContentProvider
                     switch (columns[i])
                     {
                         case COLUMN_MOON_NEW:
-                            events.add(event = initEventValue(SuntimesCalculator.MoonPhase.NEW, events1, calculator, date));
+                            events.add(event = initEventValue(SuntimesCalculator.MoonPhase.NEW, events1, calculator, timeline, date));
                             row[i] = event.getTimeInMillis();
                             break;
 
                         case COLUMN_MOON_FIRST:
-                            events.add(event = initEventValue(SuntimesCalculator.MoonPhase.FIRST_QUARTER, events1, calculator, date));
+                            events.add(event = initEventValue(SuntimesCalculator.MoonPhase.FIRST_QUARTER, events1, calculator, timeline, date));
                             row[i] = event.getTimeInMillis();
                             break;
 
                         case COLUMN_MOON_FULL:
-                            events.add(event = initEventValue(SuntimesCalculator.MoonPhase.FULL, events1, calculator, date));
+                            events.add(event = initEventValue(SuntimesCalculator.MoonPhase.FULL, events1, calculator, timeline, date));
                             row[i] = event.getTimeInMillis();
                             break;
 
                         case COLUMN_MOON_THIRD:
-                            events.add(event = initEventValue(SuntimesCalculator.MoonPhase.THIRD_QUARTER, events1, calculator, date));
+                            events.add(event = initEventValue(SuntimesCalculator.MoonPhase.THIRD_QUARTER, events1, calculator, timeline, date));
                             row[i] = event.getTimeInMillis();
                             break;
 
                         case COLUMN_MOON_NEW_DISTANCE:
-                            events.add(event = initEventValue(SuntimesCalculator.MoonPhase.NEW, events1, calculator, date));
+                            events.add(event = initEventValue(SuntimesCalculator.MoonPhase.NEW, events1, calculator, timeline, date));
                             position = ((event != null) ? calculator.getMoonPosition(event) : null);
                             row[i] = ((position != null) ? position.distance : null);
                             break;
 
                         case COLUMN_MOON_FIRST_DISTANCE:
-                            events.add(event = initEventValue(SuntimesCalculator.MoonPhase.FIRST_QUARTER, events1, calculator, date));
+                            events.add(event = initEventValue(SuntimesCalculator.MoonPhase.FIRST_QUARTER, events1, calculator, timeline, date));
                             position = ((event != null) ? calculator.getMoonPosition(event) : null);
                             row[i] = ((position != null) ? position.distance : null);
                             break;
 
                         case COLUMN_MOON_FULL_DISTANCE:
-                            events.add(event = initEventValue(SuntimesCalculator.MoonPhase.FULL, events1, calculator, date));
+                            events.add(event = initEventValue(SuntimesCalculator.MoonPhase.FULL, events1, calculator, timeline, date));
                             position = ((event != null) ? calculator.getMoonPosition(event) : null);
                             row[i] = ((position != null) ? position.distance : null);
                             break;
 
                         case COLUMN_MOON_THIRD_DISTANCE:
-                            events.add(event = initEventValue(SuntimesCalculator.MoonPhase.THIRD_QUARTER, events1, calculator, date));
+                            events.add(event = initEventValue(SuntimesCalculator.MoonPhase.THIRD_QUARTER, events1, calculator, timeline, date));
                             position = ((event != null) ? calculator.getMoonPosition(event) : null);
                             row[i] = ((position != null) ? position.distance : null);
                             break;
@@ -869,15 +872,35 @@ public class CalculatorProvider extends ContentProvider
         return retValue;
     }
 
-    private Calendar initEventValue(@NonNull SuntimesCalculator.MoonPhase phase, @NonNull HashMap<SuntimesCalculator.MoonPhase, Calendar> events, @NonNull SuntimesCalculator calculator, @NonNull Calendar date)
+    private Calendar initEventValue(@NonNull SuntimesCalculator.MoonPhase phase, @NonNull HashMap<SuntimesCalculator.MoonPhase, Calendar> events, @NonNull SuntimesCalculator calculator, @NonNull MoonPhaseTimeline timeline, @NonNull Calendar date)
     {
         Calendar event = events.get(phase);
-        if (event == null) {
-            events.put(phase, event = calculator.getMoonPhaseNextDate(phase, date));
+        if (event == null)
+        {
+            event = timeline.getNextDate(phase, date);
+            if (event == null) {
+                event = calculator.getMoonPhaseNextDate(phase, date);
+            }
+            events.put(phase, event);
         }
         return event;
     }
 
+    /**
+     * @return a timeline of moon phases covering the range (shared through SuntimesEventCache)
+     */
+    private MoonPhaseTimeline initMoonPhaseTimeline(@NonNull SuntimesCalculator calculator, long fromMillis, long toMillis)
+    {
+        SuntimesEventCache cache = SuntimesEventCache.getSharedCache();
+        MoonPhaseTimeline timeline = cache.getMoonPhaseTimeline(calculator.name(), fromMillis);
+        if (timeline == null || !timeline.covers(toMillis))
+        {
+            timeline = MoonPhaseTimeline.generate(calculator, fromMillis, toMillis);
+            cache.putMoonPhaseTimeline(calculator.name(), timeline);
+        }
+        return timeline;
+    }
+
     /**
      * querySeasons
      */
@@ -895,7 +918,9 @@ public class CalculatorProvider extends ContentProvider
             endYear.setTimeInMillis(range[1]);
             endYear.add(Calendar.YEAR, 1);                   // +1 year (make range[1] inclusive)
 
+            SuntimesSeasonTable table = SuntimesSeasonTable.getSharedTable(getContext());
             do {
+                long[] events = table.getYear(calculator, year.get(Calendar.YEAR));
                 Object[] row = new Object[columns.length];
                 for (int i=0; i<columns.length; i++)
                 {
@@ -906,19 +931,19 @@ public class CalculatorProvider extends ContentProvider
                             break;
 
                         case COLUMN_SEASON_VERNAL:  // TODO: SPRING
-                            row[i] = calculator.getSpringEquinoxForYear(year).getTimeInMillis();
+                            row[i] = (events != null ? events[WidgetSettings.SolsticeEquinoxMode.EQUINOX_SPRING.ordinal()] : null);
                             break;
 
                         case COLUMN_SEASON_SUMMER:
-                            row[i] = calculator.getSummerSolsticeForYear(year).getTimeInMillis();
+                            row[i] = (events != null ? events[WidgetSettings.SolsticeEquinoxMode.SOLSTICE_SUMMER.ordinal()] : null);
                             break;
 
                         case COLUMN_SEASON_AUTUMN:
-                            row[i] = calculator.getAutumnalEquinoxForYear(year).getTimeInMillis();
+                            row[i] = (events != null ? events[WidgetSettings.SolsticeEquinoxMode.EQUINOX_AUTUMNAL.ordinal()] : null);
                             break;
 
                         case COLUMN_SEASON_WINTER:
-                            row[i] = calculator.getWinterSolsticeForYear(year).getTimeInMillis();
+                            row[i] = (events != null ? events[WidgetSettings.SolsticeEquinoxMode.SOLSTICE_WINTER.ordinal()] : null);
                             break;
 
                         default:
@@ -1019,9 +1044,10 @@ public class CalculatorProvider extends ContentProvider
 
     private static TimeZone initTimeZone(Context context, int appWidgetID)
     {
-        switch (WidgetSettings.loadTimezoneModePref(context, appWidgetID)) {
+        WidgetConfig config = WidgetConfig.get(context, appWidgetID);
+        switch (config.timezoneMode()) {
             case CURRENT_TIMEZONE: return TimeZone.getDefault();
-            case CUSTOM_TIMEZONE: default: return TimeZone.getTimeZone(WidgetSettings.loadTimezonePref(context, appWidgetID));
+            case CUSTOM_TIMEZONE: default: return TimeZone.getTimeZone(config.timezone());
         }
     }
 
@@ -0,0 +1,187 @@
+/**
+    Copyright (C) 2022 Forrest Guice
+    This file is part of SuntimesWidget.
+
+    SuntimesWidget is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SuntimesWidget is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SuntimesWidget.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.forrestguice.suntimeswidget.calculator;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.forrestguice.suntimeswidget.calculator.core.SuntimesCalculator;
+
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.TimeZone;
+
+/**
+ * MoonPhaseTimeline; every major moon phase within a range (in order).
+ *
+ * The timeline is generated in a single forward sweep; the four phases following the start of the range are
+ * found first, after that each phase is searched for starting from the previous result (one calculation
+ * per phase, rather than four per lookup). Lookups are a binary search.
+ */
+public class MoonPhaseTimeline
+{
+    public static final long LUNATION_MILLIS = (long)(29.530588 * SuntimesData.DAY_MILLIS);    // mean synodic month
+    public static final long NONE = Long.MIN_VALUE;
+
+    private static final SuntimesCalculator.MoonPhase[] PHASES = SuntimesCalculator.MoonPhase.values();
+
+    private final long fromMillis;
+    private long[] times;
+    private byte[] phases;
+    private int count = 0;
+
+    protected MoonPhaseTimeline(long fromMillis, int capacity)
+    {
+        this.fromMillis = fromMillis;
+        this.times = new long[Math.max(capacity, 4)];
+        this.phases = new byte[times.length];
+    }
+
+    /**
+     * @param calculator a calculator that supports FEATURE_MOON
+     * @param fromMillis start of the range
+     * @param toMillis end of the range
+     * @return a timeline that can answer next-phase lookups for any time within [fromMillis, toMillis]
+     * (it will be empty if the calculator doesn't support moon phases)
+     */
+    @NonNull
+    public static MoonPhaseTimeline generate(@NonNull SuntimesCalculator calculator, long fromMillis, long toMillis)
+    {
+        int capacity = (int)((Math.max(toMillis - fromMillis, 0) / (LUNATION_MILLIS / 4)) + 8);
+        MoonPhaseTimeline timeline = new MoonPhaseTimeline(fromMillis, capacity);
+
+        TimeZone timezone = calculator.getTimeZone();
+        Calendar after = Calendar.getInstance(timezone != null ? timezone : TimeZone.getDefault());
+        after.setTimeInMillis(fromMillis);
+
+        Calendar[] first = new Calendar[PHASES.length];
+        for (int i=0; i<PHASES.length; i++)
+        {
+            first[i] = calculator.getMoonPhaseNextDate(PHASES[i], after);
+            if (first[i] == null) {
+                return timeline;
+            }
+        }
+        for (int j=0; j<PHASES.length; j++)    // the first four (in order)
+        {
+            int next = -1;
+            for (int i=0; i<PHASES.length; i++) {
+                if (first[i] != null && (next < 0 || first[i].before(first[next]))) {
+                    next = i;
+                }
+            }
+            timeline.add(PHASES[next], first[next].getTimeInMillis());
+            first[next] = null;
+        }
+
+        while (timeline.times[timeline.count - 4] <= toMillis)
+        {
+            SuntimesCalculator.MoonPhase phase = PHASES[timeline.phases[timeline.count - 4]];    // phases recur in the same order
+            long previous = timeline.times[timeline.count - 1];
+            after.setTimeInMillis(previous);
+            Calendar event = calculator.getMoonPhaseNextDate(phase, after);
+            if (event == null || event.getTimeInMillis() <= previous) {
+                break;
+            }
+            timeline.add(phase, event.getTimeInMillis());
+        }
+        return timeline;
+    }
+
+    protected void add(SuntimesCalculator.MoonPhase phase, long millis)
+    {
+        if (count == times.length)
+        {
+            times = Arrays.copyOf(times, count * 2);
+            phases = Arrays.copyOf(phases, count * 2);
+        }
+        times[count] = millis;
+        phases[count] = (byte) phase.ordinal();
+        count++;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public long getMillis(int i) {
+        return times[i];
+    }
+
+    public SuntimesCalculator.MoonPhase getPhase(int i) {
+        return PHASES[phases[i]];
+    }
+
+    public long getStartMillis() {
+        return fromMillis;
+    }
+
+    /**
+     * @return the last time answered by the timeline (@see covers)
+     */
+    public long getEndMillis() {
+        return (count >= 4 ? times[count - 4] - 1 : fromMillis - 1);
+    }
+
+    /**
+     * @param afterMillis a time
+     * @return true if the next date of every phase after this time is known
+     */
+    public boolean covers(long afterMillis) {
+        return afterMillis >= fromMillis && afterMillis <= getEndMillis();
+    }
+
+    /**
+     * @param phase major phase
+     * @param afterMillis a time (@see covers)
+     * @return the time of the next phase (strictly after afterMillis), or NONE if not covered
+     */
+    public long getNextMillis(@NonNull SuntimesCalculator.MoonPhase phase, long afterMillis)
+    {
+        if (!covers(afterMillis)) {
+            return NONE;
+        }
+
+        int i = Arrays.binarySearch(times, 0, count, afterMillis);
+        i = (i >= 0 ? i + 1 : -(i + 1));    // first event after
+        for (int j = i; j < count && j < i + PHASES.length; j++) {
+            if (phases[j] == phase.ordinal()) {
+                return times[j];
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * @param phase major phase
+     * @param after a date/time (@see covers)
+     * @return the date of the next phase (in the same timezone), or null if not covered
+     */
+    @Nullable
+    public Calendar getNextDate(@NonNull SuntimesCalculator.MoonPhase phase, @NonNull Calendar after)
+    {
+        long millis = getNextMillis(phase, after.getTimeInMillis());
+        if (millis == NONE) {
+            return null;
+        }
+        Calendar calendar = Calendar.getInstance(after.getTimeZone());
+        calendar.setTimeInMillis(millis);
+        return calendar;
+    }
+}
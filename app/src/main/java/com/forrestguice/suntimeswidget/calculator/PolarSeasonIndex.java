@@ -0,0 +1,239 @@
+/**
+    Copyright (C) 2022 Forrest Guice
+    This file is part of SuntimesWidget.
+
+    SuntimesWidget is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SuntimesWidget is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SuntimesWidget.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.forrestguice.suntimeswidget.calculator;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.forrestguice.suntimeswidget.calculator.core.Location;
+import com.forrestguice.suntimeswidget.settings.WidgetSettings;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * PolarSeasonIndex; the sun's highest and lowest altitude on each day of a year at some latitude (derived
+ * from solar declination). At high latitudes it identifies the intervals of perpetual day, night, or twilight
+ * so callers can skip the days where an event can't occur (rather than asking a calculator for each one).
+ *
+ * The index is approximate; a day is only skipped if the event is out of reach by more than a margin
+ * (@see margin), so the calculator still decides every day that is close.
+ */
+public class PolarSeasonIndex
+{
+    public static final double MARGIN = 1.0;    // degrees; covers the declination approximation, and date alignment (~0.4 deg/day)
+    public static final double MIN_LATITUDE = 45;    // below this every event occurs every day (18 + 23.44 + margin < 90 - 45)
+
+    public static final int STATE_CROSSING = 0;    // the sun crosses the altitude (the event occurs)
+    public static final int STATE_ABOVE = 1;       // the sun stays above the altitude (e.g. polar day)
+    public static final int STATE_BELOW = -1;      // the sun stays below the altitude (e.g. polar night)
+
+    private static final int MAX_ENTRIES = 8;
+    private static final LinkedHashMap<String, PolarSeasonIndex> sharedIndex = new LinkedHashMap<String, PolarSeasonIndex>(MAX_ENTRIES, 0.75f, true)
+    {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, PolarSeasonIndex> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    /**
+     * @param latitude degrees
+     * @param year year
+     * @return a (shared) index for the latitude (rounded to 0.01 degrees) and year
+     */
+    @NonNull
+    public static PolarSeasonIndex get(double latitude, int year)
+    {
+        long rounded = Math.round(latitude * 100);
+        String key = rounded + "|" + year;
+        synchronized (sharedIndex)
+        {
+            PolarSeasonIndex index = sharedIndex.get(key);
+            if (index == null) {
+                sharedIndex.put(key, (index = new PolarSeasonIndex(rounded / 100d, year)));
+            }
+            return index;
+        }
+    }
+
+    protected final double latitude;
+    protected final int year;
+    protected final float[] maxAltitude, minAltitude;    // degrees; indexed by day of year (0 is Jan 1)
+
+    public PolarSeasonIndex(double latitude, int year)
+    {
+        this.latitude = latitude;
+        this.year = year;
+
+        int days = new GregorianCalendar().isLeapYear(year) ? 366 : 365;
+        maxAltitude = new float[days];
+        minAltitude = new float[days];
+        for (int i=0; i<days; i++)
+        {
+            double declination = declination(i, days);
+            maxAltitude[i] = (float) (90 - Math.abs(latitude - declination));    // at noon
+            minAltitude[i] = (float) (Math.abs(latitude + declination) - 90);    // at midnight
+        }
+    }
+
+    public double getLatitude() {
+        return latitude;
+    }
+    public int getYear() {
+        return year;
+    }
+    public int getDays() {
+        return maxAltitude.length;
+    }
+
+    /**
+     * @param i day of year (0 is Jan 1)
+     * @param elevation the event's altitude (degrees)
+     * @param margin degrees
+     * @return STATE_ABOVE, STATE_BELOW, or STATE_CROSSING (also when within the margin)
+     */
+    public int getState(int i, double elevation, double margin)
+    {
+        i = Math.max(0, Math.min(i, maxAltitude.length - 1));
+        if (minAltitude[i] > elevation + margin) {
+            return STATE_ABOVE;
+        } else if (maxAltitude[i] < elevation - margin) {
+            return STATE_BELOW;
+        } else return STATE_CROSSING;
+    }
+
+    public double getMaxAltitude(int i) {
+        return maxAltitude[i];
+    }
+    public double getMinAltitude(int i) {
+        return minAltitude[i];
+    }
+
+    /**
+     * @param elevation the event's altitude (degrees)
+     * @param state STATE_ABOVE, STATE_BELOW, or STATE_CROSSING
+     * @return a list of { firstDay, lastDay } (day of year; inclusive) in the given state
+     */
+    @NonNull
+    public List<int[]> getIntervals(double elevation, int state)
+    {
+        List<int[]> intervals = new ArrayList<>();
+        int start = -1;
+        for (int i=0; i<maxAltitude.length; i++)
+        {
+            boolean inState = (getState(i, elevation, 0) == state);
+            if (inState && start < 0) {
+                start = i;
+
+            } else if (!inState && start >= 0) {
+                intervals.add(new int[] { start, i - 1 });
+                start = -1;
+            }
+        }
+        if (start >= 0) {
+            intervals.add(new int[] { start, maxAltitude.length - 1 });
+        }
+        return intervals;
+    }
+
+    /**
+     * @param i day of year (0 is Jan 1)
+     * @param days days in year
+     * @return the sun's declination (degrees) (Spencer, 1971; within ~0.1 degrees)
+     */
+    public static double declination(int i, int days)
+    {
+        double g = (2 * Math.PI / days) * i;
+        return Math.toDegrees(0.006918 - (0.399912 * Math.cos(g)) + (0.070257 * Math.sin(g))
+                - (0.006758 * Math.cos(2 * g)) + (0.000907 * Math.sin(2 * g))
+                - (0.002697 * Math.cos(3 * g)) + (0.00148 * Math.sin(3 * g)));
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @param mode time mode
+     * @return the sun's altitude (degrees) for events of this mode, or NaN if the event occurs every day (noon)
+     */
+    public static double elevation(@Nullable WidgetSettings.TimeMode mode)
+    {
+        if (mode == null) {
+            return Double.NaN;
+        }
+        switch (mode)
+        {
+            case OFFICIAL: return -0.833;
+            case CIVIL: return -6;
+            case NAUTICAL: return -12;
+            case ASTRONOMICAL: return -18;
+            case GOLD: return 6;
+            case BLUE8: return -8;
+            case BLUE4: return -4;
+            case NOON: default: return Double.NaN;
+        }
+    }
+
+    /**
+     * @return MARGIN, plus the horizon dip at the location's altitude (calculators that support altitude shift events by this amount)
+     */
+    public static double margin(@Nullable Location location)
+    {
+        double altitude = (location != null ? Math.max(0, location.getAltitudeAsDouble()) : 0);
+        return MARGIN + (0.0347 * Math.sqrt(Math.min(altitude, 11000)));
+    }
+
+    /**
+     * @param location location
+     * @param day date
+     * @param mode time mode
+     * @return false if the mode's events can't occur on the date (perpetual day, night, or twilight), true otherwise
+     */
+    public static boolean hasEvents(@Nullable Location location, @NonNull Calendar day, @Nullable WidgetSettings.TimeMode mode)
+    {
+        double elevation = elevation(mode);
+        if (location == null || Double.isNaN(elevation) || Math.abs(location.getLatitudeAsDouble()) < MIN_LATITUDE) {
+            return true;
+        }
+        PolarSeasonIndex index = get(location.getLatitudeAsDouble(), day.get(Calendar.YEAR));
+        return index.getState(day.get(Calendar.DAY_OF_YEAR) - 1, elevation, margin(location)) == STATE_CROSSING;
+    }
+
+    /**
+     * Advances the date to the next day (on or after) where the mode's events can occur.
+     * @param location location
+     * @param day date (modified)
+     * @param mode time mode
+     * @return the number of days skipped
+     */
+    public static int skipToEvents(@Nullable Location location, @NonNull Calendar day, @Nullable WidgetSettings.TimeMode mode)
+    {
+        int skipped = 0;
+        while (skipped < 2 * 366 && !hasEvents(location, day, mode))
+        {
+            day.add(Calendar.DAY_OF_YEAR, 1);
+            skipped++;
+        }
+        return skipped;
+    }
+}
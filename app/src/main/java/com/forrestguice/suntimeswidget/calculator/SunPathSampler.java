@@ -0,0 +1,311 @@
+/**
+    Copyright (C) 2022 Forrest Guice
+    This file is part of SuntimesWidget.
+
+    SuntimesWidget is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SuntimesWidget is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SuntimesWidget.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.forrestguice.suntimeswidget.calculator;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.forrestguice.suntimeswidget.calculator.core.SuntimesCalculator;
+
+import java.util.Calendar;
+
+/**
+ * SunPathSampler; samples the sun's elevation and azimuth over a period (e.g. a day) at a fixed resolution.
+ *
+ * Exact positions are calculated every `exactIntervalMinutes`; the samples in between are interpolated
+ * (cubic). Intervals where interpolation would be inaccurate (near the horizon, where refraction bends the
+ * curve, or near the zenith, where the elevation peaks sharply and the azimuth swings quickly) are calculated
+ * exactly.
+ *
+ * Samples are kept in primitive arrays that are reused by later calls to sample. Not thread-safe (neither are
+ * the calculators).
+ */
+public class SunPathSampler
+{
+    public static final int DEFAULT_RESOLUTION_MINUTES = 5;
+    public static final int DEFAULT_EXACT_INTERVAL_MINUTES = 30;
+
+    public static final double REFINE_ELEVATION = 2;     // degrees; exact samples when near the horizon
+    public static final double REFINE_ZENITH = 80;       // degrees; exact samples when near the zenith
+    public static final double REFINE_AZIMUTH = 20;      // degrees; exact samples when the azimuth changes quickly
+
+    protected static final long MINUTE_MILLIS = 60 * 1000;
+
+    private final SuntimesCalculator calculator;
+    private final int resolutionMinutes;
+    private final int exactStep;    // exact samples every n samples
+
+    private long startMillis = 0;
+    private int numSamples = 0;
+    private double[] elevation = new double[0];
+    private double[] azimuth = new double[0];
+    private double[] exactElevation = new double[0];
+    private double[] exactAzimuth = new double[0];
+    private final Calendar calendar = Calendar.getInstance();
+
+    public SunPathSampler(@NonNull SuntimesCalculator calculator) {
+        this(calculator, DEFAULT_RESOLUTION_MINUTES, DEFAULT_EXACT_INTERVAL_MINUTES);
+    }
+
+    /**
+     * @param calculator a calculator that supports FEATURE_POSITION
+     * @param resolutionMinutes minutes between samples
+     * @param exactIntervalMinutes minutes between exact samples (rounded to a multiple of resolutionMinutes)
+     */
+    public SunPathSampler(@NonNull SuntimesCalculator calculator, int resolutionMinutes, int exactIntervalMinutes)
+    {
+        this.calculator = calculator;
+        this.resolutionMinutes = Math.max(1, resolutionMinutes);
+        this.exactStep = Math.max(1, Math.round((float)exactIntervalMinutes / this.resolutionMinutes));
+    }
+
+    public SuntimesCalculator getCalculator() {
+        return calculator;
+    }
+
+    public int getResolutionMinutes() {
+        return resolutionMinutes;
+    }
+
+    /**
+     * Samples a day (from midnight to the following midnight, in the day's timezone).
+     * @param day a date
+     * @return true if sampled, false if the calculator doesn't provide positions
+     */
+    public boolean sampleDay(@NonNull Calendar day)
+    {
+        Calendar start = (Calendar) day.clone();
+        start.set(Calendar.HOUR_OF_DAY, 0);
+        start.set(Calendar.MINUTE, 0);
+        start.set(Calendar.SECOND, 0);
+        start.set(Calendar.MILLISECOND, 0);
+
+        Calendar end = (Calendar) start.clone();
+        end.add(Calendar.DAY_OF_MONTH, 1);
+        return sample(start.getTimeInMillis(), end.getTimeInMillis());
+    }
+
+    /**
+     * @param fromMillis first sample
+     * @param toMillis last sample (rounded up to the resolution)
+     * @return true if sampled, false if the calculator doesn't provide positions
+     */
+    public boolean sample(long fromMillis, long toMillis)
+    {
+        long resolutionMillis = resolutionMinutes * MINUTE_MILLIS;
+        int n = (int) ((Math.max(toMillis - fromMillis, 0) + resolutionMillis - 1) / resolutionMillis) + 1;
+        int m = ((n - 1) + (exactStep - 1)) / exactStep + 3;    // exact samples (including one before and after)
+        long exactMillis = exactStep * resolutionMillis;
+
+        if (exactElevation.length < m) {
+            exactElevation = new double[m];
+            exactAzimuth = new double[m];
+        }
+        if (elevation.length < n) {
+            elevation = new double[n];
+            azimuth = new double[n];
+        }
+
+        numSamples = 0;
+        startMillis = fromMillis;
+        for (int j=0; j<m; j++)
+        {
+            SuntimesCalculator.SunPosition position = exactPosition(fromMillis + ((j - 1) * exactMillis));
+            if (position == null) {
+                return false;
+            }
+            exactElevation[j] = position.elevation;
+            exactAzimuth[j] = (j == 0) ? position.azimuth
+                                       : unwrap(position.azimuth, exactAzimuth[j-1]);
+        }
+
+        for (int i=0; i<n; i++)
+        {
+            int j = (i / exactStep) + 1;
+            int r = i % exactStep;
+            if (r == 0)
+            {
+                elevation[i] = exactElevation[j];
+                azimuth[i] = normalize(exactAzimuth[j]);
+
+            } else if (needsRefinement(j)) {
+                SuntimesCalculator.SunPosition position = exactPosition(fromMillis + (i * resolutionMillis));
+                if (position == null) {
+                    return false;
+                }
+                elevation[i] = position.elevation;
+                azimuth[i] = position.azimuth;
+
+            } else {
+                double t = (double) r / exactStep;
+                elevation[i] = interpolate(exactElevation, j, t);
+                azimuth[i] = normalize(interpolate(exactAzimuth, j, t));
+            }
+        }
+        numSamples = n;
+        return true;
+    }
+
+    /**
+     * @return true if the interval (or its neighbors, which shape the interpolated curve) crosses the horizon,
+     * nears the zenith, or the azimuth changes quickly
+     */
+    private boolean needsRefinement(int j)
+    {
+        for (int k = j - 1; k <= j + 2; k++)
+        {
+            if (Math.abs(exactElevation[k]) < REFINE_ELEVATION || exactElevation[k] > REFINE_ZENITH) {
+                return true;
+            }
+            if (k > j - 1 && ((exactElevation[k] > 0) != (exactElevation[k-1] > 0)
+                    || Math.abs(exactAzimuth[k] - exactAzimuth[k-1]) > REFINE_AZIMUTH)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Nullable
+    private SuntimesCalculator.SunPosition exactPosition(long millis)
+    {
+        calendar.setTimeInMillis(millis);
+        return calculator.getSunPosition(calendar);
+    }
+
+    /**
+     * Catmull-Rom interpolation between values[j] and values[j+1] (using values[j-1] and values[j+2]).
+     */
+    protected static double interpolate(double[] values, int j, double t)
+    {
+        double p0 = values[j - 1];
+        double p1 = values[j];
+        double p2 = values[j + 1];
+        double p3 = values[j + 2];
+        double t2 = t * t;
+        double t3 = t2 * t;
+        return 0.5 * ((2 * p1) + (p2 - p0) * t
+                + (2 * p0 - 5 * p1 + 4 * p2 - p3) * t2
+                + (3 * p1 - p0 - 3 * p2 + p3) * t3);
+    }
+
+    /**
+     * @return the azimuth adjusted by +-360 to be closest to the previous value (so it can be interpolated)
+     */
+    protected static double unwrap(double azimuth, double previous)
+    {
+        double delta = (azimuth - previous) % 360;
+        if (delta > 180) {
+            delta -= 360;
+        } else if (delta < -180) {
+            delta += 360;
+        }
+        return previous + delta;
+    }
+
+    protected static double normalize(double azimuth)
+    {
+        double value = azimuth % 360;
+        return (value < 0) ? value + 360 : value;
+    }
+
+    /**
+     * @return the number of samples (0 if not sampled)
+     */
+    public int getSampleCount() {
+        return numSamples;
+    }
+
+    public long getStartMillis() {
+        return startMillis;
+    }
+
+    public long getSampleMillis(int i) {
+        return startMillis + (i * resolutionMinutes * MINUTE_MILLIS);
+    }
+
+    /**
+     * @return elevation samples (degrees); the array may be longer than getSampleCount()
+     */
+    public double[] getElevations() {
+        return elevation;
+    }
+
+    /**
+     * @return azimuth samples (degrees); the array may be longer than getSampleCount()
+     */
+    public double[] getAzimuths() {
+        return azimuth;
+    }
+
+    /**
+     * @param millis a time within the sampled period
+     * @return true if the time is within the sampled period
+     */
+    public boolean covers(long millis) {
+        return numSamples > 0 && millis >= startMillis && millis <= getSampleMillis(numSamples - 1);
+    }
+
+    /**
+     * @param millis a time within the sampled period
+     * @return elevation (degrees, linearly interpolated between samples), or NaN if not covered
+     */
+    public double getElevation(long millis)
+    {
+        if (!covers(millis)) {
+            return Double.NaN;
+        }
+        double x = (double)(millis - startMillis) / (resolutionMinutes * MINUTE_MILLIS);
+        int i = Math.min((int) x, numSamples - 1);
+        return (i == numSamples - 1) ? elevation[i]
+                                     : elevation[i] + (elevation[i + 1] - elevation[i]) * (x - i);
+    }
+
+    /**
+     * @param millis a time within the sampled period
+     * @return azimuth (degrees, linearly interpolated between samples), or NaN if not covered
+     */
+    public double getAzimuth(long millis)
+    {
+        if (!covers(millis)) {
+            return Double.NaN;
+        }
+        double x = (double)(millis - startMillis) / (resolutionMinutes * MINUTE_MILLIS);
+        int i = Math.min((int) x, numSamples - 1);
+        return (i == numSamples - 1) ? azimuth[i]
+                                     : normalize(azimuth[i] + (unwrap(azimuth[i + 1], azimuth[i]) - azimuth[i]) * (x - i));
+    }
+
+    /**
+     * @param millis a time within the sampled period
+     * @return a SunPosition (azimuth and elevation only; rightAscension and declination are NaN), or null if not covered
+     */
+    @Nullable
+    public SuntimesCalculator.SunPosition getPosition(long millis)
+    {
+        if (!covers(millis)) {
+            return null;
+        }
+        SuntimesCalculator.SunPosition position = new SuntimesCalculator.SunPosition();
+        position.elevation = getElevation(millis);
+        position.azimuth = getAzimuth(millis);
+        position.rightAscension = Double.NaN;
+        position.declination = Double.NaN;
+        return position;
+    }
+}
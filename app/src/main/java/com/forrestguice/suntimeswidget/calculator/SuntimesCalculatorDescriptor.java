@@ -64,6 +64,9 @@ import java.util.Locale;
  *     :: com.forrestguice.suntimeswidget.calculator.time4a.Time4ACCSuntimesCalculator.class
  *     :: com.forrestguice.suntimeswidget.calculator.time4a.Time4A4JSuntimesCalculator.class
  *
+ *   * suntimes-noaa
+ *     :: com.forrestguice.suntimeswidget.calculator.noaa.NOAASuntimesCalculator.class
+ *
  */
 @SuppressWarnings("Convert2Diamond")
 public class SuntimesCalculatorDescriptor implements Comparable, SuntimesCalculatorInfo
@@ -87,6 +90,7 @@ public class SuntimesCalculatorDescriptor implements Comparable, SuntimesCalcula
         SuntimesCalculatorDescriptor.addValue(com.forrestguice.suntimeswidget.calculator.time4a.Time4ANOAASuntimesCalculator.getDescriptor());
         SuntimesCalculatorDescriptor.addValue(com.forrestguice.suntimeswidget.calculator.time4a.Time4ACCSuntimesCalculator.getDescriptor());
         SuntimesCalculatorDescriptor.addValue(com.forrestguice.suntimeswidget.calculator.time4a.Time4A4JSuntimesCalculator.getDescriptor());
+        SuntimesCalculatorDescriptor.addValue(com.forrestguice.suntimeswidget.calculator.noaa.NOAASuntimesCalculator.getDescriptor());
 
         boolean scanForPlugins = AppSettings.loadScanForPluginsPref(context);
         if (scanForPlugins)
@@ -23,6 +23,7 @@ import android.util.Log;
 
 import com.forrestguice.suntimeswidget.calculator.core.Location;
 import com.forrestguice.suntimeswidget.calculator.core.SuntimesCalculator;
+import com.forrestguice.suntimeswidget.calculator.core.SuntimesPrecisionCalculator;
 
 import java.lang.ref.WeakReference;
 import java.util.TimeZone;
@@ -36,11 +37,15 @@ import java.util.TimeZone;
  * using reflection when the createCalculator method is called. The descriptor identifies the
  * calculator using name(), the class to instantiate using getReference(), and the value to display
  * in the UI using getDisplayString().
+ *
+ * The factory also applies a precision (@see setPrecision) to calculators that support it
+ * (SuntimesPrecisionCalculator); other calculators always calculate at full precision.
  */
 public class SuntimesCalculatorFactory
 {
     private SuntimesCalculatorDescriptor current;
     private WeakReference<Context> contextRef;
+    private SuntimesPrecisionCalculator.Precision precision = SuntimesPrecisionCalculator.Precision.SCIENTIFIC;
 
     /**
      * Create a SuntimesCalculatorFactory object with default implementation.
@@ -61,6 +66,18 @@ public class SuntimesCalculatorFactory
         init(context, calculatorSetting);
     }
 
+    /**
+     * Create a SuntimesCalculatorFactory object.
+     * @param context the Android context used by this factory
+     * @param calculatorSetting a SuntimesCalculatorDescriptor that specifies the implementation this factory creates
+     * @param precision the precision of calculators created by this factory
+     */
+    public SuntimesCalculatorFactory(Context context, SuntimesCalculatorDescriptor calculatorSetting, SuntimesPrecisionCalculator.Precision precision)
+    {
+        init(context, calculatorSetting);
+        setPrecision(precision);
+    }
+
     private void init(Context context, SuntimesCalculatorDescriptor calculatorSetting)
     {
         this.contextRef = new WeakReference<Context>(context);
@@ -80,6 +97,16 @@ public class SuntimesCalculatorFactory
         }
     }
 
+    /**
+     * @param value the precision of calculators created by this factory (null for SCIENTIFIC)
+     */
+    public void setPrecision(SuntimesPrecisionCalculator.Precision value) {
+        precision = (value != null ? value : SuntimesPrecisionCalculator.Precision.SCIENTIFIC);
+    }
+    public SuntimesPrecisionCalculator.Precision getPrecision() {
+        return precision;
+    }
+
     /**
      * Create a calculator for a given location and timezone using the calculator descriptor that was
      * passed to the factory when it was created.
@@ -104,6 +131,9 @@ public class SuntimesCalculatorFactory
             Log.e("createCalculator", "fail! .oO( " + current.getReference() + "), so instantiating default: " + calculator.getClass().getName() + " :: " + timezone);
         }
         calculator.init(location, timezone, contextRef.get());
+        if (calculator instanceof SuntimesPrecisionCalculator) {
+            ((SuntimesPrecisionCalculator) calculator).setPrecision(precision);
+        }
 
         //long bench_end = System.nanoTime();
         //Log.d("DEBUG", "created " + calculator.name() + " :: " + ((bench_end - bench_start) / 1000000.0) + " ms");
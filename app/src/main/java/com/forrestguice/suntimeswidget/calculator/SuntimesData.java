@@ -23,6 +23,8 @@ import android.util.Log;
 
 import com.forrestguice.suntimeswidget.calculator.core.Location;
 import com.forrestguice.suntimeswidget.calculator.core.SuntimesCalculator;
+import com.forrestguice.suntimeswidget.calculator.core.SuntimesPrecisionCalculator;
+import com.forrestguice.suntimeswidget.settings.WidgetConfig;
 import com.forrestguice.suntimeswidget.settings.WidgetSettings;
 import com.forrestguice.suntimeswidget.settings.WidgetTimezones;
 
@@ -120,6 +122,29 @@ public class SuntimesData
         return calculator;
     }
 
+    /**
+     * Property: precision; applied to the calculator when it is created (@see initCalculator), SCIENTIFIC by default;
+     * widgets that don't display seconds use WIDGET
+     */
+    protected SuntimesPrecisionCalculator.Precision precision = SuntimesPrecisionCalculator.Precision.SCIENTIFIC;
+    public SuntimesPrecisionCalculator.Precision precision() {
+        return precision;
+    }
+    public void setPrecision(SuntimesPrecisionCalculator.Precision value) {
+        precision = (value != null ? value : SuntimesPrecisionCalculator.Precision.SCIENTIFIC);
+    }
+
+    /**
+     * Property: eventCache (optional, may be null); calculated events are shared through the cache when set
+     */
+    protected SuntimesEventCache eventCache = null;
+    public SuntimesEventCache eventCache() {
+        return eventCache;
+    }
+    public void setEventCache(SuntimesEventCache cache) {
+        eventCache = cache;
+    }
+
     /**
      * Property: location mode
      */
@@ -173,6 +198,7 @@ public class SuntimesData
     {
         this.appWidgetID = other.appWidgetID;
         this.calculatorMode = other.calculatorMode();
+        this.precision = other.precision();
         this.locationMode = other.locationMode();
         this.timezoneMode = other.timezoneMode();
         this.location = other.location();
@@ -180,6 +206,7 @@ public class SuntimesData
         this.todayIs = other.todayIs();
 
         this.calculator = other.calculator;
+        this.eventCache = other.eventCache;
         this.calculated = other.isCalculated();
         //this.date = other.date();
         //this.dateOther = other.dateOther();
@@ -199,24 +226,27 @@ public class SuntimesData
         this.appWidgetID = appWidgetId;
         calculated = false;
 
+        WidgetConfig config = WidgetConfig.get(context, appWidgetId);
+
         // from general settings
-        calculatorMode = WidgetSettings.loadCalculatorModePref(context, appWidgetId, calculatorName);
+        calculatorMode = config.calculatorMode(context, calculatorName);
+        precision = (appWidgetId != 0 && !config.showSeconds()) ? SuntimesPrecisionCalculator.Precision.WIDGET : SuntimesPrecisionCalculator.Precision.SCIENTIFIC;
 
         // from location settings
-        location = WidgetSettings.loadLocationPref(context, appWidgetId);
-        locationMode = WidgetSettings.loadLocationModePref(context, appWidgetId);
+        location = config.location();
+        locationMode = config.locationMode();
 
         // from timezone settings
-        timezone = TimeZone.getTimeZone(WidgetSettings.loadTimezonePref(context, appWidgetId));
-        timezoneMode = WidgetSettings.loadTimezoneModePref(context, appWidgetId);
+        timezone = TimeZone.getTimeZone(config.timezone());
+        timezoneMode = config.timezoneMode();
         initTimezone(context);
 
         // from date settings
-        WidgetSettings.DateMode dateMode = WidgetSettings.loadDateModePref(context, appWidgetId);
+        WidgetSettings.DateMode dateMode = config.dateMode();
         if (dateMode == WidgetSettings.DateMode.CUSTOM_DATE)
         {
             Calendar customDate = Calendar.getInstance(timezone);
-            WidgetSettings.DateInfo dateInfo = WidgetSettings.loadDatePref(context, appWidgetId);
+            WidgetSettings.DateInfo dateInfo = config.dateInfo();
             if (dateInfo.isSet())
             {
                 customDate.set(dateInfo.getYear(), dateInfo.getMonth(), dateInfo.getDay());
@@ -243,7 +273,7 @@ public class SuntimesData
                 break;
 
             case SOLAR_TIME:
-                WidgetSettings.SolarTimeMode solarMode = WidgetSettings.loadSolarTimeModePref(context, appWidgetID);
+                WidgetSettings.SolarTimeMode solarMode = WidgetConfig.get(context, appWidgetID).solarTimeMode();
                 switch (solarMode)
                 {
                     case APPARENT_SOLAR_TIME:
@@ -301,7 +331,7 @@ public class SuntimesData
 
     public SuntimesCalculatorFactory initFactory(Context context)
     {
-        return new SuntimesCalculatorFactory(context, calculatorMode);
+        return new SuntimesCalculatorFactory(context, calculatorMode, precision);
     }
 
     /**
@@ -22,6 +22,7 @@ import android.content.Context;
 
 import com.forrestguice.suntimeswidget.calculator.core.Location;
 import com.forrestguice.suntimeswidget.calculator.core.SuntimesCalculator;
+import com.forrestguice.suntimeswidget.settings.WidgetConfig;
 import com.forrestguice.suntimeswidget.settings.WidgetSettings;
 
 import java.util.Calendar;
@@ -90,8 +91,9 @@ public class SuntimesEquinoxSolsticeData extends SuntimesData
     public void initFromSettings(Context context, int appWidgetId, String calculatorName)
     {
         super.initFromSettings(context, appWidgetId, calculatorName);
-        timeMode = WidgetSettings.loadTimeMode2Pref(context, appWidgetId);
-        localizeHemisphere = WidgetSettings.loadLocalizeHemispherePref(context, appWidgetId);
+        WidgetConfig config = WidgetConfig.get(context, appWidgetId);
+        timeMode = config.timeMode2();
+        localizeHemisphere = config.localizeHemisphere();
     }
 
     /**
@@ -159,6 +161,21 @@ public class SuntimesEquinoxSolsticeData extends SuntimesData
         return eventCalendarOtherYear;
     }
 
+    /**
+     * Property: seasonTable (defaults to the shared table)
+     */
+    private SuntimesSeasonTable seasonTable = null;
+    public SuntimesSeasonTable seasonTable()
+    {
+        if (seasonTable == null && context != null) {
+            seasonTable = SuntimesSeasonTable.getSharedTable(context);
+        }
+        return seasonTable;
+    }
+    public void setSeasonTable(SuntimesSeasonTable table) {
+        seasonTable = table;
+    }
+
     public void initCalculator()
     {
         initCalculator(context);
@@ -197,31 +214,38 @@ public class SuntimesEquinoxSolsticeData extends SuntimesData
         date = todaysCalendar.getTime();
         dateOther = otherCalendar.getTime();
 
-        switch (timeMode)
+        String dataKey = (eventCache != null ? SuntimesEventCache.dataKey(this) + (localizeHemisphere ? "" : "|N") : null);
+        eventCalendarThisYear = calculateEvent(dataKey, todaysCalendar);
+        eventCalendarOtherYear = calculateEvent(dataKey, otherCalendar);
+
+        super.calculate();
+    }
+
+    /**
+     * @param dataKey the eventCache key (@see SuntimesEventCache.dataKey), or null to skip the cache
+     * @param year a date within the year to calculate
+     * @return the event (of the current timeMode) for the given year
+     */
+    protected Calendar calculateEvent(String dataKey, Calendar year)
+    {
+        if (dataKey != null)
         {
-            case EQUINOX_SPRING:
-                eventCalendarThisYear = calculator.getSpringEquinoxForYear(todaysCalendar);
-                eventCalendarOtherYear = calculator.getSpringEquinoxForYear(otherCalendar);
-                break;
-
-            case SOLSTICE_SUMMER:
-                eventCalendarThisYear = calculator.getSummerSolsticeForYear(todaysCalendar);
-                eventCalendarOtherYear = calculator.getSummerSolsticeForYear(otherCalendar);
-                break;
-
-            case EQUINOX_AUTUMNAL:
-                eventCalendarThisYear = calculator.getAutumnalEquinoxForYear(todaysCalendar);
-                eventCalendarOtherYear = calculator.getAutumnalEquinoxForYear(otherCalendar);
-                break;
-
-            case SOLSTICE_WINTER:
-            default:
-                eventCalendarThisYear = calculator.getWinterSolsticeForYear(todaysCalendar);
-                eventCalendarOtherYear = calculator.getWinterSolsticeForYear(otherCalendar);
-                break;
+            Calendar[] cached = eventCache.getYearEvents(dataKey, timeMode.name(), year);
+            if (cached != null && cached.length == 1) {
+                return cached[0];
+            }
         }
 
-        super.calculate();
+        SuntimesSeasonTable table = seasonTable();
+        Calendar event = (table != null ? table.getEvent(calculator, timeMode, year) : null);
+        if (event == null) {
+            event = SuntimesSeasonTable.calculateEvent(calculator, timeMode, year);
+        }
+
+        if (dataKey != null) {
+            eventCache.putYearEvents(dataKey, timeMode.name(), year, event);
+        }
+        return event;
     }
 
     public boolean isImplemented()
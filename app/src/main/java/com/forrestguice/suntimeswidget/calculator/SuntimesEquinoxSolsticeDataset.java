@@ -164,6 +164,14 @@ public class SuntimesEquinoxSolsticeDataset
         dataSolsticeWinter.setLocation(location);
     }
 
+    public void setEventCache(SuntimesEventCache cache)
+    {
+        dataEquinoxSpring.setEventCache(cache);
+        dataSolsticeSummer.setEventCache(cache);
+        dataEquinoxAutumnal.setEventCache(cache);
+        dataSolsticeWinter.setEventCache(cache);
+    }
+
     public boolean isCalculated()
     {
         return dataEquinoxSpring.isCalculated();
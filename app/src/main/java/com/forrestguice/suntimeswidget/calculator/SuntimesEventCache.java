@@ -0,0 +1,343 @@
+/**
+    Copyright (C) 2022 Forrest Guice
+    This file is part of SuntimesWidget.
+
+    SuntimesWidget is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SuntimesWidget is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SuntimesWidget.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.forrestguice.suntimeswidget.calculator;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.forrestguice.suntimeswidget.calculator.core.Location;
+import com.forrestguice.suntimeswidget.calculator.core.SuntimesCalculator;
+import com.forrestguice.suntimeswidget.calculator.core.SuntimesPrecisionCalculator;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.TreeSet;
+
+/**
+ * A bounded cache of calculated events (sun and moon) that can be shared between SuntimesData objects.
+ *
+ * Daily events are keyed by calculator, location, timezone, and day (yearly events by year); the least
+ * recently used entries are discarded first, so scrolling through a range of dates keeps a sliding window
+ * of days in the cache.
+ * Moon phases are keyed by calculator and phase (@see getMoonPhaseNextDate); whole timelines of phases
+ * can also be shared (@see putMoonPhaseTimeline).
+ *
+ * Events are stored as millis; calendars are re-created (in the requested timezone) on each read so
+ * callers are free to modify them. All methods are thread-safe.
+ */
+public class SuntimesEventCache
+{
+    public static final int DEFAULT_MAX_ENTRIES = 512;
+    public static final int MAX_PHASES = 64;    // per phase
+    public static final int MAX_TIMELINES = 4;  // per calculator
+
+    /**
+     * The same major phase can't recur sooner than this (the shortest synodic month is ~29.2 days).
+     */
+    public static final long MIN_LUNATION_MILLIS = 29L * SuntimesData.DAY_MILLIS;
+
+    protected static final long NONE = Long.MIN_VALUE;
+
+    private static SuntimesEventCache sharedCache = null;
+
+    /**
+     * @return a cache instance shared by the app's views (CardAdapter, EquinoxView, MoonPhasesView1)
+     */
+    public static synchronized SuntimesEventCache getSharedCache()
+    {
+        if (sharedCache == null) {
+            sharedCache = new SuntimesEventCache(DEFAULT_MAX_ENTRIES);
+        }
+        return sharedCache;
+    }
+
+    private final int maxEntries;
+    private final LinkedHashMap<String, long[]> events;
+    private final HashMap<String, TreeSet<Long>> phases = new HashMap<>();
+    private final HashMap<String, ArrayList<MoonPhaseTimeline>> timelines = new HashMap<>();
+
+    public SuntimesEventCache(final int maxEntries)
+    {
+        this.maxEntries = maxEntries;
+        this.events = new LinkedHashMap<String, long[]>(maxEntries, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, long[]> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public synchronized int size() {
+        return events.size();
+    }
+
+    public synchronized void clear()
+    {
+        events.clear();
+        phases.clear();
+        timelines.clear();
+    }
+
+    /**
+     * Daily events (e.g. sunrise and sunset of a TimeMode).
+     * @param dataKey @see dataKey
+     * @param eventKey identifies the events (e.g. TimeMode name)
+     * @param day the day (in the data's timezone)
+     * @return an array of Calendar (elements may be null if the event doesn't occur), or null if not cached
+     */
+    @Nullable
+    public Calendar[] getDayEvents(@NonNull String dataKey, @NonNull String eventKey, @NonNull Calendar day) {
+        return getEvents(eventKey(dataKey, eventKey, dayKey(day)), day.getTimeZone());
+    }
+
+    public void putDayEvents(@NonNull String dataKey, @NonNull String eventKey, @NonNull Calendar day, @NonNull Calendar... value) {
+        putEvents(eventKey(dataKey, eventKey, dayKey(day)), value);
+    }
+
+    /**
+     * Yearly events (e.g. equinox and solstice).
+     * @param dataKey @see dataKey
+     * @param eventKey identifies the events (e.g. TimeMode name)
+     * @param year a date within the year (in the data's timezone)
+     * @return an array of Calendar (elements may be null if the event doesn't occur), or null if not cached
+     */
+    @Nullable
+    public Calendar[] getYearEvents(@NonNull String dataKey, @NonNull String eventKey, @NonNull Calendar year) {
+        return getEvents(eventKey(dataKey, eventKey, year.get(Calendar.YEAR)), year.getTimeZone());
+    }
+
+    public void putYearEvents(@NonNull String dataKey, @NonNull String eventKey, @NonNull Calendar year, @NonNull Calendar... value) {
+        putEvents(eventKey(dataKey, eventKey, year.get(Calendar.YEAR)), value);
+    }
+
+    @Nullable
+    protected Calendar[] getEvents(@NonNull String key, TimeZone timezone)
+    {
+        long[] value;
+        synchronized (this) {
+            value = events.get(key);
+        }
+        if (value == null) {
+            return null;
+        }
+
+        Calendar[] result = new Calendar[value.length];
+        for (int i=0; i<value.length; i++) {
+            result[i] = toCalendar(value[i], timezone);
+        }
+        return result;
+    }
+
+    protected void putEvents(@NonNull String key, @NonNull Calendar... value)
+    {
+        long[] millis = new long[value.length];
+        for (int i=0; i<value.length; i++) {
+            millis[i] = toMillis(value[i]);
+        }
+        synchronized (this) {
+            events.put(key, millis);
+        }
+    }
+
+    /**
+     * Moon rise and set.
+     * @param dataKey @see dataKey
+     * @param day the day (in the data's timezone)
+     * @return MoonTimes, or null if not cached
+     */
+    @Nullable
+    public SuntimesCalculator.MoonTimes getMoonTimes(@NonNull String dataKey, @NonNull Calendar day)
+    {
+        Calendar[] value = getDayEvents(dataKey, KEY_MOONTIMES, day);
+        if (value == null || value.length != 2) {
+            return null;
+        }
+        SuntimesCalculator.MoonTimes moonTimes = new SuntimesCalculator.MoonTimes();
+        moonTimes.riseTime = value[0];
+        moonTimes.setTime = value[1];
+        return moonTimes;
+    }
+
+    public void putMoonTimes(@NonNull String dataKey, @NonNull Calendar day, @Nullable SuntimesCalculator.MoonTimes value)
+    {
+        if (value != null) {
+            putDayEvents(dataKey, KEY_MOONTIMES, day, value.riseTime, value.setTime);
+        }
+    }
+    protected static final String KEY_MOONTIMES = "moon";
+
+    /**
+     * Moon phases are independent of location; a known phase is a valid result if it occurs after the given
+     * date, and within MIN_LUNATION_MILLIS of it (there can't be another occurrence between them).
+     * @param calculatorKey @see calculatorKey
+     * @param phase major phase
+     * @param after a date/time
+     * @return the next date of the given phase, or null if not cached
+     */
+    @Nullable
+    public Calendar getMoonPhaseNextDate(@NonNull String calculatorKey, @NonNull SuntimesCalculator.MoonPhase phase, @NonNull Calendar after)
+    {
+        long afterMillis = after.getTimeInMillis();
+        Long next;
+        synchronized (this)
+        {
+            MoonPhaseTimeline timeline = getMoonPhaseTimeline(calculatorKey, afterMillis);
+            if (timeline != null) {
+                return timeline.getNextDate(phase, after);
+            }
+
+            TreeSet<Long> known = phases.get(phaseKey(calculatorKey, phase));
+            next = (known != null ? known.higher(afterMillis) : null);
+        }
+        if (next != null && (next - afterMillis) < MIN_LUNATION_MILLIS) {
+            return toCalendar(next, after.getTimeZone());
+        }
+        return null;
+    }
+
+    public void putMoonPhase(@NonNull String calculatorKey, @NonNull SuntimesCalculator.MoonPhase phase, @Nullable Calendar value)
+    {
+        if (value == null) {
+            return;
+        }
+
+        long millis = value.getTimeInMillis();
+        String key = phaseKey(calculatorKey, phase);
+        synchronized (this)
+        {
+            TreeSet<Long> known = phases.get(key);
+            if (known == null) {
+                phases.put(key, known = new TreeSet<>());
+            }
+            known.add(millis);
+
+            while (known.size() > MAX_PHASES)
+            {
+                if ((millis - known.first()) > (known.last() - millis)) {    // discard the phase furthest away
+                    known.pollFirst();
+                } else known.pollLast();
+            }
+        }
+    }
+
+    /**
+     * @param calculatorKey @see calculatorKey
+     * @param afterMillis a time
+     * @return a timeline that covers the given time, or null if not cached
+     */
+    @Nullable
+    public synchronized MoonPhaseTimeline getMoonPhaseTimeline(@NonNull String calculatorKey, long afterMillis)
+    {
+        ArrayList<MoonPhaseTimeline> known = timelines.get(calculatorKey);
+        if (known != null)
+        {
+            for (MoonPhaseTimeline timeline : known) {
+                if (timeline.covers(afterMillis)) {
+                    return timeline;
+                }
+            }
+        }
+        return null;
+    }
+
+    public synchronized void putMoonPhaseTimeline(@NonNull String calculatorKey, @NonNull MoonPhaseTimeline timeline)
+    {
+        if (timeline.size() < 4) {
+            return;
+        }
+        ArrayList<MoonPhaseTimeline> known = timelines.get(calculatorKey);
+        if (known == null) {
+            timelines.put(calculatorKey, known = new ArrayList<>());
+        }
+        known.add(0, timeline);
+        while (known.size() > MAX_TIMELINES) {
+            known.remove(known.size() - 1);    // discard the least recently added
+        }
+    }
+
+    /**
+     * @param data SuntimesData (with initialized calculator and timezone)
+     * @return a key identifying the data's calculator, location, and timezone
+     */
+    @NonNull
+    public static String dataKey(@NonNull SuntimesData data)
+    {
+        Location location = data.location();
+        TimeZone timezone = data.timezone();
+        return calculatorKey(data) + "|"
+                + (location != null ? location.getLatitude() + "|" + location.getLongitude() + "|" + location.getAltitudeAsInteger() : "") + "|"
+                + (timezone != null ? timezone.getID() + "|" + timezone.getRawOffset() : "");
+    }
+
+    /**
+     * @param data SuntimesData
+     * @return a key identifying the data's calculator, and its precision (unless SCIENTIFIC) if the calculator
+     * implements SuntimesPrecisionCalculator (or isn't initialized yet, e.g. when looking up a shared calculator).
+     */
+    @NonNull
+    public static String calculatorKey(@NonNull SuntimesData data)
+    {
+        SuntimesCalculatorDescriptor descriptor = data.calculatorMode();
+        SuntimesCalculator calculator = data.calculator();
+        SuntimesPrecisionCalculator.Precision precision = data.precision();
+        boolean hasPrecision = (calculator == null || calculator instanceof SuntimesPrecisionCalculator);
+        return (descriptor != null ? descriptor.getName() : "")
+                + (hasPrecision && precision != SuntimesPrecisionCalculator.Precision.SCIENTIFIC ? "@" + precision.name() : "");
+    }
+
+    /**
+     * @param day a Calendar
+     * @return the day as year * 1000 + day-of-year (in the Calendar's timezone)
+     */
+    public static int dayKey(@NonNull Calendar day) {
+        return (day.get(Calendar.YEAR) * 1000) + day.get(Calendar.DAY_OF_YEAR);
+    }
+
+    protected static String eventKey(String dataKey, String eventKey, int periodKey) {
+        return dataKey + "|" + eventKey + "|" + periodKey;
+    }
+
+    protected static String phaseKey(String calculatorKey, SuntimesCalculator.MoonPhase phase) {
+        return calculatorKey + "|" + phase.name();
+    }
+
+    protected static long toMillis(@Nullable Calendar calendar) {
+        return (calendar != null ? calendar.getTimeInMillis() : NONE);
+    }
+
+    @Nullable
+    protected static Calendar toCalendar(long millis, TimeZone timezone)
+    {
+        if (millis == NONE) {
+            return null;
+        }
+        Calendar calendar = Calendar.getInstance(timezone);
+        calendar.setTimeInMillis(millis);
+        return calendar;
+    }
+}
@@ -54,19 +54,19 @@ public class SuntimesMoonData extends SuntimesMoonData0
      */
     public Calendar moonriseCalendarYesterday()
     {
-        if (riseSet[0] != null)
+        if (riseSet(0) != null)
             return riseSet[0].riseTime;
         else return null;
     }
     public Calendar moonriseCalendarToday()
     {
-        if (riseSet[1] != null)
+        if (riseSet(1) != null)
             return riseSet[1].riseTime;
         else return null;
     }
     public Calendar moonriseCalendarTomorrow()
     {
-        if (riseSet[2] != null)
+        if (riseSet(2) != null)
             return riseSet[2].riseTime;
         else return null;
     }
@@ -76,19 +76,19 @@ public class SuntimesMoonData extends SuntimesMoonData0
      */
     public Calendar moonsetCalendarYesterday()
     {
-        if (riseSet[0] != null)
+        if (riseSet(0) != null)
             return riseSet[0].setTime;
         else return null;
     }
     public Calendar moonsetCalendarToday()
     {
-        if (riseSet[1] != null)
+        if (riseSet(1) != null)
             return riseSet[1].setTime;
         else return null;
     }
     public Calendar moonsetCalendarTomorrow()
     {
-        if (riseSet[2] != null)
+        if (riseSet(2) != null)
             return riseSet[2].setTime;
         else return null;
     }
@@ -99,11 +99,13 @@ public class SuntimesMoonData extends SuntimesMoonData0
     private double moonIlluminationToday;
     public double getMoonIlluminationToday()
     {
+        calculateIllumination(0);
         return moonIlluminationToday;
     }
     private double moonIlluminationTomorrow;
     public double getMoonIlluminationTomorrow()
     {
+        calculateIllumination(1);
         return moonIlluminationTomorrow;
     }
     public double getMoonIlluminationNow()
@@ -116,17 +118,21 @@ public class SuntimesMoonData extends SuntimesMoonData0
      */
     private Calendar noonToday, noonTomorrow;
     public Calendar getLunarNoonToday() {
+        calculateTransits();
         return noonToday;
     }
     public Calendar getLunarNoonTomorrow() {
+        calculateTransits();
         return noonTomorrow;
     }
 
     private Calendar midnightToday, midnightTomorrow;
     public Calendar getLunarMidnightToday() {
+        calculateTransits();
         return midnightToday;
     }
     public Calendar getLunarMidnightTomorrow() {
+        calculateTransits();
         return midnightTomorrow;
     }
 
@@ -136,6 +142,7 @@ public class SuntimesMoonData extends SuntimesMoonData0
     private MoonPhaseDisplay moonPhaseToday;
     public MoonPhaseDisplay getMoonPhaseToday()
     {
+        calculatePhases();
         return moonPhaseToday;
     }
 
@@ -145,6 +152,7 @@ public class SuntimesMoonData extends SuntimesMoonData0
     private MoonPhaseDisplay moonPhaseTomorrow;
     public MoonPhaseDisplay getMoonPhaseTomorrow()
     {
+        calculatePhases();
         return moonPhaseTomorrow;
     }
 
@@ -154,6 +162,7 @@ public class SuntimesMoonData extends SuntimesMoonData0
     private SuntimesCalculator.MoonPhase moonPhaseNext;
     public SuntimesCalculator.MoonPhase getMoonPhaseNext()
     {
+        calculatePhases();
         return moonPhaseNext;
     }
 
@@ -163,6 +172,7 @@ public class SuntimesMoonData extends SuntimesMoonData0
     private HashMap<SuntimesCalculator.MoonPhase, Calendar> moonPhases = new HashMap<>(4);
     public Calendar moonPhaseCalendar(SuntimesCalculator.MoonPhase phase)
     {
+        calculatePhases();
         if (moonPhases.containsKey(phase))
         {
             return moonPhases.get(phase);
@@ -196,10 +206,19 @@ public class SuntimesMoonData extends SuntimesMoonData0
     private void initFromOther( SuntimesMoonData other )
     {
         super.initFromOther(other);
+        other.calculatePending();    // copy the results (calculating them first)
+        this.otherCalendar0 = other.otherCalendar0;
         this.riseSet = other.riseSet;
+        this.noonToday = other.noonToday;
+        this.noonTomorrow = other.noonTomorrow;
+        this.midnightToday = other.midnightToday;
+        this.midnightTomorrow = other.midnightTomorrow;
         this.moonIlluminationToday = other.moonIlluminationToday;
+        this.moonIlluminationTomorrow = other.moonIlluminationTomorrow;
         this.moonPhases = new HashMap<>(other.moonPhases);
         this.moonPhaseToday = other.moonPhaseToday;
+        this.moonPhaseTomorrow = other.moonPhaseTomorrow;
+        this.moonPhaseNext = other.moonPhaseNext;
     }
 
     /**
@@ -227,9 +246,70 @@ public class SuntimesMoonData extends SuntimesMoonData0
         date = todaysCalendar.getTime();
         dateOther = otherCalendar.getTime();
 
-        riseSet[0] = calculator.getMoonTimesForDate(otherCalendar0);
-        riseSet[1] = calculator.getMoonTimesForDate(todaysCalendar);
-        riseSet[2] = calculator.getMoonTimesForDate(otherCalendar);
+        synchronized (this)
+        {
+            pendingDataKey = (eventCache != null ? SuntimesEventCache.dataKey(this) : null);
+            riseSet = new SuntimesCalculator.MoonTimes[3];
+            noonToday = noonTomorrow = midnightToday = midnightTomorrow = null;
+            moonIlluminationToday = moonIlluminationTomorrow = 0;
+            moonPhases = new HashMap<>(4);
+            moonPhaseToday = moonPhaseTomorrow = null;
+            moonPhaseNext = null;
+
+            pendingRiseSet[0] = pendingRiseSet[1] = pendingRiseSet[2] = true;
+            pendingIllumination[0] = pendingIllumination[1] = true;
+            pendingTransits = pendingPhases = true;
+        }
+    }
+
+    /**
+     * Results are calculated when first read (and then retained until the next call to calculate); calculate()
+     * only prepares the calendars. A widget that shows moonrise doesn't pay for the phase searches.
+     * The calculate methods are synchronized, and clear a pending flag only after its results are stored.
+     */
+    private final boolean[] pendingRiseSet = new boolean[] { false, false, false };    // [0] yesterday, [1] today, [2] tomorrow
+    private final boolean[] pendingIllumination = new boolean[] { false, false };      // [0] today, [1] tomorrow
+    private boolean pendingTransits = false, pendingPhases = false;
+    private String pendingDataKey = null;
+
+    /**
+     * Calculates any results that haven't been read yet; used when calculating in the background so
+     * that reading the results later doesn't calculate anything.
+     */
+    public void calculatePending()
+    {
+        for (int i=0; i<pendingRiseSet.length; i++) {
+            riseSet(i);
+        }
+        calculateTransits();
+        calculateIllumination(0);
+        calculateIllumination(1);
+        calculatePhases();
+    }
+
+    /**
+     * @param i [0] yesterday, [1] today, [2] tomorrow
+     * @return moonrise and moonset of the day (calculated on first read)
+     */
+    protected synchronized SuntimesCalculator.MoonTimes riseSet(int i)
+    {
+        if (pendingRiseSet[i])
+        {
+            Calendar day = (i == 0 ? otherCalendar0 : (i == 1 ? todaysCalendar : otherCalendar));
+            riseSet[i] = calculateMoonTimes(pendingDataKey, day);
+            pendingRiseSet[i] = false;
+        }
+        return riseSet[i];
+    }
+
+    /**
+     * lunar noon and midnight (today and tomorrow); derived from moonrise and moonset yesterday, today, and tomorrow.
+     */
+    protected synchronized void calculateTransits()
+    {
+        if (!pendingTransits) {
+            return;
+        }
 
         ArrayList<Calendar> midnights = findMidnight();
         if (midnights.size() > 0)
@@ -274,26 +354,58 @@ public class SuntimesMoonData extends SuntimesMoonData0
             noonTomorrow.add(Calendar.MINUTE, 50);   // approximate noon tomorrow
             //Log.d("DEBUG", "using approximate lunar noon tomorrow");
         }
+        pendingTransits = false;
+    }
 
-        double moonIllumination = getMoonIllumination(noonToday, todaysCalendar);
-        if (moonIllumination >= 0) {
-            this.moonIlluminationToday = moonIllumination;
+    /**
+     * illumination at lunar noon
+     * @param i [0] today, [1] tomorrow
+     */
+    protected synchronized void calculateIllumination(int i)
+    {
+        if (!pendingIllumination[i]) {
+            return;
+        }
+        calculateTransits();
+
+        if (i == 0)
+        {
+            double moonIllumination = getMoonIllumination(noonToday, todaysCalendar);
+            if (moonIllumination >= 0) {
+                this.moonIlluminationToday = moonIllumination;
+            }
+
+        } else {
+            double moonIllumination1 = getMoonIllumination(noonTomorrow, otherCalendar);
+            if (moonIllumination1 >= 0) {
+                this.moonIlluminationTomorrow = moonIllumination1;
+            }
         }
+        pendingIllumination[i] = false;
+    }
 
-        double moonIllumination1 = getMoonIllumination(noonTomorrow, otherCalendar);
-        if (moonIllumination1 >= 0) {
-            this.moonIlluminationTomorrow = moonIllumination1;
+    /**
+     * major phases (next of each), and the phase today and tomorrow.
+     */
+    protected synchronized void calculatePhases()
+    {
+        if (!pendingPhases) {
+            return;
         }
 
         Calendar after = midnight();
+        HashMap<SuntimesCalculator.MoonPhase, Calendar> phases = new HashMap<>(4);
         for (SuntimesCalculator.MoonPhase phase : SuntimesCalculator.MoonPhase.values()) {
-            moonPhases.put(phase, calculator.getMoonPhaseNextDate(phase, after));
+            phases.put(phase, calculateMoonPhaseNextDate(phase, after));
         }
-        moonPhaseToday = findPhaseOf(after, true);
+        moonPhases = phases;
+        moonPhaseNext = nextPhase(phases, after);
+        moonPhaseToday = phaseOf(phases, after);
 
         Calendar midnight1 = (Calendar)after.clone();
         midnight1.add(Calendar.DAY_OF_MONTH, 1);
-        moonPhaseTomorrow = findPhaseOf(midnight1);
+        moonPhaseTomorrow = phaseOf(phases, midnight1);
+        pendingPhases = false;
     }
 
     private double getMoonIllumination(Calendar lunarNoon, Calendar today)
@@ -320,7 +432,7 @@ public class SuntimesMoonData extends SuntimesMoonData0
         ArrayList<Calendar> noon = new ArrayList<>();
         for (int i=0; i<riseSet.length; i++)  // for yesterday [0], today [1], and tomorrow [2]
         {
-            if (riseSet[i] == null) {
+            if (riseSet(i) == null) {
                 continue;
             }
 
@@ -332,7 +444,7 @@ public class SuntimesMoonData extends SuntimesMoonData0
                 {
                     noon.add(midpoint(rise, set));         // case0: moonrise / moonset same day
 
-                } else if ((i+1) < riseSet.length) {
+                } else if ((i+1) < riseSet.length && riseSet(i+1) != null) {
                     set = riseSet[i+1].setTime;
                     if (set != null)                  // check for moonset next day..
                     {
@@ -349,7 +461,7 @@ public class SuntimesMoonData extends SuntimesMoonData0
         ArrayList<Calendar> events = new ArrayList<>();
         for (int i=0; i<riseSet.length; i++)  // for yesterday [0], today [1], and tomorrow [2]
         {
-            if (riseSet[i] == null) {
+            if (riseSet(i) == null) {
                 continue;
             }
 
@@ -361,7 +473,7 @@ public class SuntimesMoonData extends SuntimesMoonData0
                 {
                     events.add(midpoint(set, rise));         // case0: moonset / moonrise same day
 
-                } else if ((i+1) < riseSet.length) {
+                } else if ((i+1) < riseSet.length && riseSet(i+1) != null) {
                     rise = riseSet[i+1].riseTime;
                     if (rise != null)                  // check for moonrise next day..
                     {
@@ -378,7 +490,9 @@ public class SuntimesMoonData extends SuntimesMoonData0
      * @param calendar a date/time
      * @return the next major phase occurring after the supplied date/time
      */
-    public SuntimesCalculator.MoonPhase nextPhase(Calendar calendar) {
+    public SuntimesCalculator.MoonPhase nextPhase(Calendar calendar)
+    {
+        calculatePhases();
         return nextPhase(moonPhases, calendar);
     }
 
@@ -399,11 +513,21 @@ public class SuntimesMoonData extends SuntimesMoonData0
      */
     protected MoonPhaseDisplay findPhaseOf(Calendar calendar, boolean updateNext)
     {
-        SuntimesCalculator.MoonPhase nextPhase = nextPhase(calendar);
+        calculatePhases();
         if (updateNext) {
-            this.moonPhaseNext = nextPhase;
+            this.moonPhaseNext = nextPhase(moonPhases, calendar);
         }
+        return phaseOf(moonPhases, calendar);
+    }
 
+    /**
+     * @param moonPhases a HashMap containing major phases and their dates
+     * @param calendar a date/time
+     * @return a MoonPhaseDisplay enum
+     */
+    private MoonPhaseDisplay phaseOf(HashMap<SuntimesCalculator.MoonPhase, Calendar> moonPhases, Calendar calendar)
+    {
+        SuntimesCalculator.MoonPhase nextPhase = nextPhase(moonPhases, calendar);
         Calendar nextPhaseDate = moonPhases.get(nextPhase);
         boolean nextPhaseIsToday = (nextPhaseDate != null) &&
                                    (calendar.get(Calendar.YEAR) == nextPhaseDate.get(Calendar.YEAR)) &&
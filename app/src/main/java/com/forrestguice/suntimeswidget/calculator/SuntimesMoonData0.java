@@ -59,7 +59,7 @@ public class SuntimesMoonData0 extends SuntimesData
     @Override
     public SuntimesCalculatorFactory initFactory(Context context)
     {
-        return new SuntimesCalculatorFactory(context, calculatorMode)
+        return new SuntimesCalculatorFactory(context, calculatorMode, precision)
         {
             public SuntimesCalculator fallbackCalculator() {
                 return new com.forrestguice.suntimeswidget.calculator.time4a.Time4A4JSuntimesCalculator();
@@ -116,6 +116,62 @@ public class SuntimesMoonData0 extends SuntimesData
         super.calculate();
     }
 
+    /**
+     * @param dataKey the eventCache key (@see SuntimesEventCache.dataKey), or null to skip the cache
+     * @param day the day to calculate
+     * @return moonrise and moonset for the given day
+     */
+    protected SuntimesCalculator.MoonTimes calculateMoonTimes(String dataKey, Calendar day)
+    {
+        if (dataKey != null)
+        {
+            SuntimesCalculator.MoonTimes cached = eventCache.getMoonTimes(dataKey, day);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        SuntimesCalculator.MoonTimes moonTimes = calculator.getMoonTimesForDate(day);
+        if (dataKey != null) {
+            eventCache.putMoonTimes(dataKey, day, moonTimes);
+        }
+        return moonTimes;
+    }
+
+    /**
+     * @param phase major phase
+     * @param after a date/time
+     * @return the date of the next major phase (read from the eventCache if set)
+     */
+    protected Calendar calculateMoonPhaseNextDate(SuntimesCalculator.MoonPhase phase, Calendar after)
+    {
+        String calculatorKey = null;
+        if (eventCache != null)
+        {
+            calculatorKey = SuntimesEventCache.calculatorKey(this);
+            Calendar cached = eventCache.getMoonPhaseNextDate(calculatorKey, phase, after);
+            if (cached != null) {
+                return cached;
+            }
+
+            long afterMillis = after.getTimeInMillis();    // generate the phases that follow (shared by the other phases and nearby dates)
+            MoonPhaseTimeline timeline = MoonPhaseTimeline.generate(calculator, afterMillis, afterMillis + (TIMELINE_LUNATIONS * MoonPhaseTimeline.LUNATION_MILLIS));
+            eventCache.putMoonPhaseTimeline(calculatorKey, timeline);
+            Calendar phaseDate = timeline.getNextDate(phase, after);
+            if (phaseDate != null) {
+                return phaseDate;
+            }
+        }
+
+        Calendar phaseDate = calculator.getMoonPhaseNextDate(phase, after);
+        if (calculatorKey != null) {
+            eventCache.putMoonPhase(calculatorKey, phase, phaseDate);
+        }
+        return phaseDate;
+    }
+
+    public static final int TIMELINE_LUNATIONS = 3;
+
     public static boolean isSuperMoon( @NonNull SuntimesCalculator.MoonPosition position )
     {
         return position.distance < 360000;
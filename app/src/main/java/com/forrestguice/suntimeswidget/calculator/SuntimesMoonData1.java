@@ -69,7 +69,7 @@ public class SuntimesMoonData1 extends SuntimesMoonData0
 
         Calendar after = (Calendar)todaysCalendar.clone();
         for (SuntimesCalculator.MoonPhase phase : SuntimesCalculator.MoonPhase.values()) {
-            moonPhases.put(phase, calculator.getMoonPhaseNextDate(phase, after));
+            moonPhases.put(phase, calculateMoonPhaseNextDate(phase, after));
         }
     }
 
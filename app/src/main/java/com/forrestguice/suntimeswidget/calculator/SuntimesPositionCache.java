@@ -0,0 +1,268 @@
+/**
+    Copyright (C) 2022 Forrest Guice
+    This file is part of SuntimesWidget.
+
+    SuntimesWidget is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SuntimesWidget is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SuntimesWidget.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.forrestguice.suntimeswidget.calculator;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.forrestguice.suntimeswidget.calculator.core.Location;
+import com.forrestguice.suntimeswidget.calculator.core.SuntimesCalculator;
+
+import java.util.Calendar;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded cache of sun and moon positions for real-time displays (views that refresh every few seconds,
+ * and widgets that ask for several positions per update).
+ *
+ * Exact positions are calculated on a fixed grid (every GRID_MILLIS) and shared by calculator and location
+ * (calculator instances are not reused between updates). Times in between are interpolated from the four
+ * surrounding grid points (cubic Lagrange); the interpolation error is bounded by ~(h^4 / 40) * max|f''''|,
+ * which is under 0.01 degrees for a 10 minute grid. Near the horizon (refraction) and the zenith (where
+ * azimuth changes rapidly) the exact position is calculated instead (@see SunPathSampler).
+ *
+ * A lookup that misses the grid is answered with the exact position; the grid is only filled around it if
+ * that position is away from the horizon/zenith and the previous lookup was nearby (so the nodes are likely
+ * to be reused), e.g. rise/set lookups and animations that step by more than the grid don't fill it.
+ *
+ * All methods are thread-safe (calculations happen outside of the lock).
+ */
+public class SuntimesPositionCache
+{
+    public static final long GRID_MILLIS = 10 * 60 * 1000;
+    public static final int DEFAULT_MAX_NODES = 512;
+
+    protected static final int AZIMUTH = 0, ELEVATION = 1, RIGHT_ASCENSION = 2, DECLINATION = 3, DISTANCE = 4;
+
+    private static SuntimesPositionCache sharedCache = null;
+    public static synchronized SuntimesPositionCache getSharedCache()
+    {
+        if (sharedCache == null) {
+            sharedCache = new SuntimesPositionCache(DEFAULT_MAX_NODES);
+        }
+        return sharedCache;
+    }
+
+    private final LinkedHashMap<String, double[]> nodes;
+
+    public SuntimesPositionCache(final int maxNodes)
+    {
+        this.nodes = new LinkedHashMap<String, double[]>(maxNodes, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, double[]> eldest) {
+                return size() > maxNodes;
+            }
+        };
+    }
+
+    public synchronized int size() {
+        return nodes.size();
+    }
+
+    public synchronized void clear() {
+        nodes.clear();
+        lastLookup.clear();
+    }
+
+    /**
+     * @param calculator a calculator that supports FEATURE_POSITION
+     * @param dateTime a date/time
+     * @return the sun's position (interpolated or exact), or null if unsupported by the calculator
+     */
+    @Nullable
+    public SuntimesCalculator.SunPosition getSunPosition(@NonNull SuntimesCalculator calculator, @NonNull Calendar dateTime)
+    {
+        double[] value = interpolate(calculator, false, dateTime.getTimeInMillis());
+        if (value == null)
+        {
+            SuntimesCalculator.SunPosition position = calculator.getSunPosition(dateTime);
+            if (position != null) {
+                fill(calculator, false, dateTime.getTimeInMillis(), position.elevation);
+            }
+            return position;
+        }
+        SuntimesCalculator.SunPosition position = new SuntimesCalculator.SunPosition();
+        position.azimuth = value[AZIMUTH];
+        position.elevation = value[ELEVATION];
+        position.rightAscension = value[RIGHT_ASCENSION];
+        position.declination = value[DECLINATION];
+        return position;
+    }
+
+    /**
+     * @param calculator a calculator that supports FEATURE_POSITION and FEATURE_MOON
+     * @param dateTime a date/time
+     * @return the moon's position (interpolated or exact), or null if unsupported by the calculator
+     */
+    @Nullable
+    public SuntimesCalculator.MoonPosition getMoonPosition(@NonNull SuntimesCalculator calculator, @NonNull Calendar dateTime)
+    {
+        double[] value = interpolate(calculator, true, dateTime.getTimeInMillis());
+        if (value == null)
+        {
+            SuntimesCalculator.MoonPosition position = calculator.getMoonPosition(dateTime);
+            if (position != null) {
+                fill(calculator, true, dateTime.getTimeInMillis(), position.elevation);
+            }
+            return position;
+        }
+        SuntimesCalculator.MoonPosition position = new SuntimesCalculator.MoonPosition();
+        position.azimuth = value[AZIMUTH];
+        position.elevation = value[ELEVATION];
+        position.rightAscension = value[RIGHT_ASCENSION];
+        position.declination = value[DECLINATION];
+        position.distance = value[DISTANCE];
+        return position;
+    }
+
+    /**
+     * @return interpolated values (from cached grid points), or null if the exact position should be calculated instead
+     */
+    @Nullable
+    protected double[] interpolate(@NonNull SuntimesCalculator calculator, boolean moon, long millis)
+    {
+        String key = positionKey(calculator, moon);
+        long k = (long) Math.floor((double) millis / GRID_MILLIS);
+        double t = (double)(millis - (k * GRID_MILLIS)) / GRID_MILLIS;
+
+        double[][] p = new double[4][];
+        synchronized (this)
+        {
+            for (int i=0; i<p.length; i++)
+            {
+                p[i] = nodes.get(nodeKey(key, k - 1 + i));
+                if (p[i] == null) {
+                    return null;
+                }
+            }
+        }
+
+        for (int i=0; i<p.length; i++)
+        {
+            double elevation = p[i][ELEVATION];
+            if (Math.abs(elevation) < SunPathSampler.REFINE_ELEVATION || elevation > SunPathSampler.REFINE_ZENITH) {
+                return null;
+            }
+            if (i > 0 && ((elevation > 0) != (p[i-1][ELEVATION] > 0)
+                    || Math.abs(SunPathSampler.unwrap(p[i][AZIMUTH], p[i-1][AZIMUTH]) - p[i-1][AZIMUTH]) > SunPathSampler.REFINE_AZIMUTH)) {
+                return null;
+            }
+        }
+
+        double w0 = -t * (t - 1) * (t - 2) / 6d;           // lagrange weights (nodes at -1, 0, 1, 2)
+        double w1 = (t + 1) * (t - 1) * (t - 2) / 2d;
+        double w2 = -(t + 1) * t * (t - 2) / 2d;
+        double w3 = (t + 1) * t * (t - 1) / 6d;
+
+        double[] result = new double[DISTANCE + 1];
+        for (int j=0; j<result.length; j++)
+        {
+            boolean isAngle = (j == AZIMUTH || j == RIGHT_ASCENSION);
+            double v0 = p[0][j];
+            double v1 = (isAngle ? SunPathSampler.unwrap(p[1][j], v0) : p[1][j]);
+            double v2 = (isAngle ? SunPathSampler.unwrap(p[2][j], v1) : p[2][j]);
+            double v3 = (isAngle ? SunPathSampler.unwrap(p[3][j], v2) : p[3][j]);
+            double value = (w0 * v0) + (w1 * v1) + (w2 * v2) + (w3 * v3);
+            result[j] = (isAngle ? SunPathSampler.normalize(value) : value);
+        }
+        return result;
+    }
+
+    /**
+     * Fills the grid points surrounding a lookup that missed the grid; nodes are only calculated if they are
+     * likely to be reused (the position is away from the horizon/zenith, and the previous lookup was nearby).
+     * @param elevation the exact elevation at millis
+     */
+    protected void fill(@NonNull SuntimesCalculator calculator, boolean moon, long millis, double elevation)
+    {
+        String key = positionKey(calculator, moon);
+        boolean nearby;
+        synchronized (this)
+        {
+            Long previous = lastLookup.put(key, millis);
+            nearby = (previous != null && Math.abs(millis - previous) < GRID_MILLIS);
+        }
+        if (!nearby || Math.abs(elevation) < SunPathSampler.REFINE_ELEVATION || elevation > SunPathSampler.REFINE_ZENITH) {
+            return;
+        }
+
+        long k = (long) Math.floor((double) millis / GRID_MILLIS);
+        for (int i=0; i<4; i++)
+        {
+            if (getNode(key, calculator, moon, k - 1 + i) == null) {
+                return;
+            }
+        }
+    }
+    private final LinkedHashMap<String, Long> lastLookup = new LinkedHashMap<String, Long>(16, 0.75f, true)
+    {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+            return size() > 16;
+        }
+    };
+
+    @Nullable
+    protected double[] getNode(String key, @NonNull SuntimesCalculator calculator, boolean moon, long k)
+    {
+        String nodeKey = nodeKey(key, k);
+        double[] node;
+        synchronized (this) {
+            node = nodes.get(nodeKey);
+        }
+        if (node != null) {
+            return node;
+        }
+
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(k * GRID_MILLIS);
+        SuntimesCalculator.Position position = (moon ? calculator.getMoonPosition(calendar) : calculator.getSunPosition(calendar));
+        if (position == null) {
+            return null;
+        }
+
+        node = new double[DISTANCE + 1];
+        node[AZIMUTH] = position.azimuth;
+        node[ELEVATION] = position.elevation;
+        node[RIGHT_ASCENSION] = position.rightAscension;
+        node[DECLINATION] = position.declination;
+        node[DISTANCE] = (moon ? ((SuntimesCalculator.MoonPosition) position).distance : 0);
+        synchronized (this) {
+            nodes.put(nodeKey, node);
+        }
+        return node;
+    }
+
+    protected static String nodeKey(String key, long k) {
+        return key + "|" + k;
+    }
+
+    /**
+     * @return a key identifying the calculator and its location (positions don't depend on the timezone)
+     */
+    protected static String positionKey(@NonNull SuntimesCalculator calculator, boolean moon)
+    {
+        Location location = calculator.getLocation();
+        return calculator.name() + "|"
+                + (location != null ? location.getLatitude() + "|" + location.getLongitude() + "|" + location.getAltitudeAsInteger() : "")
+                + (moon ? "|moon" : "|sun");
+    }
+}
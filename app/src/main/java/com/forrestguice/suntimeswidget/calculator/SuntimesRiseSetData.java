@@ -22,7 +22,9 @@ import android.content.Context;
 import android.util.Log;
 
 import com.forrestguice.suntimeswidget.R;
+import com.forrestguice.suntimeswidget.calculator.core.SuntimesDayCalculator;
 import com.forrestguice.suntimeswidget.settings.SolarEvents;
+import com.forrestguice.suntimeswidget.settings.WidgetConfig;
 import com.forrestguice.suntimeswidget.settings.WidgetSettings;
 
 import java.util.Calendar;
@@ -97,10 +99,11 @@ public class SuntimesRiseSetData extends SuntimesData
     protected Calendar sunriseCalendarToday;
     public boolean hasSunriseTimeToday()
     {
-        return (sunriseCalendarToday != null);
+        return (sunriseCalendarToday() != null);
     }
     public Calendar sunriseCalendarToday()
     {
+        calculateDay(0);
         return sunriseCalendarToday;
     }
 
@@ -110,10 +113,11 @@ public class SuntimesRiseSetData extends SuntimesData
     protected Calendar sunsetCalendarToday;
     public boolean hasSunsetTimeToday()
     {
-        return (sunsetCalendarToday != null);
+        return (sunsetCalendarToday() != null);
     }
     public Calendar sunsetCalendarToday()
     {
+        calculateDay(0);
         return sunsetCalendarToday;
     }
 
@@ -123,10 +127,11 @@ public class SuntimesRiseSetData extends SuntimesData
     protected Calendar sunriseCalendarOther;
     public boolean hasSunriseTimeOther()
     {
-        return (sunriseCalendarOther != null);
+        return (sunriseCalendarOther() != null);
     }
     public Calendar sunriseCalendarOther()
     {
+        calculateDay(1);
         return sunriseCalendarOther;
     }
 
@@ -136,39 +141,40 @@ public class SuntimesRiseSetData extends SuntimesData
     protected Calendar sunsetCalendarOther;
     public boolean hasSunsetTimeOther()
     {
-        return (sunsetCalendarOther != null);
+        return (sunsetCalendarOther() != null);
     }
     public Calendar sunsetCalendarOther()
     {
+        calculateDay(1);
         return sunsetCalendarOther;
     }
 
     public Calendar sunriseCalendar(int i)
     {
         if (i == 1)
-            return sunriseCalendarToday;
-        else return sunriseCalendarOther;
+            return sunriseCalendarToday();
+        else return sunriseCalendarOther();
     }
 
     public Calendar sunsetCalendar(int i)
     {
         if (i == 1)
-            return sunsetCalendarToday;
-        else return sunsetCalendarOther;
+            return sunsetCalendarToday();
+        else return sunsetCalendarOther();
     }
 
     public Calendar[] getEvents()
     {
         Calendar midnight = midnight();
         midnight.add(Calendar.DAY_OF_MONTH,  1);
-        return new Calendar[] { sunriseCalendarToday, sunsetCalendarToday, sunriseCalendarOther, sunsetCalendarOther, midnight };
+        return new Calendar[] { sunriseCalendarToday(), sunsetCalendarToday(), sunriseCalendarOther(), sunsetCalendarOther(), midnight };
     }
 
     public Calendar[] getEvents(SolarEvents event)
     {
         if (event.isRising())
-            return new Calendar[] { sunriseCalendarToday, sunriseCalendarOther };
-        else return new Calendar[] { sunsetCalendarToday, sunsetCalendarOther };
+            return new Calendar[] { sunriseCalendarToday(), sunriseCalendarOther() };
+        else return new Calendar[] { sunsetCalendarToday(), sunsetCalendarOther() };
     }
 
     /**
@@ -186,6 +192,7 @@ public class SuntimesRiseSetData extends SuntimesData
     protected long dayLengthToday = 0L;
     public long dayLengthToday()
     {
+        calculateDay(0);
         return dayLengthToday;
     }
 
@@ -195,6 +202,7 @@ public class SuntimesRiseSetData extends SuntimesData
     protected long dayLengthOther = 0L;
     public long dayLengthOther()
     {
+        calculateDay(1);
         return dayLengthOther;
     }
 
@@ -230,6 +238,7 @@ public class SuntimesRiseSetData extends SuntimesData
         this.dayLengthToday = other.dayLengthToday();
         this.dayLengthOther = other.dayLengthOther();
         this.dayDeltaPrefix = other.dayDeltaPrefix();
+        this.pendingDays[0] = this.pendingDays[1] = false;    // copied (calculated by the accessors above)
     }
 
     /**
@@ -240,8 +249,9 @@ public class SuntimesRiseSetData extends SuntimesData
     protected void initFromSettings(Context context, int appWidgetId, String calculatorName)
     {
         super.initFromSettings(context, appWidgetId, calculatorName);
-        this.timeMode = WidgetSettings.loadTimeModePref(context, appWidgetId);
-        this.compareMode = WidgetSettings.loadCompareModePref(context, appWidgetId);
+        WidgetConfig config = WidgetConfig.get(context, appWidgetId);
+        this.timeMode = config.timeMode();
+        this.compareMode = config.compareMode();
     }
 
     public boolean isDay()
@@ -306,69 +316,169 @@ public class SuntimesRiseSetData extends SuntimesData
 
         date = todaysCalendar.getTime();
         dateOther = otherCalendar.getTime();
+        calculateDays();
+    }
+
+    /**
+     * Calculate using the calculator, timezone, and calendars of another (already calculated) instance;
+     * used by SuntimesRiseSetDataset to calculate all of its entries in a single pass.
+     * @param shared a calculated instance (same location, timezone, and date)
+     */
+    protected void calculate(SuntimesRiseSetData shared)
+    {
+        if (shared.compareMode() != compareMode || !shared.isCalculated())
+        {
+            calculate();
+            return;
+        }
+
+        calculator = shared.calculator;
+        calculatorMode = shared.calculatorMode();
+        timezone = shared.timezone();
+        todaysCalendar = shared.todaysCalendar;
+        otherCalendar = shared.otherCalendar;
+        date = shared.date;
+        dateOther = shared.dateOther;
+        dayDeltaPrefix = shared.dayDeltaPrefix;
+        calculateDays();
+    }
+
+    /**
+     * Prepare the events (and day lengths) of todaysCalendar and otherCalendar; each day is calculated when
+     * its results are first read (@see calculateDay), so a widget that only shows today doesn't calculate the other day.
+     */
+    protected synchronized void calculateDays()
+    {
+        pendingDataKey = (eventCache != null ? SuntimesEventCache.dataKey(this) : null);
+        pendingTimeMode = timeMode;
+        pendingDays[0] = pendingDays[1] = true;
+
+        sunriseCalendarToday = sunsetCalendarToday = null;
+        sunriseCalendarOther = sunsetCalendarOther = null;
+        dayLengthToday = dayLengthOther = 0L;
+
+        super.calculate();
+    }
+
+    private final boolean[] pendingDays = new boolean[] { false, false };    // [0] today, [1] other; prepared by calculateDays
+    private String pendingDataKey = null;
+    private WidgetSettings.TimeMode pendingTimeMode = null;
+
+    /**
+     * Calculates any results that haven't been read yet.
+     */
+    public void calculatePending()
+    {
+        calculateDay(0);
+        calculateDay(1);
+    }
+
+    /**
+     * Calculates the events (and day length) of a day prepared by calculateDays (if not calculated already).
+     * @param i 0 today, 1 other
+     */
+    protected synchronized void calculateDay(int i)
+    {
+        if (!pendingDays[i]) {
+            return;
+        }
+
+        if (i == 0)
+        {
+            Calendar[] eventsToday = calculateEvents(pendingDataKey, todaysCalendar, pendingTimeMode);
+            sunriseCalendarToday = eventsToday[0];
+            sunsetCalendarToday = eventsToday[1];
+            dayLengthToday = determineDayLength(sunriseCalendarToday, sunsetCalendarToday);
+
+        } else {
+            Calendar[] eventsOther = calculateEvents(pendingDataKey, otherCalendar, pendingTimeMode);
+            sunriseCalendarOther = eventsOther[0];
+            sunsetCalendarOther = eventsOther[1];
+            dayLengthOther = determineDayLength(sunriseCalendarOther, sunsetCalendarOther);
+        }
+        pendingDays[i] = false;    // (after the results are stored)
+    }
+
+    /**
+     * @param dataKey the eventCache key (@see SuntimesEventCache.dataKey), or null to skip the cache
+     * @param day the day to calculate
+     * @return { rise, set } for the current timeMode
+     */
+    protected Calendar[] calculateEvents(String dataKey, Calendar day) {
+        return calculateEvents(dataKey, day, timeMode);
+    }
+
+    /**
+     * @param dataKey the eventCache key (@see SuntimesEventCache.dataKey), or null to skip the cache
+     * @param day the day to calculate
+     * @param timeMode the time mode to calculate
+     * @return { rise, set } for the given timeMode
+     */
+    protected Calendar[] calculateEvents(String dataKey, Calendar day, WidgetSettings.TimeMode timeMode)
+    {
+        if (dataKey != null)
+        {
+            Calendar[] cached = eventCache.getDayEvents(dataKey, timeMode.name(), day);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        Calendar[] events;
+        if (!PolarSeasonIndex.hasEvents(location, day, timeMode))
+        {
+            events = new Calendar[] { null, null };    // perpetual day, night, or twilight; skip the calculator
+            if (dataKey != null) {
+                eventCache.putDayEvents(dataKey, timeMode.name(), day, events);
+            }
+            return events;
+        }
+
+        if (calculator instanceof SuntimesDayCalculator) {
+            ((SuntimesDayCalculator) calculator).prepareDay(day);    // shared by every dataset entry for this day
+        }
 
         switch (timeMode)
         {
             case GOLD:
-                sunriseCalendarToday = calculator.getMorningGoldenHourForDate(todaysCalendar);
-                sunsetCalendarToday = calculator.getEveningGoldenHourForDate(todaysCalendar);
-                sunriseCalendarOther = calculator.getMorningGoldenHourForDate(otherCalendar);
-                sunsetCalendarOther = calculator.getEveningGoldenHourForDate(otherCalendar);
+                events = new Calendar[] { calculator.getMorningGoldenHourForDate(day), calculator.getEveningGoldenHourForDate(day) };
                 break;
 
             case BLUE8:
-                sunriseCalendarToday = calculator.getMorningBlueHourForDate(todaysCalendar)[0];
-                sunsetCalendarToday = calculator.getEveningBlueHourForDate(todaysCalendar)[1];
-                sunriseCalendarOther = calculator.getMorningBlueHourForDate(otherCalendar)[0];
-                sunsetCalendarOther = calculator.getEveningBlueHourForDate(otherCalendar)[1];
+                events = new Calendar[] { calculator.getMorningBlueHourForDate(day)[0], calculator.getEveningBlueHourForDate(day)[1] };
                 break;
 
             case BLUE4:
-                sunriseCalendarToday = calculator.getMorningBlueHourForDate(todaysCalendar)[1];
-                sunsetCalendarToday = calculator.getEveningBlueHourForDate(todaysCalendar)[0];
-                sunriseCalendarOther = calculator.getMorningBlueHourForDate(otherCalendar)[1];
-                sunsetCalendarOther = calculator.getEveningBlueHourForDate(otherCalendar)[0];
+                events = new Calendar[] { calculator.getMorningBlueHourForDate(day)[1], calculator.getEveningBlueHourForDate(day)[0] };
                 break;
 
             case NOON:
-                sunriseCalendarToday = sunsetCalendarToday = calculator.getSolarNoonCalendarForDate(todaysCalendar);
-                sunriseCalendarOther = sunsetCalendarOther = calculator.getSolarNoonCalendarForDate(otherCalendar);
+                Calendar noon = calculator.getSolarNoonCalendarForDate(day);
+                events = new Calendar[] { noon, noon };
                 break;
 
             case CIVIL:
-                sunriseCalendarToday = calculator.getCivilSunriseCalendarForDate(todaysCalendar);
-                sunsetCalendarToday = calculator.getCivilSunsetCalendarForDate(todaysCalendar);
-                sunriseCalendarOther = calculator.getCivilSunriseCalendarForDate(otherCalendar);
-                sunsetCalendarOther = calculator.getCivilSunsetCalendarForDate(otherCalendar);
+                events = new Calendar[] { calculator.getCivilSunriseCalendarForDate(day), calculator.getCivilSunsetCalendarForDate(day) };
                 break;
 
             case NAUTICAL:
-                sunriseCalendarToday = calculator.getNauticalSunriseCalendarForDate(todaysCalendar);
-                sunsetCalendarToday = calculator.getNauticalSunsetCalendarForDate(todaysCalendar);
-                sunriseCalendarOther = calculator.getNauticalSunriseCalendarForDate(otherCalendar);
-                sunsetCalendarOther = calculator.getNauticalSunsetCalendarForDate(otherCalendar);
+                events = new Calendar[] { calculator.getNauticalSunriseCalendarForDate(day), calculator.getNauticalSunsetCalendarForDate(day) };
                 break;
 
             case ASTRONOMICAL:
-                sunriseCalendarToday = calculator.getAstronomicalSunriseCalendarForDate(todaysCalendar);
-                sunsetCalendarToday = calculator.getAstronomicalSunsetCalendarForDate(todaysCalendar);
-                sunriseCalendarOther = calculator.getAstronomicalSunriseCalendarForDate(otherCalendar);
-                sunsetCalendarOther = calculator.getAstronomicalSunsetCalendarForDate(otherCalendar);
+                events = new Calendar[] { calculator.getAstronomicalSunriseCalendarForDate(day), calculator.getAstronomicalSunsetCalendarForDate(day) };
                 break;
 
             case OFFICIAL:
             default:
-                sunriseCalendarToday = calculator.getOfficialSunriseCalendarForDate(todaysCalendar);
-                sunsetCalendarToday = calculator.getOfficialSunsetCalendarForDate(todaysCalendar);
-                sunriseCalendarOther = calculator.getOfficialSunriseCalendarForDate(otherCalendar);
-                sunsetCalendarOther = calculator.getOfficialSunsetCalendarForDate(otherCalendar);
+                events = new Calendar[] { calculator.getOfficialSunriseCalendarForDate(day), calculator.getOfficialSunsetCalendarForDate(day) };
                 break;
         }
 
-        dayLengthToday = determineDayLength(sunriseCalendarToday, sunsetCalendarToday);
-        dayLengthOther = determineDayLength(sunriseCalendarOther, sunsetCalendarOther);
-
-        super.calculate();
+        if (dataKey != null) {
+            eventCache.putDayEvents(dataKey, timeMode.name(), day, events);
+        }
+        return events;
     }
 
     /**
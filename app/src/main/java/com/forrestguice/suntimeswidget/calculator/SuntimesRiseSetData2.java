@@ -240,50 +240,12 @@ public class SuntimesRiseSetData2 extends SuntimesRiseSetData
         date = todaysCalendar.getTime();
         dateOther = otherCalendar.getTime();
 
+        String dataKey = (eventCache != null ? SuntimesEventCache.dataKey(this) : null);
         for (int i=0; i<calendar.length; i++)
         {
-            switch (timeMode)
-            {
-                case GOLD:
-                    sunrise[i] = calculator.getMorningGoldenHourForDate(calendar[i]);
-                    sunset[i] = calculator.getEveningGoldenHourForDate(calendar[i]);
-                    break;
-
-                case BLUE8:
-                    sunrise[i] = calculator.getMorningBlueHourForDate(calendar[i])[0];
-                    sunset[i] = calculator.getEveningBlueHourForDate(calendar[i])[1];
-                    break;
-
-                case BLUE4:
-                    sunrise[i] = calculator.getMorningBlueHourForDate(calendar[i])[1];
-                    sunset[i] = calculator.getEveningBlueHourForDate(calendar[i])[0];
-                    break;
-
-                case NOON:
-                    sunrise[i] = sunset[i] = calculator.getSolarNoonCalendarForDate(calendar[i]);
-                    break;
-
-                case CIVIL:
-                    sunrise[i] = calculator.getCivilSunriseCalendarForDate(calendar[i]);
-                    sunset[i] = calculator.getCivilSunsetCalendarForDate(calendar[i]);
-                    break;
-
-                case NAUTICAL:
-                    sunrise[i] = calculator.getNauticalSunriseCalendarForDate(calendar[i]);
-                    sunset[i] = calculator.getNauticalSunsetCalendarForDate(calendar[i]);
-                    break;
-
-                case ASTRONOMICAL:
-                    sunrise[i] = calculator.getAstronomicalSunriseCalendarForDate(calendar[i]);
-                    sunset[i] = calculator.getAstronomicalSunsetCalendarForDate(calendar[i]);
-                    break;
-
-                case OFFICIAL:
-                default:
-                    sunrise[i] = calculator.getOfficialSunriseCalendarForDate(calendar[i]);
-                    sunset[i] = calculator.getOfficialSunsetCalendarForDate(calendar[i]);
-                    break;
-            }
+            Calendar[] events = calculateEvents(dataKey, calendar[i]);
+            sunrise[i] = events[0];
+            sunset[i] = events[1];
         }
 
         int i = indexOfOther();
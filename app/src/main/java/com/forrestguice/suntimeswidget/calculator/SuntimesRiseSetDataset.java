@@ -102,27 +102,22 @@ public class SuntimesRiseSetDataset
         dataset.add(dataBlue4);
     }
 
+    /**
+     * Calculates every entry in a single pass; dataActual initializes the calculator, timezone, and calendars,
+     * and the other entries share them.
+     */
     public void calculateData()
     {
-        SuntimesCalculator calculator = null;
-        SuntimesCalculatorDescriptor descriptor = null;
+        dataActual.calculate();
+        SuntimesCalculator calculator = dataActual.calculator();
 
-        boolean first = true;
         ArrayList<WidgetSettings.TimeMode> events0 = new ArrayList<WidgetSettings.TimeMode>();
         ArrayList<WidgetSettings.TimeMode> events1 = new ArrayList<WidgetSettings.TimeMode>();
 
         for (SuntimesRiseSetData data : dataset )
         {
-            if (first)
-            {
-                data.calculate();
-                calculator = data.calculator();
-                descriptor = data.calculatorMode();
-                first = false;
-
-            } else {
-                data.setCalculator(calculator, descriptor);
-                data.calculate();
+            if (data != dataActual) {
+                data.calculate(dataActual);
             }
 
             WidgetSettings.TimeMode mode = data.timeMode();
@@ -138,9 +133,9 @@ public class SuntimesRiseSetDataset
             }
         }
 
-        SuntimesCalculator.SunPosition position0 = (calculator != null ? calculator.getSunPosition(nowThen(dataActual.calendar())) : null);
         if (events0.isEmpty())
         {
+            SuntimesCalculator.SunPosition position0 = (calculator != null ? calculator.getSunPosition(nowThen(dataActual.calendar())) : null);    // only needed without events (polar day/night)
             if (position0 == null) {
                 dataActual.dayLengthToday = -1;
                 dataCivil.dayLengthToday = -1;
@@ -157,9 +152,9 @@ public class SuntimesRiseSetDataset
             dataCivil.dayLengthToday = SuntimesData.DAY_MILLIS;
         }
 
-        SuntimesCalculator.SunPosition position1 = (calculator != null ? calculator.getSunPosition(nowThen(dataActual.getOtherCalendar())) : null);
         if (events1.isEmpty())
         {
+            SuntimesCalculator.SunPosition position1 = (calculator != null ? calculator.getSunPosition(nowThen(dataActual.getOtherCalendar())) : null);
             if (position1 == null) {
                 dataActual.dayLengthOther = -1;
                 dataCivil.dayLengthOther = -1;
@@ -182,6 +177,17 @@ public class SuntimesRiseSetDataset
         return dataActual.isCalculated();
     }
 
+    /**
+     * Calculates any results that haven't been read yet (@see SuntimesRiseSetData.calculatePending); used
+     * when calculating in the background so that reading the results later doesn't calculate anything.
+     */
+    public void calculatePending()
+    {
+        for (SuntimesRiseSetData data : dataset) {
+            data.calculatePending();
+        }
+    }
+
     public void invalidateCalculation()
     {
         for (SuntimesRiseSetData data : dataset )
@@ -288,6 +294,13 @@ public class SuntimesRiseSetDataset
         }
     }
 
+    public void setEventCache(SuntimesEventCache cache)
+    {
+        for (SuntimesRiseSetData data : dataset) {
+            data.setEventCache(cache);
+        }
+    }
+
     public TimeZone timezone() {
         return dataActual.timezone();
     }
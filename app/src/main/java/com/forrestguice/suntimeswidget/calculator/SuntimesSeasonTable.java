@@ -0,0 +1,266 @@
+/**
+    Copyright (C) 2022 Forrest Guice
+    This file is part of SuntimesWidget.
+
+    SuntimesWidget is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SuntimesWidget is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SuntimesWidget.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.forrestguice.suntimeswidget.calculator;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.forrestguice.suntimeswidget.BuildConfig;
+import com.forrestguice.suntimeswidget.calculator.core.Location;
+import com.forrestguice.suntimeswidget.calculator.core.SuntimesCalculator;
+import com.forrestguice.suntimeswidget.settings.WidgetSettings;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TimeZone;
+
+/**
+ * A persistent table of equinox/solstice instants; filled lazily (one year at a time) and stored per
+ * calculator and hemisphere. These instants never change for a given calculator, so the table is only
+ * cleared when the app is updated (in case a calculator's implementation has changed). The table holds
+ * at most MAX_YEARS rows; the rows furthest from the current year are evicted first.
+ */
+public class SuntimesSeasonTable
+{
+    public static final String PREFS_SEASONS = "com.forrestguice.suntimeswidget.seasons";
+    public static final String KEY_VERSION = "version";
+    public static final int MAX_YEARS = 256;    // rows (for all calculators and hemispheres)
+
+    public static final WidgetSettings.SolsticeEquinoxMode[] SEASONS = new WidgetSettings.SolsticeEquinoxMode[] {
+            WidgetSettings.SolsticeEquinoxMode.EQUINOX_SPRING, WidgetSettings.SolsticeEquinoxMode.SOLSTICE_SUMMER,
+            WidgetSettings.SolsticeEquinoxMode.EQUINOX_AUTUMNAL, WidgetSettings.SolsticeEquinoxMode.SOLSTICE_WINTER
+    };
+
+    private static SuntimesSeasonTable sharedTable = null;
+    public static synchronized SuntimesSeasonTable getSharedTable(@NonNull Context context)
+    {
+        if (sharedTable == null) {
+            sharedTable = new SuntimesSeasonTable(context.getApplicationContext().getSharedPreferences(PREFS_SEASONS, Context.MODE_PRIVATE));
+        }
+        return sharedTable;
+    }
+
+    private final SharedPreferences prefs;
+
+    public SuntimesSeasonTable(@NonNull SharedPreferences prefs)
+    {
+        this.prefs = prefs;
+        if (prefs.getInt(KEY_VERSION, -1) != BuildConfig.VERSION_CODE)
+        {
+            SharedPreferences.Editor editor = prefs.edit();
+            editor.clear();
+            editor.putInt(KEY_VERSION, BuildConfig.VERSION_CODE);
+            editor.apply();
+        }
+    }
+
+    public void clear()
+    {
+        SharedPreferences.Editor editor = prefs.edit();
+        editor.clear();
+        editor.putInt(KEY_VERSION, BuildConfig.VERSION_CODE);
+        editor.apply();
+    }
+
+    /**
+     * @param calculator a calculator that supports FEATURE_SOLSTICE (its location determines the hemisphere)
+     * @param mode equinox/solstice
+     * @param year a date within the year
+     * @return the event (in the calculator's timezone), or null if unsupported by the calculator
+     */
+    @Nullable
+    public Calendar getEvent(@NonNull SuntimesCalculator calculator, @NonNull WidgetSettings.SolsticeEquinoxMode mode, @NonNull Calendar year)
+    {
+        long[] events = getYear(calculator, year.get(Calendar.YEAR));
+        long millis = (events != null ? events[mode.ordinal()] : 0);
+        if (millis == 0) {
+            return null;
+        }
+        Calendar event = Calendar.getInstance(calculator.getTimeZone() != null ? calculator.getTimeZone() : year.getTimeZone());
+        event.setTimeInMillis(millis);
+        return event;
+    }
+
+    /**
+     * @param calculator a calculator that supports FEATURE_SOLSTICE
+     * @param fromYear first year (inclusive)
+     * @param toYear last year (inclusive)
+     * @return an array of [year][SolsticeEquinoxMode.ordinal()] in millis (a row is null if unsupported)
+     */
+    @NonNull
+    public long[][] getRange(@NonNull SuntimesCalculator calculator, int fromYear, int toYear)
+    {
+        long[][] rows = new long[Math.max(toYear - fromYear + 1, 0)][];
+        HashMap<String, String> calculated = new HashMap<>();
+        for (int i=0; i<rows.length; i++)
+        {
+            String key = yearKey(calculator, fromYear + i);
+            rows[i] = fromString(prefs.getString(key, null));
+            if (rows[i] == null)
+            {
+                rows[i] = calculateYear(calculator, fromYear + i);
+                if (rows[i] != null) {
+                    calculated.put(key, toString(rows[i]));
+                }
+            }
+        }
+        store(calculated);
+        return rows;
+    }
+
+    /**
+     * @return the four events of the year (indexed by SolsticeEquinoxMode.ordinal()), calculating and storing them
+     * if this is the first request; null if unsupported by the calculator
+     */
+    @Nullable
+    public long[] getYear(@NonNull SuntimesCalculator calculator, int year) {
+        return getRange(calculator, year, year)[0];
+    }
+
+    /**
+     * Stores calculated rows (one editor, applied once), evicting previously stored rows (furthest from the
+     * current year first) if the table would exceed MAX_YEARS.
+     */
+    protected synchronized void store(@NonNull Map<String, String> rows)
+    {
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        SharedPreferences.Editor editor = prefs.edit();
+        ArrayList<String> keys = new ArrayList<>(prefs.getAll().keySet());
+        keys.remove(KEY_VERSION);
+        keys.removeAll(rows.keySet());
+
+        int excess = keys.size() + rows.size() - MAX_YEARS;
+        if (excess > 0)
+        {
+            final int thisYear = Calendar.getInstance().get(Calendar.YEAR);
+            Collections.sort(keys, new Comparator<String>()
+            {
+                @Override
+                public int compare(String key1, String key2)
+                {
+                    int distance1 = Math.abs(yearOf(key1) - thisYear);
+                    int distance2 = Math.abs(yearOf(key2) - thisYear);
+                    return (distance1 == distance2 ? 0 : (distance1 > distance2 ? -1 : 1));    // furthest first
+                }
+            });
+            for (int i=0; i<excess && i<keys.size(); i++) {
+                editor.remove(keys.get(i));
+            }
+        }
+
+        for (Map.Entry<String, String> row : rows.entrySet()) {
+            editor.putString(row.getKey(), row.getValue());
+        }
+        editor.apply();
+    }
+
+    @Nullable
+    protected static long[] calculateYear(@NonNull SuntimesCalculator calculator, int year)
+    {
+        TimeZone timezone = calculator.getTimeZone();
+        Calendar date = Calendar.getInstance(timezone != null ? timezone : TimeZone.getDefault());
+        date.set(year, Calendar.JULY, 1, 12, 0, 0);
+
+        long[] events = new long[SEASONS.length];
+        for (WidgetSettings.SolsticeEquinoxMode mode : SEASONS)
+        {
+            Calendar event = calculateEvent(calculator, mode, date);
+            if (event == null) {
+                return null;
+            }
+            events[mode.ordinal()] = event.getTimeInMillis();
+        }
+        return events;
+    }
+
+    @Nullable
+    public static Calendar calculateEvent(@NonNull SuntimesCalculator calculator, @NonNull WidgetSettings.SolsticeEquinoxMode mode, @NonNull Calendar year)
+    {
+        switch (mode)
+        {
+            case EQUINOX_SPRING: return calculator.getSpringEquinoxForYear(year);
+            case SOLSTICE_SUMMER: return calculator.getSummerSolsticeForYear(year);
+            case EQUINOX_AUTUMNAL: return calculator.getAutumnalEquinoxForYear(year);
+            case SOLSTICE_WINTER: default: return calculator.getWinterSolsticeForYear(year);
+        }
+    }
+
+    /**
+     * @return a key identifying the calculator, hemisphere, and year (events don't depend on longitude or timezone)
+     */
+    protected static String yearKey(@NonNull SuntimesCalculator calculator, int year)
+    {
+        Location location = calculator.getLocation();
+        boolean southern = (location != null && location.getLatitudeAsDouble() < 0);
+        return calculator.name() + (southern ? "|S|" : "|N|") + year;
+    }
+
+    protected static int yearOf(@NonNull String yearKey)
+    {
+        try {
+            return Integer.parseInt(yearKey.substring(yearKey.lastIndexOf('|') + 1));
+        } catch (NumberFormatException e) {
+            return Integer.MIN_VALUE / 2;    // unknown rows are evicted first
+        }
+    }
+
+    protected static String toString(long[] events)
+    {
+        StringBuilder s = new StringBuilder();
+        for (int i=0; i<events.length; i++)
+        {
+            if (i > 0) {
+                s.append(",");
+            }
+            s.append(events[i]);
+        }
+        return s.toString();
+    }
+
+    @Nullable
+    protected static long[] fromString(@Nullable String value)
+    {
+        if (value == null) {
+            return null;
+        }
+        String[] parts = value.split(",");
+        if (parts.length != SEASONS.length) {
+            return null;
+        }
+        try {
+            long[] events = new long[parts.length];
+            for (int i=0; i<parts.length; i++) {
+                events[i] = Long.parseLong(parts[i]);
+            }
+            return events;
+
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/**
+    Copyright (C) 2022 Forrest Guice
+    This file is part of SuntimesWidget.
+
+    SuntimesWidget is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SuntimesWidget is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SuntimesWidget.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.forrestguice.suntimeswidget.calculator.core;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+/**
+ * An optional extension of SuntimesCalculator; implemented by calculators that can prepare the
+ * date-dependent part of a calculation once, and reuse it for every event on that date.
+ *
+ * Calling prepareDay is optional (implementations may also prepare dates on demand); callers that are
+ * about to request several events for the same date should call it first.
+ */
+public interface SuntimesDayCalculator extends SuntimesCalculator
+{
+    /**
+     * @param date a Calendar representing a given date
+     * @return the prepared context for the date (in the calculator's timezone); retained by the calculator
+     * and reused by subsequent calls for the same date
+     */
+    DayContext prepareDay(Calendar date);
+
+    /**
+     * DayContext; the date-dependent values shared by every event on a (local) date.
+     */
+    class DayContext
+    {
+        public static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+        public static final double JD_UNIX_EPOCH = 2440587.5;
+
+        public final long day;             // local date (days since 1970-01-01)
+        public final int offset;           // timezone offset (millis)
+        public final double julianDay;     // julian day at 0h UT of the date
+        protected double declination = Double.NaN;       // degrees (near local noon)
+        protected double equationOfTime = Double.NaN;    // seconds (near local noon)
+
+        public DayContext(long day, int offset)
+        {
+            this.day = day;
+            this.offset = offset;
+            this.julianDay = day + JD_UNIX_EPOCH;
+        }
+
+        /**
+         * @return the sun's declination (degrees) near local noon, or NaN if unavailable
+         */
+        public double declination() {
+            return declination;
+        }
+
+        /**
+         * @return the equation of time (seconds) near local noon, or NaN if unavailable
+         */
+        public double equationOfTime() {
+            return equationOfTime;
+        }
+
+        /**
+         * @return the time (millis) of local (clock) noon
+         */
+        public long noonMillis() {
+            return (day * DAY_MILLIS) - offset + (DAY_MILLIS / 2);
+        }
+
+        /**
+         * @return the local date (days since 1970-01-01) of the given time
+         */
+        public static long localDay(long millis, TimeZone timezone) {
+            return localDay(millis, timezone.getOffset(millis));
+        }
+        public static long localDay(long millis, int offset)
+        {
+            long local = millis + offset;
+            long day = local / DAY_MILLIS;
+            return ((local % DAY_MILLIS) < 0 ? day - 1 : day);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/**
+    Copyright (C) 2022 Forrest Guice
+    This file is part of SuntimesWidget.
+
+    SuntimesWidget is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SuntimesWidget is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SuntimesWidget.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.forrestguice.suntimeswidget.calculator.core;
+
+/**
+ * An optional extension of SuntimesCalculator; implemented by calculators that can trade precision
+ * for speed. Calculators that don't implement it always calculate at full (SCIENTIFIC) precision.
+ *
+ * The precision applies to rise, set, twilight, and noon times; other features (position, seasons, moon)
+ * are always calculated at full precision.
+ */
+public interface SuntimesPrecisionCalculator extends SuntimesCalculator
+{
+    /**
+     * @param precision the precision of subsequent calculations
+     */
+    void setPrecision(Precision precision);
+
+    /**
+     * @return the current precision (SCIENTIFIC by default)
+     */
+    Precision getPrecision();
+
+    /**
+     * Precision; a tier of precision (and speed), and the maximum error allowed by that tier (relative to
+     * SCIENTIFIC results from the same calculator).
+     */
+    enum Precision
+    {
+        WIDGET(60 * 1000),       // within a minute; times displayed without seconds
+        ALARM(5 * 1000),         // within a few seconds; alarms and notifications
+        SCIENTIFIC(0);           // full precision (default)
+
+        private final long maxErrorMillis;
+
+        private Precision(long maxErrorMillis) {
+            this.maxErrorMillis = maxErrorMillis;
+        }
+
+        /**
+         * @return the maximum error (millis) of this tier, relative to SCIENTIFIC
+         */
+        public long getMaxErrorMillis() {
+            return maxErrorMillis;
+        }
+    }
+}
@@ -0,0 +1,628 @@
+/**
+    Copyright (C) 2022 Forrest Guice
+    This file is part of SuntimesWidget.
+
+    SuntimesWidget is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SuntimesWidget is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SuntimesWidget.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.forrestguice.suntimeswidget.calculator.noaa;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.forrestguice.suntimeswidget.R;
+import com.forrestguice.suntimeswidget.calculator.SuntimesCalculatorDescriptor;
+import com.forrestguice.suntimeswidget.calculator.core.Location;
+import com.forrestguice.suntimeswidget.calculator.core.SuntimesCalculator;
+import com.forrestguice.suntimeswidget.calculator.core.SuntimesDayCalculator;
+import com.forrestguice.suntimeswidget.calculator.core.SuntimesPrecisionCalculator;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+/**
+ * A calculator that follows the algorithms published by NOAA (solar position and sunrise/sunset), and
+ * by Jean Meeus (equinox/solstice), using plain double math. It doesn't depend on a third-party library,
+ * and doesn't allocate anything other than the returned results.
+ *
+ * Intermediate results are kept in fields rather than allocated per call; the methods that use them are
+ * synchronized, so an instance can be shared between threads (e.g. a map drawn in the background).
+ *
+ * Rise, set, and twilight times are refined by iteration (@see eventMillis); the tolerance of the
+ * iteration depends on the precision (@see setPrecision).
+ */
+public class NOAASuntimesCalculator implements SuntimesDayCalculator, SuntimesPrecisionCalculator
+{
+    public static final String NAME = "suntimes-noaa";
+    public static final String REF = "com.forrestguice.suntimeswidget.calculator.noaa.NOAASuntimesCalculator";
+    public static final String LINK = "gml.noaa.gov/grad/solcalc";
+    public static final int[] FEATURES = new int[] { FEATURE_RISESET, FEATURE_SOLSTICE, FEATURE_ALTITUDE, FEATURE_GOLDBLUE, FEATURE_POSITION };
+
+    public static final double ZENITH_OFFICIAL = 90.833;    // refraction and semi-diameter
+    public static final double ZENITH_CIVIL = 96;
+    public static final double ZENITH_NAUTICAL = 102;
+    public static final double ZENITH_ASTRONOMICAL = 108;
+
+    public static final double SUN_ALTITUDE_GOLDEN = 6.0;
+    public static final double SUN_ALTITUDE_BLUE_HIGH = 8.0;
+    public static final double SUN_ALTITUDE_BLUE_LOW = 4.0;
+
+    public static final int ALTITUDE_MIN = 0;
+    public static final int ALTITUDE_MAX = 10999;
+
+    protected static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+    protected static final double JD_UNIX_EPOCH = 2440587.5;
+    protected static final double JD_J2000 = 2451545.0;
+    protected static final int ITERATIONS = 3;
+    protected static final double TOLERANCE_WIDGET = 0.5;         // minutes; stop iterating early once the estimate changes by less than this (the error is smaller still)
+    protected static final double TOLERANCE_ALARM = 0.05;
+    protected static final double TOLERANCE_SCIENTIFIC = 0;       // (always ITERATIONS)
+    protected static final long NONE = Long.MIN_VALUE;
+
+    protected Location location;
+    protected TimeZone timezone;
+    protected double latitude, longitude;    // degrees
+    protected double sinLatitude, cosLatitude;
+    protected double geodeticAngle;          // horizon dip (degrees)
+
+    protected double sunDeclination;         // radians; set by solar()
+    protected double sunRightAscension;      // degrees; set by solar()
+    protected double equationOfTime;         // minutes; set by solar()
+    protected double sunAzimuth, sunElevation;    // degrees (without refraction); set by position()
+
+    private final NOAADayContext[] days = new NOAADayContext[2];    // (today and the other day)
+    private int nextDay = 0;
+
+    protected Precision precision = Precision.SCIENTIFIC;
+    protected double tolerance = TOLERANCE_SCIENTIFIC;
+
+    public NOAASuntimesCalculator() { /* EMPTY */ }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public int[] getSupportedFeatures() {
+        return FEATURES;
+    }
+
+    public static SuntimesCalculatorDescriptor getDescriptor()
+    {
+        return new SuntimesCalculatorDescriptor(NOAASuntimesCalculator.NAME, NOAASuntimesCalculator.LINK, NOAASuntimesCalculator.REF, R.string.calculator_displayString_noaa, NOAASuntimesCalculator.FEATURES);
+    }
+
+    @Override
+    public void init(Location location, String timezone) {
+        init(location, TimeZone.getTimeZone(timezone));
+    }
+
+    @Override
+    public void init(Location location, TimeZone timezone) {
+        init(location, timezone, null);
+    }
+
+    @Override
+    public synchronized void init(Location location, TimeZone timezone, Context context)
+    {
+        this.location = location;
+        this.timezone = timezone;
+        this.latitude = Math.max(-90, Math.min(90, location.getLatitudeAsDouble()));
+        this.longitude = location.getLongitudeAsDouble();
+        this.sinLatitude = Math.sin(Math.toRadians(latitude));
+        this.cosLatitude = Math.cos(Math.toRadians(latitude));
+        this.geodeticAngle = 0.0347 * Math.sqrt(clampAltitude(location.getAltitudeAsInteger()));
+        days[0] = days[1] = null;
+    }
+
+    public static int clampAltitude(int value)
+    {
+        if (value > ALTITUDE_MAX) {
+            Log.w("clampAltitude", "altitude of " + value + " is greater than " + ALTITUDE_MAX + "! clamping value..");
+            return ALTITUDE_MAX;
+
+        } else if (value < ALTITUDE_MIN) {
+            return ALTITUDE_MIN;
+        }
+        return value;
+    }
+
+    @Override
+    public Location getLocation() {
+        return location;
+    }
+
+    @Override
+    public TimeZone getTimeZone() {
+        return timezone;
+    }
+
+    @Override
+    public synchronized void setPrecision(Precision value)
+    {
+        precision = (value != null ? value : Precision.SCIENTIFIC);
+        switch (precision)
+        {
+            case WIDGET: tolerance = TOLERANCE_WIDGET; break;
+            case ALARM: tolerance = TOLERANCE_ALARM; break;
+            case SCIENTIFIC: default: tolerance = TOLERANCE_SCIENTIFIC; break;
+        }
+    }
+
+    @Override
+    public Precision getPrecision() {
+        return precision;
+    }
+
+    @Override
+    public DayContext prepareDay(Calendar date) {
+        return dayContext(date.getTimeInMillis());
+    }
+
+    protected synchronized NOAADayContext dayContext(long millis)
+    {
+        int offset = timezone.getOffset(millis);
+        long day = DayContext.localDay(millis, offset);
+        for (NOAADayContext context : days)
+        {
+            if (context != null && context.day == day && context.offset == offset) {
+                return context;
+            }
+        }
+        NOAADayContext context = new NOAADayContext(day, offset);
+        days[nextDay] = context;
+        nextDay = (nextDay + 1) % days.length;
+        return context;
+    }
+
+    /**
+     * NOAADayContext; retains the solar values at local mean noon (the first iteration of every event on the date).
+     *
+     * Event times are measured from 0h UT of noonDay; the UT date whose local mean noon is nearest to local
+     * (clock) noon. This is usually the same as the local date, but not in zones that are far from their
+     * solar offset (e.g. Pacific/Kiritimati), where it would otherwise give the neighbouring day's events.
+     */
+    public class NOAADayContext extends DayContext
+    {
+        protected final double noonMinutes;    // UTC minutes (local mean noon)
+        protected final long noonDay;          // UT date (days since 1970-01-01) that noonMinutes is measured from
+        protected final double noonJulianDay;  // julian day at 0h UT of noonDay
+        protected final double noonDeclination, noonEquationOfTime;    // radians, minutes
+
+        public NOAADayContext(long day, int offset)
+        {
+            super(day, offset);
+            noonMinutes = 720 - (4 * longitude);
+            noonDay = floorDiv(noonMillis() - Math.round(noonMinutes * 60000) + (DAY_MILLIS / 2), DAY_MILLIS);
+            noonJulianDay = noonDay + JD_UNIX_EPOCH;
+            solar(noonJulianDay + (noonMinutes / 1440.0));
+            noonDeclination = sunDeclination;
+            noonEquationOfTime = NOAASuntimesCalculator.this.equationOfTime;    // (shadowed by DayContext.equationOfTime)
+            declination = Math.toDegrees(noonDeclination);
+            equationOfTime = noonEquationOfTime * 60;
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // rise, set, twilight
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public Calendar getAstronomicalSunriseCalendarForDate(Calendar date) {
+        return toCalendar(eventMillis(date, ZENITH_ASTRONOMICAL + geodeticAngle, true));
+    }
+
+    @Override
+    public Calendar getNauticalSunriseCalendarForDate(Calendar date) {
+        return toCalendar(eventMillis(date, ZENITH_NAUTICAL + geodeticAngle, true));
+    }
+
+    @Override
+    public Calendar getCivilSunriseCalendarForDate(Calendar date) {
+        return toCalendar(eventMillis(date, ZENITH_CIVIL + geodeticAngle, true));
+    }
+
+    @Override
+    public Calendar getOfficialSunriseCalendarForDate(Calendar date) {
+        return toCalendar(eventMillis(date, ZENITH_OFFICIAL + geodeticAngle, true));
+    }
+
+    @Override
+    public Calendar getSolarNoonCalendarForDate(Calendar date) {
+        return toCalendar(eventMillis(date, Double.NaN, true));
+    }
+
+    @Override
+    public Calendar getOfficialSunsetCalendarForDate(Calendar date) {
+        return toCalendar(eventMillis(date, ZENITH_OFFICIAL + geodeticAngle, false));
+    }
+
+    @Override
+    public Calendar getCivilSunsetCalendarForDate(Calendar date) {
+        return toCalendar(eventMillis(date, ZENITH_CIVIL + geodeticAngle, false));
+    }
+
+    @Override
+    public Calendar getNauticalSunsetCalendarForDate(Calendar date) {
+        return toCalendar(eventMillis(date, ZENITH_NAUTICAL + geodeticAngle, false));
+    }
+
+    @Override
+    public Calendar getAstronomicalSunsetCalendarForDate(Calendar date) {
+        return toCalendar(eventMillis(date, ZENITH_ASTRONOMICAL + geodeticAngle, false));
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // blue hour, golden hour
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public Calendar[] getMorningBlueHourForDate(Calendar date)
+    {
+        return new Calendar[] { toCalendar(eventMillis(date, 90 + geodeticAngle + SUN_ALTITUDE_BLUE_HIGH, true)),
+                                toCalendar(eventMillis(date, 90 + geodeticAngle + SUN_ALTITUDE_BLUE_LOW, true)) };
+    }
+
+    @Override
+    public Calendar[] getEveningBlueHourForDate(Calendar date)
+    {
+        return new Calendar[] { toCalendar(eventMillis(date, 90 + geodeticAngle + SUN_ALTITUDE_BLUE_LOW, false)),
+                                toCalendar(eventMillis(date, 90 + geodeticAngle + SUN_ALTITUDE_BLUE_HIGH, false)) };
+    }
+
+    @Override
+    public Calendar getMorningGoldenHourForDate(Calendar date) {
+        return toCalendar(eventMillis(date, 90 + geodeticAngle - SUN_ALTITUDE_GOLDEN, true));
+    }
+
+    @Override
+    public Calendar getEveningGoldenHourForDate(Calendar date) {
+        return toCalendar(eventMillis(date, 90 + geodeticAngle - SUN_ALTITUDE_GOLDEN, false));
+    }
+
+    @Override
+    public synchronized boolean isDay(Calendar dateTime)
+    {
+        position(dateTime.getTimeInMillis());
+        return sunElevation > (90 - ZENITH_OFFICIAL - geodeticAngle);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // position
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public synchronized SunPosition getSunPosition(Calendar dateTime)
+    {
+        position(dateTime.getTimeInMillis());
+        SunPosition result = new SunPosition();
+        result.azimuth = sunAzimuth;
+        result.elevation = sunElevation + refraction(sunElevation);
+        result.rightAscension = sunRightAscension;
+        result.declination = Math.toDegrees(sunDeclination);
+        return result;
+    }
+
+    @Override
+    public synchronized double getShadowLength(double objHeight, Calendar dateTime)
+    {
+        position(dateTime.getTimeInMillis());
+        double elevation = sunElevation + refraction(sunElevation);
+        if (elevation <= 0) {
+            return Double.POSITIVE_INFINITY;
+        } else if (elevation >= 90) {
+            return 0;
+        } else return objHeight / Math.tan(Math.toRadians(elevation));
+    }
+
+    /**
+     * @return the equation of time (seconds)
+     */
+    @Override
+    public synchronized double equationOfTime(Calendar dateTime)
+    {
+        solar(toJulianDay(dateTime.getTimeInMillis()));
+        return equationOfTime * 60;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // equinox, solstice
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public Calendar getVernalEquinoxForYear(Calendar date) {
+        return getSpringEquinoxForYear(date);
+    }
+
+    @Override
+    public Calendar getSpringEquinoxForYear(Calendar date) {
+        return toCalendar(seasonMillis(date.get(Calendar.YEAR), (latitude >= 0 ? 0 : 2)));
+    }
+
+    @Override
+    public Calendar getSummerSolsticeForYear(Calendar date) {
+        return toCalendar(seasonMillis(date.get(Calendar.YEAR), (latitude >= 0 ? 1 : 3)));
+    }
+
+    @Override
+    public Calendar getAutumnalEquinoxForYear(Calendar date) {
+        return toCalendar(seasonMillis(date.get(Calendar.YEAR), (latitude >= 0 ? 2 : 0)));
+    }
+
+    @Override
+    public Calendar getWinterSolsticeForYear(Calendar date) {
+        return toCalendar(seasonMillis(date.get(Calendar.YEAR), (latitude >= 0 ? 3 : 1)));
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // moon (unsupported)
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public MoonTimes getMoonTimesForDate(Calendar date) {
+        return null;
+    }
+
+    @Override
+    public double getMoonIlluminationForDate(Calendar dateTime) {
+        return -1;
+    }
+
+    @Override
+    public Calendar getMoonPhaseNextDate(MoonPhase phase, Calendar date) {
+        return null;
+    }
+
+    @Override
+    public MoonPosition getMoonPosition(Calendar dateTime) {
+        return null;
+    }
+
+    @Override
+    public Calendar getMoonPerigeeNextDate(Calendar date) {
+        return null;
+    }
+
+    @Override
+    public Calendar getMoonApogeeNextDate(Calendar date) {
+        return null;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // algorithms
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Sets sunDeclination, sunRightAscension, and equationOfTime (NOAA).
+     * @param jd julian day
+     */
+    protected void solar(double jd)
+    {
+        double t = (jd - JD_J2000) / 36525.0;
+        double l0 = normalize(280.46646 + t * (36000.76983 + t * 0.0003032));
+        double m = Math.toRadians(357.52911 + t * (35999.05029 - 0.0001537 * t));
+        double e = 0.016708634 - t * (0.000042037 + 0.0000001267 * t);
+        double c = Math.sin(m) * (1.914602 - t * (0.004817 + 0.000014 * t)) + Math.sin(2 * m) * (0.019993 - 0.000101 * t) + Math.sin(3 * m) * 0.000289;
+        double omega = Math.toRadians(125.04 - 1934.136 * t);
+        double lambda = Math.toRadians(l0 + c - 0.00569 - 0.00478 * Math.sin(omega));
+        double seconds = 21.448 - t * (46.815 + t * (0.00059 - t * 0.001813));
+        double epsilon = Math.toRadians(23.0 + (26.0 + (seconds / 60.0)) / 60.0 + 0.00256 * Math.cos(omega));
+
+        double sinLambda = Math.sin(lambda);
+        sunDeclination = Math.asin(Math.sin(epsilon) * sinLambda);
+        sunRightAscension = normalize(Math.toDegrees(Math.atan2(Math.cos(epsilon) * sinLambda, Math.cos(lambda))));
+
+        double y = Math.tan(epsilon / 2);
+        y *= y;
+        double l0r = Math.toRadians(l0);
+        double sinM = Math.sin(m);
+        equationOfTime = 4 * Math.toDegrees(y * Math.sin(2 * l0r) - 2 * e * sinM + 4 * e * y * sinM * Math.cos(2 * l0r)
+                - 0.5 * y * y * Math.sin(4 * l0r) - 1.25 * e * e * Math.sin(2 * m));
+    }
+
+    /**
+     * Sets sunAzimuth and sunElevation (without refraction), and the fields set by solar().
+     * @param millis time
+     */
+    protected void position(long millis)
+    {
+        solar(toJulianDay(millis));
+        double minutes = (double) floorMod(millis, DAY_MILLIS) / 60000.0;
+        double trueSolarTime = minutes + equationOfTime + (4 * longitude);
+        double hourAngle = Math.toRadians((trueSolarTime / 4.0) - 180);
+
+        double sinDeclination = Math.sin(sunDeclination);
+        double cosDeclination = Math.cos(sunDeclination);
+        double cosZenith = (sinLatitude * sinDeclination) + (cosLatitude * cosDeclination * Math.cos(hourAngle));
+        sunElevation = 90 - Math.toDegrees(Math.acos(Math.max(-1, Math.min(1, cosZenith))));
+
+        double azimuth = Math.toDegrees(Math.atan2(Math.sin(hourAngle), (Math.cos(hourAngle) * sinLatitude) - (Math.tan(sunDeclination) * cosLatitude)));
+        sunAzimuth = normalize(azimuth + 180);
+    }
+
+    /**
+     * @param elevation degrees
+     * @return atmospheric refraction (degrees) (NOAA)
+     */
+    protected static double refraction(double elevation)
+    {
+        if (elevation > 85) {
+            return 0;
+        }
+        double te = Math.tan(Math.toRadians(elevation));
+        double arcseconds;
+        if (elevation > 5) {
+            arcseconds = (58.1 / te) - (0.07 / (te * te * te)) + (0.000086 / (te * te * te * te * te));
+        } else if (elevation > -0.575) {
+            arcseconds = 1735 + elevation * (-518.2 + elevation * (103.4 + elevation * (-12.79 + elevation * 0.711)));
+        } else {
+            arcseconds = -20.774 / te;
+        }
+        return arcseconds / 3600.0;
+    }
+
+    /**
+     * @param date the (local) date
+     * @param zenith the zenith angle of the event (degrees), or NaN for solar noon
+     * @param rising true morning event, false evening event
+     * @return the time of the event (millis), or NONE if the sun doesn't reach this zenith angle on the date
+     *
+     * The event is the one nearest local (clock) noon of the date (@see NOAADayContext).
+     * The first iteration uses the solar values at local mean noon (from the DayContext), each following
+     * iteration recalculates them at the previous estimate. SCIENTIFIC always uses ITERATIONS; the other
+     * precisions stop early once the estimate changes by less than their tolerance.
+     */
+    protected synchronized long eventMillis(Calendar date, double zenith, boolean rising)
+    {
+        NOAADayContext context = dayContext(date.getTimeInMillis());
+        long day = context.noonDay;
+        double jd0 = context.noonJulianDay;
+
+        double cosZenith = Math.cos(Math.toRadians(zenith));
+        double minutes = context.noonMinutes;
+        double cosH = 0;
+        for (int i=0; i<ITERATIONS; i++)
+        {
+            double previous = minutes;
+            if (i == 0)
+            {
+                sunDeclination = context.noonDeclination;
+                equationOfTime = context.noonEquationOfTime;
+            } else solar(jd0 + (minutes / 1440.0));
+            double transit = 720 - (4 * longitude) - equationOfTime;
+            if (Double.isNaN(zenith)) {
+                minutes = transit;
+
+            } else {
+                cosH = (cosZenith - (sinLatitude * Math.sin(sunDeclination))) / (cosLatitude * Math.cos(sunDeclination));
+                double hourAngle = Math.toDegrees(Math.acos(Math.max(-1, Math.min(1, cosH))));
+                minutes = transit + (rising ? -4 * hourAngle : 4 * hourAngle);
+            }
+            if (i > 0 && Math.abs(minutes - previous) < tolerance) {
+                break;
+            }
+        }
+        if (cosH > 1 || cosH < -1 || Double.isNaN(cosH)) {
+            return NONE;
+        }
+        return Math.round((day * DAY_MILLIS) + (minutes * 60000));
+    }
+
+    /**
+     * @param year year
+     * @param season 0 march equinox, 1 june solstice, 2 september equinox, 3 december solstice
+     * @return the time of the event (millis) (Meeus, chapter 27)
+     */
+    protected static long seasonMillis(int year, int season)
+    {
+        double y = (year - 2000) / 1000.0;
+        double[] a = SEASON_MEAN[season];
+        double jde0 = a[0] + y * (a[1] + y * (a[2] + y * (a[3] + y * a[4])));
+
+        double t = (jde0 - JD_J2000) / 36525.0;
+        double w = Math.toRadians((35999.373 * t) - 2.47);
+        double dl = 1 + (0.0334 * Math.cos(w)) + (0.0007 * Math.cos(2 * w));
+
+        double s = 0;
+        for (int i=0; i<SEASON_TERMS.length; i += 3) {
+            s += SEASON_TERMS[i] * Math.cos(Math.toRadians(SEASON_TERMS[i + 1] + (SEASON_TERMS[i + 2] * t)));
+        }
+
+        double jde = jde0 + ((0.00001 * s) / dl);
+        double jd = jde - (deltaT(year) / 86400.0);
+        return Math.round((jd - JD_UNIX_EPOCH) * DAY_MILLIS);
+    }
+
+    private static final double[][] SEASON_MEAN = new double[][] {
+            { 2451623.80984, 365242.37404, 0.05169, -0.00411, -0.00057 },
+            { 2451716.56767, 365241.62603, 0.00325, 0.00888, -0.00030 },
+            { 2451810.21715, 365242.01767, -0.11575, 0.00337, 0.00078 },
+            { 2451900.05952, 365242.74049, -0.06223, -0.00823, 0.00032 }
+    };
+
+    private static final double[] SEASON_TERMS = new double[] {    // A, B, C
+            485, 324.96, 1934.136,    203, 337.23, 32964.467,    199, 342.08, 20.186,    182, 27.85, 445267.112,
+            156, 73.14, 45036.886,    136, 171.52, 22518.443,    77, 222.54, 65928.934,     74, 296.72, 3034.906,
+            70, 243.58, 9037.513,     58, 119.81, 33718.147,     52, 297.17, 150.678,       50, 21.02, 2281.226,
+            45, 247.54, 29929.562,    44, 325.15, 31555.956,     29, 60.93, 4443.417,       18, 155.12, 67555.328,
+            17, 288.79, 4562.452,     16, 198.04, 62894.029,     14, 199.76, 31436.921,     12, 95.39, 14577.848,
+            12, 287.11, 31931.756,    12, 320.81, 34777.259,     9, 227.73, 1222.114,       8, 15.45, 16859.074
+    };
+
+    /**
+     * @return TT - UT (seconds) (Espenak and Meeus polynomials)
+     */
+    protected static double deltaT(int year)
+    {
+        double t;
+        if (year >= 2005 && year < 2050) {
+            t = year - 2000;
+            return 62.92 + t * (0.32217 + t * 0.005589);
+
+        } else if (year >= 1986 && year < 2005) {
+            t = year - 2000;
+            return 63.86 + t * (0.3345 + t * (-0.060374 + t * (0.0017275 + t * (0.000651814 + t * 0.00002373599))));
+
+        } else if (year >= 1961 && year < 1986) {
+            t = year - 1975;
+            return 45.45 + (1.067 * t) - (t * t / 260) - (t * t * t / 718);
+
+        } else if (year >= 1941 && year < 1961) {
+            t = year - 1950;
+            return 29.07 + (0.407 * t) - (t * t / 233) + (t * t * t / 2547);
+
+        } else if (year >= 2050 && year < 2150) {
+            double u = (year - 1820) / 100.0;
+            return -20 + (32 * u * u) - (0.5628 * (2150 - year));
+
+        } else {
+            double u = (year - 1820) / 100.0;
+            return -20 + (32 * u * u);
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    protected static double toJulianDay(long millis) {
+        return ((double) millis / DAY_MILLIS) + JD_UNIX_EPOCH;
+    }
+
+    protected Calendar toCalendar(long millis)
+    {
+        if (millis == NONE) {
+            return null;
+        }
+        Calendar calendar = Calendar.getInstance(timezone);
+        calendar.setTimeInMillis(millis);
+        return calendar;
+    }
+
+    protected static double normalize(double degrees)
+    {
+        degrees %= 360;
+        return (degrees < 0 ? degrees + 360 : degrees);
+    }
+
+    protected static long floorDiv(long x, long y)
+    {
+        long q = x / y;
+        return ((x % y) < 0 ? q - 1 : q);
+    }
+
+    protected static long floorMod(long x, long y) {
+        return x - (floorDiv(x, y) * y);
+    }
+}
@@ -22,6 +22,7 @@ import android.content.Context;
 import android.util.Log;
 
 import com.forrestguice.suntimeswidget.calculator.core.SuntimesCalculator;
+import com.forrestguice.suntimeswidget.calculator.core.SuntimesDayCalculator;
 import com.forrestguice.suntimeswidget.calculator.core.Location;
 
 import net.time4j.Moment;
@@ -36,15 +37,19 @@ import net.time4j.calendar.astro.StdSolarCalculator;
 import net.time4j.calendar.astro.Twilight;
 import net.time4j.engine.CalendarDate;
 import net.time4j.engine.ChronoFunction;
+import net.time4j.engine.EpochDays;
 import net.time4j.tz.TZID;
 import net.time4j.tz.Timezone;
-import net.time4j.tz.ZonalOffset;
 
 import java.util.Calendar;
+import java.util.EnumMap;
 import java.util.GregorianCalendar;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.TimeZone;
 
-public abstract class Time4ASuntimesCalculator implements SuntimesCalculator
+public abstract class Time4ASuntimesCalculator implements SuntimesDayCalculator
 {
     public static final int[] FEATURES = new int[] { FEATURE_RISESET, FEATURE_SOLSTICE, FEATURE_GOLDBLUE, FEATURE_POSITION };
 
@@ -54,6 +59,17 @@ public abstract class Time4ASuntimesCalculator implements SuntimesCalculator
     protected TimeZone timezone;
     protected Location location;
 
+    protected SolarTime.Calculator solarCalculator;
+    protected double latitude, longitude, geodeticAngle;    // (cached by init)
+
+    private ChronoFunction<CalendarDate, Moment> sunriseFunction, sunsetFunction, noonFunction;    // (built by init; read-only afterward)
+    private final EnumMap<Twilight, ChronoFunction<CalendarDate, Moment>> twilightRiseFunctions = new EnumMap<>(Twilight.class);
+    private final EnumMap<Twilight, ChronoFunction<CalendarDate, Moment>> twilightSetFunctions = new EnumMap<>(Twilight.class);
+    private final HashMap<String, Timezone> timezones = new HashMap<>();    // (synchronized)
+    private final HashMap<String, ChronoFunction<CalendarDate, SolarTime.Sunshine>> sunshineFunctions = new HashMap<>();
+    private final Time4ADayContext[] days = new Time4ADayContext[2];    // (today and the other day; synchronized)
+    private int nextDay = 0;
+
     @Override
     public int[] getSupportedFeatures()
     {
@@ -78,6 +94,90 @@ public abstract class Time4ASuntimesCalculator implements SuntimesCalculator
         this.solarTime = SolarTime.ofLocation(location.getLatitudeAsDouble(), location.getLongitudeAsDouble(), clampAltitude(location.getAltitudeAsInteger()), getCalculator());
         this.timezone = timezone;
         this.location = location;
+
+        this.solarCalculator = solarTime.getCalculator();
+        this.latitude = solarTime.getLatitude();
+        this.longitude = solarTime.getLongitude();
+        this.geodeticAngle = solarCalculator.getGeodeticAngle(latitude, clampAltitude(solarTime.getAltitude()));
+
+        sunriseFunction = solarTime.sunrise();
+        sunsetFunction = solarTime.sunset();
+        noonFunction = solarTime.transitAtNoon();
+        for (Twilight twilight : Twilight.values())
+        {
+            twilightRiseFunctions.put(twilight, solarTime.sunrise(twilight));
+            twilightSetFunctions.put(twilight, solarTime.sunset(twilight));
+        }
+        synchronized (sunshineFunctions) {
+            sunshineFunctions.clear();
+        }
+        synchronized (this)
+        {
+            days[0] = days[1] = null;
+            nextDay = 0;
+        }
+    }
+
+    @Override
+    public DayContext prepareDay(Calendar date) {
+        return dayContext(date.getTimeInMillis());
+    }
+
+    protected synchronized Time4ADayContext dayContext(long millis)
+    {
+        int offset = timezone.getOffset(millis);
+        long day = DayContext.localDay(millis, offset);
+        for (Time4ADayContext context : days)
+        {
+            if (context != null && context.day == day && context.offset == offset) {
+                return context;
+            }
+        }
+        Time4ADayContext context = new Time4ADayContext(day, offset);
+        days[nextDay] = context;
+        nextDay = (nextDay + 1) % days.length;
+        return context;
+    }
+
+    /**
+     * Time4ADayContext; adds the PlainDate (shared by every event on that date), and the declination and
+     * equation of time at local (clock) noon (calculated once per date).
+     */
+    public class Time4ADayContext extends DayContext
+    {
+        public final PlainDate date;
+
+        public Time4ADayContext(long day, int offset)
+        {
+            super(day, offset);
+            this.date = PlainDate.of(day, EpochDays.UNIX);
+
+            Moment noon = TemporalType.JAVA_UTIL_DATE.translate(new java.util.Date(noonMillis()));
+            declination = net.time4j.calendar.astro.SunPosition.at(noon, solarTime).getDeclination();
+            equationOfTime = SolarTime.equationOfTime(noon, solarTime.getCalculator().name());
+        }
+    }
+
+    /**
+     * @param twilight twilight kind, or null for official sunrise
+     * @return a sunrise function (built by init)
+     */
+    protected ChronoFunction<CalendarDate, Moment> sunrise(Twilight twilight)
+    {
+        return (twilight == null ? sunriseFunction : twilightRiseFunctions.get(twilight));
+    }
+
+    /**
+     * @param twilight twilight kind, or null for official sunset
+     * @return a sunset function (built by init)
+     */
+    protected ChronoFunction<CalendarDate, Moment> sunset(Twilight twilight)
+    {
+        return (twilight == null ? sunsetFunction : twilightSetFunctions.get(twilight));
+    }
+
+    protected ChronoFunction<CalendarDate, Moment> noon() {
+        return noonFunction;
     }
 
     @Override
@@ -110,127 +210,99 @@ public abstract class Time4ASuntimesCalculator implements SuntimesCalculator
     public Calendar getCivilSunriseCalendarForDate( Calendar date )
     {
         PlainDate localDate = calendarToPlainDate(date);
-        ChronoFunction<CalendarDate, Moment> civilRise = this.solarTime.sunrise(Twilight.CIVIL);
-        return momentToCalendar(localDate.get(civilRise));
+        return momentToCalendar(localDate.get(sunrise(Twilight.CIVIL)));
     }
 
     @Override
     public Calendar getNauticalSunriseCalendarForDate( Calendar date )
     {
         PlainDate localDate = calendarToPlainDate(date);
-        ChronoFunction<CalendarDate, Moment> nauticalRise = this.solarTime.sunrise(Twilight.NAUTICAL);
-        return momentToCalendar(localDate.get(nauticalRise));
+        return momentToCalendar(localDate.get(sunrise(Twilight.NAUTICAL)));
     }
 
     @Override
     public Calendar getAstronomicalSunriseCalendarForDate( Calendar date )
     {
         PlainDate localDate = calendarToPlainDate(date);
-        ChronoFunction<CalendarDate, Moment> astroRise = this.solarTime.sunrise(Twilight.ASTRONOMICAL);
-        return momentToCalendar(localDate.get(astroRise));
+        return momentToCalendar(localDate.get(sunrise(Twilight.ASTRONOMICAL)));
     }
 
     @Override
     public Calendar getOfficialSunriseCalendarForDate( Calendar date )
     {
         PlainDate localDate = calendarToPlainDate(date);
-        ChronoFunction<CalendarDate, Moment> sunrise = this.solarTime.sunrise();
-        return momentToCalendar(localDate.get(sunrise));
+        return momentToCalendar(localDate.get(sunrise(null)));
     }
 
     @Override
     public Calendar getSolarNoonCalendarForDate(Calendar date)
     {
         PlainDate localDate = calendarToPlainDate(date);
-        ChronoFunction<CalendarDate, Moment> noon = this.solarTime.transitAtNoon();
-        return momentToCalendar(localDate.get(noon));
+        return momentToCalendar(localDate.get(noon()));
     }
 
     @Override
     public Calendar getCivilSunsetCalendarForDate( Calendar date )
     {
         PlainDate localDate = calendarToPlainDate(date);
-        ChronoFunction<CalendarDate, Moment> civilSet = this.solarTime.sunset(Twilight.CIVIL);
-        return momentToCalendar(localDate.get(civilSet));
+        return momentToCalendar(localDate.get(sunset(Twilight.CIVIL)));
     }
 
     @Override
     public Calendar getNauticalSunsetCalendarForDate( Calendar date )
     {
         PlainDate localDate = calendarToPlainDate(date);
-        ChronoFunction<CalendarDate, Moment> nauticalSet = this.solarTime.sunset(Twilight.NAUTICAL);
-        return momentToCalendar(localDate.get(nauticalSet));
+        return momentToCalendar(localDate.get(sunset(Twilight.NAUTICAL)));
     }
 
     @Override
     public Calendar getAstronomicalSunsetCalendarForDate( Calendar date )
     {
         PlainDate localDate = calendarToPlainDate(date);
-        ChronoFunction<CalendarDate, Moment> astroSet = this.solarTime.sunset(Twilight.ASTRONOMICAL);
-        return momentToCalendar(localDate.get(astroSet));
+        return momentToCalendar(localDate.get(sunset(Twilight.ASTRONOMICAL)));
     }
 
     @Override
     public Calendar[] getMorningBlueHourForDate(Calendar date)
     {
-        SolarTime.Calculator calculator = solarTime.getCalculator();
-        int altitude = clampAltitude(solarTime.getAltitude());
-        double latitude = solarTime.getLatitude();
-        double longitude = solarTime.getLongitude();
-        double geodeticAngle = calculator.getGeodeticAngle(latitude, altitude);
         double blueStartAngle = 90 + geodeticAngle + SUN_ALTITUDE_BLUE_HIGH;
         double blueEndAngle = 90 + geodeticAngle + SUN_ALTITUDE_BLUE_LOW;
 
         PlainDate localDate = calendarToPlainDate(date);
-        Moment blueMorningStart = calculator.sunrise(localDate, latitude, longitude, blueStartAngle);
-        Moment blueMorningEnd = calculator.sunrise(localDate, latitude, longitude, blueEndAngle);
+        Moment blueMorningStart = solarCalculator.sunrise(localDate, latitude, longitude, blueStartAngle);
+        Moment blueMorningEnd = solarCalculator.sunrise(localDate, latitude, longitude, blueEndAngle);
         return new Calendar[] { momentToCalendar(blueMorningStart), momentToCalendar(blueMorningEnd) };
     }
 
     @Override
     public Calendar[] getEveningBlueHourForDate(Calendar date)
     {
-        SolarTime.Calculator calculator = solarTime.getCalculator();
-        int altitude = clampAltitude(solarTime.getAltitude());
-        double latitude = solarTime.getLatitude();
-        double longitude = solarTime.getLongitude();
-        double geodeticAngle = calculator.getGeodeticAngle(latitude, altitude);
         double blueStartAngle = 90 + geodeticAngle + SUN_ALTITUDE_BLUE_LOW;
         double blueEndAngle = 90 + geodeticAngle + SUN_ALTITUDE_BLUE_HIGH;
 
         PlainDate localDate = calendarToPlainDate(date);
-        Moment blueEveningStart = calculator.sunset(localDate, latitude, longitude, blueStartAngle);
-        Moment blueEveningEnd = calculator.sunset(localDate, latitude, longitude, blueEndAngle);
+        Moment blueEveningStart = solarCalculator.sunset(localDate, latitude, longitude, blueStartAngle);
+        Moment blueEveningEnd = solarCalculator.sunset(localDate, latitude, longitude, blueEndAngle);
         return new Calendar[] { momentToCalendar(blueEveningStart), momentToCalendar(blueEveningEnd) };
     }
 
     @Override
     public Calendar getMorningGoldenHourForDate(Calendar date)
     {
-        SolarTime.Calculator calculator = solarTime.getCalculator();
-        int altitude = clampAltitude(solarTime.getAltitude());
-        double latitude = solarTime.getLatitude();
-        double longitude = solarTime.getLongitude();
-        double geodeticAngle = calculator.getGeodeticAngle(latitude, altitude);
         double goldenAngle = 90 + geodeticAngle - SUN_ALTITUDE_GOLDEN;
 
         PlainDate localDate = calendarToPlainDate(date);
-        Moment goldMorningEnd = calculator.sunrise(localDate, latitude, longitude, goldenAngle);
+        Moment goldMorningEnd = solarCalculator.sunrise(localDate, latitude, longitude, goldenAngle);
         return momentToCalendar(goldMorningEnd);
     }
 
     @Override
     public Calendar getEveningGoldenHourForDate(Calendar date)
     {
-        SolarTime.Calculator calculator = solarTime.getCalculator();
-        int altitude = clampAltitude(solarTime.getAltitude());
-        double latitude = solarTime.getLatitude();
-        double longitude = solarTime.getLongitude();
-        double geodeticAngle = calculator.getGeodeticAngle(latitude, altitude);
         double goldenAngle = 90 + geodeticAngle - SUN_ALTITUDE_GOLDEN;
 
         PlainDate localDate = calendarToPlainDate(date);
-        Moment goldEveningStart = this.solarTime.getCalculator().sunset(localDate, latitude, longitude, goldenAngle);
+        Moment goldEveningStart = solarCalculator.sunset(localDate, latitude, longitude, goldenAngle);
         return momentToCalendar(goldEveningStart);
     }
 
@@ -242,8 +314,7 @@ public abstract class Time4ASuntimesCalculator implements SuntimesCalculator
     public Calendar getOfficialSunsetCalendarForDate( Calendar date )
     {
         PlainDate localDate = calendarToPlainDate(date);
-        ChronoFunction<CalendarDate, Moment> sunset = this.solarTime.sunset();
-        return momentToCalendar(localDate.get(sunset));
+        return momentToCalendar(localDate.get(sunset(null)));
     }
 
     @Override
@@ -287,26 +358,50 @@ public abstract class Time4ASuntimesCalculator implements SuntimesCalculator
     @Override
     public boolean isDay(Calendar dateTime)
     {
-        net.time4j.tz.Timezone tz = toTimezone(dateTime.getTimeZone());
         PlainDate localDate = calendarToPlainDate(dateTime);
         Moment moment = TemporalType.JAVA_UTIL_DATE.translate(dateTime.getTime());
-        SolarTime.Sunshine sunshine = localDate.get(this.solarTime.sunshine(tz.getID()));
+        SolarTime.Sunshine sunshine = localDate.get(sunshine(dateTime.getTimeZone()));
         return sunshine.isPresent(moment);
     }
 
-    protected net.time4j.tz.Timezone toTimezone( java.util.TimeZone input )
+    /**
+     * @return a (cached) sunshine function for the given timezone
+     */
+    protected ChronoFunction<CalendarDate, SolarTime.Sunshine> sunshine( java.util.TimeZone input )
     {
-        String tzString = "java.util.TimeZone~" + input.getID();
-        TZID tzFallback = Timezone.ofPlatform().getID();  // ofSystem().getID();
-        return net.time4j.tz.Timezone.of(tzString, tzFallback);
+        synchronized (sunshineFunctions)
+        {
+            ChronoFunction<CalendarDate, SolarTime.Sunshine> function = sunshineFunctions.get(input.getID());
+            if (function == null) {
+                sunshineFunctions.put(input.getID(), (function = solarTime.sunshine(toTimezone(input).getID())));
+            }
+            return function;
+        }
     }
 
-    protected PlainDate calendarToPlainDate(Calendar input)
+    /**
+     * @return a (cached) Time4J timezone with the same id
+     */
+    protected net.time4j.tz.Timezone toTimezone( java.util.TimeZone input )
     {
-        Moment moment = TemporalType.JAVA_UTIL_DATE.translate(input.getTime());
-        //ZonalOffset offset = ZonalOffset.atLongitude(new BigDecimal(this.solarTime.getLongitude()));
-        ZonalOffset zonalOffset = ZonalOffset.ofTotalSeconds(timezone.getOffset(input.getTimeInMillis()) / 1000);
-        return moment.toZonalTimestamp(zonalOffset).toDate();
+        synchronized (timezones)
+        {
+            Timezone tz = timezones.get(input.getID());
+            if (tz == null)
+            {
+                String tzString = "java.util.TimeZone~" + input.getID();
+                TZID tzFallback = Timezone.ofPlatform().getID();  // ofSystem().getID();
+                timezones.put(input.getID(), (tz = net.time4j.tz.Timezone.of(tzString, tzFallback)));
+            }
+            return tz;
+        }
+    }
+
+    /**
+     * @return the local date (in the calculator's timezone); shared by every event on that date (@see prepareDay)
+     */
+    protected PlainDate calendarToPlainDate(Calendar input) {
+        return dayContext(input.getTimeInMillis()).date;
     }
 
     protected Calendar momentToCalendar(Moment moment)
@@ -323,7 +418,7 @@ public abstract class Time4ASuntimesCalculator implements SuntimesCalculator
 
     protected AstronomicalSeason adjustSeasonToHemisphere( AstronomicalSeason season )
     {
-        boolean northernHemisphere = (this.solarTime.getLatitude() >= 0);
+        boolean northernHemisphere = (latitude >= 0);
         if (northernHemisphere)
             return season.onNorthernHemisphere();
         else return season.onSouthernHemisphere();
@@ -336,7 +431,7 @@ public abstract class Time4ASuntimesCalculator implements SuntimesCalculator
         TZID tzid = toTimezone(date.getTimeZone()).getID();
         PlainDate localDate = moment.toZonalTimestamp(tzid).toDate();
 
-        LunarTime lunarTime = LunarTime.ofLocation(tzid, this.solarTime.getLatitude(), this.solarTime.getLongitude(), this.solarTime.getAltitude());
+        LunarTime lunarTime = lunarTime(tzid, latitude, longitude, solarTime.getAltitude());
         LunarTime.Moonlight moonlight = lunarTime.on(localDate);
 
         MoonTimes result = new MoonTimes();
@@ -345,6 +440,31 @@ public abstract class Time4ASuntimesCalculator implements SuntimesCalculator
         return result;
     }
 
+    private static final int MAX_LUNARTIMES = 8;
+    private static final LinkedHashMap<String, LunarTime> lunarTimes = new LinkedHashMap<String, LunarTime>(MAX_LUNARTIMES, 0.75f, true)
+    {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, LunarTime> eldest) {
+            return size() > MAX_LUNARTIMES;
+        }
+    };
+
+    /**
+     * @return a LunarTime for the given location (shared between calculator instances; LunarTime is immutable)
+     */
+    protected static LunarTime lunarTime(TZID tzid, double latitude, double longitude, int altitude)
+    {
+        String key = tzid.canonical() + "|" + latitude + "|" + longitude + "|" + altitude;
+        synchronized (lunarTimes)
+        {
+            LunarTime lunarTime = lunarTimes.get(key);
+            if (lunarTime == null) {
+                lunarTimes.put(key, (lunarTime = LunarTime.ofLocation(tzid, latitude, longitude, altitude)));
+            }
+            return lunarTime;
+        }
+    }
+
     @Override
     public double getMoonIlluminationForDate(Calendar date)
     {
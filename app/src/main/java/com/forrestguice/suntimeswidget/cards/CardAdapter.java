@@ -23,6 +23,8 @@ import android.content.Context;
 import android.content.res.TypedArray;
 import android.graphics.Color;
 import android.graphics.Rect;
+import android.os.Handler;
+import android.os.Looper;
 import android.support.annotation.NonNull;
 import android.support.v4.content.ContextCompat;
 import android.support.v4.graphics.ColorUtils;
@@ -39,6 +41,7 @@ import com.forrestguice.suntimeswidget.R;
 import com.forrestguice.suntimeswidget.SuntimesUtils;
 import com.forrestguice.suntimeswidget.calculator.SuntimesCalculatorDescriptor;
 import com.forrestguice.suntimeswidget.calculator.SuntimesData;
+import com.forrestguice.suntimeswidget.calculator.SuntimesEventCache;
 import com.forrestguice.suntimeswidget.calculator.SuntimesMoonData;
 import com.forrestguice.suntimeswidget.calculator.SuntimesRiseSetData;
 import com.forrestguice.suntimeswidget.calculator.SuntimesRiseSetDataset;
@@ -51,7 +54,12 @@ import com.forrestguice.suntimeswidget.themes.SuntimesTheme;
 import java.lang.ref.WeakReference;
 import java.util.Calendar;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
 import java.util.TimeZone;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class CardAdapter extends RecyclerView.Adapter<CardViewHolder>
 {
@@ -95,8 +103,10 @@ public class CardAdapter extends RecyclerView.Adapter<CardViewHolder>
     public Pair<SuntimesRiseSetDataset, SuntimesMoonData> initData(Context context)
     {
         Pair<SuntimesRiseSetDataset, SuntimesMoonData> retValue;
+        cancelLoading();
         data.clear();
         invalidated = false;
+        lastBoundPosition = RecyclerView.NO_POSITION;
         options.init(context);
         initData(context, TODAY_POSITION - 1);
         retValue = initData(context, TODAY_POSITION);
@@ -125,19 +135,139 @@ public class CardAdapter extends RecyclerView.Adapter<CardViewHolder>
 
         SuntimesRiseSetDataset sun = new SuntimesRiseSetDataset(context);
         sun.setTodayIs(date);
+        sun.setEventCache(SuntimesEventCache.getSharedCache());
         sun.calculateData();
+        sun.calculatePending();    // (results are otherwise calculated on first read, on the main thread)
 
         SuntimesMoonData moon = null;
         if (options.showMoon)
         {
             moon = new SuntimesMoonData(context, 0, "moon");
             moon.setTodayIs(date);
+            moon.setEventCache(SuntimesEventCache.getSharedCache());
             moon.calculate();
+            moon.calculatePending();
         }
 
         return new Pair<>(sun, moon);
     }
 
+    /**
+     * Get data for the given position without blocking; missing data is calculated in the background (the item
+     * is rebound when it becomes available), and positions ahead of the scroll direction are loaded in advance.
+     * @param context context
+     * @param position the position being bound
+     * @return data for the position, or null if it is still loading (bind placeholders)
+     */
+    public Pair<SuntimesRiseSetDataset, SuntimesMoonData> loadData(Context context, int position)
+    {
+        int direction = ((lastBoundPosition == RecyclerView.NO_POSITION || position >= lastBoundPosition) ? 1 : -1);
+        lastBoundPosition = position;
+
+        int windowStart = Math.min(position - direction, position + (direction * PREFETCH_POSITIONS));
+        int windowEnd = Math.max(position - direction, position + (direction * PREFETCH_POSITIONS));
+        cancelLoading(windowStart, windowEnd);    // cancel positions that were scrolled past
+        trimData(position);
+
+        Pair<SuntimesRiseSetDataset, SuntimesMoonData> dataPair = data.get(position);
+        if (dataPair == null) {
+            loadDataAsync(context, position);
+        }
+        for (int i=1; i<=PREFETCH_POSITIONS; i++) {
+            loadDataAsync(context, position + (direction * i));
+        }
+        return dataPair;
+    }
+
+    protected void loadDataAsync(Context context, final int position)
+    {
+        if (invalidated || position < 0 || position >= MAX_POSITIONS || data.containsKey(position) || loading.containsKey(position)) {
+            return;
+        }
+
+        final Context appContext = context.getApplicationContext();
+        final int generation = loadGeneration;
+        final Future<?>[] task = new Future<?>[1];    // (assigned before the result is posted back to this thread)
+        task[0] = loader.submit(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                android.os.Process.setThreadPriority(android.os.Process.THREAD_PRIORITY_BACKGROUND);
+                final Pair<SuntimesRiseSetDataset, SuntimesMoonData> result = createData(appContext, position);
+                handler.post(new Runnable()
+                {
+                    @Override
+                    public void run() {
+                        onDataLoaded(position, generation, task[0], result);
+                    }
+                });
+            }
+        });
+        loading.put(position, task[0]);
+    }
+
+    protected void onDataLoaded(int position, int generation, Future<?> task, Pair<SuntimesRiseSetDataset, SuntimesMoonData> result)
+    {
+        if (loading.get(position) == task) {
+            loading.remove(position);    // (a newer task may be loading this position)
+        }
+        if (invalidated || generation != loadGeneration || data.containsKey(position)) {
+            return;
+        }
+        data.put(position, result);
+        notifyItemChanged(position);
+    }
+
+    /**
+     * Cancel pending work for positions outside of the given range.
+     */
+    protected void cancelLoading(int start, int end)
+    {
+        Iterator<Map.Entry<Integer, Future<?>>> iterator = loading.entrySet().iterator();
+        while (iterator.hasNext())
+        {
+            Map.Entry<Integer, Future<?>> entry = iterator.next();
+            int position = entry.getKey();
+            if (position < start || position > end)
+            {
+                entry.getValue().cancel(false);
+                iterator.remove();
+            }
+        }
+    }
+    protected void cancelLoading()
+    {
+        for (Future<?> task : loading.values()) {
+            task.cancel(false);
+        }
+        loading.clear();
+        loadGeneration++;
+    }
+
+    /**
+     * Discard data that is far from the given position (data near today is kept).
+     */
+    protected void trimData(int position)
+    {
+        Iterator<Integer> iterator = data.keySet().iterator();
+        while (iterator.hasNext())
+        {
+            int i = iterator.next();
+            if (Math.abs(i - position) > (PREFETCH_POSITIONS + 2) && (i < TODAY_POSITION - 1 || i > TODAY_POSITION + 2)) {
+                iterator.remove();
+            }
+        }
+    }
+
+    public static final int PREFETCH_POSITIONS = 3;
+    private static final ExecutorService loader = Executors.newSingleThreadExecutor();
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    @SuppressLint("UseSparseArrays")
+    private final HashMap<Integer, Future<?>> loading = new HashMap<>();
+    private int loadGeneration = 0;
+    private int lastBoundPosition = RecyclerView.NO_POSITION;
+
     public int findPositionForDate(Context context, long dateMillis)
     {
         Pair<SuntimesRiseSetDataset, SuntimesMoonData> data_today = initData(context, TODAY_POSITION);
@@ -169,6 +299,10 @@ public class CardAdapter extends RecyclerView.Adapter<CardViewHolder>
         if (holder.position >= 0 && (holder.position < TODAY_POSITION - 1 || holder.position > TODAY_POSITION + 2)) {
             data.remove(holder.position);
         }
+        Future<?> task = loading.remove(holder.position);
+        if (task != null) {
+            task.cancel(false);
+        }
         holder.position = RecyclerView.NO_POSITION;
     }
 
@@ -203,7 +337,7 @@ public class CardAdapter extends RecyclerView.Adapter<CardViewHolder>
             Log.w("CardAdapter", "onBindViewHolder: null view holder!");
             return;
         }
-        holder.bindDataToPosition(context, position, initData(context, position), options);
+        holder.bindDataToPosition(context, position, loadData(context, position), options);
         attachClickListeners(holder, position);
     }
 
@@ -261,6 +395,7 @@ public class CardAdapter extends RecyclerView.Adapter<CardViewHolder>
     public void invalidateData()
     {
         invalidated = true;
+        cancelLoading();
         data.clear();
         notifyDataSetChanged();
     }
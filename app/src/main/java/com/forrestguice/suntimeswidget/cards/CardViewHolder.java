@@ -40,6 +40,7 @@ import com.forrestguice.suntimeswidget.MoonPhaseView;
 import com.forrestguice.suntimeswidget.MoonRiseSetView;
 import com.forrestguice.suntimeswidget.R;
 import com.forrestguice.suntimeswidget.SuntimesUtils;
+import com.forrestguice.suntimeswidget.calculator.SuntimesPositionCache;
 import com.forrestguice.suntimeswidget.calculator.SuntimesData;
 import com.forrestguice.suntimeswidget.calculator.SuntimesMoonData;
 import com.forrestguice.suntimeswidget.calculator.SuntimesRiseSetData;
@@ -214,7 +215,7 @@ public class CardViewHolder extends RecyclerView.ViewHolder
 
                 SuntimesCalculator calculator = sun.calculator();
                 SpannableString positionSpan = new SpannableString("");
-                SuntimesCalculator.SunPosition positionNoon = (noonTime != null && calculator != null ? calculator.getSunPosition(noonTime) : null);
+                SuntimesCalculator.SunPosition positionNoon = (noonTime != null && calculator != null ? SuntimesPositionCache.getSharedCache().getSunPosition(calculator, noonTime) : null);
                 if (positionNoon != null) {
                     SuntimesUtils.TimeDisplayText elevationText = utils.formatAsElevation(positionNoon.elevation, 1);
                     String elevationString = utils.formatAsElevation(elevationText.getValue(), elevationText.getSuffix());
@@ -275,7 +276,7 @@ public class CardViewHolder extends RecyclerView.ViewHolder
         }
 
         // moon fields
-        boolean supportsMoon = (moon != null);
+        boolean supportsMoon = (moon != null || data == null);    // data == null: still loading (keep space for the moon fields)
         int visibility = (supportsMoon && options.showMoon ? View.VISIBLE : View.GONE);
         moonClickArea.setVisibility(visibility);
         moonlabel.setVisibility(visibility);
@@ -443,7 +444,7 @@ public class CardViewHolder extends RecyclerView.ViewHolder
             SuntimesRiseSetData d = sun.dataCivil;
 
             Calendar riseTime = (d != null ? d.sunriseCalendarToday() : null);
-            SuntimesCalculator.SunPosition positionRising = (riseTime != null && calculator != null ? calculator.getSunPosition(riseTime) : null);
+            SuntimesCalculator.SunPosition positionRising = (riseTime != null && calculator != null ? SuntimesPositionCache.getSharedCache().getSunPosition(calculator, riseTime) : null);
             if (positionRising != null) {
                 styleAzimuthText(header_sunrise, positionRising.azimuth, null, 1);
             } else {
@@ -451,7 +452,7 @@ public class CardViewHolder extends RecyclerView.ViewHolder
             }
 
             Calendar setTime = (d != null ? d.sunsetCalendarToday() : null);
-            SuntimesCalculator.SunPosition positionSetting = (setTime != null && calculator != null ? calculator.getSunPosition(setTime) : null);
+            SuntimesCalculator.SunPosition positionSetting = (setTime != null && calculator != null ? SuntimesPositionCache.getSharedCache().getSunPosition(calculator, setTime) : null);
             if (positionSetting != null) {
                 styleAzimuthText(header_sunset, positionSetting.azimuth, null, 1);
             } else {
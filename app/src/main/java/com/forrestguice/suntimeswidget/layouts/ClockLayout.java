@@ -24,6 +24,7 @@ import android.widget.RemoteViews;
 import com.forrestguice.suntimeswidget.R;
 import com.forrestguice.suntimeswidget.SuntimesUtils;
 import com.forrestguice.suntimeswidget.calculator.SuntimesClockData;
+import com.forrestguice.suntimeswidget.settings.WidgetConfig;
 import com.forrestguice.suntimeswidget.settings.WidgetSettings;
 
 public abstract class ClockLayout extends SuntimesLayout
@@ -42,7 +43,7 @@ public abstract class ClockLayout extends SuntimesLayout
      * modify its state based on the supplied data.
      */
     public void prepareForUpdate(Context context, int appWidgetId, SuntimesClockData data) {
-        this.scaleBase = WidgetSettings.loadScaleBasePref(context, appWidgetId);
+        this.scaleBase = WidgetConfig.get(context, appWidgetId).scaleBase();
     }
 
     /**
@@ -53,7 +54,7 @@ public abstract class ClockLayout extends SuntimesLayout
      */
     public void updateViews(Context context, int appWidgetId, RemoteViews views, SuntimesClockData data)
     {
-        String titlePattern = WidgetSettings.loadTitleTextPref(context, appWidgetId);
+        String titlePattern = WidgetConfig.get(context, appWidgetId).titleText();
         String titleText = utils.displayStringForTitlePattern(context, titlePattern, data);
         CharSequence title = (boldTitle ? SuntimesUtils.createBoldSpan(null, titleText, titleText) : titleText);
         views.setTextViewText(R.id.text_title, title);
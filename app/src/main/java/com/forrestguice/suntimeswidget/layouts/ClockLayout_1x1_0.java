@@ -31,6 +31,7 @@ import android.widget.RemoteViews;
 import com.forrestguice.suntimeswidget.R;
 import com.forrestguice.suntimeswidget.SuntimesUtils;
 import com.forrestguice.suntimeswidget.calculator.SuntimesClockData;
+import com.forrestguice.suntimeswidget.settings.WidgetConfig;
 import com.forrestguice.suntimeswidget.settings.WidgetSettings;
 import com.forrestguice.suntimeswidget.settings.WidgetTimezones;
 import com.forrestguice.suntimeswidget.themes.SuntimesTheme;
@@ -60,7 +61,7 @@ public class ClockLayout_1x1_0 extends ClockLayout
     public void prepareForUpdate(Context context, int appWidgetId, SuntimesClockData data)
     {
         super.prepareForUpdate(context, appWidgetId, data);
-        int position = scaleBase ? 0 : WidgetSettings.loadWidgetGravityPref(context, appWidgetId);
+        int position = scaleBase ? 0 : WidgetConfig.get(context, appWidgetId).widgetGravity();
         this.layoutID = chooseLayout(position);  //(scaleBase ? R.layout.layout_widget_clock_1x1_0_align_fill : R.layout.layout_widget_clock_1x1_0);
     }
 
@@ -79,11 +80,12 @@ public class ClockLayout_1x1_0 extends ClockLayout
     {
         super.updateViews(context, appWidgetId, views, data);
 
-        boolean showLabels = WidgetSettings.loadShowLabelsPref(context, appWidgetId);
+        WidgetConfig config = WidgetConfig.get(context, appWidgetId);
+        boolean showLabels = config.showLabels();
         views.setViewVisibility(R.id.text_time_extras, showLabels ? View.VISIBLE : View.GONE);
 
         Calendar now = data.calendar();
-        WidgetSettings.TimeFormatMode timeFormat = WidgetSettings.loadTimeFormatModePref(context, appWidgetId);
+        WidgetSettings.TimeFormatMode timeFormat = config.timeFormatMode();
         SuntimesUtils.TimeDisplayText nowText = utils.calendarTimeShortDisplayString(context, now, false, timeFormat);
         String nowString = nowText.getValue();
         CharSequence nowChars = (boldTime ? SuntimesUtils.createBoldSpan(null, nowString, nowString) : nowString);
@@ -92,7 +94,7 @@ public class ClockLayout_1x1_0 extends ClockLayout
         {
             if (WidgetSettings.loadScaleTextPref(context, appWidgetId, true))
             {
-                int showTitle = (WidgetSettings.loadShowTitlePref(context, appWidgetId) ? 1 : 0);
+                int showTitle = (config.showTitle() ? 1 : 0);
                 float maxSp = ClockLayout.CLOCKFACE_MAX_SP;  // ((category == AppWidgetProviderInfo.WIDGET_CATEGORY_KEYGUARD) ? CLOCKFACE_MAX_SP : -1);
                 int[] maxDp = new int[] {maxDimensionsDp[0] - (paddingDp[0] + paddingDp[2]), (maxDimensionsDp[1] - (paddingDp[1] + paddingDp[3]) - ((int)titleSizeSp * showTitle))};
                 float[] adjustedSizeSp = adjustTextSize(context, maxDp, paddingDp, "sans-serif", boldTime,"00:00", timeSizeSp, maxSp, "MM", suffixSizeSp);
@@ -113,7 +115,7 @@ public class ClockLayout_1x1_0 extends ClockLayout
             if (data.timezoneMode() == WidgetSettings.TimezoneMode.SOLAR_TIME)
             {
                 stringResID = R.string.timezoneExtraApparentSolar_short;
-                if (WidgetSettings.loadSolarTimeModePref(context, appWidgetId) == WidgetSettings.SolarTimeMode.APPARENT_SOLAR_TIME) {
+                if (config.solarTimeMode() == WidgetSettings.SolarTimeMode.APPARENT_SOLAR_TIME) {
                     offset = (long)data.calculator().equationOfTime(now) * 1000L;  //(long)WidgetTimezones.ApparentSolarTime.equationOfTimeOffset(now.getTimeInMillis());
                 }
 
@@ -28,6 +28,7 @@ import com.forrestguice.suntimeswidget.R;
 import com.forrestguice.suntimeswidget.SuntimesUtils;
 import com.forrestguice.suntimeswidget.calculator.MoonPhaseDisplay;
 import com.forrestguice.suntimeswidget.calculator.SuntimesMoonData;
+import com.forrestguice.suntimeswidget.settings.WidgetConfig;
 import com.forrestguice.suntimeswidget.settings.WidgetSettings;
 import com.forrestguice.suntimeswidget.themes.SuntimesTheme;
 
@@ -55,8 +56,9 @@ public abstract class MoonLayout extends SuntimesLayout
      * @param data the data object (should be the same as supplied to updateViews)
      */
     public void prepareForUpdate(Context context, int appWidgetId, SuntimesMoonData data) {
-        this.scaleBase = WidgetSettings.loadScaleBasePref(context, appWidgetId);
-        northward = (WidgetSettings.loadLocalizeHemispherePref(context, appWidgetId) && (data.location().getLatitudeAsDouble() < 0));
+        WidgetConfig config = WidgetConfig.get(context, appWidgetId);
+        this.scaleBase = config.scaleBase();
+        northward = (config.localizeHemisphere() && (data.location().getLatitudeAsDouble() < 0));
     }
     protected boolean northward = false;
 
@@ -70,7 +72,7 @@ public abstract class MoonLayout extends SuntimesLayout
     public void updateViews(Context context, int appWidgetId, RemoteViews views, SuntimesMoonData data)
     {
         // update title
-        String titlePattern = WidgetSettings.loadTitleTextPref(context, appWidgetId);
+        String titlePattern = WidgetConfig.get(context, appWidgetId).titleText();
         String titleText = utils.displayStringForTitlePattern(context, titlePattern, data);
         CharSequence title = (boldTitle ? SuntimesUtils.createBoldSpan(null, titleText, titleText) : titleText);
         views.setTextViewText(R.id.text_title, title);
@@ -29,6 +29,7 @@ import android.widget.RemoteViews;
 import com.forrestguice.suntimeswidget.R;
 import com.forrestguice.suntimeswidget.SuntimesUtils;
 import com.forrestguice.suntimeswidget.calculator.SuntimesMoonData;
+import com.forrestguice.suntimeswidget.settings.WidgetConfig;
 import com.forrestguice.suntimeswidget.settings.WidgetSettings;
 import com.forrestguice.suntimeswidget.themes.SuntimesTheme;
 
@@ -55,8 +56,9 @@ public class MoonLayout_1x1_0 extends MoonLayout
     public void prepareForUpdate(Context context, int appWidgetId, SuntimesMoonData data)
     {
         super.prepareForUpdate(context, appWidgetId, data);
-        order = WidgetSettings.loadRiseSetOrderPref(context, appWidgetId);
-        int position = scaleBase ? 0 : WidgetSettings.loadWidgetGravityPref(context, appWidgetId);
+        WidgetConfig config = WidgetConfig.get(context, appWidgetId);
+        order = config.riseSetOrder();
+        int position = scaleBase ? 0 : config.widgetGravity();
         this.layoutID = chooseLayout(position, data);
         //this.layoutID = (scaleBase
         //        ? chooseMoonLayout(R.layout.layout_widget_moon_1x1_0_align_fill, R.layout.layout_widget_moon_1x1_01_align_fill, data, order)
@@ -85,14 +87,15 @@ public class MoonLayout_1x1_0 extends MoonLayout
     public void updateViews(Context context, int appWidgetId, RemoteViews views, SuntimesMoonData data)
     {
         super.updateViews(context, appWidgetId, views, data);
-        boolean showSeconds = WidgetSettings.loadShowSecondsPref(context, appWidgetId);
-        WidgetSettings.TimeFormatMode timeFormat = WidgetSettings.loadTimeFormatModePref(context, appWidgetId);
+        WidgetConfig config = WidgetConfig.get(context, appWidgetId);
+        boolean showSeconds = config.showSeconds();
+        WidgetSettings.TimeFormatMode timeFormat = config.timeFormatMode();
 
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN)
         {
-            if (WidgetSettings.loadScaleTextPref(context, appWidgetId))
+            if (config.scaleText())
             {
-                int showTitle = (WidgetSettings.loadShowTitlePref(context, appWidgetId) ? 1 : 0);
+                int showTitle = (config.showTitle() ? 1 : 0);
                 int[] maxDp = new int[] {maxDimensionsDp[0] - (2*(paddingDp[0] + paddingDp[2])), ((maxDimensionsDp[1] - (paddingDp[1] + paddingDp[3]) - ((int)titleSizeSp * showTitle)) / 2)};
                 float[] adjustedSizeSp = adjustTextSize(context, maxDp, paddingDp, "sans-serif", boldTime, (showSeconds ? "00:00:00" : "00:00"), timeSizeSp, ClockLayout.CLOCKFACE_MAX_SP, "MM", suffixSizeSp, iconSizeDp);
                 if (adjustedSizeSp[0] > timeSizeSp)
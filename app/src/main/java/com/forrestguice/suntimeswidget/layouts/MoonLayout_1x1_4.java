@@ -29,7 +29,7 @@ import com.forrestguice.suntimeswidget.SuntimesUtils;
 import com.forrestguice.suntimeswidget.calculator.MoonPhaseDisplay;
 import com.forrestguice.suntimeswidget.calculator.core.SuntimesCalculator;
 import com.forrestguice.suntimeswidget.calculator.SuntimesMoonData;
-import com.forrestguice.suntimeswidget.settings.WidgetSettings;
+import com.forrestguice.suntimeswidget.settings.WidgetConfig;
 import com.forrestguice.suntimeswidget.themes.SuntimesTheme;
 
 import java.util.Calendar;
@@ -65,9 +65,10 @@ public class MoonLayout_1x1_4 extends MoonLayout
     public void updateViews(Context context, int appWidgetId, RemoteViews views, SuntimesMoonData data)
     {
         super.updateViews(context, appWidgetId, views, data);
-        boolean showLabels = WidgetSettings.loadShowLabelsPref(context, appWidgetId);
-        boolean showSeconds = WidgetSettings.loadShowSecondsPref(context, appWidgetId);
-        boolean showTimeDate = WidgetSettings.loadShowTimeDatePref(context, appWidgetId);
+        WidgetConfig config = WidgetConfig.get(context, appWidgetId);
+        boolean showLabels = config.showLabels();
+        boolean showSeconds = config.showSeconds();
+        boolean showTimeDate = config.showTimeDate();
 
         for (MoonPhaseDisplay moonPhase : MoonPhaseDisplay.values())
         {
@@ -29,8 +29,10 @@ import android.widget.RemoteViews;
 
 import com.forrestguice.suntimeswidget.R;
 import com.forrestguice.suntimeswidget.SuntimesUtils;
+import com.forrestguice.suntimeswidget.calculator.SuntimesPositionCache;
 import com.forrestguice.suntimeswidget.calculator.SuntimesMoonData;
 import com.forrestguice.suntimeswidget.calculator.core.SuntimesCalculator;
+import com.forrestguice.suntimeswidget.settings.WidgetConfig;
 import com.forrestguice.suntimeswidget.settings.WidgetSettings;
 import com.forrestguice.suntimeswidget.themes.SuntimesTheme;
 
@@ -57,7 +59,7 @@ public class MoonLayout_1x1_7 extends MoonLayout
     public void prepareForUpdate(Context context, int appWidgetId, SuntimesMoonData data)
     {
         super.prepareForUpdate(context, appWidgetId, data);
-        int position = scaleBase ? 0 : WidgetSettings.loadWidgetGravityPref(context, appWidgetId);
+        int position = scaleBase ? 0 : WidgetConfig.get(context, appWidgetId).widgetGravity();
         this.layoutID = chooseLayout(position);  //  (scaleBase ? R.layout.layout_widget_moon_1x1_7_align_fill : R.layout.layout_widget_moon_1x1_7);
     }
 
@@ -81,13 +83,14 @@ public class MoonLayout_1x1_7 extends MoonLayout
     public void updateViews(Context context, int appWidgetId, RemoteViews views, SuntimesMoonData data)
     {
         super.updateViews(context, appWidgetId, views, data);
-        boolean showLabels = WidgetSettings.loadShowLabelsPref(context, appWidgetId);
+        WidgetConfig config = WidgetConfig.get(context, appWidgetId);
+        boolean showLabels = config.showLabels();
 
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN)
         {
-            if (WidgetSettings.loadScaleTextPref(context, appWidgetId))
+            if (config.scaleText())
             {
-                int showTitle = (WidgetSettings.loadShowTitlePref(context, appWidgetId) ? 1 : 0);
+                int showTitle = (config.showTitle() ? 1 : 0);
                 int[] maxDp = new int[] {maxDimensionsDp[0] - (paddingDp[0] + paddingDp[2]), ((maxDimensionsDp[1] - (paddingDp[1] + paddingDp[3]) - ((int)titleSizeSp * showTitle)) / (showLabels ? 2 : 1))};
                 float[] adjustedSizeSp = adjustTextSize(context, maxDp, paddingDp, "sans-serif", boldTime, "000,000.0 MM", timeSizeSp, ClockLayout.CLOCKFACE_MAX_SP, "", suffixSizeSp);
                 if (adjustedSizeSp[0] > timeSizeSp)
@@ -110,8 +113,8 @@ public class MoonLayout_1x1_7 extends MoonLayout
         }
 
         SuntimesCalculator calculator = data.calculator();
-        SuntimesCalculator.MoonPosition moonPosition = calculator.getMoonPosition(data.now());
-        WidgetSettings.LengthUnit units = WidgetSettings.loadLengthUnitsPref(context, appWidgetId);
+        SuntimesCalculator.MoonPosition moonPosition = SuntimesPositionCache.getSharedCache().getMoonPosition(calculator, data.now());
+        WidgetSettings.LengthUnit units = config.lengthUnits();
         views.setTextViewText(R.id.info_moon_distance_current, styleDistanceText(context, moonPosition, units, highlightColor, suffixColor, boldTime));
 
         int visibility = (showLabels ? View.VISIBLE : View.GONE);
@@ -33,6 +33,7 @@ import com.forrestguice.suntimeswidget.R;
 import com.forrestguice.suntimeswidget.SuntimesUtils;
 import com.forrestguice.suntimeswidget.calculator.SuntimesMoonData;
 import com.forrestguice.suntimeswidget.calculator.core.SuntimesCalculator;
+import com.forrestguice.suntimeswidget.settings.WidgetConfig;
 import com.forrestguice.suntimeswidget.settings.WidgetSettings;
 import com.forrestguice.suntimeswidget.themes.SuntimesTheme;
 
@@ -58,7 +59,7 @@ public class MoonLayout_1x1_8 extends MoonLayout
     public void prepareForUpdate(Context context, int appWidgetId, SuntimesMoonData data)
     {
         super.prepareForUpdate(context, appWidgetId, data);
-        int position = scaleBase ? 0 : WidgetSettings.loadWidgetGravityPref(context, appWidgetId);
+        int position = scaleBase ? 0 : WidgetConfig.get(context, appWidgetId).widgetGravity();
         this.layoutID = chooseLayout(position);  // (scaleBase ? R.layout.layout_widget_moon_1x1_8_align_fill : R.layout.layout_widget_moon_1x1_8);
     }
 
@@ -82,12 +83,13 @@ public class MoonLayout_1x1_8 extends MoonLayout
     public void updateViews(Context context, int appWidgetId, RemoteViews views, SuntimesMoonData data)
     {
         super.updateViews(context, appWidgetId, views, data);
-        boolean showLabels = WidgetSettings.loadShowLabelsPref(context, appWidgetId);
-        boolean showSeconds = WidgetSettings.loadShowSecondsPref(context, appWidgetId);
+        WidgetConfig config = WidgetConfig.get(context, appWidgetId);
+        boolean showLabels = config.showLabels();
+        boolean showSeconds = config.showSeconds();
 
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN)
         {
-            if (WidgetSettings.loadScaleTextPref(context, appWidgetId))
+            if (config.scaleText())
             {
                 int numRows = 4;
                 if (showLabels) {
@@ -153,11 +155,12 @@ public class MoonLayout_1x1_8 extends MoonLayout
     protected void updateApogeePerigee(Context context, int appWidgetId, RemoteViews views, Calendar now,
                                        Pair<Calendar, SuntimesCalculator.MoonPosition> apogee, Pair<Calendar, SuntimesCalculator.MoonPosition> perigee)
     {
-        boolean showWeeks = WidgetSettings.loadShowWeeksPref(context, appWidgetId);
-        boolean showHours = WidgetSettings.loadShowHoursPref(context, appWidgetId);
-        boolean showSeconds = WidgetSettings.loadShowSecondsPref(context, appWidgetId);
-        boolean showTimeDate = WidgetSettings.loadShowTimeDatePref(context, appWidgetId);
-        WidgetSettings.LengthUnit units = WidgetSettings.loadLengthUnitsPref(context, appWidgetId);
+        WidgetConfig config = WidgetConfig.get(context, appWidgetId);
+        boolean showWeeks = config.showWeeks();
+        boolean showHours = config.showHours();
+        boolean showSeconds = config.showSeconds();
+        boolean showTimeDate = config.showTimeDate();
+        WidgetSettings.LengthUnit units = config.lengthUnits();
 
         if (apogee != null)
         {
@@ -183,7 +186,7 @@ public class MoonLayout_1x1_8 extends MoonLayout
             views.setViewVisibility(R.id.moonapsis_perigee_layout, View.GONE);
         }
 
-        boolean showLabels = WidgetSettings.loadShowLabelsPref(context, appWidgetId);
+        boolean showLabels = config.showLabels();
         int visibility = (showLabels ? View.VISIBLE : View.GONE);
         views.setViewVisibility(R.id.moonapsis_apogee_label, visibility);
         views.setViewVisibility(R.id.moonapsis_perigee_label, visibility);
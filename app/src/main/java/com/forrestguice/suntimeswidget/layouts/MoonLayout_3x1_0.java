@@ -30,6 +30,7 @@ import com.forrestguice.suntimeswidget.SuntimesUtils;
 import com.forrestguice.suntimeswidget.calculator.MoonPhaseDisplay;
 import com.forrestguice.suntimeswidget.calculator.core.SuntimesCalculator;
 import com.forrestguice.suntimeswidget.calculator.SuntimesMoonData;
+import com.forrestguice.suntimeswidget.settings.WidgetConfig;
 import com.forrestguice.suntimeswidget.settings.WidgetSettings;
 import com.forrestguice.suntimeswidget.themes.SuntimesTheme;
 
@@ -64,7 +65,7 @@ public class MoonLayout_3x1_0 extends MoonLayout
         Calendar midnight = data.midnight();
         SuntimesCalculator.MoonPhase nextPhase = data.nextPhase(midnight);
 
-        int position = scaleBase ? 0 : WidgetSettings.loadWidgetGravityPref(context, appWidgetId);
+        int position = scaleBase ? 0 : WidgetConfig.get(context, appWidgetId).widgetGravity();
         this.layoutID = chooseLayout(nextPhase, position);
         /*switch (nextPhase)
         {
@@ -131,10 +132,11 @@ public class MoonLayout_3x1_0 extends MoonLayout
     public void updateViews(Context context, int appWidgetId, RemoteViews views, SuntimesMoonData data)
     {
         super.updateViews(context, appWidgetId, views, data);
-        boolean showLabels = WidgetSettings.loadShowLabelsPref(context, appWidgetId);
-        boolean showSeconds = WidgetSettings.loadShowSecondsPref(context, appWidgetId);
-        boolean showTimeDate = WidgetSettings.loadShowTimeDatePref(context, appWidgetId);
-        WidgetSettings.TimeFormatMode timeFormat = WidgetSettings.loadTimeFormatModePref(context, appWidgetId);
+        WidgetConfig config = WidgetConfig.get(context, appWidgetId);
+        boolean showLabels = config.showLabels();
+        boolean showSeconds = config.showSeconds();
+        boolean showTimeDate = config.showTimeDate();
+        WidgetSettings.TimeFormatMode timeFormat = config.timeFormatMode();
 
         SuntimesUtils.TimeDisplayText newMoonString = utils.calendarDateTimeDisplayString(context, data.moonPhaseCalendar(SuntimesCalculator.MoonPhase.NEW), showTimeDate, showSeconds, timeFormat);
         views.setTextViewText(R.id.moonphase_new_date, newMoonString.getValue());
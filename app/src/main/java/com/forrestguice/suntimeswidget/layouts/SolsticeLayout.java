@@ -25,6 +25,7 @@ import android.widget.RemoteViews;
 import com.forrestguice.suntimeswidget.R;
 import com.forrestguice.suntimeswidget.SuntimesUtils;
 import com.forrestguice.suntimeswidget.calculator.SuntimesEquinoxSolsticeData;
+import com.forrestguice.suntimeswidget.settings.WidgetConfig;
 import com.forrestguice.suntimeswidget.settings.WidgetSettings;
 import com.forrestguice.suntimeswidget.themes.SuntimesTheme;
 
@@ -49,7 +50,7 @@ public abstract class SolsticeLayout extends SuntimesLayout
      */
     public void prepareForUpdate(Context context, int appWidgetId, SuntimesEquinoxSolsticeData data)
     {
-        this.scaleBase = WidgetSettings.loadScaleBasePref(context, appWidgetId);
+        this.scaleBase = WidgetConfig.get(context, appWidgetId).scaleBase();
     }
 
     /**
@@ -62,7 +63,7 @@ public abstract class SolsticeLayout extends SuntimesLayout
     public void updateViews(Context context, int appWidgetId, RemoteViews views, SuntimesEquinoxSolsticeData data)
     {
         // update title
-        String titlePattern = WidgetSettings.loadTitleTextPref(context, appWidgetId);
+        String titlePattern = WidgetConfig.get(context, appWidgetId).titleText();
         String titleText = utils.displayStringForTitlePattern(context, titlePattern, data);
         CharSequence title = (boldTitle ? SuntimesUtils.createBoldSpan(null, titleText, titleText) : titleText);
         views.setTextViewText(R.id.text_title, title);
@@ -30,6 +30,7 @@ import com.forrestguice.suntimeswidget.R;
 import com.forrestguice.suntimeswidget.SuntimesUtils;
 import com.forrestguice.suntimeswidget.SuntimesUtils.TimeDisplayText;
 import com.forrestguice.suntimeswidget.calculator.SuntimesEquinoxSolsticeData;
+import com.forrestguice.suntimeswidget.settings.WidgetConfig;
 import com.forrestguice.suntimeswidget.settings.WidgetSettings;
 import com.forrestguice.suntimeswidget.themes.SuntimesTheme;
 
@@ -63,7 +64,7 @@ public class SolsticeLayout_1x1_0 extends SolsticeLayout
     public void prepareForUpdate(Context context, int appWidgetId, SuntimesEquinoxSolsticeData data)
     {
         super.prepareForUpdate(context, appWidgetId, data);
-        int position = scaleBase ? 0 : WidgetSettings.loadWidgetGravityPref(context, appWidgetId);
+        int position = scaleBase ? 0 : WidgetConfig.get(context, appWidgetId).widgetGravity();
         this.layoutID = chooseLayout(position); //(scaleBase ? R.layout.layout_widget_solstice_1x1_0_align_fill : R.layout.layout_widget_solstice_1x1_0);
         timeMode = data.timeMode();
     }
@@ -89,24 +90,25 @@ public class SolsticeLayout_1x1_0 extends SolsticeLayout
     {
         super.updateViews(context, appWidgetId, views, data);
 
-        boolean showWeeks = WidgetSettings.loadShowWeeksPref(context, appWidgetId);
-        boolean showHours = WidgetSettings.loadShowHoursPref(context, appWidgetId);
-        boolean showSeconds = WidgetSettings.loadShowSecondsPref(context, appWidgetId);
-        boolean showTimeDate = WidgetSettings.loadShowTimeDatePref(context, appWidgetId);
-        boolean showLabels = WidgetSettings.loadShowLabelsPref(context, appWidgetId);
-        WidgetSettings.TimeFormatMode timeFormat = WidgetSettings.loadTimeFormatModePref(context, appWidgetId);
+        WidgetConfig config = WidgetConfig.get(context, appWidgetId);
+        boolean showWeeks = config.showWeeks();
+        boolean showHours = config.showHours();
+        boolean showSeconds = config.showSeconds();
+        boolean showTimeDate = config.showTimeDate();
+        boolean showLabels = config.showLabels();
+        WidgetSettings.TimeFormatMode timeFormat = config.timeFormatMode();
 
         Calendar event = null;
         if (data != null && data.isCalculated()) {
             Calendar now = Calendar.getInstance();
-            event = getEventCalendar(now, data, WidgetSettings.loadTrackingModePref(context, appWidgetId));
+            event = getEventCalendar(now, data, config.trackingMode());
         }
 
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN)
         {
-            if (WidgetSettings.loadScaleTextPref(context, appWidgetId))
+            if (config.scaleText())
             {
-                int showTitle = (WidgetSettings.loadShowTitlePref(context, appWidgetId) ? 1 : 0);
+                int showTitle = (config.showTitle() ? 1 : 0);
                 int[] maxDp = new int[] {maxDimensionsDp[0] - (paddingDp[0] + paddingDp[2]), ((maxDimensionsDp[1] - (paddingDp[1] + paddingDp[3]) - ((int)titleSizeSp * showTitle)) / (showLabels ? 4 : 3))};
                 float[] adjustedSizeSp = adjustTextSize(context, maxDp, paddingDp, "sans-serif", boldTime, " September 22, ", timeSizeSp, ClockLayout.CLOCKFACE_MAX_SP, "", suffixSizeSp);
                 if (adjustedSizeSp[0] > timeSizeSp)
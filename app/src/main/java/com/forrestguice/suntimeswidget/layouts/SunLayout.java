@@ -27,6 +27,7 @@ import android.widget.RemoteViews;
 import com.forrestguice.suntimeswidget.R;
 import com.forrestguice.suntimeswidget.SuntimesUtils;
 import com.forrestguice.suntimeswidget.calculator.SuntimesRiseSetData;
+import com.forrestguice.suntimeswidget.settings.WidgetConfig;
 import com.forrestguice.suntimeswidget.settings.WidgetSettings;
 import com.forrestguice.suntimeswidget.themes.SuntimesTheme;
 
@@ -53,7 +54,7 @@ public abstract class SunLayout extends SuntimesLayout
      */
     public void prepareForUpdate(Context context, int appWidgetId, SuntimesRiseSetData data)
     {
-        this.scaleBase = WidgetSettings.loadScaleBasePref(context, appWidgetId);
+        this.scaleBase = WidgetConfig.get(context, appWidgetId).scaleBase();
     }
 
     @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
@@ -84,7 +85,7 @@ public abstract class SunLayout extends SuntimesLayout
     public void updateViews(Context context, int appWidgetId, RemoteViews views, SuntimesRiseSetData data)
     {
         // update title
-        String titlePattern = WidgetSettings.loadTitleTextPref(context, appWidgetId);
+        String titlePattern = WidgetConfig.get(context, appWidgetId).titleText();
         String titleText = utils.displayStringForTitlePattern(context, titlePattern, data);
         CharSequence title = (boldTitle ? SuntimesUtils.createBoldSpan(null, titleText, titleText) : titleText);
         views.setTextViewText(R.id.text_title, title);
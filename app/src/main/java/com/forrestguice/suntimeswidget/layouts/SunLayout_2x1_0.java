@@ -31,6 +31,7 @@ import com.forrestguice.suntimeswidget.R;
 import com.forrestguice.suntimeswidget.SuntimesUtils;
 import com.forrestguice.suntimeswidget.calculator.SuntimesRiseSetData;
 import com.forrestguice.suntimeswidget.calculator.SuntimesRiseSetData2;
+import com.forrestguice.suntimeswidget.settings.WidgetConfig;
 import com.forrestguice.suntimeswidget.settings.WidgetSettings;
 import com.forrestguice.suntimeswidget.themes.SuntimesTheme;
 import com.forrestguice.suntimeswidget.SuntimesUtils.TimeDisplayText;
@@ -51,9 +52,10 @@ public class SunLayout_2x1_0 extends SunLayout
     public void prepareForUpdate(Context context, int appWidgetID, SuntimesRiseSetData data)
     {
         super.prepareForUpdate(context, appWidgetID, data);
-        order = WidgetSettings.loadRiseSetOrderPref(context, appWidgetID);
+        WidgetConfig config = WidgetConfig.get(context, appWidgetID);
+        order = config.riseSetOrder();
 
-        int position = scaleBase ? 0 : WidgetSettings.loadWidgetGravityPref(context, appWidgetID);
+        int position = scaleBase ? 0 : config.widgetGravity();
         this.layoutID = chooseLayout(position, data);
         //this.layoutID = (scaleBase
         //        ? chooseSunLayout(R.layout.layout_widget_2x1_0_align_fill, R.layout.layout_widget_2x1_01_align_fill, data, order)
@@ -81,14 +83,15 @@ public class SunLayout_2x1_0 extends SunLayout
     {
         super.updateViews(context, appWidgetId, views, data);
 
-        boolean showSolarNoon = WidgetSettings.loadShowNoonPref(context, appWidgetId);
-        boolean showSeconds = WidgetSettings.loadShowSecondsPref(context, appWidgetId);
-        boolean showDayDelta = WidgetSettings.loadShowComparePref(context, appWidgetId);
-        WidgetSettings.TimeFormatMode timeFormat = WidgetSettings.loadTimeFormatModePref(context, appWidgetId);
+        WidgetConfig config = WidgetConfig.get(context, appWidgetId);
+        boolean showSolarNoon = config.showNoon();
+        boolean showSeconds = config.showSeconds();
+        boolean showDayDelta = config.showCompare();
+        WidgetSettings.TimeFormatMode timeFormat = config.timeFormatMode();
 
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN)
         {
-            if (WidgetSettings.loadScaleTextPref(context, appWidgetId))
+            if (config.scaleText())
             {
                 int numRows = 1;
                 numRows += showSolarNoon ? 1 : 0;
@@ -31,6 +31,7 @@ import com.forrestguice.suntimeswidget.R;
 import com.forrestguice.suntimeswidget.SuntimesUtils;
 import com.forrestguice.suntimeswidget.calculator.core.SuntimesCalculator;
 import com.forrestguice.suntimeswidget.calculator.SuntimesRiseSetDataset;
+import com.forrestguice.suntimeswidget.settings.WidgetConfig;
 import com.forrestguice.suntimeswidget.settings.WidgetSettings;
 import com.forrestguice.suntimeswidget.themes.SuntimesTheme;
 
@@ -45,7 +46,7 @@ public abstract class SunPosLayout extends PositionLayout
 
     public void prepareForUpdate(Context context, int appWidgetId, SuntimesRiseSetDataset dataset, int[] widgetSize)
     {
-        this.scaleBase = WidgetSettings.loadScaleBasePref(context, appWidgetId);
+        this.scaleBase = WidgetConfig.get(context, appWidgetId).scaleBase();
         dataset.calculateData();
     }
 
@@ -59,7 +60,7 @@ public abstract class SunPosLayout extends PositionLayout
     public void updateViews(Context context, int appWidgetId, RemoteViews views, SuntimesRiseSetDataset dataset)
     {
         // update title
-        String titlePattern = WidgetSettings.loadTitleTextPref(context, appWidgetId);
+        String titlePattern = WidgetConfig.get(context, appWidgetId).titleText();
         String titleText = utils.displayStringForTitlePattern(context, titlePattern, dataset);
         CharSequence title = (boldTitle ? SuntimesUtils.createBoldSpan(null, titleText, titleText) : titleText);
         views.setTextViewText(R.id.text_title, title);
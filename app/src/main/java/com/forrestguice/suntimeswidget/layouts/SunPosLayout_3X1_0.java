@@ -28,10 +28,11 @@ import android.widget.RemoteViews;
 import com.forrestguice.suntimeswidget.LightMapView;
 import com.forrestguice.suntimeswidget.R;
 import com.forrestguice.suntimeswidget.SuntimesUtils;
+import com.forrestguice.suntimeswidget.calculator.SuntimesPositionCache;
 import com.forrestguice.suntimeswidget.calculator.core.SuntimesCalculator;
 import com.forrestguice.suntimeswidget.calculator.SuntimesRiseSetData;
 import com.forrestguice.suntimeswidget.calculator.SuntimesRiseSetDataset;
-import com.forrestguice.suntimeswidget.settings.WidgetSettings;
+import com.forrestguice.suntimeswidget.settings.WidgetConfig;
 import com.forrestguice.suntimeswidget.themes.SuntimesTheme;
 
 import java.util.Calendar;
@@ -61,7 +62,7 @@ public class SunPosLayout_3X1_0 extends SunPosLayout
     public void prepareForUpdate(Context context, int appWidgetId, SuntimesRiseSetDataset dataset, int[] widgetSize)
     {
         super.prepareForUpdate(context, appWidgetId, dataset, widgetSize);
-        int position = (scaleBase ? 0 : WidgetSettings.loadWidgetGravityPref(context, appWidgetId));
+        int position = (scaleBase ? 0 : WidgetConfig.get(context, appWidgetId).widgetGravity());
         this.layoutID = chooseLayout(position); //(scaleBase ? R.layout.layout_widget_sunpos_3x1_0_align_fill : R.layout.layout_widget_sunpos_3x1_0);
         if (Build.VERSION.SDK_INT >= 16)
         {
@@ -86,23 +87,23 @@ public class SunPosLayout_3X1_0 extends SunPosLayout
         super.updateViews(context, appWidgetId, views, dataset);
         Calendar now = dataset.now();
         SuntimesCalculator calculator = dataset.calculator();
-        SuntimesCalculator.SunPosition sunPosition = (calculator != null ? calculator.getSunPosition(now) : null);
+        SuntimesCalculator.SunPosition sunPosition = (calculator != null ? SuntimesPositionCache.getSharedCache().getSunPosition(calculator, now) : null);
 
         SuntimesRiseSetData riseSetData = dataset.dataActual;
         Calendar riseTime = (riseSetData != null ? riseSetData.sunriseCalendarToday() : null);
-        SuntimesCalculator.SunPosition risingPosition = (riseTime != null && calculator != null ? calculator.getSunPosition(riseTime) : null);
+        SuntimesCalculator.SunPosition risingPosition = (riseTime != null && calculator != null ? SuntimesPositionCache.getSharedCache().getSunPosition(calculator, riseTime) : null);
 
         SuntimesRiseSetData noonData = dataset.dataNoon;
         Calendar noonTime = (noonData != null ? noonData.sunriseCalendarToday() : null);
-        SuntimesCalculator.SunPosition noonPosition = (noonTime != null && calculator != null ? calculator.getSunPosition(noonTime) : null);
+        SuntimesCalculator.SunPosition noonPosition = (noonTime != null && calculator != null ? SuntimesPositionCache.getSharedCache().getSunPosition(calculator, noonTime) : null);
 
         Calendar setTime = (riseSetData != null ? riseSetData.sunsetCalendarToday() : null);
-        SuntimesCalculator.SunPosition settingPosition = (setTime != null && calculator != null ? calculator.getSunPosition(setTime) : null);
+        SuntimesCalculator.SunPosition settingPosition = (setTime != null && calculator != null ? SuntimesPositionCache.getSharedCache().getSunPosition(calculator, setTime) : null);
 
         updateViewsAzimuthElevationText(context, views, sunPosition, noonPosition);
         updateViewsAzimuthElevationText(context, views, sunPosition, risingPosition, noonPosition, settingPosition);
 
-        boolean showLabels = WidgetSettings.loadShowLabelsPref(context, appWidgetId);
+        boolean showLabels = WidgetConfig.get(context, appWidgetId).showLabels();
         int visibility = (showLabels ? View.VISIBLE : View.GONE);
         views.setViewVisibility(R.id.info_time_lightmap_labels, visibility);
 
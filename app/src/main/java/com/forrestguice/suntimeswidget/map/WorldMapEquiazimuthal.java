@@ -34,6 +34,7 @@ import android.support.annotation.Nullable;
 import android.support.v4.graphics.ColorUtils;
 import android.util.Log;
 
+import com.forrestguice.suntimeswidget.calculator.SuntimesPositionCache;
 import com.forrestguice.suntimeswidget.calculator.core.SuntimesCalculator;
 import com.forrestguice.suntimeswidget.calculator.SuntimesRiseSetDataset;
 import com.forrestguice.suntimeswidget.calculator.core.Location;
@@ -277,8 +278,8 @@ public class WorldMapEquiazimuthal extends WorldMapTask.WorldMapProjection
         {
             Calendar now = mapTime(data, options);
             SuntimesCalculator calculator = data.calculator();
-            SuntimesCalculator.SunPosition sunPos = calculator.getSunPosition(now);
-            SuntimesCalculator.MoonPosition moonPos = calculator.getMoonPosition(now);
+            SuntimesCalculator.SunPosition sunPos = SuntimesPositionCache.getSharedCache().getSunPosition(calculator, now);
+            SuntimesCalculator.MoonPosition moonPos = SuntimesPositionCache.getSharedCache().getMoonPosition(calculator, now);
             Location location = data.location();
 
             if (sunPos == null || moonPos == null) {
@@ -31,6 +31,7 @@ import android.support.annotation.Nullable;
 import android.support.v4.graphics.ColorUtils;
 import android.util.Log;
 
+import com.forrestguice.suntimeswidget.calculator.SuntimesPositionCache;
 import com.forrestguice.suntimeswidget.calculator.SuntimesRiseSetDataset;
 import com.forrestguice.suntimeswidget.calculator.core.Location;
 import com.forrestguice.suntimeswidget.calculator.core.SuntimesCalculator;
@@ -167,8 +168,8 @@ public class WorldMapEquiazimuthal1 extends WorldMapEquiazimuthal
         {
             Calendar now = mapTime(data, options);
             SuntimesCalculator calculator = data.calculator();
-            SuntimesCalculator.SunPosition sunPos = calculator.getSunPosition(now);
-            SuntimesCalculator.MoonPosition moonPos = calculator.getMoonPosition(now);
+            SuntimesCalculator.SunPosition sunPos = SuntimesPositionCache.getSharedCache().getSunPosition(calculator, now);
+            SuntimesCalculator.MoonPosition moonPos = SuntimesPositionCache.getSharedCache().getMoonPosition(calculator, now);
             Location location = data.location();
 
             if (sunPos == null || moonPos == null) {
@@ -30,6 +30,7 @@ import android.graphics.PorterDuffXfermode;
 import android.support.annotation.Nullable;
 import android.util.Log;
 
+import com.forrestguice.suntimeswidget.calculator.SuntimesPositionCache;
 import com.forrestguice.suntimeswidget.calculator.core.SuntimesCalculator;
 import com.forrestguice.suntimeswidget.calculator.SuntimesRiseSetDataset;
 import com.forrestguice.suntimeswidget.calculator.core.Location;
@@ -161,8 +162,8 @@ public class WorldMapEquirectangular extends WorldMapTask.WorldMapProjection
         {
             Calendar now = mapTime(data, options);
             SuntimesCalculator calculator = data.calculator();
-            SuntimesCalculator.SunPosition sunPos = calculator.getSunPosition(now);
-            SuntimesCalculator.MoonPosition moonPos = calculator.getMoonPosition(now);
+            SuntimesCalculator.SunPosition sunPos = SuntimesPositionCache.getSharedCache().getSunPosition(calculator, now);
+            SuntimesCalculator.MoonPosition moonPos = SuntimesPositionCache.getSharedCache().getMoonPosition(calculator, now);
             Location location = data.location();
 
             if (sunPos == null || moonPos == null) {
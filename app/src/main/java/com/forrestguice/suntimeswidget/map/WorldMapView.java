@@ -406,6 +406,9 @@ public class WorldMapView extends android.support.v7.widget.AppCompatImageView
                 return;
             }
 
+            if (data != null) {
+                data.calculatePending();    // results are otherwise calculated on first read (from the task's thread)
+            }
             drawTask = new WorldMapTask();
             drawTask.setListener(drawListener);
 
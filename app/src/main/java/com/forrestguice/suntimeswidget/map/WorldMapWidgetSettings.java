@@ -189,14 +189,14 @@ public class WorldMapWidgetSettings
 
     public static void saveSunPosMapModePref(Context context, int appWidgetId, WorldMapWidgetMode mode, String mapTag)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(WidgetSettings.PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetSettings.getPrefs(context, appWidgetId).edit();
         String prefs_prefix = WidgetSettings.PREF_PREFIX_KEY + appWidgetId + WidgetSettings.PREF_PREFIX_KEY_APPEARANCE;
         prefs.putString(prefs_prefix + PREF_KEY_APPEARANCE_WIDGETMODE_WORLDMAP + mapTag, mode.name());
         prefs.apply();
     }
     public static WorldMapWidgetMode loadSunPosMapModePref(Context context, int appWidgetId, String mapTag)
     {
-        SharedPreferences prefs = context.getSharedPreferences(WidgetSettings.PREFS_WIDGET, 0);
+        SharedPreferences prefs = WidgetSettings.getPrefs(context, appWidgetId);
         String prefs_prefix = WidgetSettings.PREF_PREFIX_KEY + appWidgetId + WidgetSettings.PREF_PREFIX_KEY_APPEARANCE;
         String modeString = prefs.getString(prefs_prefix + PREF_KEY_APPEARANCE_WIDGETMODE_WORLDMAP + mapTag, defaultSunPosMapMode(mapTag).name());
 
@@ -212,7 +212,7 @@ public class WorldMapWidgetSettings
     }
     public static void deleteSunPosMapModePref(Context context, int appWidgetId, String mapTag)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(WidgetSettings.PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetSettings.getPrefs(context, appWidgetId).edit();
         String prefs_prefix = WidgetSettings.PREF_PREFIX_KEY + appWidgetId + WidgetSettings.PREF_PREFIX_KEY_APPEARANCE;
         prefs.remove(prefs_prefix + PREF_KEY_APPEARANCE_WIDGETMODE_WORLDMAP + mapTag);
         prefs.apply();
@@ -226,20 +226,20 @@ public class WorldMapWidgetSettings
 
     public static void saveWorldMapPref(Context context, int appWidgetId, String key, String mapTag, boolean value)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(WidgetSettings.PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetSettings.getPrefs(context, appWidgetId).edit();
         String prefs_prefix = WidgetSettings.PREF_PREFIX_KEY + appWidgetId + WidgetSettings.PREF_PREFIX_KEY_APPEARANCE + PREF_KEY_WORLDMAP;
         prefs.putBoolean(prefs_prefix + key + mapTag, value);
         prefs.apply();
     }
     public static boolean loadWorldMapPref(Context context, int appWidgetId, String key, String mapTag)
     {
-        SharedPreferences prefs = context.getSharedPreferences(WidgetSettings.PREFS_WIDGET, 0);
+        SharedPreferences prefs = WidgetSettings.getPrefs(context, appWidgetId);
         String prefs_prefix = WidgetSettings.PREF_PREFIX_KEY + appWidgetId + WidgetSettings.PREF_PREFIX_KEY_APPEARANCE + PREF_KEY_WORLDMAP;
         return prefs.getBoolean(prefs_prefix + key + mapTag, defaultWorldMapFlag(key));
     }
     public static void deleteWorldMapPref(Context context, int appWidgetId, String key, String mapTag)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(WidgetSettings.PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetSettings.getPrefs(context, appWidgetId).edit();
         String prefs_prefix = WidgetSettings.PREF_PREFIX_KEY + appWidgetId + WidgetSettings.PREF_PREFIX_KEY_APPEARANCE + PREF_KEY_WORLDMAP;
         prefs.remove(prefs_prefix + key + mapTag);
         prefs.apply();
@@ -247,7 +247,7 @@ public class WorldMapWidgetSettings
 
     public static void saveWorldMapString(Context context, int appWidgetId, String key, String mapTag, String value)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(WidgetSettings.PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = WidgetSettings.getPrefs(context, appWidgetId).edit();
         String prefs_prefix = WidgetSettings.PREF_PREFIX_KEY + appWidgetId + WidgetSettings.PREF_PREFIX_KEY_APPEARANCE + PREF_KEY_WORLDMAP;
         prefs.putString(prefs_prefix + key + mapTag, value);
         prefs.apply();
@@ -257,7 +257,7 @@ public class WorldMapWidgetSettings
     }
     public static String loadWorldMapString(Context context, int appWidgetId, String key, String mapTag, String defValue)
     {
-        SharedPreferences prefs = context.getSharedPreferences(WidgetSettings.PREFS_WIDGET, 0);
+        SharedPreferences prefs = WidgetSettings.getPrefs(context, appWidgetId);
         String prefs_prefix = WidgetSettings.PREF_PREFIX_KEY + appWidgetId + WidgetSettings.PREF_PREFIX_KEY_APPEARANCE + PREF_KEY_WORLDMAP;
         return prefs.getString(prefs_prefix + key + mapTag, defValue);
     }
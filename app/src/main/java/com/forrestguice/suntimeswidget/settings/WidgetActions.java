@@ -163,7 +163,7 @@ public class WidgetActions
             extrasString = null;
         }
 
-        SharedPreferences.Editor prefs = context.getSharedPreferences(getPrefsId(appWidgetId, id), 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId, id).edit();
         String prefs_prefix0 = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_ACTION + PREF_KEY_ACTION_LAUNCH + "_" + id + "_";
 
         prefs.putString(prefs_prefix0 + PREF_KEY_ACTION_LAUNCH, (launchString != null ? launchString : ""));
@@ -218,7 +218,7 @@ public class WidgetActions
             id = "0";
         }
 
-        SharedPreferences prefs = context.getSharedPreferences(getPrefsId(appWidgetId, id), 0);
+        SharedPreferences prefs = getPrefs(context, appWidgetId, id);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_ACTION + PREF_KEY_ACTION_LAUNCH + "_" + id + "_";
 
         if (key == null || key.isEmpty())
@@ -264,7 +264,7 @@ public class WidgetActions
             id = "0";
         }
 
-        SharedPreferences.Editor prefs = context.getSharedPreferences(getPrefsId(appWidgetId, id), 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId, id).edit();
         String prefs_prefix0 = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_ACTION + PREF_KEY_ACTION_LAUNCH + "_" + id + "_";
         prefs.remove(prefs_prefix0 + PREF_KEY_ACTION_LAUNCH );
         prefs.remove(prefs_prefix0 + PREF_KEY_ACTION_LAUNCH_PACKAGE );
@@ -286,14 +286,15 @@ public class WidgetActions
     }
     public static boolean hasActionLaunchPref(Context context, int appWidgetId, @NonNull String id)
     {
-        SharedPreferences prefs = context.getSharedPreferences(getPrefsId(appWidgetId, id), 0);
+        SharedPreferences prefs = getPrefs(context, appWidgetId, id);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_ACTION + PREF_KEY_ACTION_LAUNCH + "_" + id + "_";
         return prefs.contains(prefs_prefix + PREF_KEY_ACTION_LAUNCH_TYPE);
     }
 
-    public static String getPrefsId(int appWidgetId, String actionId)
+    public static SharedPreferences getPrefs(Context context, int appWidgetId, String actionId)
     {
-        return (((actionId == null) || actionId.equals("0")) ? PREFS_WIDGETS : PREFS_ACTIONS);
+        return (((actionId == null) || actionId.equals("0")) ? WidgetSettings.getPrefs(context, appWidgetId)
+                                                            : context.getSharedPreferences(PREFS_ACTIONS, 0));
     }
 
     public static Set<String> getStringSet(SharedPreferences prefs, String key, @Nullable Set<String> defValues)    // TODO: needs test
@@ -0,0 +1,297 @@
+/**
+    Copyright (C) 2022 Forrest Guice
+    This file is part of SuntimesWidget.
+
+    SuntimesWidget is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SuntimesWidget is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SuntimesWidget.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.forrestguice.suntimeswidget.settings;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.SparseArray;
+
+import com.forrestguice.suntimeswidget.calculator.SuntimesCalculatorDescriptor;
+import com.forrestguice.suntimeswidget.calculator.core.Location;
+
+import java.util.ArrayList;
+
+/**
+ * WidgetConfig; an immutable snapshot of a widget's settings (loaded in one pass).
+ *
+ * Snapshots are cached by appWidgetId and invalidated when the widget's preferences change (changes to the
+ * app configuration (appWidgetId 0) invalidate every snapshot, since widgets may fall back to its location).
+ * Settings that aren't part of the snapshot are still available from WidgetSettings.
+ */
+public final class WidgetConfig
+{
+    public static final String CALCULATOR_MOON = "moon";
+
+    private static final SparseArray<WidgetConfig> cache = new SparseArray<>();
+    private static int generation = 0;
+    private static final ArrayList<SharedPreferences> registered = new ArrayList<>();
+    private static final SharedPreferences.OnSharedPreferenceChangeListener onPrefsChanged = new SharedPreferences.OnSharedPreferenceChangeListener()
+    {
+        @Override
+        public void onSharedPreferenceChanged(SharedPreferences sharedPreferences, String key) {
+            invalidate(key);
+        }
+    };    // static (prefs only keep weak references to listeners)
+
+    /**
+     * @param context a context used to access shared prefs
+     * @param appWidgetId the widgetID to load settings from (0 for app)
+     * @return a (cached) snapshot of the widget's settings
+     */
+    @NonNull
+    public static WidgetConfig get(@NonNull Context context, int appWidgetId)
+    {
+        SharedPreferences prefs = WidgetSettings.getPrefs(context, appWidgetId);
+        SharedPreferences prefs0 = WidgetSettings.getPrefs(context, 0);
+        int loadedGeneration;
+        synchronized (cache)
+        {
+            loadedGeneration = generation;
+            register(prefs);
+            register(prefs0);
+
+            WidgetConfig config = cache.get(appWidgetId);
+            if (config != null && config.prefs == prefs) {    // (a different context may use different prefs; e.g. during testing)
+                return config;
+            }
+        }
+
+        WidgetConfig config = new WidgetConfig(context, prefs, appWidgetId);
+        synchronized (cache)
+        {
+            if (loadedGeneration == generation) {    // skip if invalidated while loading
+                cache.put(appWidgetId, config);
+            }
+        }
+        return config;
+    }
+
+    private static void register(SharedPreferences prefs)
+    {
+        if (!registered.contains(prefs))
+        {
+            prefs.registerOnSharedPreferenceChangeListener(onPrefsChanged);
+            registered.add(prefs);
+        }
+    }
+
+    /**
+     * Invalidate the snapshot of a single widget.
+     */
+    public static void invalidate(int appWidgetId)
+    {
+        synchronized (cache)
+        {
+            generation++;
+            if (appWidgetId == 0) {
+                cache.clear();
+            } else cache.remove(appWidgetId);
+        }
+    }
+
+    /**
+     * Invalidate the snapshot owning a preference key (PREF_PREFIX_KEY + appWidgetId + ...); all snapshots if the key can't be parsed.
+     */
+    protected static void invalidate(@Nullable String key)
+    {
+        Integer appWidgetId = WidgetSettings.parseAppWidgetId(key);
+        invalidate(appWidgetId != null ? appWidgetId : 0);
+    }
+
+    public static void invalidateAll() {
+        invalidate(0);
+    }
+
+    private final SharedPreferences prefs;
+    private final int appWidgetId;
+    private final SuntimesCalculatorDescriptor calculatorMode, moonCalculatorMode;
+    private final Location location;
+    private final WidgetSettings.LocationMode locationMode;
+    private final String timezone;
+    private final WidgetSettings.TimezoneMode timezoneMode;
+    private final WidgetSettings.SolarTimeMode solarTimeMode;
+    private final WidgetSettings.DateMode dateMode;
+    private final WidgetSettings.DateInfo dateInfo;
+    private final WidgetSettings.TimeMode timeMode;
+    private final WidgetSettings.SolsticeEquinoxMode timeMode2;
+    private final WidgetSettings.CompareMode compareMode;
+    private final WidgetSettings.TimeFormatMode timeFormatMode;
+    private final WidgetSettings.RiseSetOrder riseSetOrder;
+    private final WidgetSettings.TrackingMode trackingMode;
+    private final WidgetSettings.LengthUnit lengthUnits;
+    private final float observerHeight;
+    private final String titleText;
+    private final int widgetGravity;
+    private final boolean showTitle, showLabels, showSeconds, showHours, showWeeks, showTimeDate, showNoon, showCompare;
+    private final boolean scaleText, scaleBase, allowResize, localizeHemisphere;
+
+    private WidgetConfig(Context context, SharedPreferences prefs, int appWidgetId)
+    {
+        this.prefs = prefs;
+        this.appWidgetId = appWidgetId;
+        calculatorMode = WidgetSettings.loadCalculatorModePref(context, appWidgetId, "");
+        moonCalculatorMode = WidgetSettings.loadCalculatorModePref(context, appWidgetId, CALCULATOR_MOON);
+
+        location = WidgetSettings.loadLocationPref(context, appWidgetId);
+        locationMode = WidgetSettings.loadLocationModePref(context, appWidgetId);
+        timezone = WidgetSettings.loadTimezonePref(context, appWidgetId);
+        timezoneMode = WidgetSettings.loadTimezoneModePref(context, appWidgetId);
+        solarTimeMode = WidgetSettings.loadSolarTimeModePref(context, appWidgetId);
+        dateMode = WidgetSettings.loadDateModePref(context, appWidgetId);
+        dateInfo = WidgetSettings.loadDatePref(context, appWidgetId);
+
+        timeMode = WidgetSettings.loadTimeModePref(context, appWidgetId);
+        timeMode2 = WidgetSettings.loadTimeMode2Pref(context, appWidgetId);
+        compareMode = WidgetSettings.loadCompareModePref(context, appWidgetId);
+        timeFormatMode = WidgetSettings.loadTimeFormatModePref(context, appWidgetId);
+        riseSetOrder = WidgetSettings.loadRiseSetOrderPref(context, appWidgetId);
+        trackingMode = WidgetSettings.loadTrackingModePref(context, appWidgetId);
+        lengthUnits = WidgetSettings.loadLengthUnitsPref(context, appWidgetId);
+        observerHeight = WidgetSettings.loadObserverHeightPref(context, appWidgetId);
+        localizeHemisphere = WidgetSettings.loadLocalizeHemispherePref(context, appWidgetId);
+
+        titleText = WidgetSettings.loadTitleTextPref(context, appWidgetId);
+        widgetGravity = WidgetSettings.loadWidgetGravityPref(context, appWidgetId);
+        showTitle = WidgetSettings.loadShowTitlePref(context, appWidgetId);
+        showLabels = WidgetSettings.loadShowLabelsPref(context, appWidgetId);
+        showSeconds = WidgetSettings.loadShowSecondsPref(context, appWidgetId);
+        showHours = WidgetSettings.loadShowHoursPref(context, appWidgetId);
+        showWeeks = WidgetSettings.loadShowWeeksPref(context, appWidgetId);
+        showTimeDate = WidgetSettings.loadShowTimeDatePref(context, appWidgetId);
+        showNoon = WidgetSettings.loadShowNoonPref(context, appWidgetId);
+        showCompare = WidgetSettings.loadShowComparePref(context, appWidgetId);
+        scaleText = WidgetSettings.loadScaleTextPref(context, appWidgetId);
+        scaleBase = WidgetSettings.loadScaleBasePref(context, appWidgetId);
+        allowResize = WidgetSettings.loadAllowResizePref(context, appWidgetId);
+    }
+
+    public int appWidgetId() {
+        return appWidgetId;
+    }
+
+    /**
+     * @param calculatorName "" (sun), "moon", or another name (loaded directly from WidgetSettings)
+     */
+    @Nullable
+    public SuntimesCalculatorDescriptor calculatorMode(Context context, String calculatorName)
+    {
+        if ("".equals(calculatorName)) {
+            return calculatorMode;
+        } else if (CALCULATOR_MOON.equals(calculatorName)) {
+            return moonCalculatorMode;
+        } else return WidgetSettings.loadCalculatorModePref(context, appWidgetId, calculatorName);
+    }
+
+    /**
+     * @return a copy of the location (the snapshot is immutable)
+     */
+    public Location location() {
+        return new Location(location);
+    }
+    public WidgetSettings.LocationMode locationMode() {
+        return locationMode;
+    }
+
+    public String timezone() {
+        return timezone;
+    }
+    public WidgetSettings.TimezoneMode timezoneMode() {
+        return timezoneMode;
+    }
+    public WidgetSettings.SolarTimeMode solarTimeMode() {
+        return solarTimeMode;
+    }
+
+    public WidgetSettings.DateMode dateMode() {
+        return dateMode;
+    }
+    public WidgetSettings.DateInfo dateInfo() {
+        return dateInfo;
+    }
+
+    public WidgetSettings.TimeMode timeMode() {
+        return timeMode;
+    }
+    public WidgetSettings.SolsticeEquinoxMode timeMode2() {
+        return timeMode2;
+    }
+    public WidgetSettings.CompareMode compareMode() {
+        return compareMode;
+    }
+    public WidgetSettings.TimeFormatMode timeFormatMode() {
+        return timeFormatMode;
+    }
+    public WidgetSettings.RiseSetOrder riseSetOrder() {
+        return riseSetOrder;
+    }
+    public WidgetSettings.TrackingMode trackingMode() {
+        return trackingMode;
+    }
+    public WidgetSettings.LengthUnit lengthUnits() {
+        return lengthUnits;
+    }
+    public float observerHeight() {
+        return observerHeight;
+    }
+    public boolean localizeHemisphere() {
+        return localizeHemisphere;
+    }
+
+    public String titleText() {
+        return titleText;
+    }
+    public int widgetGravity() {
+        return widgetGravity;
+    }
+    public boolean showTitle() {
+        return showTitle;
+    }
+    public boolean showLabels() {
+        return showLabels;
+    }
+    public boolean showSeconds() {
+        return showSeconds;
+    }
+    public boolean showHours() {
+        return showHours;
+    }
+    public boolean showWeeks() {
+        return showWeeks;
+    }
+    public boolean showTimeDate() {
+        return showTimeDate;
+    }
+    public boolean showNoon() {
+        return showNoon;
+    }
+    public boolean showCompare() {
+        return showCompare;
+    }
+    public boolean scaleText() {
+        return scaleText;
+    }
+    public boolean scaleBase() {
+        return scaleBase;
+    }
+    public boolean allowResize() {
+        return allowResize;
+    }
+}
@@ -53,16 +53,24 @@ import com.forrestguice.suntimeswidget.themes.defaults.DarkTheme;
 import com.forrestguice.suntimeswidget.themes.SuntimesTheme;
 
 import java.util.Calendar;
+import java.util.HashMap;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 import java.util.TimeZone;
 
 /**
- * Shared preferences used by individual widgets; uses getSharedPreferences (stored in com.forrestguice.suntimeswidget.xml).
+ * Shared preferences used by individual widgets; uses getSharedPreferences (app settings are stored in com.forrestguice.suntimeswidget.xml,
+ * and each widget's settings are stored in a separate com.forrestguice.suntimeswidget.widget_<appWidgetId>.xml).
  * Each pref takes an appWidgetId; the app uses these prefs by supplying 0 (AppWidgetManager.INVALID_APPWIDGET_ID).
  */
 public class WidgetSettings
 {
     public static final String PREFS_WIDGET = "com.forrestguice.suntimeswidget";
+    public static final String PREFS_WIDGET_SHARD = PREFS_WIDGET + ".widget_";
+
+    public static final String PREF_KEY_SHARDED = "widget_prefs_sharded";    // set after legacy widget settings have been moved out of PREFS_WIDGET
+    public static final int PREF_DEF_SHARDED = 1;
 
     public static final String PREF_PREFIX_KEY = "appwidget_";
     public static final String PREF_PREFIX_KEY_APPEARANCE = "_appearance_";
@@ -1367,20 +1375,20 @@ public class WidgetSettings
 
     public static long getNextSuggestedUpdate(Context context, int appWidgetId)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        SharedPreferences prefs = getPrefs(context, appWidgetId);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId;
         return prefs.getLong(prefs_prefix + PREF_KEY_NEXTUPDATE, -1);
     }
     public static void saveNextSuggestedUpdate(Context context, int appWidgetId, long updateTime)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId;
         prefs.putLong(prefs_prefix + PREF_KEY_NEXTUPDATE, updateTime);
         prefs.apply();
     }
     public static void deleteNextSuggestedUpdate(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId;
         prefs.remove(prefs_prefix + PREF_KEY_NEXTUPDATE);
         prefs.apply();
@@ -1391,14 +1399,14 @@ public class WidgetSettings
 
     public static void saveRiseSetOrderPref(Context context, int appWidgetId, RiseSetOrder mode)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.putString(prefs_prefix + PREF_KEY_GENERAL_RISESETORDER, mode.name());
         prefs.apply();
     }
     public static RiseSetOrder loadRiseSetOrderPref(Context context, int appWidgetId)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        SharedPreferences prefs = getPrefs(context, appWidgetId);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         String modeString = prefs.getString(prefs_prefix + PREF_KEY_GENERAL_RISESETORDER, PREF_DEF_GENERAL_RISESETORDER.name());
 
@@ -1415,7 +1423,7 @@ public class WidgetSettings
     }
     public static void deleteRiseSetOrderPref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.remove(prefs_prefix + PREF_KEY_GENERAL_RISESETORDER);
         prefs.apply();
@@ -1426,20 +1434,20 @@ public class WidgetSettings
 
     public static void saveAllowResizePref(Context context, int appWidgetId, boolean allowResize)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         prefs.putBoolean(prefs_prefix + PREF_KEY_APPEARANCE_ALLOWRESIZE, allowResize);
         prefs.apply();
     }
     public static boolean loadAllowResizePref(Context context, int appWidgetId)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        SharedPreferences prefs = getPrefs(context, appWidgetId);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         return prefs.getBoolean(prefs_prefix + PREF_KEY_APPEARANCE_ALLOWRESIZE, PREF_DEF_APPEARANCE_ALLOWRESIZE);
     }
     public static void deleteAllowResizePref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         prefs.remove(prefs_prefix + PREF_KEY_APPEARANCE_ALLOWRESIZE);
         prefs.apply();
@@ -1450,7 +1458,7 @@ public class WidgetSettings
 
     public static void saveScaleTextPref(Context context, int appWidgetId, boolean scaleText)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         prefs.putBoolean(prefs_prefix + PREF_KEY_APPEARANCE_SCALETEXT, scaleText);
         prefs.apply();
@@ -1460,13 +1468,13 @@ public class WidgetSettings
     }
     public static boolean loadScaleTextPref(Context context, int appWidgetId, boolean defValue)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        SharedPreferences prefs = getPrefs(context, appWidgetId);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         return prefs.getBoolean(prefs_prefix + PREF_KEY_APPEARANCE_SCALETEXT, defValue);
     }
     public static void deleteScaleTextPref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         prefs.remove(prefs_prefix + PREF_KEY_APPEARANCE_SCALETEXT);
         prefs.apply();
@@ -1477,7 +1485,7 @@ public class WidgetSettings
 
     public static void saveScaleBasePref(Context context, int appWidgetId, boolean scaleBase)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         prefs.putBoolean(prefs_prefix + PREF_KEY_APPEARANCE_SCALEBASE, scaleBase);
         prefs.apply();
@@ -1487,13 +1495,13 @@ public class WidgetSettings
     }
     public static boolean loadScaleBasePref(Context context, int appWidgetId, boolean defValue)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        SharedPreferences prefs = getPrefs(context, appWidgetId);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         return prefs.getBoolean(prefs_prefix + PREF_KEY_APPEARANCE_SCALEBASE, defValue);
     }
     public static void deleteScaleBasePref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         prefs.remove(prefs_prefix + PREF_KEY_APPEARANCE_SCALEBASE);
         prefs.apply();
@@ -1504,7 +1512,7 @@ public class WidgetSettings
 
     public static void saveWidgetGravityPref(Context context, int appWidgetId, int gravity)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         prefs.putInt(prefs_prefix + PREF_KEY_APPEARANCE_GRAVITY, gravity);
         prefs.apply();
@@ -1512,13 +1520,13 @@ public class WidgetSettings
 
     public static int loadWidgetGravityPref(Context context, int appWidgetId)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        SharedPreferences prefs = getPrefs(context, appWidgetId);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         return prefs.getInt(prefs_prefix + PREF_KEY_APPEARANCE_GRAVITY, PREF_DEF_APPEARANCE_GRAVITY.getPosition());
     }
     public static void deleteWidgetGravityPref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         prefs.remove(prefs_prefix + PREF_KEY_APPEARANCE_GRAVITY);
         prefs.apply();
@@ -1529,14 +1537,14 @@ public class WidgetSettings
 
     public static void saveSun1x1ModePref(Context context, int appWidgetId, WidgetModeSun1x1 mode)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         prefs.putString(prefs_prefix + PREF_KEY_APPEARANCE_WIDGETMODE_SUN1x1, mode.name());
         prefs.apply();
     }
     public static WidgetModeSun1x1 loadSun1x1ModePref(Context context, int appWidgetId)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        SharedPreferences prefs = getPrefs(context, appWidgetId);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         String modeString = prefs.getString(prefs_prefix + PREF_KEY_APPEARANCE_WIDGETMODE_SUN1x1, PREF_DEF_APPEARANCE_WIDGETMODE_SUN1x1.name());
 
@@ -1574,7 +1582,7 @@ public class WidgetSettings
     }
     public static void deleteSun1x1ModePref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         prefs.remove(prefs_prefix + PREF_KEY_APPEARANCE_WIDGETMODE_SUN1x1);
         prefs.apply();
@@ -1585,14 +1593,14 @@ public class WidgetSettings
 
     public static void saveSunPos1x1ModePref(Context context, int appWidgetId, WidgetModeSunPos1x1 mode)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         prefs.putString(prefs_prefix + PREF_KEY_APPEARANCE_WIDGETMODE_SUNPOS1x1, mode.name());
         prefs.apply();
     }
     public static WidgetModeSunPos1x1 loadSunPos1x1ModePref(Context context, int appWidgetId)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        SharedPreferences prefs = getPrefs(context, appWidgetId);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         String modeString = prefs.getString(prefs_prefix + PREF_KEY_APPEARANCE_WIDGETMODE_SUNPOS1x1, PREF_DEF_APPEARANCE_WIDGETMODE_SUNPOS1x1.name());
 
@@ -1625,7 +1633,7 @@ public class WidgetSettings
     }
     public static void deleteSunPos1x1ModePref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         prefs.remove(prefs_prefix + PREF_KEY_APPEARANCE_WIDGETMODE_SUNPOS1x1);
         prefs.apply();
@@ -1636,14 +1644,14 @@ public class WidgetSettings
 
     public static void saveSunPos3x1ModePref(Context context, int appWidgetId, WidgetModeSunPos3x1 mode)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         prefs.putString(prefs_prefix + PREF_KEY_APPEARANCE_WIDGETMODE_SUNPOS3x1, mode.name());
         prefs.apply();
     }
     public static WidgetModeSunPos3x1 loadSunPos3x1ModePref(Context context, int appWidgetId)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        SharedPreferences prefs = getPrefs(context, appWidgetId);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         String modeString = prefs.getString(prefs_prefix + PREF_KEY_APPEARANCE_WIDGETMODE_SUNPOS3x1, PREF_DEF_APPEARANCE_WIDGETMODE_SUNPOS3x1.name());
         try {
@@ -1664,7 +1672,7 @@ public class WidgetSettings
     }
     public static void deleteSunPos3x1ModePref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         prefs.remove(prefs_prefix + PREF_KEY_APPEARANCE_WIDGETMODE_SUNPOS3x1);
         prefs.apply();
@@ -1675,14 +1683,14 @@ public class WidgetSettings
 
     public static void saveMoon1x1ModePref(Context context, int appWidgetId, WidgetModeMoon1x1 mode)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         prefs.putString(prefs_prefix + PREF_KEY_APPEARANCE_WIDGETMODE_MOON1x1, mode.name());
         prefs.apply();
     }
     public static WidgetModeMoon1x1 loadMoon1x1ModePref(Context context, int appWidgetId)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        SharedPreferences prefs = getPrefs(context, appWidgetId);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         String modeString = prefs.getString(prefs_prefix + PREF_KEY_APPEARANCE_WIDGETMODE_MOON1x1, PREF_DEF_APPEARANCE_WIDGETMODE_MOON1x1.name());
 
@@ -1744,7 +1752,7 @@ public class WidgetSettings
     }
     public static void deleteMoon1x1ModePref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         prefs.remove(prefs_prefix + PREF_KEY_APPEARANCE_WIDGETMODE_MOON1x1);
         prefs.apply();
@@ -1755,14 +1763,14 @@ public class WidgetSettings
 
     public static void saveThemePref(Context context, int appWidgetId, String themeName)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         prefs.putString(prefs_prefix + PREF_KEY_APPEARANCE_THEME, themeName);
         prefs.apply();
     }
     public static String loadThemeName(Context context, int appWidgetId)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        SharedPreferences prefs = getPrefs(context, appWidgetId);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         return prefs.getString(prefs_prefix + PREF_KEY_APPEARANCE_THEME, PREF_DEF_APPEARANCE_THEME);
     }
@@ -1776,7 +1784,7 @@ public class WidgetSettings
     }
     public static void deleteThemePref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         prefs.remove(prefs_prefix + PREF_KEY_APPEARANCE_THEME);
         prefs.apply();
@@ -1804,7 +1812,7 @@ public class WidgetSettings
     }
     public static void saveCalculatorModePref(Context context, int appWidgetId, @NonNull String calculatorName, SuntimesCalculatorDescriptor mode)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String key = keyCalculatorModePref(appWidgetId, calculatorName);
         prefs.putString(key, mode.getName());
         prefs.apply();
@@ -1841,7 +1849,7 @@ public class WidgetSettings
     }
     public static SuntimesCalculatorDescriptor loadCalculatorModePref(Context context, int appWidgetId, @NonNull String calculatorName)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        SharedPreferences prefs = getPrefs(context, appWidgetId);
         String key = keyCalculatorModePref(appWidgetId, calculatorName);
         String defaultValue = defaultCalculatorModePref(context, appWidgetId, calculatorName);
         String modeString = prefs.getString(key, defaultValue);
@@ -1864,7 +1872,7 @@ public class WidgetSettings
     }
     public static void deleteCalculatorModePref(Context context, int appWidgetId, @NonNull String calculatorName)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String key = keyCalculatorModePref(appWidgetId, calculatorName);
         prefs.remove(key);
         prefs.apply();
@@ -1875,7 +1883,7 @@ public class WidgetSettings
 
     public static void saveShowLabelsPref(Context context, int appWidgetId, boolean showLabels)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         prefs.putBoolean(prefs_prefix + PREF_KEY_APPEARANCE_SHOWLABELS, showLabels);
         prefs.apply();
@@ -1886,13 +1894,13 @@ public class WidgetSettings
     }
     public static boolean loadShowLabelsPref(Context context, int appWidgetId, boolean defaultValue)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        SharedPreferences prefs = getPrefs(context, appWidgetId);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         return prefs.getBoolean(prefs_prefix + PREF_KEY_APPEARANCE_SHOWLABELS, defaultValue);
     }
     public static void deleteShowLabelsPref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         prefs.remove(prefs_prefix + PREF_KEY_APPEARANCE_SHOWLABELS);
         prefs.apply();
@@ -1901,7 +1909,7 @@ public class WidgetSettings
 
     public static void saveShowTitlePref(Context context, int appWidgetId, boolean showTitle)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         prefs.putBoolean(prefs_prefix + PREF_KEY_APPEARANCE_SHOWTITLE, showTitle);
         prefs.apply();
@@ -1912,13 +1920,13 @@ public class WidgetSettings
     }
     public static boolean loadShowTitlePref(Context context, int appWidgetId, boolean defValue)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        SharedPreferences prefs = getPrefs(context, appWidgetId);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         return prefs.getBoolean(prefs_prefix + PREF_KEY_APPEARANCE_SHOWTITLE, defValue);
     }
     public static void deleteShowTitlePref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         prefs.remove(prefs_prefix + PREF_KEY_APPEARANCE_SHOWTITLE);
         prefs.apply();
@@ -1929,7 +1937,7 @@ public class WidgetSettings
 
     public static void saveTitleTextPref(Context context, int appWidgetId, String titleText)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         prefs.putString(prefs_prefix + PREF_KEY_APPEARANCE_TITLETEXT, titleText);
         prefs.apply();
@@ -1940,13 +1948,13 @@ public class WidgetSettings
     }
     public static String loadTitleTextPref(Context context, int appWidgetId, String defValue)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        SharedPreferences prefs = getPrefs(context, appWidgetId);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         return prefs.getString(prefs_prefix + PREF_KEY_APPEARANCE_TITLETEXT, defValue);
     }
     public static void deleteTitleTextPref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         prefs.remove(prefs_prefix + PREF_KEY_APPEARANCE_TITLETEXT);
         prefs.apply();
@@ -1957,14 +1965,14 @@ public class WidgetSettings
 
     public static void saveTimeModePref(Context context, int appWidgetId, WidgetSettings.TimeMode mode)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.putString(prefs_prefix + PREF_KEY_GENERAL_TIMEMODE, mode.name());
         prefs.apply();
     }
     public static WidgetSettings.TimeMode loadTimeModePref(Context context, int appWidgetId)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        SharedPreferences prefs = getPrefs(context, appWidgetId);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         String modeString = prefs.getString(prefs_prefix + PREF_KEY_GENERAL_TIMEMODE, PREF_DEF_GENERAL_TIMEMODE.name());
 
@@ -1980,7 +1988,7 @@ public class WidgetSettings
     }
     public static void deleteTimeModePref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.remove(prefs_prefix + PREF_KEY_GENERAL_TIMEMODE);
         prefs.apply();
@@ -1991,20 +1999,20 @@ public class WidgetSettings
 
     public static void saveTimeMode2OverridePref(Context context, int appWidgetId, boolean value)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.putBoolean(prefs_prefix + PREF_KEY_GENERAL_TIMEMODE2_OVERRIDE, value);
         prefs.apply();
     }
     public static boolean loadTimeMode2OverridePref(Context context, int appWidgetId)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        SharedPreferences prefs = getPrefs(context, appWidgetId);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         return prefs.getBoolean(prefs_prefix + PREF_KEY_GENERAL_TIMEMODE2_OVERRIDE, PREF_DEF_GENERAL_TIMEMODE2_OVERRIDE);
     }
     public static void deleteTimeMode2OverridePref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.remove(prefs_prefix + PREF_KEY_GENERAL_TIMEMODE2_OVERRIDE);
         prefs.apply();
@@ -2015,14 +2023,14 @@ public class WidgetSettings
 
     public static void saveTimeMode2Pref(Context context, int appWidgetId, SolsticeEquinoxMode mode)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.putString(prefs_prefix + PREF_KEY_GENERAL_TIMEMODE2, mode.name());
         prefs.apply();
     }
     public static WidgetSettings.SolsticeEquinoxMode loadTimeMode2Pref(Context context, int appWidgetId)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        SharedPreferences prefs = getPrefs(context, appWidgetId);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         String modeString = prefs.getString(prefs_prefix + PREF_KEY_GENERAL_TIMEMODE2, PREF_DEF_GENERAL_TIMEMODE2.name());
 
@@ -2038,7 +2046,7 @@ public class WidgetSettings
     }
     public static void deleteTimeMode2Pref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.remove(prefs_prefix + PREF_KEY_GENERAL_TIMEMODE2);
         prefs.apply();
@@ -2049,14 +2057,14 @@ public class WidgetSettings
 
     public static void saveTimeMode3Pref(Context context, int appWidgetId, MoonPhaseMode mode)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.putString(prefs_prefix + PREF_KEY_GENERAL_TIMEMODE3, mode.name());
         prefs.apply();
     }
     public static WidgetSettings.MoonPhaseMode loadTimeMode3Pref(Context context, int appWidgetId)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        SharedPreferences prefs = getPrefs(context, appWidgetId);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         String modeString = prefs.getString(prefs_prefix + PREF_KEY_GENERAL_TIMEMODE3, PREF_DEF_GENERAL_TIMEMODE3.name());
 
@@ -2072,7 +2080,7 @@ public class WidgetSettings
     }
     public static void deleteTimeMode3Pref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.remove(prefs_prefix + PREF_KEY_GENERAL_TIMEMODE3);
         prefs.apply();
@@ -2083,14 +2091,14 @@ public class WidgetSettings
 
     public static void saveSolarTimeModePref(Context context, int appWidgetId, WidgetSettings.SolarTimeMode mode)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.putString(prefs_prefix + PREF_KEY_TIMEZONE_SOLARMODE, mode.name());
         prefs.apply();
     }
     public static WidgetSettings.SolarTimeMode loadSolarTimeModePref(Context context, int appWidgetId)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        SharedPreferences prefs = getPrefs(context, appWidgetId);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         String modeString = prefs.getString(prefs_prefix + PREF_KEY_TIMEZONE_SOLARMODE, PREF_DEF_TIMEZONE_SOLARMODE.name());
 
@@ -2106,7 +2114,7 @@ public class WidgetSettings
     }
     public static void deleteSolarTimeModePref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.remove(prefs_prefix + PREF_KEY_TIMEZONE_SOLARMODE);
         prefs.apply();
@@ -2117,14 +2125,14 @@ public class WidgetSettings
 
     public static void saveTimeFormatModePref(Context context, int appWidgetId, WidgetSettings.TimeFormatMode mode)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         prefs.putString(prefs_prefix + PREF_KEY_APPEARANCE_TIMEFORMATMODE, mode.name());
         prefs.apply();
     }
     public static WidgetSettings.TimeFormatMode loadTimeFormatModePref(Context context, int appWidgetId)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        SharedPreferences prefs = getPrefs(context, appWidgetId);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         String modeString = prefs.getString(prefs_prefix + PREF_KEY_APPEARANCE_TIMEFORMATMODE, PREF_DEF_APPEARANCE_TIMEFORMATMODE.name());
 
@@ -2140,7 +2148,7 @@ public class WidgetSettings
     }
     public static void deleteTimeFormatModePref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_APPEARANCE;
         prefs.remove(prefs_prefix + PREF_KEY_APPEARANCE_TIMEFORMATMODE);
         prefs.apply();
@@ -2151,7 +2159,7 @@ public class WidgetSettings
 
     public static void saveActionModePref(Context context, int appWidgetId, @NonNull WidgetSettings.ActionMode mode)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_ACTION;
         prefs.putString(prefs_prefix + PREF_KEY_ACTION_MODE, mode.name());
         prefs.apply();
@@ -2162,7 +2170,7 @@ public class WidgetSettings
     }
     public static WidgetSettings.ActionMode loadActionModePref(Context context, int appWidgetId, @NonNull WidgetSettings.ActionMode defMode)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        SharedPreferences prefs = getPrefs(context, appWidgetId);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_ACTION;
         String modeString = prefs.getString(prefs_prefix + PREF_KEY_ACTION_MODE, defMode.name());
 
@@ -2178,7 +2186,7 @@ public class WidgetSettings
     }
     public static void deleteActionModePref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_ACTION;
         prefs.remove(prefs_prefix + PREF_KEY_ACTION_MODE);
         prefs.apply();
@@ -2189,14 +2197,14 @@ public class WidgetSettings
 
     public static void saveLocationModePref(Context context, int appWidgetId, WidgetSettings.LocationMode mode)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_LOCATION;
         prefs.putString(prefs_prefix + PREF_KEY_LOCATION_MODE, mode.name());
         prefs.apply();
     }
     public static WidgetSettings.LocationMode loadLocationModePref(Context context, int appWidgetId)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        SharedPreferences prefs = getPrefs(context, appWidgetId);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_LOCATION;
         String modeString = prefs.getString(prefs_prefix + PREF_KEY_LOCATION_MODE, PREF_DEF_LOCATION_MODE.name());
 
@@ -2212,7 +2220,7 @@ public class WidgetSettings
     }
     public static void deleteLocationModePref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_LOCATION;
         prefs.remove(prefs_prefix + PREF_KEY_LOCATION_MODE);
         prefs.apply();
@@ -2223,14 +2231,14 @@ public class WidgetSettings
 
     public static void saveDateModePref(Context context, int appWidgetId, WidgetSettings.DateMode mode)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_DATE;
         prefs.putString(prefs_prefix + PREF_KEY_DATE_MODE, mode.name());
         prefs.apply();
     }
     public static WidgetSettings.DateMode loadDateModePref(Context context, int appWidgetId)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        SharedPreferences prefs = getPrefs(context, appWidgetId);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_DATE;
         String modeString = prefs.getString(prefs_prefix + PREF_KEY_DATE_MODE, PREF_DEF_DATE_MODE.name());
 
@@ -2246,7 +2254,7 @@ public class WidgetSettings
     }
     public static void deleteDateModePref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_DATE;
         prefs.remove(prefs_prefix + PREF_KEY_DATE_MODE);
         prefs.apply();
@@ -2254,7 +2262,7 @@ public class WidgetSettings
 
     public static void saveDatePref(Context context, int appWidgetId, DateInfo info )
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_DATE;
         prefs.putInt(prefs_prefix + PREF_KEY_DATE_YEAR, info.getYear());
         prefs.putInt(prefs_prefix + PREF_KEY_DATE_MONTH, info.getMonth());
@@ -2263,7 +2271,7 @@ public class WidgetSettings
     }
     public static WidgetSettings.DateInfo loadDatePref(Context context, int appWidgetId)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        SharedPreferences prefs = getPrefs(context, appWidgetId);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_DATE;
         int year = prefs.getInt(prefs_prefix + PREF_KEY_DATE_YEAR, PREF_DEF_DATE_YEAR);
         int month = prefs.getInt(prefs_prefix + PREF_KEY_DATE_MONTH, PREF_DEF_DATE_MONTH);
@@ -2272,7 +2280,7 @@ public class WidgetSettings
     }
     public static void deleteDatePref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_DATE;
         prefs.remove(prefs_prefix + PREF_KEY_DATE_YEAR);
         prefs.remove(prefs_prefix + PREF_KEY_DATE_MONTH);
@@ -2285,7 +2293,7 @@ public class WidgetSettings
 
     public static void saveTimezoneModePref(Context context, int appWidgetId, WidgetSettings.TimezoneMode mode)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_TIMEZONE;
         prefs.putString(prefs_prefix + PREF_KEY_TIMEZONE_MODE, mode.name());
         prefs.apply();
@@ -2296,7 +2304,7 @@ public class WidgetSettings
     }
     public static WidgetSettings.TimezoneMode loadTimezoneModePref(Context context, int appWidgetId, TimezoneMode defaultMode)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        SharedPreferences prefs = getPrefs(context, appWidgetId);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_TIMEZONE;
         String modeString = prefs.getString(prefs_prefix + PREF_KEY_TIMEZONE_MODE, defaultMode.name());
 
@@ -2312,7 +2320,7 @@ public class WidgetSettings
     }
     public static void deleteTimezoneModePref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_TIMEZONE;
         prefs.remove(prefs_prefix + PREF_KEY_TIMEZONE_MODE);
         prefs.apply();
@@ -2323,7 +2331,7 @@ public class WidgetSettings
 
     public static void saveLocationPref(Context context, int appWidgetId, Location location)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_LOCATION;
         prefs.putString(prefs_prefix + PREF_KEY_LOCATION_ALTITUDE, location.getAltitude());
         prefs.putString(prefs_prefix + PREF_KEY_LOCATION_LONGITUDE, location.getLongitude());
@@ -2337,7 +2345,7 @@ public class WidgetSettings
             appWidgetId = 0;
         }
 
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        SharedPreferences prefs = getPrefs(context, appWidgetId);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_LOCATION;
 
         String defaultAlt = PREF_DEF_LOCATION_ALTITUDE;   // locale defaults
@@ -2349,11 +2357,12 @@ public class WidgetSettings
         String nameString = prefs.getString(prefs_prefix + PREF_KEY_LOCATION_LABEL, null);
         if (nameString == null)
         {
+            SharedPreferences prefs0 = getPrefs(context, 0);
             String prefs_prefix0 = PREF_PREFIX_KEY + "0" + PREF_PREFIX_KEY_LOCATION;    // prefer app configuration (if it exists) over locale default
-            defaultAlt = prefs.getString(prefs_prefix0 + PREF_KEY_LOCATION_ALTITUDE, PREF_DEF_LOCATION_ALTITUDE);
-            defaultLon = prefs.getString(prefs_prefix0 + PREF_KEY_LOCATION_LONGITUDE, PREF_DEF_LOCATION_LONGITUDE);
-            defaultLat = prefs.getString(prefs_prefix0 + PREF_KEY_LOCATION_LATITUDE, PREF_DEF_LOCATION_LATITUDE);
-            defaultName = prefs.getString(prefs_prefix0 + PREF_KEY_LOCATION_LABEL, PREF_DEF_LOCATION_LABEL);
+            defaultAlt = prefs0.getString(prefs_prefix0 + PREF_KEY_LOCATION_ALTITUDE, PREF_DEF_LOCATION_ALTITUDE);
+            defaultLon = prefs0.getString(prefs_prefix0 + PREF_KEY_LOCATION_LONGITUDE, PREF_DEF_LOCATION_LONGITUDE);
+            defaultLat = prefs0.getString(prefs_prefix0 + PREF_KEY_LOCATION_LATITUDE, PREF_DEF_LOCATION_LATITUDE);
+            defaultName = prefs0.getString(prefs_prefix0 + PREF_KEY_LOCATION_LABEL, PREF_DEF_LOCATION_LABEL);
             defaultUseAltitude = prefs.getBoolean(prefs_prefix + PREF_KEY_LOCATION_ALTITUDE_ENABLED, PREF_DEF_LOCATION_ALTITUDE_ENABLED);
         }
 
@@ -2374,7 +2383,7 @@ public class WidgetSettings
     }
     public static void deleteLocationPref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_LOCATION;
         prefs.remove(prefs_prefix + PREF_KEY_LOCATION_ALTITUDE);
         prefs.remove(prefs_prefix + PREF_KEY_LOCATION_LONGITUDE);
@@ -2388,21 +2397,21 @@ public class WidgetSettings
 
     public static void saveLocationAltitudeEnabledPref(Context context, int appWidgetId, boolean enabled)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_LOCATION;
         prefs.putBoolean(prefs_prefix + PREF_KEY_LOCATION_ALTITUDE_ENABLED, enabled);
         prefs.apply();
     }
     public static boolean loadLocationAltitudeEnabledPref(Context context, int appWidgetId)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        SharedPreferences prefs = getPrefs(context, appWidgetId);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_LOCATION;
         boolean enabled = prefs.getBoolean(prefs_prefix + PREF_KEY_LOCATION_ALTITUDE_ENABLED, PREF_DEF_LOCATION_ALTITUDE_ENABLED);
         return enabled;
     }
     public static void deleteLocationAltitudeEnabledPref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_LOCATION;
         prefs.remove(prefs_prefix + PREF_KEY_LOCATION_ALTITUDE_ENABLED);
         prefs.apply();
@@ -2412,21 +2421,21 @@ public class WidgetSettings
 
     public static void saveLocationFromAppPref(Context context, int appWidgetId, boolean enabled)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_LOCATION;
         prefs.putBoolean(prefs_prefix + PREF_KEY_LOCATION_FROMAPP, enabled);
         prefs.apply();
     }
     public static boolean loadLocationFromAppPref(Context context, int appWidgetId)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        SharedPreferences prefs = getPrefs(context, appWidgetId);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_LOCATION;
         boolean enabled = prefs.getBoolean(prefs_prefix + PREF_KEY_LOCATION_FROMAPP, PREF_DEF_LOCATION_FROMAPP);
         return enabled;
     }
     public static void deleteLocationFromAppPref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_LOCATION;
         prefs.remove(prefs_prefix + PREF_KEY_LOCATION_FROMAPP);
         prefs.apply();
@@ -2440,7 +2449,7 @@ public class WidgetSettings
     }
     public static void saveTimezonePref(Context context, int appWidgetId, String timezone, String slotName)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String key = keyTimezonePref(appWidgetId, slotName);
         prefs.putString(key, timezone);
         prefs.apply();
@@ -2451,7 +2460,7 @@ public class WidgetSettings
     }
     public static String loadTimezonePref(Context context, int appWidgetId, @NonNull String slotName)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        SharedPreferences prefs = getPrefs(context, appWidgetId);
         String key = keyTimezonePref(appWidgetId, slotName);
         String defaultValue = defaultTimezonePref(context, appWidgetId, slotName);
         return prefs.getString(key, defaultValue);
@@ -2462,7 +2471,7 @@ public class WidgetSettings
     }
     public static void deleteTimezonePref(Context context, int appWidgetId, @NonNull String slotName)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String key = keyTimezonePref(appWidgetId, slotName);
         prefs.remove(key);
         prefs.apply();
@@ -2503,14 +2512,14 @@ public class WidgetSettings
 
     public static void saveTrackingModePref(Context context, int appWidgetId, WidgetSettings.TrackingMode mode)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.putString(prefs_prefix + PREF_KEY_GENERAL_TRACKINGMODE, mode.name());
         prefs.apply();
     }
     public static WidgetSettings.TrackingMode loadTrackingModePref(Context context, int appWidgetId)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        SharedPreferences prefs = getPrefs(context, appWidgetId);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         String modeString = prefs.getString(prefs_prefix + PREF_KEY_GENERAL_TRACKINGMODE, PREF_DEF_GENERAL_TRACKINGMODE.name());
 
@@ -2526,7 +2535,7 @@ public class WidgetSettings
     }
     public static void deleteTrackingModePref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.remove(prefs_prefix + PREF_KEY_GENERAL_TRACKINGMODE);
         prefs.apply();
@@ -2537,14 +2546,14 @@ public class WidgetSettings
 
     public static void saveCompareModePref(Context context, int appWidgetId, WidgetSettings.CompareMode mode)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.putString(prefs_prefix + PREF_KEY_GENERAL_COMPAREMODE, mode.name());
         prefs.apply();
     }
     public static WidgetSettings.CompareMode loadCompareModePref(Context context, int appWidgetId)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        SharedPreferences prefs = getPrefs(context, appWidgetId);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         String modeString = prefs.getString(prefs_prefix + PREF_KEY_GENERAL_COMPAREMODE, PREF_DEF_GENERAL_COMPAREMODE.name());
 
@@ -2560,7 +2569,7 @@ public class WidgetSettings
     }
     public static void deleteCompareModePref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.remove(prefs_prefix + PREF_KEY_GENERAL_COMPAREMODE);
         prefs.apply();
@@ -2571,20 +2580,20 @@ public class WidgetSettings
 
     public static void saveShowComparePref(Context context, int appWidgetId, boolean showCompare)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.putBoolean(prefs_prefix + PREF_KEY_GENERAL_SHOWCOMPARE, showCompare);
         prefs.apply();
     }
     public static boolean loadShowComparePref(Context context, int appWidgetId)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        SharedPreferences prefs = getPrefs(context, appWidgetId);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         return prefs.getBoolean(prefs_prefix + PREF_KEY_GENERAL_SHOWCOMPARE, PREF_DEF_GENERAL_SHOWCOMPARE);
     }
     public static void deleteShowComparePref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.remove(prefs_prefix + PREF_KEY_GENERAL_SHOWCOMPARE);
         prefs.apply();
@@ -2595,20 +2604,20 @@ public class WidgetSettings
 
     public static void saveShowNoonPref(Context context, int appWidgetId, boolean showNoon)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.putBoolean(prefs_prefix + PREF_KEY_GENERAL_SHOWNOON, showNoon);
         prefs.apply();
     }
     public static boolean loadShowNoonPref(Context context, int appWidgetId)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        SharedPreferences prefs = getPrefs(context, appWidgetId);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         return prefs.getBoolean(prefs_prefix + PREF_KEY_GENERAL_SHOWNOON, PREF_DEF_GENERAL_SHOWNOON);
     }
     public static void deleteShowNoonPref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.remove(prefs_prefix + PREF_KEY_GENERAL_SHOWNOON);
         prefs.apply();
@@ -2619,20 +2628,20 @@ public class WidgetSettings
 
     public static void saveShowWeeksPref(Context context, int appWidgetId, boolean showWeeks)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.putBoolean(prefs_prefix + PREF_KEY_GENERAL_SHOWWEEKS, showWeeks);
         prefs.apply();
     }
     public static boolean loadShowWeeksPref(Context context, int appWidgetId)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        SharedPreferences prefs = getPrefs(context, appWidgetId);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         return prefs.getBoolean(prefs_prefix + PREF_KEY_GENERAL_SHOWWEEKS, PREF_DEF_GENERAL_SHOWWEEKS);
     }
     public static void deleteShowWeeksPref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.remove(prefs_prefix + PREF_KEY_GENERAL_SHOWWEEKS);
         prefs.apply();
@@ -2643,20 +2652,20 @@ public class WidgetSettings
 
     public static void saveShowHoursPref(Context context, int appWidgetId, boolean showHours)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.putBoolean(prefs_prefix + PREF_KEY_GENERAL_SHOWHOURS, showHours);
         prefs.apply();
     }
     public static boolean loadShowHoursPref(Context context, int appWidgetId)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        SharedPreferences prefs = getPrefs(context, appWidgetId);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         return prefs.getBoolean(prefs_prefix + PREF_KEY_GENERAL_SHOWHOURS, PREF_DEF_GENERAL_SHOWHOURS);
     }
     public static void deleteShowHoursPref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.remove(prefs_prefix + PREF_KEY_GENERAL_SHOWHOURS);
         prefs.apply();
@@ -2665,20 +2674,20 @@ public class WidgetSettings
 
     public static void saveShowSecondsPref(Context context, int appWidgetId, boolean showSeconds)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.putBoolean(prefs_prefix + PREF_KEY_GENERAL_SHOWSECONDS, showSeconds);
         prefs.apply();
     }
     public static boolean loadShowSecondsPref(Context context, int appWidgetId)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        SharedPreferences prefs = getPrefs(context, appWidgetId);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         return prefs.getBoolean(prefs_prefix + PREF_KEY_GENERAL_SHOWSECONDS, PREF_DEF_GENERAL_SHOWSECONDS);
     }
     public static void deleteShowSecondsPref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.remove(prefs_prefix + PREF_KEY_GENERAL_SHOWSECONDS);
         prefs.apply();
@@ -2689,20 +2698,20 @@ public class WidgetSettings
 
     public static void saveShowTimeDatePref(Context context, int appWidgetId, boolean showTimeWithDates)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.putBoolean(prefs_prefix + PREF_KEY_GENERAL_SHOWTIMEDATE, showTimeWithDates);
         prefs.apply();
     }
     public static boolean loadShowTimeDatePref(Context context, int appWidgetId)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        SharedPreferences prefs = getPrefs(context, appWidgetId);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         return prefs.getBoolean(prefs_prefix + PREF_KEY_GENERAL_SHOWTIMEDATE, PREF_DEF_GENERAL_SHOWTIMEDATE);
     }
     public static void deleteShowTimeDatePref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.remove(prefs_prefix + PREF_KEY_GENERAL_SHOWTIMEDATE);
         prefs.apply();
@@ -2713,20 +2722,20 @@ public class WidgetSettings
 
     public static void saveLocalizeHemispherePref(Context context, int appWidgetId, boolean value)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.putBoolean(prefs_prefix + PREF_KEY_GENERAL_LOCALIZE_HEMISPHERE, value);
         prefs.apply();
     }
     public static boolean loadLocalizeHemispherePref(Context context, int appWidgetId)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        SharedPreferences prefs = getPrefs(context, appWidgetId);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         return prefs.getBoolean(prefs_prefix + PREF_KEY_GENERAL_LOCALIZE_HEMISPHERE, PREF_DEF_GENERAL_LOCALIZE_HEMISPHERE);
     }
     public static void deleteLocalizeHemispherePref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.remove(prefs_prefix + PREF_KEY_GENERAL_LOCALIZE_HEMISPHERE);
         prefs.apply();
@@ -2737,20 +2746,20 @@ public class WidgetSettings
 
     public static void saveObserverHeightPref(Context context, int appWidgetId, float meters)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.putFloat(prefs_prefix + PREF_KEY_GENERAL_OBSERVERHEIGHT, meters);
         prefs.apply();
     }
     public static float loadObserverHeightPref(Context context, int appWidgetId)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        SharedPreferences prefs = getPrefs(context, appWidgetId);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         return prefs.getFloat(prefs_prefix + PREF_KEY_GENERAL_OBSERVERHEIGHT, PREF_DEF_GENERAL_OBSERVERHEIGHT);
     }
     public static void deleteObserverHeightPref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.remove(prefs_prefix + PREF_KEY_GENERAL_OBSERVERHEIGHT);
         prefs.apply();
@@ -2761,7 +2770,7 @@ public class WidgetSettings
 
     public static void saveLengthUnitsPref(Context context, int appWidgetId, LengthUnit value)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.putString(prefs_prefix + PREF_KEY_GENERAL_UNITS_LENGTH, value.name());
         prefs.apply();
@@ -2769,10 +2778,10 @@ public class WidgetSettings
 
     public static LengthUnit loadLengthUnitsPref(Context context, int appWidgetId)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        SharedPreferences prefs = getPrefs(context, appWidgetId);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         String defaultValue = (appWidgetId == 0) ? PREF_DEF_GENERAL_UNITS_LENGTH.name()             // prefer the current app setting [0] as the default value
-                : prefs.getString(PREF_PREFIX_KEY + 0 + PREF_PREFIX_KEY_GENERAL + PREF_KEY_GENERAL_UNITS_LENGTH, PREF_DEF_GENERAL_UNITS_LENGTH.name());
+                : getPrefs(context, 0).getString(PREF_PREFIX_KEY + 0 + PREF_PREFIX_KEY_GENERAL + PREF_KEY_GENERAL_UNITS_LENGTH, PREF_DEF_GENERAL_UNITS_LENGTH.name());
         return getLengthUnit(prefs.getString(prefs_prefix + PREF_KEY_GENERAL_UNITS_LENGTH, defaultValue));
     }
 
@@ -2789,7 +2798,7 @@ public class WidgetSettings
 
     public static void deleteLengthUnitsPref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.remove(prefs_prefix + PREF_KEY_GENERAL_UNITS_LENGTH);
         prefs.apply();
@@ -2800,14 +2809,14 @@ public class WidgetSettings
 
     public static void saveTimeNoteRisePref(Context context, int appWidgetId, SolarEvents riseChoice)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.putString(prefs_prefix + PREF_KEY_GENERAL_TIMENOTE_RISE, riseChoice.name());
         prefs.apply();
     }
     public static SolarEvents loadTimeNoteRisePref(Context context, int appWidgetId)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        SharedPreferences prefs = getPrefs(context, appWidgetId);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         String modeString = prefs.getString(prefs_prefix + PREF_KEY_GENERAL_TIMENOTE_RISE, PREF_DEF_GENERAL_TIMENOTE_RISE.name());
 
@@ -2822,7 +2831,7 @@ public class WidgetSettings
     }
     public static void deleteTimeNoteRisePref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.remove(prefs_prefix + PREF_KEY_GENERAL_TIMENOTE_RISE);
         prefs.apply();
@@ -2833,14 +2842,14 @@ public class WidgetSettings
 
     public static void saveTimeNoteSetPref(Context context, int appWidgetId, SolarEvents setChoice)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.putString(prefs_prefix + PREF_KEY_GENERAL_TIMENOTE_SET, setChoice.name());
         prefs.apply();
     }
     public static SolarEvents loadTimeNoteSetPref(Context context, int appWidgetId)
     {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        SharedPreferences prefs = getPrefs(context, appWidgetId);
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         String modeString = prefs.getString(prefs_prefix + PREF_KEY_GENERAL_TIMENOTE_SET, PREF_DEF_GENERAL_TIMENOTE_SET.name());
 
@@ -2855,7 +2864,7 @@ public class WidgetSettings
     }
     public static void deleteTimeNoteSetPref(Context context, int appWidgetId)
     {
-        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_WIDGET, 0).edit();
+        SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.remove(prefs_prefix + PREF_KEY_GENERAL_TIMENOTE_SET);
         prefs.apply();
@@ -2866,6 +2875,15 @@ public class WidgetSettings
 
     public static void deletePrefs(Context context, int appWidgetId)
     {
+        if (appWidgetId != 0)
+        {
+            SharedPreferences.Editor prefs = getPrefs(context, appWidgetId).edit();    // the widget's settings are stored separately; a single write
+            prefs.clear();
+            prefs.apply();
+            WidgetActions.deletePrefs(context, appWidgetId);
+            return;
+        }
+
         deleteNextSuggestedUpdate(context, appWidgetId);
         deleteActionModePref(context, appWidgetId);
 
@@ -2923,6 +2941,117 @@ public class WidgetSettings
         WidgetActions.deletePrefs(context, appWidgetId);
     }
 
+    /**
+     * @param context a context used to access shared prefs
+     * @param appWidgetId the widgetID (0 for app)
+     * @return the SharedPreferences that store this widget's settings (the legacy PREFS_WIDGET if the settings
+     * couldn't be moved)
+     */
+    public static SharedPreferences getPrefs(Context context, int appWidgetId)
+    {
+        if (appWidgetId == 0) {
+            return context.getSharedPreferences(PREFS_WIDGET, 0);
+        }
+        if (!sharded && !shardsFailed) {
+            initShards(context);
+        }
+        return context.getSharedPreferences((sharded ? PREFS_WIDGET_SHARD + appWidgetId : PREFS_WIDGET), 0);
+    }
+    private static volatile boolean sharded = false;
+    private static volatile boolean shardsFailed = false;    // (not retried until the next launch)
+
+    /**
+     * Moves widget settings (appWidgetId != 0) out of the legacy PREFS_WIDGET file (once); after that
+     * a widget's writes only rewrite that widget's file, and reads only parse the widgets that are in use.
+     */
+    protected static synchronized void initShards(Context context)
+    {
+        SharedPreferences legacyPrefs = context.getSharedPreferences(PREFS_WIDGET, 0);
+        if (legacyPrefs.getInt(PREF_KEY_SHARDED, 0) >= PREF_DEF_SHARDED) {
+            sharded = true;
+            return;
+        }
+
+        HashMap<Integer, SharedPreferences.Editor> shards = new HashMap<>();
+        SharedPreferences.Editor legacy = legacyPrefs.edit();
+        for (Map.Entry<String, ?> entry : legacyPrefs.getAll().entrySet())
+        {
+            Integer appWidgetId = parseAppWidgetId(entry.getKey());
+            if (appWidgetId == null || appWidgetId == 0) {
+                continue;
+            }
+
+            SharedPreferences.Editor shard = shards.get(appWidgetId);
+            if (shard == null) {
+                shards.put(appWidgetId, shard = context.getSharedPreferences(PREFS_WIDGET_SHARD + appWidgetId, 0).edit());
+            }
+            if (putValue(shard, entry.getKey(), entry.getValue())) {
+                legacy.remove(entry.getKey());
+            }
+        }
+
+        boolean committed = true;
+        for (SharedPreferences.Editor shard : shards.values()) {
+            committed = shard.commit() && committed;    // the shards must be written before the legacy values are removed
+        }
+        if (committed)
+        {
+            legacy.putInt(PREF_KEY_SHARDED, PREF_DEF_SHARDED);
+            committed = legacy.commit();
+        }
+
+        if (committed)
+        {
+            sharded = true;
+            Log.i("WidgetSettings", "initShards: moved settings for " + shards.size() + " widgets.");
+
+        } else {
+            shardsFailed = true;
+            Log.e("WidgetSettings", "initShards: failed to write widget settings; keeping legacy prefs.");
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static boolean putValue(SharedPreferences.Editor prefs, String key, Object value)
+    {
+        if (value instanceof String) {
+            prefs.putString(key, (String) value);
+        } else if (value instanceof Boolean) {
+            prefs.putBoolean(key, (Boolean) value);
+        } else if (value instanceof Integer) {
+            prefs.putInt(key, (Integer) value);
+        } else if (value instanceof Long) {
+            prefs.putLong(key, (Long) value);
+        } else if (value instanceof Float) {
+            prefs.putFloat(key, (Float) value);
+        } else if (value instanceof Set) {
+            WidgetActions.putStringSet(prefs, key, (Set<String>) value);
+        } else return false;
+        return true;
+    }
+
+    /**
+     * @param key a preference key (PREF_PREFIX_KEY + appWidgetId + ...)
+     * @return the appWidgetId, or null if the key isn't a widget setting
+     */
+    @Nullable
+    public static Integer parseAppWidgetId(@Nullable String key)
+    {
+        if (key == null || !key.startsWith(PREF_PREFIX_KEY)) {
+            return null;
+        }
+        int i = PREF_PREFIX_KEY.length();
+        int j = (i < key.length() && key.charAt(i) == '-') ? i + 1 : i;
+        while (j < key.length() && Character.isDigit(key.charAt(j))) {
+            j++;
+        }
+        try {
+            return Integer.parseInt(key.substring(i, j));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
     public static void initDefaults( Context context )
     {
         PREF_DEF_LOCATION_LABEL = context.getString(R.string.default_location_label);
@@ -100,6 +100,7 @@ public class WidgetThemePreview
         this.appWidgetId = appWidgetId;
         data0 = new SuntimesRiseSetDataset(context, appWidgetId);  // use app configuration
         data0.calculateData();
+        data0.calculatePending();    // shared with the map tasks
 
         data1 = data0.dataActual;
         SuntimesRiseSetData noonData = new SuntimesRiseSetData(data1);
@@ -0,0 +1,337 @@
+/**
+    Copyright (C) 2022 Forrest Guice
+    This file is part of SuntimesWidget.
+
+    SuntimesWidget is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SuntimesWidget is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SuntimesWidget.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.forrestguice.suntimeswidget.calculator;
+
+import com.forrestguice.suntimeswidget.calculator.core.Location;
+import com.forrestguice.suntimeswidget.calculator.core.SuntimesCalculator;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.SimpleTimeZone;
+import java.util.TimeZone;
+
+/**
+ * Sweeps a grid of locations and dates through a set of calculators, recording per-call latency and the
+ * difference from a reference calculator. Results can be written as CSV (one row per call) or as an
+ * HTML summary (one row per calculator and event).
+ *
+ * Calculators are created directly from their descriptor (without a Context), so the comparison runs
+ * as a local (JVM) unit test.
+ */
+public class CalculatorComparison
+{
+    public static final double[] LATITUDES = new double[] { -78, -66, -45, -15, 0, 15, 33.45, 45, 60, 66, 69.65, 78 };
+    public static final double[] LONGITUDES = new double[] { -157.86, -111.95, 0, 18.96, 151.21 };
+    public static final int[] ALTITUDES = new int[] { 0, 1500 };
+    public static final int YEAR = 2022;
+    public static final int DAY_OF_MONTH = 21;
+
+    public static final double POLAR_LATITUDE = 60;
+
+    /**
+     * @return the built-in calculators (@see SuntimesCalculatorDescriptor.initCalculators)
+     */
+    public static SuntimesCalculatorDescriptor[] descriptors()
+    {
+        return new SuntimesCalculatorDescriptor[] {
+                com.forrestguice.suntimeswidget.calculator.sunrisesunset_java.SunriseSunsetSuntimesCalculator.getDescriptor(),
+                com.forrestguice.suntimeswidget.calculator.ca.rmen.sunrisesunset.SunriseSunsetSuntimesCalculator.getDescriptor(),
+                com.forrestguice.suntimeswidget.calculator.time4a.Time4ASimpleSuntimesCalculator.getDescriptor(),
+                com.forrestguice.suntimeswidget.calculator.time4a.Time4ANOAASuntimesCalculator.getDescriptor(),
+                com.forrestguice.suntimeswidget.calculator.time4a.Time4ACCSuntimesCalculator.getDescriptor(),
+                com.forrestguice.suntimeswidget.calculator.time4a.Time4A4JSuntimesCalculator.getDescriptor(),
+                com.forrestguice.suntimeswidget.calculator.noaa.NOAASuntimesCalculator.getDescriptor()
+        };
+    }
+
+    public static final String[] EVENTS = new String[] {
+            "astro rise", "nautical rise", "civil rise", "sunrise", "noon", "sunset", "civil set", "nautical set", "astro set",
+            "golden morning", "golden evening"
+    };
+
+    protected static Calendar event(SuntimesCalculator calculator, int event, Calendar date)
+    {
+        switch (event)
+        {
+            case 0: return calculator.getAstronomicalSunriseCalendarForDate(date);
+            case 1: return calculator.getNauticalSunriseCalendarForDate(date);
+            case 2: return calculator.getCivilSunriseCalendarForDate(date);
+            case 3: return calculator.getOfficialSunriseCalendarForDate(date);
+            case 4: return calculator.getSolarNoonCalendarForDate(date);
+            case 5: return calculator.getOfficialSunsetCalendarForDate(date);
+            case 6: return calculator.getCivilSunsetCalendarForDate(date);
+            case 7: return calculator.getNauticalSunsetCalendarForDate(date);
+            case 8: return calculator.getAstronomicalSunsetCalendarForDate(date);
+            case 9: return calculator.getMorningGoldenHourForDate(date);
+            case 10: default: return calculator.getEveningGoldenHourForDate(date);
+        }
+    }
+
+    protected static boolean supportsEvent(SuntimesCalculatorDescriptor descriptor, int event)
+    {
+        if (event >= 9) {
+            return descriptor.hasRequestedFeature(SuntimesCalculator.FEATURE_GOLDBLUE);
+        } else return descriptor.hasRequestedFeature(SuntimesCalculator.FEATURE_RISESET);
+    }
+
+    /**
+     * A single call (one calculator, location, date, and event).
+     */
+    public static class Result
+    {
+        public String calculator;
+        public Location location;
+        public long date;
+        public int event;
+        public long latencyNanos;
+        public Long eventMillis;        // null if the event doesn't occur (or the call failed)
+        public Long deltaMillis;        // difference from the reference; null if either is missing
+        public boolean polar;           // polar latitude and the reference event is missing (polar day/night)
+        public boolean mismatch;        // only one of this result and the reference has the event
+        public boolean failed;          // the call threw an exception
+    }
+
+    /**
+     * Aggregates results for one calculator and event.
+     */
+    public static class Summary
+    {
+        public String calculator;
+        public int event;
+        public int calls, compared, polar, mismatched, failed;
+        public long totalNanos, maxAbsDeltaMillis;
+        public double sumAbsDeltaMillis;
+
+        public void add(Result result)
+        {
+            calls++;
+            totalNanos += result.latencyNanos;
+            if (result.deltaMillis != null)
+            {
+                long delta = Math.abs(result.deltaMillis);
+                compared++;
+                sumAbsDeltaMillis += delta;
+                maxAbsDeltaMillis = Math.max(maxAbsDeltaMillis, delta);
+            }
+            polar += (result.polar ? 1 : 0);
+            mismatched += (result.mismatch ? 1 : 0);
+            failed += (result.failed ? 1 : 0);
+        }
+
+        public double meanLatencyMicros() {
+            return (calls > 0 ? (totalNanos / 1000d) / calls : 0);
+        }
+        public double meanAbsDeltaSeconds() {
+            return (compared > 0 ? (sumAbsDeltaMillis / 1000d) / compared : 0);
+        }
+    }
+
+    private final SuntimesCalculatorDescriptor[] descriptors;
+    private final int referenceIndex;
+
+    /**
+     * @param reference the calculator other results are compared against
+     * @param descriptors the calculators to compare (the reference is added if it isn't already in the list)
+     */
+    public CalculatorComparison(SuntimesCalculatorDescriptor reference, SuntimesCalculatorDescriptor[] descriptors)
+    {
+        int i = indexOf(descriptors, reference.getName());
+        if (i < 0)
+        {
+            SuntimesCalculatorDescriptor[] values = new SuntimesCalculatorDescriptor[descriptors.length + 1];
+            System.arraycopy(descriptors, 0, values, 0, descriptors.length);
+            values[descriptors.length] = reference;
+            this.descriptors = values;
+            this.referenceIndex = descriptors.length;
+
+        } else {
+            this.descriptors = descriptors;
+            this.referenceIndex = i;
+        }
+    }
+
+    private static int indexOf(SuntimesCalculatorDescriptor[] descriptors, String name)
+    {
+        for (int i=0; i<descriptors.length; i++) {
+            if (descriptors[i].getName().equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return a calculator for the descriptor, or null if it can't be created
+     */
+    protected static SuntimesCalculator createCalculator(SuntimesCalculatorDescriptor descriptor, Location location, TimeZone timezone)
+    {
+        try {
+            SuntimesCalculator calculator = (SuntimesCalculator) Class.forName(descriptor.getReference()).newInstance();
+            calculator.init(location, timezone);
+            return calculator;
+
+        } catch (Exception e) {
+            System.err.println("CalculatorComparison: " + descriptor.getName() + ": failed to create calculator! " + e);
+            return null;
+        }
+    }
+
+    public static List<Location> locations()
+    {
+        List<Location> locations = new ArrayList<>();
+        for (double latitude : LATITUDES) {
+            for (double longitude : LONGITUDES) {
+                for (int altitude : ALTITUDES) {
+                    locations.add(new Location(latitude + "," + longitude, Double.toString(latitude), Double.toString(longitude), Integer.toString(altitude)));
+                }
+            }
+        }
+        return locations;
+    }
+
+    /**
+     * @return a timezone near the location's mean solar time (so calculators agree on which day an event belongs to)
+     */
+    public static TimeZone timezone(Location location)
+    {
+        int hours = (int) Math.round(location.getLongitudeAsDouble() / 15d);
+        return new SimpleTimeZone(hours * 60 * 60 * 1000, String.format(Locale.US, "GMT%+03d:00", hours));
+    }
+
+    public List<Result> run()
+    {
+        List<Result> results = new ArrayList<>();
+        for (Location location : locations())
+        {
+            TimeZone timezone = timezone(location);
+            SuntimesCalculator[] calculators = new SuntimesCalculator[descriptors.length];
+            for (int i=0; i<descriptors.length; i++) {
+                calculators[i] = createCalculator(descriptors[i], location, timezone);
+            }
+
+            Calendar date = Calendar.getInstance(timezone);
+            for (int month = Calendar.JANUARY; month <= Calendar.DECEMBER; month++)
+            {
+                date.set(YEAR, month, DAY_OF_MONTH, 12, 0, 0);
+                for (int event=0; event<EVENTS.length; event++)
+                {
+                    Result[] eventResults = new Result[calculators.length];
+                    for (int i=0; i<calculators.length; i++)
+                    {
+                        if (calculators[i] == null || !supportsEvent(descriptors[i], event)) {
+                            continue;
+                        }
+
+                        Result result = eventResults[i] = new Result();
+                        result.calculator = descriptors[i].getName();
+                        result.location = location;
+                        result.date = date.getTimeInMillis();
+                        result.event = event;
+
+                        Calendar actual = call(calculators[i], event, date, result);
+                        result.eventMillis = (actual != null ? actual.getTimeInMillis() : null);
+                    }
+
+                    Long expected = (eventResults[referenceIndex] != null ? eventResults[referenceIndex].eventMillis : null);    // (the reference is called once, with the others)
+                    for (Result result : eventResults)
+                    {
+                        if (result != null)
+                        {
+                            result.deltaMillis = (result.eventMillis != null && expected != null ? result.eventMillis - expected : null);
+                            result.polar = (expected == null && Math.abs(location.getLatitudeAsDouble()) >= POLAR_LATITUDE);
+                            result.mismatch = ((result.eventMillis == null) != (expected == null));
+                            results.add(result);
+                        }
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    private static Calendar call(SuntimesCalculator calculator, int event, Calendar date, Result result)
+    {
+        long startNanos = System.nanoTime();
+        try {
+            return event(calculator, event, date);
+
+        } catch (Exception e) {
+            System.err.println("CalculatorComparison: " + calculator.name() + ": " + EVENTS[event] + " failed! " + e);
+            result.failed = true;
+            return null;
+
+        } finally {
+            result.latencyNanos = System.nanoTime() - startNanos;
+        }
+    }
+
+    /**
+     * @return summaries keyed by calculator name + event (in insertion order)
+     */
+    public static LinkedHashMap<String, Summary> summarize(List<Result> results)
+    {
+        LinkedHashMap<String, Summary> summaries = new LinkedHashMap<>();
+        for (Result result : results)
+        {
+            String key = result.calculator + "|" + result.event;
+            Summary summary = summaries.get(key);
+            if (summary == null)
+            {
+                summary = new Summary();
+                summary.calculator = result.calculator;
+                summary.event = result.event;
+                summaries.put(key, summary);
+            }
+            summary.add(result);
+        }
+        return summaries;
+    }
+
+    public static void writeCSV(Writer out, List<Result> results) throws IOException
+    {
+        out.write("calculator,latitude,longitude,altitude,date,event,latencyNanos,eventMillis,deltaMillis,polar,mismatch,failed\n");
+        for (Result result : results)
+        {
+            out.write(result.calculator + "," + result.location.getLatitude() + "," + result.location.getLongitude() + "," + result.location.getAltitudeAsInteger() + ","
+                    + result.date + "," + EVENTS[result.event] + "," + result.latencyNanos + ","
+                    + (result.eventMillis != null ? result.eventMillis : "") + "," + (result.deltaMillis != null ? result.deltaMillis : "") + ","
+                    + result.polar + "," + result.mismatch + "," + result.failed + "\n");
+        }
+    }
+
+    public static void writeHTML(Writer out, String referenceName, LinkedHashMap<String, Summary> summaries) throws IOException
+    {
+        out.write("<html><head><title>Calculator Comparison</title></head><body>\n");
+        out.write("<h1>Calculator Comparison</h1>\n");
+        out.write("<p>Reference: " + referenceName + "; " + locations().size() + " locations, 12 dates (" + YEAR + ")</p>\n");
+        out.write("<table border=\"1\">\n<tr><th>calculator</th><th>event</th><th>calls</th><th>mean latency (&micro;s)</th><th>mean |delta| (s)</th><th>max |delta| (s)</th><th>polar</th><th>mismatched</th><th>failed</th></tr>\n");
+        for (Summary summary : summaries.values())
+        {
+            out.write(String.format(Locale.US, "<tr><td>%s</td><td>%s</td><td>%d</td><td>%.1f</td><td>%.1f</td><td>%.1f</td><td>%d</td><td>%d</td><td>%d</td></tr>\n",
+                    summary.calculator, EVENTS[summary.event], summary.calls, summary.meanLatencyMicros(), summary.meanAbsDeltaSeconds(), summary.maxAbsDeltaMillis / 1000d,
+                    summary.polar, summary.mismatched, summary.failed));
+        }
+        out.write("</table>\n</body></html>\n");
+    }
+}
@@ -0,0 +1,114 @@
+/**
+    Copyright (C) 2022 Forrest Guice
+    This file is part of SuntimesWidget.
+
+    SuntimesWidget is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SuntimesWidget is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SuntimesWidget.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.forrestguice.suntimeswidget.calculator;
+
+import com.forrestguice.suntimeswidget.calculator.core.SuntimesCalculator;
+import com.forrestguice.suntimeswidget.calculator.time4a.Time4A4JSuntimesCalculator;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compares every built-in calculator against Time4A4J (a local unit test; no device required):
+ *     ./gradlew testDebugUnitTest --tests '*CalculatorComparisonTest'
+ * The report is written to app/build/reports/calculator-comparison/.
+ */
+public class CalculatorComparisonTest
+{
+    public static final File REPORT_DIR = new File("build/reports/calculator-comparison");    // relative to the module directory
+    public static final long TOLERANCE_MILLIS = 5 * 60 * 1000;    // max |delta| from the reference (sea level, below POLAR_LATITUDE)
+
+    @Test
+    public void test_compare() throws IOException
+    {
+        SuntimesCalculatorDescriptor reference = Time4A4JSuntimesCalculator.getDescriptor();
+        SuntimesCalculatorDescriptor[] descriptors = CalculatorComparison.descriptors();
+        CalculatorComparison comparison = new CalculatorComparison(reference, descriptors);
+
+        comparison.run();    // warm up
+        List<CalculatorComparison.Result> results = comparison.run();
+        LinkedHashMap<String, CalculatorComparison.Summary> summaries = CalculatorComparison.summarize(results);
+
+        for (CalculatorComparison.Summary summary : summaries.values())
+        {
+            if (summary.calculator.equals(reference.getName())) {
+                assertTrue("reference should not fail", summary.failed == 0);
+                assertTrue("reference should match itself", summary.maxAbsDeltaMillis == 0 && summary.mismatched == 0);
+            }
+            System.out.println("CalculatorComparison: " + summary.calculator + ": " + CalculatorComparison.EVENTS[summary.event] + ": " + summary.meanLatencyMicros() + "us, "
+                    + summary.meanAbsDeltaSeconds() + "s (max " + (summary.maxAbsDeltaMillis / 1000d) + "s), polar " + summary.polar + ", mismatched " + summary.mismatched);
+        }
+        for (SuntimesCalculatorDescriptor descriptor : descriptors)
+        {
+            if (descriptor.hasRequestedFeature(SuntimesCalculator.FEATURE_RISESET)) {
+                assertTrue(descriptor.getName() + " should have results", summaries.containsKey(descriptor.getName() + "|3"));
+            }
+        }
+
+        // every calculator should be close to the reference, except near the poles (events near the polar day/night
+        // threshold are sensitive to small differences) and at altitude (not every calculator supports it)
+        HashMap<String, CalculatorComparison.Result> maxDelta = new HashMap<>();
+        for (CalculatorComparison.Result result : results)
+        {
+            if (result.deltaMillis == null || result.location.getAltitudeAsInteger() != 0
+                    || Math.abs(result.location.getLatitudeAsDouble()) >= CalculatorComparison.POLAR_LATITUDE) {
+                continue;
+            }
+            CalculatorComparison.Result max = maxDelta.get(result.calculator);
+            if (max == null || Math.abs(result.deltaMillis) > Math.abs(max.deltaMillis)) {
+                maxDelta.put(result.calculator, result);
+            }
+        }
+        for (CalculatorComparison.Result max : maxDelta.values())
+        {
+            assertTrue(max.calculator + ": " + CalculatorComparison.EVENTS[max.event] + " at " + max.location.getLabel() + " differs from the reference by " + max.deltaMillis + "ms",
+                    Math.abs(max.deltaMillis) <= TOLERANCE_MILLIS);
+        }
+
+        assertTrue("Failed to create " + REPORT_DIR, REPORT_DIR.isDirectory() || REPORT_DIR.mkdirs());
+
+        File csvFile = new File(REPORT_DIR, "results.csv");
+        Writer csv = new FileWriter(csvFile);
+        try {
+            CalculatorComparison.writeCSV(csv, results);
+        } finally {
+            csv.close();
+        }
+
+        File htmlFile = new File(REPORT_DIR, "summary.html");
+        Writer html = new FileWriter(htmlFile);
+        try {
+            CalculatorComparison.writeHTML(html, reference.getName(), summaries);
+        } finally {
+            html.close();
+        }
+
+        assertTrue(csvFile.exists() && htmlFile.exists());
+        System.out.println("CalculatorComparison: report written to " + REPORT_DIR.getAbsolutePath());
+    }
+}